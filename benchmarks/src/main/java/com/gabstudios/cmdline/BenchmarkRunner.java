@@ -0,0 +1,64 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so the allocation rate of each
+ * benchmark is reported with its time. The arguments are the JMH command line
+ * options, such as a regex of the benchmarks to run.
+ *
+ * java -jar target/benchmarks.jar ParseBenchmark -rf json -rff baseline.json
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class BenchmarkRunner {
+
+	/**
+	 * Runs the benchmarks.
+	 *
+	 * @param args
+	 *            The JMH command line options.
+	 * @throws CommandLineOptionException
+	 *             If an option is not valid.
+	 * @throws RunnerException
+	 *             If a benchmark fails.
+	 */
+	public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+		final Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+
+	/*
+	 * Constructor.
+	 */
+	private BenchmarkRunner() {
+		// void - do nothing.
+	}
+}
@@ -0,0 +1,88 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Measures the definition of 10, 1k and 100k commands with
+ * CmdLine.defineCommand(...) and with a CmdLineParser.Builder.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class DefineCommandBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	public int _count;
+
+	/*
+	 * The definitions.
+	 */
+	private String[] _definitions;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		this._definitions = Workload.createDefinitions(this._count);
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		CmdLine.clear();
+	}
+
+	@Benchmark
+	public CmdLineParser builderDefineCommand() {
+		final CmdLineParser.Builder builder = CmdLineParser.builder();
+		for (final String definition : this._definitions) {
+			builder.defineCommand(definition);
+		}
+		return (builder.build());
+	}
+
+	@Benchmark
+	public CmdLine cmdLineDefineCommand() {
+		CmdLine.clear();
+		CmdLine cmdLine = null;
+		for (final String definition : this._definitions) {
+			cmdLine = CmdLine.defineCommand(definition);
+		}
+		return (cmdLine);
+	}
+}
@@ -0,0 +1,122 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/*
+ * Measures a parse from the args to the listener. CmdLine.parse(...) uses the
+ * same CmdLineParser, but it also keeps every Command that it has parsed, so
+ * repeated calls would measure the growth of that list. The parser is
+ * measured instead, from the args and from the same args as a whole line.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+
+	@Param({ "16", "256" })
+	public int _argCount;
+
+	@Param({ "100" })
+	public int _commandCount;
+
+	@Param({ "value", "list", "equals", "commas", "mixed" })
+	public String _shape;
+
+	/*
+	 * The args of the command line.
+	 */
+	private String[] _args;
+
+	/*
+	 * The definitions.
+	 */
+	private String[] _definitions;
+
+	/*
+	 * The args joined into a whole command line.
+	 */
+	private String _line;
+
+	/*
+	 * A listener that passes each Command to the Blackhole.
+	 */
+	private CommandListener _listener;
+
+	/*
+	 * The parser.
+	 */
+	private CmdLineParser _parser;
+
+	@Setup(Level.Trial)
+	public void setUp(final Blackhole blackhole) {
+		this._args = Workload.createArgs(this._shape, this._commandCount, this._argCount);
+		this._line = String.join(" ", this._args);
+		this._definitions = Workload.createDefinitions(this._commandCount);
+		this._listener = new CommandListener() {
+
+			@Override
+			public void handle(final Command command) {
+				blackhole.consume(command);
+			}
+		};
+
+		final ParseLimits limits = ParseLimits.builder().setMaxTokenCount(this._argCount * 8)
+				.setMaxListSize(this._argCount * 8).build();
+
+		final CmdLineParser.Builder builder = CmdLineParser.builder().setLimits(limits);
+		for (final String definition : this._definitions) {
+			builder.defineCommand(definition);
+		}
+		this._parser = builder.build();
+	}
+
+	@Benchmark
+	public List<Command> parserParse() {
+		return (this._parser.parse(this._args, this._listener));
+	}
+
+	@Benchmark
+	public List<Command> parserParseLine() {
+		return (this._parser.parse(this._line, this._listener));
+	}
+}
@@ -0,0 +1,120 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Measures the word suggestions for tokens that are not defined. The
+ * SuggestionIndex is measured on its own, and through a parse that throws the
+ * UnsupportedException with the suggestions.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SuggestionBenchmark {
+
+	/*
+	 * The number of unknown tokens that are cycled through.
+	 */
+	private static final int TOKEN_COUNT = 1024;
+
+	@Param({ "10", "1000", "100000" })
+	public int _commandCount;
+
+	/*
+	 * The index of the next unknown token.
+	 */
+	private int _index;
+
+	/*
+	 * The parser.
+	 */
+	private CmdLineParser _parser;
+
+	/*
+	 * The index of the command names.
+	 */
+	private SuggestionIndex _suggestionIndex;
+
+	/*
+	 * The unknown tokens.
+	 */
+	private String[] _unknownTokens;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final String[] names = Workload.createCommandNames(this._commandCount);
+		this._unknownTokens = Workload.createUnknownTokens(names, SuggestionBenchmark.TOKEN_COUNT);
+
+		this._suggestionIndex = new SuggestionIndex(Arrays.asList(names));
+
+		final CmdLineParser.Builder builder = CmdLineParser.builder();
+		for (final String definition : Workload.createDefinitions(this._commandCount)) {
+			builder.defineCommand(definition);
+		}
+		this._parser = builder.build();
+	}
+
+	/*
+	 * Gets the next unknown token.
+	 */
+	private String nextToken() {
+		final String token = this._unknownTokens[this._index];
+		this._index = (this._index + 1) & (SuggestionBenchmark.TOKEN_COUNT - 1);
+		return (token);
+	}
+
+	@Benchmark
+	public List<String> parseUnknownCommand() {
+		try {
+			this._parser.parse(new String[] { this.nextToken() });
+			throw (new IllegalStateException("The token should not be defined."));
+		} catch (final UnsupportedException e) {
+			return (e.getSuggestionList());
+		}
+	}
+
+	@Benchmark
+	public List<String> suggest() {
+		return (this._suggestionIndex.suggest(this.nextToken()));
+	}
+}
@@ -0,0 +1,108 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Measures the CommandLineTokenizer across the shapes of a command line and
+ * the DefinedCommandTokenizer across the definitions.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenizerBenchmark {
+
+	@Param({ "16", "256" })
+	public int _argCount;
+
+	@Param({ "value", "list", "equals", "commas", "mixed" })
+	public String _shape;
+
+	/*
+	 * The args of the command line.
+	 */
+	private String[] _args;
+
+	/*
+	 * The tokenizer of the command line.
+	 */
+	private CommandLineTokenizer _commandLineTokenizer;
+
+	/*
+	 * The definition, split the way defineCommand(String) splits it.
+	 */
+	private String[] _definition;
+
+	/*
+	 * The tokenizer of the definitions.
+	 */
+	private DefinedCommandTokenizer _definedCommandTokenizer;
+
+	/*
+	 * A buffer that is reused by each tokenize.
+	 */
+	private TokenBuffer _tokenBuffer;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this._args = Workload.createArgs(this._shape, 100, this._argCount);
+		this._definition = Workload.createDefinitions(1)[0].split("\\s*,\\s*");
+		this._commandLineTokenizer = new CommandLineTokenizer();
+		this._definedCommandTokenizer = new DefinedCommandTokenizer();
+		this._tokenBuffer = new TokenBuffer();
+	}
+
+	@Benchmark
+	public List<String> tokenizeCommandLine() {
+		return (this._commandLineTokenizer.tokenize(this._args));
+	}
+
+	@Benchmark
+	public int tokenizeCommandLineIntoBuffer() {
+		this._commandLineTokenizer.tokenize(this._args, this._tokenBuffer);
+		return (this._tokenBuffer.size());
+	}
+
+	@Benchmark
+	public List<Token> tokenizeDefinition() {
+		return (this._definedCommandTokenizer.tokenize(this._definition));
+	}
+}
@@ -0,0 +1,136 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Creates the synthetic command definitions and command lines that the
+ * benchmarks use. The same seed always creates the same workload, so the
+ * results of two runs can be compared.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class Workload {
+
+	/*
+	 * The shapes of a command line.
+	 *
+	 * value = -c1 value -c2 value
+	 *
+	 * list = -c1 value option -c2 value option
+	 *
+	 * equals = --command1=value --command2=value
+	 *
+	 * commas = -c1=value,option,option,option
+	 *
+	 * mixed = all of the above and -D<property>=<value>
+	 */
+	static final String[] SHAPES = { "value", "list", "equals", "commas", "mixed" };
+
+	/*
+	 * The seed of the random values.
+	 */
+	private static final long SEED = 0x5EEDL;
+
+	/*
+	 * Creates the args of a command line of the shape. Each arg uses one of the
+	 * first commandCount commands that createDefinitions(...) defines. The last
+	 * command is not cut short, so there may be a few more than argCount args.
+	 */
+	static String[] createArgs(final String shape, final int commandCount, final int argCount) {
+		assert (commandCount > 0) : "The parameter 'commandCount' must be greater than 0";
+		assert (argCount > 0) : "The parameter 'argCount' must be greater than 0";
+
+		final Random random = new Random(Workload.SEED);
+		final List<String> args = new ArrayList<String>(argCount);
+		while (args.size() < argCount) {
+			final int command = random.nextInt(commandCount);
+			final String kind = "mixed".equals(shape) ? Workload.SHAPES[random.nextInt(Workload.SHAPES.length)]
+					: shape;
+			if ("value".equals(kind)) {
+				args.add("-c" + command);
+				args.add("value" + random.nextInt(1000));
+			} else if ("list".equals(kind)) {
+				args.add("-c" + command);
+				args.add("value" + random.nextInt(1000));
+				args.add("option" + random.nextInt(1000));
+			} else if ("equals".equals(kind)) {
+				args.add("--command" + command + "=value" + random.nextInt(1000));
+			} else if ("commas".equals(kind)) {
+				args.add("-c" + command + "=value" + random.nextInt(1000) + ",option" + random.nextInt(1000)
+						+ ",option" + random.nextInt(1000) + ",option" + random.nextInt(1000));
+			} else {
+				args.add("-Dbenchmark.property" + random.nextInt(10) + "=" + random.nextInt(1000));
+			}
+		}
+		return (args.toArray(new String[args.size()]));
+	}
+
+	/*
+	 * Creates the names of the commands that createDefinitions(...) defines.
+	 */
+	static String[] createCommandNames(final int count) {
+		final String[] names = new String[count * 2];
+		for (int i = 0; i < count; i++) {
+			names[i * 2] = "-c" + i;
+			names[(i * 2) + 1] = "--command" + i;
+		}
+		return (names);
+	}
+
+	/*
+	 * Creates the definitions of count commands. Each command has a short and a
+	 * long name, a required value, an optional list and a description.
+	 */
+	static String[] createDefinitions(final int count) {
+		final String[] definitions = new String[count];
+		for (int i = 0; i < count; i++) {
+			definitions[i] = "-c" + i + ", --command" + i + ", !value" + i + ", ?options" + i
+					+ "..., #The synthetic command " + i;
+		}
+		return (definitions);
+	}
+
+	/*
+	 * Creates tokens that are not defined. Each one is a defined name with a
+	 * char replaced, so it has suggestions.
+	 */
+	static String[] createUnknownTokens(final String[] names, final int count) {
+		final Random random = new Random(Workload.SEED);
+		final String[] tokens = new String[count];
+		for (int i = 0; i < count; i++) {
+			final char[] chars = names[random.nextInt(names.length)].toCharArray();
+			chars[1 + random.nextInt(chars.length - 1)] = 'z';
+			tokens[i] = new String(chars) + "z";
+		}
+		return (tokens);
+	}
+
+	/*
+	 * Constructor.
+	 */
+	private Workload() {
+		// void - do nothing.
+	}
+}
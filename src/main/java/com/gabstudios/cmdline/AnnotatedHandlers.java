@@ -0,0 +1,263 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * This class finds the methods of a handler object that are marked with
+ * OnCommand, and binds each of them to a CommandListener. The methods are found
+ * with reflection once, the listeners call them without reflection.
+ *
+ * A public method of a public class that the parser's class loader can see is
+ * bound with LambdaMetafactory, so the call is as cheap as a lambda. Any other
+ * method is bound to a MethodHandle.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class AnnotatedHandlers {
+
+	/*
+	 * Calls a handler method through a MethodHandle.
+	 */
+	private static final class MethodHandleListener implements CommandListener {
+
+		/*
+		 * The handle of the method. Its type is (Command)void.
+		 */
+		private final MethodHandle _handle;
+
+		/*
+		 * The method. Used in messages.
+		 */
+		private final Method _method;
+
+		/*
+		 * Constructor.
+		 */
+		MethodHandleListener(final MethodHandle handle, final Method method) {
+			this._handle = handle;
+			this._method = method;
+		}
+
+		@Override
+		public void handle(final Command command) {
+			try {
+				this._handle.invokeExact(command);
+			} catch (final RuntimeException e) {
+				throw (e);
+			} catch (final Error e) {
+				throw (e);
+			} catch (final Throwable e) {
+				throw (new DispatchException("Error:  The handler '" + this._method.getName() + "' of the command '"
+						+ command.getName() + "' failed.", command, e));
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return String.format("MethodHandleListener [_method=%s]", this._method);
+		}
+	}
+
+	/*
+	 * The type of the method of a CommandListener.
+	 */
+	private static final MethodType HANDLE_TYPE = MethodType.methodType(void.class, Command.class);
+
+	/*
+	 * Binds the method to a listener with LambdaMetafactory. The factory of
+	 * the call site only creates the listener, so it can not throw a checked
+	 * exception.
+	 */
+	private static CommandListener bindLambda(final MethodHandles.Lookup lookup, final Object handler,
+			final Method method) throws IllegalAccessException, LambdaConversionException {
+		final MethodHandle target = lookup.unreflect(method);
+		final boolean isStatic = Modifier.isStatic(method.getModifiers());
+
+		final MethodType factoryType = (isStatic ? MethodType.methodType(CommandListener.class)
+				: MethodType.methodType(CommandListener.class, method.getDeclaringClass()));
+		final CallSite site = LambdaMetafactory.metafactory(lookup, "handle", factoryType,
+				AnnotatedHandlers.HANDLE_TYPE, target, AnnotatedHandlers.HANDLE_TYPE);
+
+		try {
+			return (isStatic ? (CommandListener) site.getTarget().invoke()
+					: (CommandListener) site.getTarget().invoke(handler));
+		} catch (final RuntimeException | Error e) {
+			throw (e);
+		} catch (final Throwable e) {
+			throw (new IllegalStateException(
+					"Error: The handler '" + method.getName() + "' could not be created.", e));
+		}
+	}
+
+	/*
+	 * Binds the method to a listener with a MethodHandle.
+	 */
+	private static CommandListener bindMethodHandle(final MethodHandles.Lookup lookup, final Object handler,
+			final Method method) throws IllegalAccessException {
+		method.setAccessible(true);
+
+		MethodHandle handle = lookup.unreflect(method);
+		if (!Modifier.isStatic(method.getModifiers())) {
+			handle = handle.bindTo(handler);
+		}
+		return (new MethodHandleListener(handle.asType(AnnotatedHandlers.HANDLE_TYPE), method));
+	}
+
+	/*
+	 * Finds the methods of the handler that are marked with OnCommand. Returns
+	 * the listener of each command name, in the order the methods were found.
+	 */
+	static Map<String, CommandListener> bind(final Object handler) {
+		assert (handler != null) : "The parameter 'handler' must not be null";
+
+		final MethodHandles.Lookup lookup = MethodHandles.lookup();
+		final Map<String, CommandListener> listenerMap = new LinkedHashMap<String, CommandListener>();
+
+		// the marked methods of the classes below, so that a method that is
+		// overridden by one of them is not bound twice.
+		final List<Method> boundMethods = new ArrayList<Method>();
+
+		for (Class<?> type = handler.getClass(); type != null; type = type.getSuperclass()) {
+			for (final Method method : type.getDeclaredMethods()) {
+				final OnCommand onCommand = method.getAnnotation(OnCommand.class);
+				if ((onCommand == null) || AnnotatedHandlers.isOverridden(method, boundMethods)) {
+					continue;
+				}
+				boundMethods.add(method);
+
+				final Class<?>[] parameterTypes = method.getParameterTypes();
+				if ((parameterTypes.length != 1) || (parameterTypes[0] != Command.class)) {
+					throw (new IllegalArgumentException("Error: The handler '" + method.getName()
+							+ "' must take a single Command parameter."));
+				}
+
+				final CommandListener listener = AnnotatedHandlers.bindMethod(lookup, handler, method);
+				for (final String name : onCommand.value()) {
+					if (listenerMap.put(name, listener) != null) {
+						throw (new DuplicateException("Error: The command '" + name
+								+ "' has more than one handler.  Define a single handler for each command."));
+					}
+				}
+			}
+		}
+		return (listenerMap);
+	}
+
+	/*
+	 * Binds a single method to a listener.
+	 */
+	private static CommandListener bindMethod(final MethodHandles.Lookup lookup, final Object handler,
+			final Method method) {
+		try {
+			if (AnnotatedHandlers.isLambdaBindable(method)) {
+				try {
+					return (AnnotatedHandlers.bindLambda(lookup, handler, method));
+				} catch (final IllegalAccessException | LambdaConversionException | LinkageError e) {
+					// fall through to the MethodHandle.
+				}
+			}
+			return (AnnotatedHandlers.bindMethodHandle(lookup, handler, method));
+		} catch (final IllegalAccessException | RuntimeException e) {
+			throw (new IllegalArgumentException(
+					"Error: The handler '" + method.getName() + "' could not be bound.", e));
+		}
+	}
+
+	/*
+	 * A test to see if the method can be bound with LambdaMetafactory. The
+	 * method and its class must be public, it must not declare checked
+	 * exceptions, and its class must be visible to the class loader of the
+	 * parser, since the generated class is defined there.
+	 */
+	private static boolean isLambdaBindable(final Method method) {
+		final Class<?> type = method.getDeclaringClass();
+		if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(type.getModifiers())
+				|| (method.getExceptionTypes().length > 0)) {
+			return (false);
+		}
+
+		try {
+			return (Class.forName(type.getName(), false, AnnotatedHandlers.class.getClassLoader()) == type);
+		} catch (final ClassNotFoundException e) {
+			return (false);
+		}
+	}
+
+	/*
+	 * A test to see if the method is overridden by one of the methods of a
+	 * subclass. A private or static method is not overridden, and a method
+	 * that is package private is only overridden in its own package.
+	 */
+	private static boolean isOverridden(final Method method, final List<Method> subclassMethods) {
+		final int modifiers = method.getModifiers();
+		if (Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers)) {
+			return (false);
+		}
+
+		final boolean isPackagePrivate = !Modifier.isPublic(modifiers) && !Modifier.isProtected(modifiers);
+		for (final Method subclassMethod : subclassMethods) {
+			final int subclassModifiers = subclassMethod.getModifiers();
+			if (subclassMethod.getName().equals(method.getName()) && !Modifier.isPrivate(subclassModifiers)
+					&& !Modifier.isStatic(subclassModifiers)
+					&& Arrays.equals(subclassMethod.getParameterTypes(), method.getParameterTypes())
+					&& (!isPackagePrivate || AnnotatedHandlers.isSamePackage(method, subclassMethod))) {
+				return (true);
+			}
+		}
+		return (false);
+	}
+
+	/*
+	 * A test to see if the methods are declared in the same package.
+	 */
+	private static boolean isSamePackage(final Method method, final Method otherMethod) {
+		final Package methodPackage = method.getDeclaringClass().getPackage();
+		final Package otherPackage = otherMethod.getDeclaringClass().getPackage();
+		return ((methodPackage == null) ? (otherPackage == null)
+				: (otherPackage != null) && methodPackage.getName().equals(otherPackage.getName()));
+	}
+
+	/*
+	 * Constructor.
+	 */
+	private AnnotatedHandlers() {
+		// block direct instance
+	}
+}
@@ -0,0 +1,318 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * This class tokenizes the arguments of a command line and expands each
+ * argument that is an @path into the arguments of the file at the path.
+ *
+ * The file is mapped into memory and its arguments are split as they are
+ * found, so the file is never read into a String or a String[]. An argument
+ * that is plain ASCII is passed to the tokenizer as a range of a char view of
+ * the mapping, a String is only created when the parser reads the token. An
+ * argument that is quoted or is not ASCII is decoded from UTF-8 on its own.
+ *
+ * The arguments of a file are split on white space. A part of an argument that
+ * is in single or double quotes keeps its white space, and a backslash in
+ * quotes escapes the next char, \n, \r, \t and \f being the control chars. An
+ * argument of a file that starts with @ is expanded too, a file that refers to
+ * itself, directly or through other files, is an error. An argument that
+ * starts with @@ is not expanded, and is the argument without its first @.
+ * Relative paths are resolved against the working directory.
+ *
+ * An expander is used for a single parse, it is not thread safe.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class ArgumentFileExpander {
+
+	/*
+	 * A char view of the bytes of a mapped file. Only ranges that are ASCII
+	 * are read through it.
+	 */
+	private static final class MappedChars implements CharSequence {
+
+		/*
+		 * The mapped bytes. Only absolute gets are used.
+		 */
+		private final ByteBuffer _bytes;
+
+		/*
+		 * Constructor.
+		 */
+		MappedChars(final ByteBuffer bytes) {
+			this._bytes = bytes;
+		}
+
+		@Override
+		public char charAt(final int index) {
+			return ((char) this._bytes.get(index));
+		}
+
+		@Override
+		public int length() {
+			return (this._bytes.limit());
+		}
+
+		@Override
+		public String subSequence(final int start, final int end) {
+			final byte[] bytes = new byte[end - start];
+			for (int i = start; i < end; i++) {
+				bytes[i - start] = this._bytes.get(i);
+			}
+			return (new String(bytes, StandardCharsets.US_ASCII));
+		}
+
+		@Override
+		public String toString() {
+			return (this.subSequence(0, this.length()));
+		}
+	}
+
+	/*
+	 * Gets the char of an escape in quotes.
+	 */
+	private static byte escape(final byte value) {
+		switch (value) {
+		case 'n':
+			return ('\n');
+		case 'r':
+			return ('\r');
+		case 't':
+			return ('\t');
+		case 'f':
+			return ('\f');
+		default:
+			return (value);
+		}
+	}
+
+	/*
+	 * Checks if the byte separates the arguments of a file.
+	 */
+	private static boolean isSpace(final byte value) {
+		return ((value == ' ') || (value == '\n') || (value == '\r') || (value == '\t') || (value == '\f'));
+	}
+
+	/*
+	 * The buffer that the tokens are added to.
+	 */
+	private final TokenBuffer _buffer;
+
+	/*
+	 * The number of chars of the arguments and the bytes of the files that have
+	 * been expanded.
+	 */
+	private long _inputSize;
+
+	/*
+	 * The maximum input size of the parse.
+	 */
+	private final long _maxInputSize;
+
+	/*
+	 * The real paths of the files that are being expanded. A file that is in
+	 * the set refers to itself.
+	 */
+	private final Set<Path> _openFiles;
+
+	/*
+	 * The bytes of the argument that is being decoded.
+	 */
+	private byte[] _scratch;
+
+	/*
+	 * The tokenizer of the arguments.
+	 */
+	private final CommandLineTokenizer _tokenizer;
+
+	/*
+	 * Constructor. The input size is the number of chars of the arguments that
+	 * have already been counted. The bytes of each file are added to it.
+	 */
+	ArgumentFileExpander(final CommandLineTokenizer tokenizer, final TokenBuffer buffer, final long inputSize,
+			final long maxInputSize) {
+		assert (tokenizer != null) : "The parameter 'tokenizer' must not be null";
+		assert (buffer != null) : "The parameter 'buffer' must not be null";
+
+		this._tokenizer = tokenizer;
+		this._buffer = buffer;
+		this._inputSize = inputSize;
+		this._maxInputSize = maxInputSize;
+		this._openFiles = new HashSet<Path>();
+		this._scratch = new byte[64];
+	}
+
+	/*
+	 * Decodes the argument of the file that starts at the index, removing its
+	 * quotes and escapes, and tokenizes it. Returns the index after the
+	 * argument.
+	 */
+	private int decodeArgument(final ByteBuffer bytes, final int start, final Path file) {
+		final int end = bytes.limit();
+		int count = 0;
+		byte quote = 0;
+		int i = start;
+		for (; i < end; i++) {
+			byte value = bytes.get(i);
+			if (quote != 0) {
+				if (value == quote) {
+					quote = 0;
+					continue;
+				} else if ((value == '\\') && (i + 1 < end)) {
+					value = ArgumentFileExpander.escape(bytes.get(++i));
+				}
+			} else if (ArgumentFileExpander.isSpace(value)) {
+				break;
+			} else if ((value == '"') || (value == '\'')) {
+				quote = value;
+				continue;
+			}
+
+			if (count == this._scratch.length) {
+				this._scratch = Arrays.copyOf(this._scratch, count << 1);
+			}
+			this._scratch[count++] = value;
+		}
+
+		if (quote != 0) {
+			throw (new UnsupportedException("Error: The argument file '" + file + "' has a quote that is not closed."));
+		}
+
+		final String argument = new String(this._scratch, 0, count, StandardCharsets.UTF_8);
+		this.tokenizeArgument(argument, 0, argument.length());
+		return (i);
+	}
+
+	/*
+	 * Maps the file and tokenizes its arguments.
+	 */
+	private void expand(final Path file) {
+		final Path realPath;
+		final ByteBuffer bytes;
+		try {
+			realPath = file.toRealPath();
+			if (this._openFiles.contains(realPath)) {
+				throw (new UnsupportedException("Error: The argument file '" + file
+						+ "' refers to itself.  Remove the cycle of @ references."));
+			}
+
+			try (FileChannel channel = FileChannel.open(realPath, StandardOpenOption.READ)) {
+				final long size = channel.size();
+				this._inputSize += size;
+				if (this._inputSize > this._maxInputSize) {
+					throw (new LimitException("Error:  The input of " + this._inputSize
+							+ " chars and argument file bytes is larger than the limit of " + this._maxInputSize
+							+ "."));
+				} else if (size > Integer.MAX_VALUE) {
+					throw (new LimitException("Error:  The argument file '" + file + "' of " + size
+							+ " bytes is larger than the limit of " + Integer.MAX_VALUE + "."));
+				}
+				bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			}
+		} catch (final IOException e) {
+			throw (new UncheckedIOException("Error: The argument file '" + file + "' can not be read.", e));
+		}
+
+		// the mapping stays valid after the channel is closed.
+		this._openFiles.add(realPath);
+		try {
+			this.split(bytes, file);
+		} finally {
+			this._openFiles.remove(realPath);
+		}
+	}
+
+	/*
+	 * Splits the mapped file into its arguments and tokenizes them.
+	 */
+	private void split(final ByteBuffer bytes, final Path file) {
+		final MappedChars chars = new MappedChars(bytes);
+		final int end = bytes.limit();
+
+		int i = 0;
+		while (true) {
+			while ((i < end) && ArgumentFileExpander.isSpace(bytes.get(i))) {
+				i++;
+			}
+			if (i == end) {
+				break;
+			}
+
+			final int start = i;
+			boolean isPlain = true;
+			for (; (i < end) && !ArgumentFileExpander.isSpace(bytes.get(i)); i++) {
+				final byte value = bytes.get(i);
+				if ((value == '"') || (value == '\'') || (value < 0)) {
+					isPlain = false;
+					break;
+				}
+			}
+
+			if (isPlain) {
+				this.tokenizeArgument(chars, start, i);
+			} else {
+				i = this.decodeArgument(bytes, start, file);
+			}
+		}
+	}
+
+	/*
+	 * Tokenizes the arguments of a command line into the buffer. The buffer is
+	 * cleared first.
+	 */
+	void tokenize(final String[] args) {
+		assert (args != null) : "The parameter 'args' must not be null";
+
+		this._buffer.clear();
+		for (final String arg : args) {
+			this.tokenizeArgument(arg, 0, arg.length());
+		}
+	}
+
+	/*
+	 * Tokenizes the argument that is the range of chars from start to end
+	 * within the source, or expands it if it is an @path.
+	 */
+	void tokenizeArgument(final CharSequence source, final int start, final int end) {
+		if ((end - start > 1) && (source.charAt(start) == '@')) {
+			if (source.charAt(start + 1) == '@') {
+				this._tokenizer.tokenize(source, start + 1, end, this._buffer);
+			} else {
+				this.expand(Paths.get(source.subSequence(start + 1, end).toString()));
+			}
+		} else {
+			this._tokenizer.tokenize(source, start, end, this._buffer);
+		}
+	}
+}
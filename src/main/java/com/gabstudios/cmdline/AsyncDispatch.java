@@ -0,0 +1,353 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.gabstudios.validate.Validate;
+
+/**
+ * This class holds the settings of an asynchronous parse. A parse that is
+ * started with <code>CmdLineParser.parseAsync(...)</code> hands each Command
+ * to an <code>Executor</code> instead of calling the listener on the thread
+ * that parses.
+ *
+ * AsyncDispatch dispatch = AsyncDispatch.builder().setTimeout(5,
+ * TimeUnit.SECONDS) .setCancellationPolicy(CancellationPolicy.INTERRUPT).build();
+ *
+ * The default executor starts a virtual thread for each Command on Java 21 or
+ * later, and uses a shared pool of daemon threads on older versions. There is
+ * no timeout by default.
+ *
+ * The Commands are handled in any order, unless they are ordered by key. Then
+ * the Commands with the same key are handled one at a time, in the order of
+ * the command line, and the Commands with different keys are handled at the
+ * same time.
+ *
+ * AsyncDispatch dispatch = AsyncDispatch.builder().setOrderedByName().build();
+ *
+ * @see CmdLineParser#parseAsync(String[], CommandListener)
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class AsyncDispatch {
+
+	/**
+	 * This class creates an <code>AsyncDispatch</code> instance.
+	 *
+	 * @author Gregory Brown (sysdevone)
+	 *
+	 */
+	public static final class Builder {
+
+		/*
+		 * What happens when a Command times out or fails.
+		 */
+		private CancellationPolicy _cancellationPolicy;
+
+		/*
+		 * The executor. Null if the default executor is used.
+		 */
+		private Executor _executor;
+
+		/*
+		 * Gets the key of a Command. Null if the Commands are not ordered.
+		 */
+		private Function<Command, ?> _keyFunction;
+
+		/*
+		 * The time that the handling of a Command may take in nanoseconds. Zero
+		 * if there is no timeout.
+		 */
+		private long _timeoutNanos;
+
+		/*
+		 * Constructor.
+		 */
+		private Builder() {
+			this._cancellationPolicy = CancellationPolicy.INTERRUPT;
+		}
+
+		/**
+		 * Creates a new <code>AsyncDispatch</code> instance.
+		 *
+		 * @return A new <code>AsyncDispatch</code> instance.
+		 */
+		public AsyncDispatch build() {
+			return (new AsyncDispatch(this));
+		}
+
+		/**
+		 * Sets what happens when a Command times out or fails. The policy is
+		 * <code>CancellationPolicy.INTERRUPT</code> if it is not set.
+		 *
+		 * @param cancellationPolicy
+		 *            The policy. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setCancellationPolicy(final CancellationPolicy cancellationPolicy) {
+			Validate.defineObject(cancellationPolicy).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._cancellationPolicy = cancellationPolicy;
+			return (this);
+		}
+
+		/**
+		 * Sets the executor that handles the Commands. The executor is not shut
+		 * down by the parser.
+		 *
+		 * @param executor
+		 *            The executor. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setExecutor(final Executor executor) {
+			Validate.defineObject(executor).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._executor = executor;
+			return (this);
+		}
+
+		/**
+		 * Orders the handling of the Commands by the name of their command. A
+		 * command that has many names, such as -l and --load, has one key.
+		 *
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setOrderedByName() {
+			this._keyFunction = AsyncDispatch.COMMAND_NAME_KEY;
+			return (this);
+		}
+
+		/**
+		 * Orders the handling of the Commands by a key, such as a group of
+		 * commands that must not run at the same time. The Commands with the
+		 * same key are handled one at a time, in the order of the command line.
+		 * A Command with a null key is not ordered.
+		 *
+		 * @param keyFunction
+		 *            Gets the key of a Command. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setOrderedByKey(final Function<Command, ?> keyFunction) {
+			Validate.defineObject(keyFunction).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._keyFunction = keyFunction;
+			return (this);
+		}
+
+		/**
+		 * Sets the time that the handling of each Command may take. The time
+		 * starts when the Command is dispatched, so it includes the time that an
+		 * ordered Command waits for the Commands before it.
+		 *
+		 * @param time
+		 *            The time. Must be greater than 0.
+		 * @param unit
+		 *            The unit of the time. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setTimeout(final long time, final TimeUnit unit) {
+			Validate.defineBoolean((time > 0) && (unit != null)).testTrue().throwValidationExceptionOnFail()
+					.validate();
+
+			this._timeoutNanos = unit.toNanos(time);
+			return (this);
+		}
+	}
+
+	/*
+	 * Holds the shared executors. They are created the first time they are
+	 * used.
+	 */
+	private static final class DefaultExecutors {
+
+		/*
+		 * The default executor of the Commands.
+		 */
+		static final Executor EXECUTOR = DefaultExecutors.createExecutor();
+
+		/*
+		 * The scheduler of the timeouts.
+		 */
+		static final ScheduledExecutorService SCHEDULER = DefaultExecutors.createScheduler();
+
+		/*
+		 * Creates an executor that starts a virtual thread for each task if the
+		 * JVM supports it, otherwise a pool of daemon threads.
+		 */
+		private static Executor createExecutor() {
+			Executor executor;
+			try {
+				final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				executor = (ExecutorService) method.invoke(null);
+			} catch (final ReflectiveOperationException e) {
+				// older than Java 21.
+				executor = Executors.newCachedThreadPool(DefaultExecutors.createThreadFactory("gab-cmdline-dispatch"));
+			}
+			return (executor);
+		}
+
+		/*
+		 * Creates the scheduler of the timeouts. It has one daemon thread.
+		 */
+		private static ScheduledExecutorService createScheduler() {
+			final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+					DefaultExecutors.createThreadFactory("gab-cmdline-timeout"));
+			scheduler.setRemoveOnCancelPolicy(true);
+			return (scheduler);
+		}
+
+		/*
+		 * Creates a factory of daemon threads, so the threads do not keep the
+		 * JVM alive.
+		 */
+		private static ThreadFactory createThreadFactory(final String name) {
+			return (new ThreadFactory() {
+
+				@Override
+				public Thread newThread(final Runnable runnable) {
+					final Thread thread = new Thread(runnable, name);
+					thread.setDaemon(true);
+					return (thread);
+				}
+			});
+		}
+	}
+
+	/*
+	 * Gets the first name of the definition of a Command.
+	 */
+	private static final Function<Command, ?> COMMAND_NAME_KEY = new Function<Command, String>() {
+
+		@Override
+		public String apply(final Command command) {
+			return (command._definition.getNames().get(0));
+		}
+	};
+
+	/**
+	 * The default settings - the default executor, no timeout, no order and
+	 * <code>CancellationPolicy.INTERRUPT</code>.
+	 */
+	public static final AsyncDispatch DEFAULT = new Builder().build();
+
+	/**
+	 * Creates a new Builder that is used to set the settings.
+	 *
+	 * @return A new <code>AsyncDispatch.Builder</code> instance.
+	 */
+	public static Builder builder() {
+		return (new Builder());
+	}
+
+	/*
+	 * Gets the scheduler of the timeouts.
+	 */
+	static ScheduledExecutorService getScheduler() {
+		return (DefaultExecutors.SCHEDULER);
+	}
+
+	/*
+	 * What happens when a Command times out or fails.
+	 */
+	private final CancellationPolicy _cancellationPolicy;
+
+	/*
+	 * The executor. Null if the default executor is used.
+	 */
+	private final Executor _executor;
+
+	/*
+	 * Gets the key of a Command. Null if the Commands are not ordered.
+	 */
+	private final Function<Command, ?> _keyFunction;
+
+	/*
+	 * The time that the handling of a Command may take in nanoseconds. Zero if
+	 * there is no timeout.
+	 */
+	private final long _timeoutNanos;
+
+	/*
+	 * Constructor.
+	 */
+	private AsyncDispatch(final Builder builder) {
+		this._cancellationPolicy = builder._cancellationPolicy;
+		this._executor = builder._executor;
+		this._keyFunction = builder._keyFunction;
+		this._timeoutNanos = builder._timeoutNanos;
+	}
+
+	/**
+	 * Gets what happens when a Command times out or fails.
+	 *
+	 * @return A <code>CancellationPolicy</code>.
+	 */
+	public CancellationPolicy getCancellationPolicy() {
+		return (this._cancellationPolicy);
+	}
+
+	/**
+	 * Gets the executor that handles the Commands.
+	 *
+	 * @return The executor that was set, or the default executor.
+	 */
+	public Executor getExecutor() {
+		return (this._executor != null ? this._executor : DefaultExecutors.EXECUTOR);
+	}
+
+	/**
+	 * Gets the function that gets the key of a Command.
+	 *
+	 * @return The function. Null if the Commands are not ordered.
+	 */
+	public Function<Command, ?> getKeyFunction() {
+		return (this._keyFunction);
+	}
+
+	/**
+	 * Gets the time that the handling of each Command may take.
+	 *
+	 * @return The time in nanoseconds. 0 if there is no timeout.
+	 */
+	public long getTimeoutNanos() {
+		return (this._timeoutNanos);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("AsyncDispatch [_cancellationPolicy=%s, _executor=%s, _keyFunction=%s, _timeoutNanos=%s]",
+				this._cancellationPolicy, this._executor, this._keyFunction, this._timeoutNanos);
+	}
+}
@@ -0,0 +1,314 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+ * This class hands the Commands of a single parse to the executor of an
+ * AsyncDispatch. It is created for each parse. Commands are dispatched by the
+ * thread that parses, they complete on the threads of the executor.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class AsyncDispatcher {
+
+	/*
+	 * The handling of a single Command.
+	 */
+	static final class DispatchTask implements Runnable {
+
+		/*
+		 * The Command.
+		 */
+		private final Command _command;
+
+		/*
+		 * The dispatcher of the parse.
+		 */
+		private final AsyncDispatcher _dispatcher;
+
+		/*
+		 * Completes when the handling completes, fails, times out or is
+		 * cancelled.
+		 */
+		private final CompletableFuture<Void> _future;
+
+		/*
+		 * True if this task interrupted the thread that is handling the
+		 * Command. Guarded by this.
+		 */
+		private boolean _interrupted;
+
+		/*
+		 * The thread that is handling the Command. Null if it is not running.
+		 * Guarded by this.
+		 */
+		private Thread _runner;
+
+		/*
+		 * The timeout of the handling. Null if there is no timeout.
+		 */
+		private volatile ScheduledFuture<?> _timeout;
+
+		/*
+		 * Constructor.
+		 */
+		DispatchTask(final AsyncDispatcher dispatcher, final Command command) {
+			this._dispatcher = dispatcher;
+			this._command = command;
+			this._future = new CompletableFuture<Void>();
+		}
+
+		/*
+		 * Ends the handling with the exception. The thread that is handling the
+		 * Command is interrupted if interrupt is true. Returns true if this call
+		 * ended the handling.
+		 */
+		boolean fail(final String message, final Throwable cause, final boolean interrupt) {
+			final boolean failed = this._future
+					.completeExceptionally(new DispatchException(message, this._command, cause));
+			if (failed) {
+				this.cancelTimeout();
+				if (interrupt) {
+					synchronized (this) {
+						if (this._runner != null) {
+							this._runner.interrupt();
+							this._interrupted = true;
+						}
+					}
+				}
+			}
+			return (failed);
+		}
+
+		/*
+		 * Gets the Command.
+		 */
+		Command getCommand() {
+			return (this._command);
+		}
+
+		/*
+		 * Gets the future that completes when the handling completes.
+		 */
+		CompletableFuture<Void> getFuture() {
+			return (this._future);
+		}
+
+		@Override
+		public void run() {
+			// the runner is set before the future is tested, under the lock that
+			// fail() holds to interrupt it, so a cancel or timeout either sees
+			// the runner or is seen here.
+			synchronized (this) {
+				if (this._future.isDone()) {
+					// cancelled or timed out before it started.
+					return;
+				}
+				this._runner = Thread.currentThread();
+			}
+			try {
+				this._dispatcher._commandListener.handle(this._command);
+				if (this._future.complete(null)) {
+					this.cancelTimeout();
+				}
+			} catch (final Throwable e) {
+				if (this.fail("Error:  The handling of the command '" + this._command.getName() + "' failed.", e,
+						false)) {
+					this._dispatcher.failed();
+				}
+			} finally {
+				final boolean interrupted;
+				synchronized (this) {
+					this._runner = null;
+					interrupted = this._interrupted;
+				}
+				// an interrupt that was meant for this handling must not reach
+				// the next task of the thread. any other interrupt, such as the
+				// shutdown of the executor, is kept.
+				if (interrupted) {
+					Thread.interrupted();
+				}
+			}
+		}
+
+		/*
+		 * Cancels the timeout, if there is one.
+		 */
+		private void cancelTimeout() {
+			final ScheduledFuture<?> timeout = this._timeout;
+			if (timeout != null) {
+				timeout.cancel(false);
+			}
+		}
+
+		/*
+		 * Starts the timeout of the handling.
+		 */
+		void scheduleTimeout(final long timeoutNanos) {
+			this._timeout = AsyncDispatch.getScheduler().schedule(new Runnable() {
+
+				@Override
+				public void run() {
+					DispatchTask.this.timedOut();
+				}
+			}, timeoutNanos, TimeUnit.NANOSECONDS);
+
+			if (this._future.isDone()) {
+				// completed before the timeout was set.
+				this.cancelTimeout();
+			}
+		}
+
+		/*
+		 * Ends the handling because it did not complete before the timeout.
+		 */
+		private void timedOut() {
+			final CancellationPolicy policy = this._dispatcher._dispatch.getCancellationPolicy();
+			if (this.fail("Error:  The handling of the command '" + this._command.getName() + "' timed out.",
+					new TimeoutException(), policy != CancellationPolicy.ABANDON)) {
+				this._dispatcher.failed();
+			}
+		}
+	}
+
+	/*
+	 * True if the Commands of the parse have been cancelled. Guarded by this.
+	 */
+	private boolean _cancelled;
+
+	/*
+	 * The listener that handles the Commands.
+	 */
+	private final CommandListener _commandListener;
+
+	/*
+	 * The settings of the dispatch.
+	 */
+	private final AsyncDispatch _dispatch;
+
+	/*
+	 * Runs the Commands with the same key in order. Null if the Commands are
+	 * not ordered.
+	 */
+	private final KeyedSerialExecutor _serialExecutor;
+
+	/*
+	 * The handling of each Command that has been dispatched. Guarded by this.
+	 */
+	private final List<DispatchTask> _tasks;
+
+	/*
+	 * Constructor.
+	 */
+	AsyncDispatcher(final AsyncDispatch dispatch, final CommandListener commandListener) {
+		assert (dispatch != null) : "The parameter 'dispatch' must not be null";
+		assert (commandListener != null) : "The parameter 'commandListener' must not be null";
+
+		this._dispatch = dispatch;
+		this._commandListener = commandListener;
+		this._tasks = new ArrayList<DispatchTask>();
+		this._serialExecutor = (dispatch.getKeyFunction() != null
+				? new KeyedSerialExecutor(dispatch.getExecutor()) : null);
+	}
+
+	/*
+	 * Cancels the handling of the Commands that have not completed. The
+	 * threads that are handling them are interrupted if interrupt is true.
+	 */
+	void cancel(final boolean interrupt) {
+		final List<DispatchTask> tasks;
+		synchronized (this) {
+			this._cancelled = true;
+			tasks = new ArrayList<DispatchTask>(this._tasks);
+		}
+
+		for (final DispatchTask task : tasks) {
+			task.fail("Error:  The handling of the command '" + task.getCommand().getName() + "' was cancelled.",
+					new CancellationException(), interrupt);
+		}
+	}
+
+	/*
+	 * Creates the handle of the parse, once all of the Commands have been
+	 * dispatched.
+	 */
+	DispatchHandle createHandle(final List<Command> commands) {
+		final List<DispatchTask> tasks;
+		synchronized (this) {
+			tasks = new ArrayList<DispatchTask>(this._tasks);
+		}
+		return (new DispatchHandle(this, commands, tasks));
+	}
+
+	/*
+	 * Hands the Command to the executor.
+	 */
+	void dispatch(final Command command) {
+		final DispatchTask task = new DispatchTask(this, command);
+
+		final boolean cancelled;
+		synchronized (this) {
+			this._tasks.add(task);
+			cancelled = this._cancelled;
+		}
+
+		if (cancelled) {
+			task.fail("Error:  The handling of the command '" + command.getName() + "' was cancelled.",
+					new CancellationException(), false);
+		} else {
+			final long timeoutNanos = this._dispatch.getTimeoutNanos();
+			if (timeoutNanos > 0) {
+				task.scheduleTimeout(timeoutNanos);
+			}
+
+			try {
+				final Object key = (this._serialExecutor != null ? this._dispatch.getKeyFunction().apply(command)
+						: null);
+				if (key != null) {
+					this._serialExecutor.execute(key, task);
+				} else {
+					this._dispatch.getExecutor().execute(task);
+				}
+			} catch (final RejectedExecutionException e) {
+				task.fail("Error:  The command '" + command.getName() + "' was rejected by the executor.", e, false);
+				this.failed();
+			}
+		}
+	}
+
+	/*
+	 * Called when the handling of a Command fails or times out.
+	 */
+	private void failed() {
+		if (this._dispatch.getCancellationPolicy() == CancellationPolicy.CANCEL_ALL) {
+			this.cancel(true);
+		}
+	}
+}
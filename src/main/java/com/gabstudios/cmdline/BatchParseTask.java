@@ -0,0 +1,138 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * This class parses a range of a batch of command lines in a ForkJoinPool. A
+ * range that is larger than the threshold is split in two, a range that is not
+ * is parsed in order by the worker that runs it.
+ *
+ * Each range that is parsed has one TokenBuffer, which is cleared and reused
+ * for each command line of the range. The threshold is chosen so that each
+ * worker parses a few ranges, so the tokens of a batch are held by a few
+ * buffers whatever the size of the batch.
+ *
+ * The result of each command line is stored at its index, so the results are
+ * in the order of the batch however the ranges are run.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class BatchParseTask extends RecursiveAction {
+
+	/*
+	 * The number of ranges that each worker is given, so a worker that ends
+	 * early can steal the ranges of a worker that does not.
+	 */
+	private static final int RANGES_PER_WORKER = 4;
+
+	private static final long serialVersionUID = 1L;
+
+	/*
+	 * Gets the largest range that is parsed without being split.
+	 */
+	static int computeThreshold(final int size, final int parallelism) {
+		return (Math.max(1, size / (Math.max(1, parallelism) * BatchParseTask.RANGES_PER_WORKER)));
+	}
+
+	/*
+	 * The command lines of the batch.
+	 */
+	private final String[][] _argsArray;
+
+	/*
+	 * The index after the last command line of the range.
+	 */
+	private final int _end;
+
+	/*
+	 * The parser of the command lines.
+	 */
+	private final CmdLineParser _parser;
+
+	/*
+	 * The results of the batch, by index.
+	 */
+	private final ParseResult[] _results;
+
+	/*
+	 * The index of the first command line of the range.
+	 */
+	private final int _start;
+
+	/*
+	 * The largest range that is parsed without being split.
+	 */
+	private final int _threshold;
+
+	/*
+	 * Constructor.
+	 */
+	BatchParseTask(final CmdLineParser parser, final String[][] argsArray, final ParseResult[] results,
+			final int start, final int end, final int threshold) {
+		assert (parser != null) : "The parameter 'parser' must not be null";
+		assert (argsArray != null) : "The parameter 'argsArray' must not be null";
+		assert (results != null) : "The parameter 'results' must not be null";
+		assert (threshold > 0) : "The parameter 'threshold' must be greater than 0";
+
+		this._parser = parser;
+		this._argsArray = argsArray;
+		this._results = results;
+		this._start = start;
+		this._end = end;
+		this._threshold = threshold;
+	}
+
+	@Override
+	protected void compute() {
+		if ((this._end - this._start) > this._threshold) {
+			final int middle = (this._start + this._end) >>> 1;
+			RecursiveAction.invokeAll(
+					new BatchParseTask(this._parser, this._argsArray, this._results, this._start, middle,
+							this._threshold),
+					new BatchParseTask(this._parser, this._argsArray, this._results, middle, this._end,
+							this._threshold));
+		} else {
+			this.parseRange();
+		}
+	}
+
+	/*
+	 * Parses each command line of the range with one TokenBuffer.
+	 */
+	private void parseRange() {
+		final TokenBuffer tokens = new TokenBuffer();
+		for (int i = this._start; i < this._end; i++) {
+			ParseResult result;
+			try {
+				final List<Command> commands = this._parser.parseArgs(this._argsArray[i], null, null, tokens, false);
+				result = new ParseResult(i, commands, null);
+			} catch (final RuntimeException e) {
+				result = new ParseResult(i, Collections.<Command>emptyList(), e);
+			}
+			this._results[i] = result;
+		}
+		tokens.clear();
+	}
+}
@@ -0,0 +1,50 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/**
+ * This enum is what happens to the handling of a Command when it does not
+ * complete before the timeout of an <code>AsyncDispatch</code>, or when the
+ * handling of another Command of the same parse fails.
+ *
+ * @see AsyncDispatch
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public enum CancellationPolicy
+{
+    /**
+     * The handling that timed out is left to run. Its failure is still
+     * reported by the <code>DispatchHandle</code>.
+     */
+    ABANDON,
+
+    /**
+     * The thread that handles the Command that timed out is interrupted.
+     */
+    INTERRUPT,
+
+    /**
+     * The thread that handles the Command that timed out or failed is
+     * interrupted, and all of the other Commands of the parse are cancelled.
+     */
+    CANCEL_ALL
+}
@@ -19,19 +19,14 @@
 
 package com.gabstudios.cmdline;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import com.gabstudios.cmdline.Token.Type;
-import com.gabstudios.collection.LinkedHashMapTrie;
-import com.gabstudios.collection.Trie;
-import com.gabstudios.logging.LogProvider;
+import java.util.stream.Stream;
+
 import com.gabstudios.validate.Validate;
 
 /**
@@ -76,6 +71,11 @@ import com.gabstudios.validate.Validate;
  * If a String does not use one of the above char, then it is considered a
  * command.
  *
+ * CmdLine is a static facade around a default <code>CmdLineParser</code>. The
+ * parser is rebuilt when the definitions change. Applications that parse from
+ * many threads should build and share their own <code>CmdLineParser</code>.
+ *
+ * @see CmdLineParser
  * @see setCommandListener
  * @see defineCommand
  * @see parse
@@ -85,47 +85,21 @@ import com.gabstudios.validate.Validate;
  */
 public class CmdLine {
 
-	/*
-	 * A map that holds the key of a command string and a value of a command
-	 * definition.
-	 */
-	private static final Map<String, CommandDefinition> COMMAND_DEFINITION_MAP;
-
-	/*
-	 * The command line tokenizer
-	 */
-	private static final CommandLineTokenizer COMMNAND_LINE_TOKENIZER;
-
 	/*
 	 * The listener that will handle commands as they are processed, to the main
 	 * cmdline class.
 	 */
 	private static final List<Command> DEFAULT_COMMAND_LIST;
 
-	/*
-	 * Regex to split the define command method
-	 */
-	private static final String DEFINED_COMMAND_REGEX_PARSE_PATTERN = "\\s*,\\s*";
-
-	/*
-	 * The tokenizer that handles the defineCommand(xxxx) method.
-	 */
-	private static final DefinedCommandTokenizer DEFINED_COMMAND_TOKENIZER;
-
 	/*
 	 * Support method chaining.
 	 */
 	private static final CmdLine INSTANCE;
 
 	/*
-	 * The maximum length allowed for any size - String, tokens, etc.
-	 */
-	private static final int MAX_LENGTH = 256;
-
-	/*
-	 * The application name.
+	 * The builder that holds the command definitions of the default parser.
 	 */
-	private static String s_applicationName;
+	private static final CmdLineParser.Builder PARSER_BUILDER;
 
 	/*
 	 * The listener that will handle commands as they are processed, if it is set.
@@ -134,224 +108,33 @@ public class CmdLine {
 	private static CommandListener s_commandListener;
 
 	/*
-	 * The application version.
-	 */
-	private static String s_version;
-
-	/*
-	 * Holds the variable names assigned to commands. Variable names are unique
-	 * across commands. One a variable is used by a command, another command *may
-	 * not use* that same variable name.
+	 * The default parser. It is built from the PARSER_BUILDER on the next parse
+	 * after the definitions have changed.
 	 */
-	private static final Set<String> VARIABLE_NAME_SET;
-
-	/*
-	 * A Trie that holds the command names. This data structure is used for word
-	 * suggestion if the command is not found.
-	 */
-	private static final Trie WORD_SUGGESTION_TRIE;
+	private static CmdLineParser s_parser;
 
 	/**
 	 * The CmdLine constructor.
 	 */
 	static {
-		WORD_SUGGESTION_TRIE = new LinkedHashMapTrie();
-		COMMAND_DEFINITION_MAP = new HashMap<String, CommandDefinition>();
-		VARIABLE_NAME_SET = new HashSet<String>();
-		DEFINED_COMMAND_TOKENIZER = new DefinedCommandTokenizer();
-		COMMNAND_LINE_TOKENIZER = new CommandLineTokenizer();
+		PARSER_BUILDER = CmdLineParser.builder();
 		DEFAULT_COMMAND_LIST = new ArrayList<Command>();
 		INSTANCE = new CmdLine();
 	}
 
-	/*
-	 * Adds variable name to existing set. If the name already exists, then the
-	 * DuplicateException is thrown.
-	 */
-	private static void addVariableName(final String name) {
-		assert ((name != null) && (name.length() > 0)) : "The parameter 'name' must not be null or empty";
-		assert (name.length() <= CmdLine.MAX_LENGTH) : "The parameter 'name' must be less than or equal to "
-				+ CmdLine.MAX_LENGTH;
-
-		if (!CmdLine.VARIABLE_NAME_SET.add(name)) {
-			throw (new DuplicateException(
-					"Error: The variable '" + name + "' has already been defined.  Define a new variable name."));
-		}
-	}
-
 	/**
 	 * Clears the CmdLine and releases resources.
 	 *
 	 * @return The CmdLine instance. Used for chaining calls.
 	 */
-	public static CmdLine clear() {
+	public static synchronized CmdLine clear() {
 		CmdLine.s_commandListener = null;
-		CmdLine.COMMAND_DEFINITION_MAP.clear();
-		CmdLine.VARIABLE_NAME_SET.clear();
-		CmdLine.WORD_SUGGESTION_TRIE.clear();
+		CmdLine.s_parser = null;
+		CmdLine.PARSER_BUILDER.clear();
 		CmdLine.DEFAULT_COMMAND_LIST.clear();
 		return (CmdLine.INSTANCE);
 	}
 
-	/*
-	 * Creates the Command if a CommandDefinition exists.
-	 */
-	private static Command createCommand(final String commandName, final List<String> tokens) {
-
-		assert ((commandName != null)
-				&& (commandName.length() > 0)) : "The parameter 'commandName' must not be null or empty";
-		assert (commandName.length() <= CmdLine.MAX_LENGTH) : "The parameter 'name' must be less than or equal to "
-				+ CmdLine.MAX_LENGTH;
-
-		assert (tokens != null) : "The parameter 'tokens' must not be null";
-		assert (tokens.size() <= CmdLine.MAX_LENGTH) : "The parameter 'name' must be less than or equal to "
-				+ CmdLine.MAX_LENGTH;
-
-		final Command command = new Command(commandName);
-		if (!tokens.isEmpty()) {
-			final CommandDefinition commandDefinition = CmdLine.COMMAND_DEFINITION_MAP.get(commandName);
-
-			final String regex = commandDefinition.getRegexValue();
-			Pattern pattern = null;
-			if ((regex != null) && (regex.length() > 0)) {
-				pattern = Pattern.compile(regex);
-			}
-
-			if (commandDefinition.hasRequiredVariables()) {
-				final List<String> names = commandDefinition.getRequiredVariableNames();
-				CmdLine.processVariable(pattern, tokens, names, command, true);
-			}
-
-			if (commandDefinition.hasRequiredVariableLists()) {
-				final String name = commandDefinition.getRequiredVariableListName();
-				CmdLine.processVariableList(pattern, tokens, name, command, true);
-			}
-
-			if (commandDefinition.hasOptionalVariables()) {
-				final List<String> names = commandDefinition.getOptionalVariableNames();
-				CmdLine.processVariable(pattern, tokens, names, command, false);
-			}
-
-			if (commandDefinition.hasOptionalVariableLists()) {
-				final String name = commandDefinition.getOptionalVariableListName();
-				CmdLine.processVariableList(pattern, tokens, name, command, false);
-			}
-		}
-
-		return (command);
-	}
-
-	/*
-	 * Creates a CommandDefinition.
-	 */
-	private static CommandDefinition createCommandDefinition(final List<Token> tokens) {
-
-		assert ((tokens != null) && (tokens.size() > 0)) : "The parameter 'tokens' must not be null or empty";
-		assert (tokens.size() <= CmdLine.MAX_LENGTH) : "The parameter 'name' must be less than or equal to "
-				+ CmdLine.MAX_LENGTH;
-
-		final CommandDefinition command = new CommandDefinition();
-
-		// a list flag. Only one list can exist.
-		boolean doesListExist = false;
-
-		// a flag to mark if an optional var was created. If this is true and an
-		// attempt to create a required var is made, then an exception will be
-		// thrown.
-		boolean isOptionalVarDefined = false;
-		for (final Token token : tokens) {
-
-			final Type type = token.getType();
-			final String name = token.getValue();
-			switch (type) {
-			case COMMAND: {
-				if (name.contains(" ")) {
-					throw (new UnsupportedException("Error: The command name '" + name
-							+ "' contains spaces which is not supported.  " + "The definition may need a comma."));
-				} else {
-					command.addName(name);
-					CmdLine.WORD_SUGGESTION_TRIE.add(name);
-				}
-				break;
-			}
-			case DESCRIPTION: {
-
-				final String description = command.getDescription();
-				if ((description != null) && (description.length() > 0)) {
-					throw (new DuplicateException("Error: The description '" + name + "' has already been defined."));
-				} else {
-					command.setDescription(name);
-				}
-
-				break;
-			}
-			case REGEX_VALUE: {
-				final String existingRegex = command.getRegexValue();
-				if ((existingRegex != null) && (existingRegex.length() > 0)) {
-					throw (new DuplicateException("Error: The regex '" + name + "' has already been defined."));
-				} else {
-					command.setRegexValue(name);
-				}
-				break;
-			}
-			case REQUIRED_VALUE: {
-				if (isOptionalVarDefined) {
-					throw (new UnsupportedException(
-							"Error: An optional variable has already been defined before this required variable.  "
-									+ "Required variables must be defined before optional variables.'"));
-				} else {
-					CmdLine.addVariableName(name);
-					command.addRequiredVariable(name);
-				}
-				break;
-			}
-			case REQUIRED_LIST_VALUE: {
-				if (isOptionalVarDefined) {
-					throw (new UnsupportedException(
-							"Error: An optional variable has already been defined before this required variable.  "
-									+ "Required variables must be defined before optional variables.'"));
-				} else if (doesListExist) {
-					throw (new UnsupportedException("Error: A List has already been defined for '" + name
-							+ "'.  A command can only have one list defined. "));
-				} else {
-					doesListExist = true;
-					CmdLine.addVariableName(name);
-					command.setRequiredVariableList(name);
-				}
-				break;
-			}
-			case OPTIONAL_VALUE: {
-				CmdLine.addVariableName(name);
-				command.addOptionalVariable(name);
-				isOptionalVarDefined = true;
-				break;
-			}
-			case OPTIONAL_LIST_VALUE: {
-				if (doesListExist) {
-					throw (new UnsupportedException("Error: A List has already been defined for '" + name
-							+ "'.  A command can only have one list defined. "));
-				} else {
-					doesListExist = true;
-					CmdLine.addVariableName(name);
-					command.setOptionalVariableList(name);
-					isOptionalVarDefined = true;
-				}
-				break;
-			}
-			default: {
-				throw (new UnsupportedException(
-						"Error:  Unknown token '" + name + "' is an unknown type ='" + type.name() + "')."));
-			}
-			}
-		}
-
-		if (command.getNames().isEmpty()) {
-			throw (new MissingException("Error:  The command name was not defined and is missing."));
-		}
-
-		return (command);
-	}
-
 	/**
 	 * This method defines the command definitions expected in the parser. Call this
 	 * method for each command that will be defined.
@@ -386,23 +169,9 @@ public class CmdLine {
 	 *            An array of String containing values.
 	 * @return The CmdLine instance. Used for chaining calls.
 	 */
-	public static CmdLine defineCommand(final String... nameArgs) {
-		Validate.defineBoolean((nameArgs != null) && (nameArgs.length > 0) && (nameArgs.length <= CmdLine.MAX_LENGTH))
-				.testTrue().throwValidationExceptionOnFail().validate();
-
-		final List<Token> tokens = CmdLine.DEFINED_COMMAND_TOKENIZER.tokenize(nameArgs);
-
-		final CommandDefinition command = CmdLine.createCommandDefinition(tokens);
-		final List<String> names = command.getNames();
-
-		for (final String name : names) {
-			final CommandDefinition existingCommand = CmdLine.COMMAND_DEFINITION_MAP.put(name, command);
-			if (existingCommand != null) {
-				throw (new DuplicateException(
-						"Error: The command '" + name + "' has already been defined.  Define a new command name."));
-			}
-		}
-
+	public static synchronized CmdLine defineCommand(final String... nameArgs) {
+		CmdLine.PARSER_BUILDER.defineCommand(nameArgs);
+		CmdLine.s_parser = null;
 		return (CmdLine.INSTANCE);
 	}
 
@@ -440,12 +209,43 @@ public class CmdLine {
 	 *            A comma delimited String containing values.
 	 * @return The CmdLine instance. Used for chaining calls.
 	 */
-	public static CmdLine defineCommand(final String nameArgs) {
-		Validate.defineString(nameArgs).testNotNullEmpty().testMaxLength(CmdLine.MAX_LENGTH)
-				.throwValidationExceptionOnFail().validate();
+	public static synchronized CmdLine defineCommand(final String nameArgs) {
+		CmdLine.PARSER_BUILDER.defineCommand(nameArgs);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
+	}
+
+	/**
+	 * Sets the handler of a command. The handler is called with the Commands of
+	 * the command's definition, in place of the listener.
+	 *
+	 * @see CmdLineParser.Builder#defineHandler(String, CommandListener)
+	 *
+	 * @param commandName
+	 *            Any of the names of a command that has been defined.
+	 * @param handler
+	 *            The handler. Must not be null.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 */
+	public static synchronized CmdLine defineHandler(final String commandName, final CommandListener handler) {
+		CmdLine.PARSER_BUILDER.defineHandler(commandName, handler);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
+	}
 
-		final String[] nameArgTokens = nameArgs.split(CmdLine.DEFINED_COMMAND_REGEX_PARSE_PATTERN);
-		CmdLine.defineCommand(nameArgTokens);
+	/**
+	 * Sets the methods of the handler object that are marked with
+	 * <code>OnCommand</code> as the handlers of their commands.
+	 *
+	 * @see CmdLineParser.Builder#defineHandlers(Object)
+	 *
+	 * @param handler
+	 *            The object that has the marked methods. Must not be null.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 */
+	public static synchronized CmdLine defineHandlers(final Object handler) {
+		CmdLine.PARSER_BUILDER.defineHandlers(handler);
+		CmdLine.s_parser = null;
 		return (CmdLine.INSTANCE);
 	}
 
@@ -456,7 +256,28 @@ public class CmdLine {
 	 *         defined.
 	 */
 	public static String getApplicationName() {
-		return (CmdLine.s_applicationName);
+		return (CmdLine.getParser().getApplicationName());
+	}
+
+	/*
+	 * Gets the default parser. It is built if the definitions have changed since
+	 * the last call.
+	 */
+	private static synchronized CmdLineParser getParser() {
+		if (CmdLine.s_parser == null) {
+			CmdLine.s_parser = CmdLine.PARSER_BUILDER.build();
+		}
+		return (CmdLine.s_parser);
+	}
+
+	/**
+	 * Gets the statistics of the cache of suggested words. The cache starts
+	 * empty each time the definitions change.
+	 *
+	 * @return A <code>SuggestionCacheStats</code> instance.
+	 */
+	public static SuggestionCacheStats getSuggestionCacheStats() {
+		return (CmdLine.getParser().getSuggestionCacheStats());
 	}
 
 	/**
@@ -465,7 +286,61 @@ public class CmdLine {
 	 * @return A String. May be null or empty if the version was not defined.
 	 */
 	public static String getVersion() {
-		return (CmdLine.s_version);
+		return (CmdLine.getParser().getVersion());
+	}
+
+	/**
+	 * Defines the commands of a definitions file, one definition on each line.
+	 * Nothing is defined unless every line is valid.
+	 *
+	 * @see CmdLineParser.Builder#loadDefinitions(Path)
+	 *
+	 * @param file
+	 *            The definitions file. Must not be null.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 * @throws IOException
+	 *             If the file can not be read.
+	 */
+	public static synchronized CmdLine loadDefinitions(final Path file) throws IOException {
+		CmdLine.PARSER_BUILDER.loadDefinitions(file);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
+	}
+
+	/**
+	 * Defines the commands that are read from the reader, one definition on
+	 * each line. Nothing is defined unless every line is valid.
+	 *
+	 * @see CmdLineParser.Builder#loadDefinitions(Reader)
+	 *
+	 * @param reader
+	 *            The reader of the definitions. Must not be null.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 * @throws IOException
+	 *             If the reader fails.
+	 */
+	public static synchronized CmdLine loadDefinitions(final Reader reader) throws IOException {
+		CmdLine.PARSER_BUILDER.loadDefinitions(reader);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
+	}
+
+	/**
+	 * Loads the command definitions from a snapshot file. The snapshot must be
+	 * loaded before any command is defined.
+	 *
+	 * @see CmdLineParser.Builder#loadSnapshot(Path)
+	 *
+	 * @param file
+	 *            The snapshot file. Must not be null.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 * @throws IOException
+	 *             If the file can not be read or is not a valid snapshot.
+	 */
+	public static synchronized CmdLine loadSnapshot(final Path file) throws IOException {
+		CmdLine.PARSER_BUILDER.loadSnapshot(file);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
 	}
 
 	/**
@@ -476,14 +351,20 @@ public class CmdLine {
 	 * @return The CmdLine instance. Used for chaining calls.
 	 */
 	public static List<Command> parse(final String[] args) {
-		Validate.defineBoolean((args != null) && (args.length > 0) && (args.length <= CmdLine.MAX_LENGTH)).testTrue()
-				.throwValidationExceptionOnFail().validate();
+		final CmdLineParser parser;
+		final CommandListener commandListener;
+		synchronized (CmdLine.class) {
+			parser = CmdLine.getParser();
+			commandListener = CmdLine.s_commandListener;
+		}
 
-		final List<String> tokens = CmdLine.tokenizeCmdLineArgs(args);
-		CmdLine.processCmdLineTokens(tokens);
+		final List<Command> parsedCommands = parser.parseArgs(args, commandListener);
 
-		final List<Command> commands = new ArrayList<Command>(CmdLine.DEFAULT_COMMAND_LIST);
-		return (commands);
+		synchronized (CmdLine.class) {
+			CmdLine.DEFAULT_COMMAND_LIST.addAll(parsedCommands);
+			final List<Command> commands = new ArrayList<Command>(CmdLine.DEFAULT_COMMAND_LIST);
+			return (commands);
+		}
 	}
 
 	/**
@@ -500,202 +381,159 @@ public class CmdLine {
 		return (CmdLine.parse(args));
 	}
 
-	/*
-	 * Processes the String tokens and creates Command.
-	 */
-	private static void processCmdLineTokens(final List<String> tokens) {
-
-		assert ((tokens != null) && (tokens.size() > 0)) : "The parameter 'tokens' must not be null or empty";
-		assert (tokens.size() <= CmdLine.MAX_LENGTH) : "The parameter 'tokens' must be less than or equal to "
-				+ CmdLine.MAX_LENGTH;
-
-		final String tokenValue = tokens.remove(0);
-
-		// check to see that a command definition exists for the current token.
-		if (CmdLine.COMMAND_DEFINITION_MAP.containsKey(tokenValue)) {
-			// if defined, then create a command.
-			final Command command = CmdLine.createCommand(tokenValue, tokens);
-
-			CmdLine.DEFAULT_COMMAND_LIST.add(command);
-
-			// if the listener was set, then notify the listener of the created
-			// command.
-			if (CmdLine.s_commandListener != null) {
-				// TODO - thread call to remove from main thread. add timeout
-				// for processing.
-				CmdLine.s_commandListener.handle(command);
-			}
-
-			// Have all tokens been consumed?
-			if (tokens.size() > 0) {
-				// Reclusive call and process the remaining
-				// tokens.
-				CmdLine.processCmdLineTokens(tokens);
-			}
-
-		} else {
-			// Process -D<property>=<value> if it exists.
-			final boolean processForSystemProperty = CmdLine.processSystemProperty(tokenValue, tokens);
-
-			// if not processed, then the token is not supported.
-			if (!processForSystemProperty) {
-				// if tokenvalue and not a system property then it is not
-				// defined.
-				final List<String> suggestedWords = CmdLine.WORD_SUGGESTION_TRIE.getWords(tokenValue);
-
-				throw (new UnsupportedException("Error: The command name '" + tokenValue + "' is not defined.",
-						suggestedWords));
-			} else if (!tokens.isEmpty()) {
-				// if the token is supported, recursive call and process the
-				// remaining tokens.
-				CmdLine.processCmdLineTokens(tokens);
-			}
-		}
-	}
-
-	/*
-	 * Processes the -D<property>=<value> and adds it to the System property.
+	/**
+	 * Parse a whole command line. The line is split into its arguments by the
+	 * quoting rules of a POSIX shell.
+	 *
+	 * @see CmdLineParser#parse(CharSequence)
+	 *
+	 * @param line
+	 *            The command line. Must not be null.
+	 * @return A new List containing the Command instances that were parsed.
 	 */
-	private static boolean processSystemProperty(final String valueString, final List<String> tokens) {
-
-		boolean isSystemPropertyProcessed = false;
-		if ((valueString != null) && (tokens != null) && (tokens.size() > 0)) {
-			final int indexOfSystemProperty = valueString.indexOf("-D");
-
-			if (indexOfSystemProperty > -1) {
-				final String systemPropertyKey = valueString.substring(indexOfSystemProperty + 2);
-
-				final String systemPropertyValue = tokens.remove(0);
-
-				LogProvider.getProvider().getService().logDebug(CmdLine.class, "parseSystemProperty",
-						"Setting System Property: " + systemPropertyKey + "=" + systemPropertyValue);
-
-				isSystemPropertyProcessed = true;
-				System.setProperty(systemPropertyKey, systemPropertyValue);
-
-				final Command command = new Command(valueString);
-				command.addVariable(systemPropertyKey, systemPropertyValue);
+	public static List<Command> parse(final CharSequence line) {
+		Validate.defineObject(line).testNotNull().throwValidationExceptionOnFail().validate();
+
+		final CmdLineParser parser;
+		final CommandListener commandListener;
+		synchronized (CmdLine.class) {
+			parser = CmdLine.getParser();
+			commandListener = CmdLine.s_commandListener;
+		}
 
-				CmdLine.DEFAULT_COMMAND_LIST.add(command);
+		final List<Command> parsedCommands = parser.parseLine(line, commandListener);
 
-				if (CmdLine.s_commandListener != null) {
-					// TODO - thread call to remove from main thread. add
-					// timeout for processing.
-					CmdLine.s_commandListener.handle(command);
-				}
-			}
+		synchronized (CmdLine.class) {
+			CmdLine.DEFAULT_COMMAND_LIST.addAll(parsedCommands);
+			final List<Command> commands = new ArrayList<Command>(CmdLine.DEFAULT_COMMAND_LIST);
+			return (commands);
 		}
-		return (isSystemPropertyProcessed);
 	}
 
-	/*
-	 * Process the required and optional variables that are associated with a
-	 * command.
-	 */
-	private static void processVariable(final Pattern pattern, final List<String> tokens,
-			final List<String> definedVariableNames, final Command command, final boolean required) {
-
-		// pattern can be null.
-
-		assert (tokens != null) : "The parameter 'tokens' must not be null.";
-		assert (tokens.size() <= CmdLine.MAX_LENGTH) : "The parameter 'tokens' must be less than or equal to "
-				+ CmdLine.MAX_LENGTH;
-
-		assert (definedVariableNames != null) : "The parameter 'definedVariableNames' must not be null.";
-		assert (definedVariableNames
-				.size() <= CmdLine.MAX_LENGTH) : "The parameter 'definedVariableNames' must be less than or equal to "
-						+ CmdLine.MAX_LENGTH;
-
-		assert (command != null) : "The parameter 'command' must not be null.";
-
-		for (final String varName : definedVariableNames) {
-			// A varName must not start with a space, otherwise an exception is
-			// thrown.
-			if (varName.contains(" ")) {
-				throw (new UnsupportedException("Error: The variable name '" + varName
-						+ "' contains spaces which is not supported.  The definition may need a comma."));
-			} else if ((tokens.size() == 0) && !required) {
-				// if there isnt any info from the command line and this
-				// variable is not required then break and exit.
-				break;
-			} else if ((tokens.size() == 0) && required) {
-				// if there isnt any info from the command line but this
-				// variable is required then throw exception.
-				throw (new MissingException(
-						"Error:  The value for the required variable '" + varName + "' is missing."));
-			} else {
-
-				final String argToken = tokens.remove(0);
-
-				// System.out.println("processVariable: " + name + " : "
-				// + argToken + " = " + _variableNameSet);
-
-				boolean isMatch = true;
-				if (pattern != null) {
-					final Matcher matcher = pattern.matcher(argToken);
-					isMatch = matcher.matches();
-					if (!isMatch) {
-						throw (new MatchException("Error:  The value '" + argToken
-								+ "' does not match the expected pattern '" + pattern.toString() + "'."));
-					}
-				}
-
-				if (CmdLine.VARIABLE_NAME_SET.contains(varName)) {
-					command.addVariable(varName, argToken);
-				}
-			}
-		}
+	/**
+	 * Parse a whole command line. The line is split into its arguments by the
+	 * quoting rules of a POSIX shell.
+	 *
+	 * @see CmdLineParser#parse(CharSequence, CommandListener)
+	 *
+	 * @param line
+	 *            The command line. Must not be null.
+	 * @param commandListener
+	 *            A listener that will handle the callbacks.
+	 * @return A new List containing the Command instances that were parsed.
+	 */
+	public static List<Command> parse(final CharSequence line, final CommandListener commandListener) {
+		CmdLine.setCommandListener(commandListener);
+		return (CmdLine.parse(line));
 	}
 
-	/*
-	 * Process the required and optional variable lists that are associated with a
-	 * command.
+	/**
+	 * Parse a batch of command lines at the same time, in the common
+	 * <code>ForkJoinPool</code>. The Commands are not handed to the listener and
+	 * are not added to the Commands that <code>parse</code> returns.
+	 *
+	 * @see CmdLineParser#parseAll(List)
+	 *
+	 * @param argsList
+	 *            The command lines. Must not be null.
+	 * @return A new List of the results, one for each command line, in the
+	 *         order of the command lines.
 	 */
-	private static void processVariableList(final Pattern pattern, final List<String> tokens, final String varName,
-			final Command command, final boolean required) {
-		// pattern can be null.
-
-		assert (tokens != null) : "The parameter 'tokens' must not be null.";
-		assert (tokens.size() <= CmdLine.MAX_LENGTH) : "The parameter 'tokens' must be less than or equal to "
-				+ CmdLine.MAX_LENGTH;
-
-		assert ((varName != null) && (varName.length() > 0)) : "The parameter 'varName' must not be null or empty.";
-		assert (varName.length() <= CmdLine.MAX_LENGTH) : "The parameter 'varName' must be less than or equal to "
-				+ CmdLine.MAX_LENGTH;
-
-		assert (command != null) : "The parameter 'command' must not be null.";
-
-		if (varName.contains(" ")) {
-			throw (new UnsupportedException("Error: The variable name '" + varName
-					+ "' contains spaces which is not supported.  The definition may need a comma."));
-		} else if ((tokens.size() == 0) && required) {
-			// if there isnt any info from the command line but this
-			// variable is required then throw exception.
-			throw (new MissingException("Error:  The value for the required variable '" + varName + "' is missing."));
-		} else {
-			while (!tokens.isEmpty() && !CmdLine.COMMAND_DEFINITION_MAP.containsKey(tokens.get(0))) {
+	public static List<ParseResult> parseAll(final List<String[]> argsList) {
+		return (CmdLine.getParser().parseAll(argsList));
+	}
 
-				final String argToken = tokens.remove(0);
+	/**
+	 * Parse a batch of command lines at the same time, in the common
+	 * <code>ForkJoinPool</code>.
+	 *
+	 * @see CmdLineParser#parseAll(Stream)
+	 *
+	 * @param argsStream
+	 *            The command lines. Must not be null.
+	 * @return A new List of the results, one for each command line, in the
+	 *         order of the stream.
+	 */
+	public static List<ParseResult> parseAll(final Stream<String[]> argsStream) {
+		return (CmdLine.getParser().parseAll(argsStream));
+	}
 
-				// Process -Dsystem.properties=true if on command line.
-				final boolean processedSystemProperty = CmdLine.processSystemProperty(argToken, tokens);
+	/**
+	 * Parse the command line arguments and hand each Command to the executor of
+	 * the <code>AsyncDispatch</code>, instead of calling the listener on this
+	 * thread.
+	 *
+	 * @see CmdLineParser#parseAsync(String[], CommandListener)
+	 *
+	 * @param args
+	 *            The arguments from the command line.
+	 * @param commandListener
+	 *            A listener that will handle the callbacks.
+	 * @return A <code>DispatchHandle</code> that is used to wait for the
+	 *         handling of the Commands.
+	 */
+	public static DispatchHandle parseAsync(final String[] args, final CommandListener commandListener) {
+		final CmdLineParser parser;
+		synchronized (CmdLine.class) {
+			CmdLine.setCommandListener(commandListener);
+			parser = CmdLine.getParser();
+		}
 
-				if (!processedSystemProperty && CmdLine.VARIABLE_NAME_SET.contains(varName)) {
+		final DispatchHandle handle = parser.parseAsync(args, commandListener);
 
-					if (pattern != null) {
-						final Matcher matcher = pattern.matcher(argToken);
-						final boolean isMatch = matcher.matches();
-						if (!isMatch) {
-							throw (new MatchException("Error:  The value '" + argToken
-									+ "' does not match the expected pattern '" + pattern.toString() + "'."));
-						}
-					}
+		synchronized (CmdLine.class) {
+			CmdLine.DEFAULT_COMMAND_LIST.addAll(handle.getCommands());
+		}
+		return (handle);
+	}
 
-					command.addVariable(varName, argToken);
+	/**
+	 * Reads command lines from the stream, one on each line, and parses each
+	 * line with the defined commands until the end of the stream. The Commands
+	 * of a line are handed to the listener and are not added to the Commands
+	 * that <code>parse</code> returns. A line that fails is written to the
+	 * debug log and the next line is parsed.
+	 *
+	 * @see CommandShell
+	 *
+	 * @param inputStream
+	 *            The stream of the lines. Must not be null. It is not closed.
+	 * @param commandListener
+	 *            A listener that will handle the callbacks. Must not be null.
+	 * @return The number of lines that were read.
+	 * @throws IOException
+	 *             If the stream can not be read.
+	 */
+	public static long runShell(final InputStream inputStream, final CommandListener commandListener)
+			throws IOException {
+		final CommandShell shell = CommandShell.builder().setParser(CmdLine.getParser())
+				.setCommandListener(commandListener).build();
+		return (shell.run(inputStream));
+	}
 
-				}
-			}
-		}
+	/**
+	 * Reads command lines from the stream, one on each line, and parses each
+	 * line with the defined commands until the end of the stream. A line that
+	 * fails is passed to the error listener and the next line is parsed.
+	 *
+	 * @see #runShell(InputStream, CommandListener)
+	 *
+	 * @param inputStream
+	 *            The stream of the lines. Must not be null. It is not closed.
+	 * @param commandListener
+	 *            A listener that will handle the callbacks. Must not be null.
+	 * @param lineErrorListener
+	 *            A listener that will handle the lines that fail. Must not be
+	 *            null.
+	 * @return The number of lines that were read.
+	 * @throws IOException
+	 *             If the stream can not be read.
+	 */
+	public static long runShell(final InputStream inputStream, final CommandListener commandListener,
+			final LineErrorListener lineErrorListener) throws IOException {
+		final CommandShell shell = CommandShell.builder().setParser(CmdLine.getParser())
+				.setCommandListener(commandListener).setLineErrorListener(lineErrorListener).build();
+		return (shell.run(inputStream));
 	}
 
 	/**
@@ -706,11 +544,9 @@ public class CmdLine {
 	 *            The name of the application.
 	 * @return The CmdLine instance. Used for chaining calls.
 	 */
-	public static CmdLine setApplicationName(final String name) {
-		Validate.defineString(name).testNotNullEmpty().testMaxLength(CmdLine.MAX_LENGTH)
-				.throwValidationExceptionOnFail().validate();
-
-		CmdLine.s_applicationName = name;
+	public static synchronized CmdLine setApplicationName(final String name) {
+		CmdLine.PARSER_BUILDER.setApplicationName(name);
+		CmdLine.s_parser = null;
 		return (CmdLine.INSTANCE);
 	}
 
@@ -722,13 +558,99 @@ public class CmdLine {
 	 *            A listener that will handle the callbacks.
 	 * @return The CmdLine instance. Used for chaining calls.
 	 */
-	public static CmdLine setCommandListener(final CommandListener commandListener) {
+	public static synchronized CmdLine setCommandListener(final CommandListener commandListener) {
 		Validate.defineObject(commandListener).testNotNull().throwValidationExceptionOnFail().validate();
 
 		CmdLine.s_commandListener = commandListener;
 		return (CmdLine.INSTANCE);
 	}
 
+	/**
+	 * Sets the settings of an asynchronous parse.
+	 *
+	 * @param asyncDispatch
+	 *            The settings. Must not be null.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 */
+	public static synchronized CmdLine setAsyncDispatch(final AsyncDispatch asyncDispatch) {
+		CmdLine.PARSER_BUILDER.setAsyncDispatch(asyncDispatch);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
+	}
+
+	/**
+	 * Sets whether an argument that is an @path is replaced by the arguments of
+	 * the file at the path.
+	 *
+	 * @see CmdLineParser.Builder#setExpandArgumentFiles(boolean)
+	 *
+	 * @param expandArgumentFiles
+	 *            True to expand the @path arguments.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 */
+	public static synchronized CmdLine setExpandArgumentFiles(final boolean expandArgumentFiles) {
+		CmdLine.PARSER_BUILDER.setExpandArgumentFiles(expandArgumentFiles);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
+	}
+
+	/**
+	 * Sets the limits that bound the cost of a parse and the length of a
+	 * definition.
+	 *
+	 * @param limits
+	 *            The limits. Must not be null.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 */
+	public static synchronized CmdLine setLimits(final ParseLimits limits) {
+		CmdLine.PARSER_BUILDER.setLimits(limits);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
+	}
+
+	/**
+	 * Sets the metrics that count and time the parses. The metrics are kept
+	 * when the definitions change.
+	 *
+	 * @see ParseMetrics
+	 *
+	 * @param metrics
+	 *            The metrics. Must not be null.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 */
+	public static synchronized CmdLine setMetrics(final ParseMetrics metrics) {
+		CmdLine.PARSER_BUILDER.setMetrics(metrics);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
+	}
+
+	/**
+	 * Sets the tracer that is called at each step of a parse.
+	 *
+	 * @param parseTracer
+	 *            The tracer. Must not be null.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 */
+	public static synchronized CmdLine setParseTracer(final ParseTracer parseTracer) {
+		CmdLine.PARSER_BUILDER.setParseTracer(parseTracer);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
+	}
+
+	/**
+	 * Sets the number of tokens that are not defined whose suggested words are
+	 * cached.
+	 *
+	 * @param size
+	 *            The number of tokens. 0 turns the cache off.
+	 * @return The CmdLine instance. Used for chaining calls.
+	 */
+	public static synchronized CmdLine setSuggestionCacheSize(final int size) {
+		CmdLine.PARSER_BUILDER.setSuggestionCacheSize(size);
+		CmdLine.s_parser = null;
+		return (CmdLine.INSTANCE);
+	}
+
 	/**
 	 * The version number of the application using the cmdline. To be used in the
 	 * help menu - (future release).
@@ -737,27 +659,28 @@ public class CmdLine {
 	 *            A String value. Must not be null or empty.
 	 * @return The CmdLine instance. Used for chaining calls.
 	 */
-	public static CmdLine setVersion(final String version) {
-		Validate.defineString(version).testNotNullEmpty().throwValidationExceptionOnFail().validate();
-
-		CmdLine.s_version = version;
+	public static synchronized CmdLine setVersion(final String version) {
+		CmdLine.PARSER_BUILDER.setVersion(version);
+		CmdLine.s_parser = null;
 		return (CmdLine.INSTANCE);
 	}
 
-	/*
-	 * Converts the command line args.into String tokens.
+	/**
+	 * Writes the command definitions to a snapshot file, to be loaded by
+	 * <code>loadSnapshot(Path)</code>.
+	 *
+	 * @see CmdLineParser#writeSnapshot(Path)
+	 *
+	 * @param file
+	 *            The snapshot file. Must not be null.
+	 * @throws IOException
+	 *             If the file can not be written.
 	 */
-	private static List<String> tokenizeCmdLineArgs(final String[] args) {
-		assert ((args != null) && (args.length > 0)) : "The parameter 'args' must not be null or empty";
-		assert (args.length <= CmdLine.MAX_LENGTH) : "The parameter 'args' must be less than or equal to "
-				+ CmdLine.MAX_LENGTH;
-
-		final List<String> tokens = CmdLine.COMMNAND_LINE_TOKENIZER.tokenize(args);
-		return (tokens);
+	public static void writeSnapshot(final Path file) throws IOException {
+		CmdLine.getParser().writeSnapshot(file);
 	}
 
 	private CmdLine() {
 		// block direct instance
 	}
-
 }
@@ -0,0 +1,1981 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.gabstudios.cmdline.Token.Type;
+import com.gabstudios.validate.Validate;
+
+/**
+ * This class is a compiled, immutable command line parser.
+ *
+ * An instance is created with a <code>CmdLineParser.Builder</code> and holds
+ * no mutable state once it is built, other than the word suggestion index
+ * that is built once when it is first needed. All of the state that is needed
+ * while parsing is kept on the stack of the calling thread, so a single
+ * instance may be shared and used by many threads at the same time.
+ *
+ * CmdLineParser parser = CmdLineParser.builder()
+ * .defineCommand("-l, --load, !fileName, #Load a files into the system")
+ * .defineCommand("-s, --save, #Save the application").build();
+ *
+ * List commands = parser.parse( args, listener );
+ *
+ * @see CmdLine
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class CmdLineParser {
+
+	/**
+	 * This class collects the command definitions and creates a
+	 * <code>CmdLineParser</code> instance from them. A Builder is not thread
+	 * safe, but the parsers it builds are.
+	 *
+	 * @author Gregory Brown (sysdevone)
+	 *
+	 */
+	public static final class Builder {
+
+		/*
+		 * The application name.
+		 */
+		private String _applicationName;
+
+		/*
+		 * The settings of an asynchronous parse.
+		 */
+		private AsyncDispatch _asyncDispatch;
+
+		/*
+		 * A map that holds the key of a command string and a value of a command
+		 * definition.
+		 */
+		private final Map<String, CommandDefinition> _commandDefinitionMap;
+
+		/*
+		 * The listener that will handle commands as they are processed, if it is
+		 * set.
+		 */
+		private CommandListener _commandListener;
+
+		/*
+		 * A map that holds the key of a type name and a value of the converter
+		 * of the type.
+		 */
+		private final Map<String, ValueConverter<?>> _converterMap;
+
+		/*
+		 * Whether @path arguments are expanded into the arguments of the file.
+		 */
+		private boolean _expandArgumentFiles;
+
+		/*
+		 * The handler of each definition, by the index of the definition. An
+		 * element is null if the definition does not have a handler.
+		 */
+		private final List<CommandListener> _handlerList;
+
+		/*
+		 * The command names in the order they were defined. Used to suggest
+		 * words if a command is not found.
+		 */
+		private final List<String> _commandNames;
+
+		/*
+		 * The limits of the parser.
+		 */
+		private ParseLimits _limits;
+
+		/*
+		 * The metrics of the parser, if they are set.
+		 */
+		private ParseMetrics _metrics;
+
+		/*
+		 * A map that holds the key of a regex string and a value of the compiled
+		 * Pattern. Definitions that use the same regex share one Pattern.
+		 */
+		private final Map<String, Pattern> _patternMap;
+
+		/*
+		 * The tracer of the parse steps, if it is set.
+		 */
+		private ParseTracer _parseTracer;
+
+		/*
+		 * The compiled definitions that were loaded from a snapshot or generated
+		 * from annotations. They are copied into the maps of the Builder, and the
+		 * registry is dropped, if a command is defined. Null if none were loaded.
+		 */
+		private CommandRegistry _registry;
+
+		/*
+		 * The number of tokens that the suggestion cache holds. Zero if the
+		 * suggestions are not cached.
+		 */
+		private int _suggestionCacheSize;
+
+		/*
+		 * Holds the variable names assigned to commands. Variable names are unique
+		 * across commands.
+		 */
+		private final Set<String> _variableNameSet;
+
+		/*
+		 * The application version.
+		 */
+		private String _version;
+
+		/*
+		 * Constructor.
+		 */
+		private Builder() {
+			this._commandDefinitionMap = new HashMap<String, CommandDefinition>();
+			this._commandNames = new ArrayList<String>();
+			this._converterMap = new HashMap<String, ValueConverter<?>>();
+			CmdLineParser.addBuiltInTypes(this._converterMap);
+			this._handlerList = new ArrayList<CommandListener>();
+			this._patternMap = new HashMap<String, Pattern>();
+			this._variableNameSet = new HashSet<String>();
+			this._limits = ParseLimits.DEFAULT;
+			this._asyncDispatch = AsyncDispatch.DEFAULT;
+			this._suggestionCacheSize = CmdLineParser.DEFAULT_SUGGESTION_CACHE_SIZE;
+		}
+
+		/**
+		 * Creates a new <code>CmdLineParser</code> from the commands that have been
+		 * defined. The Builder may continue to be used after this call, changes
+		 * will not be seen by parsers that have already been built.
+		 *
+		 * @return A new <code>CmdLineParser</code> instance.
+		 */
+		public CmdLineParser build() {
+			return (new CmdLineParser(this));
+		}
+
+		/**
+		 * Clears all of the definitions and settings of the Builder.
+		 *
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder clear() {
+			this._applicationName = null;
+			this._version = null;
+			this._commandListener = null;
+			this._expandArgumentFiles = false;
+			this._parseTracer = null;
+			this._metrics = null;
+			this._limits = ParseLimits.DEFAULT;
+			this._asyncDispatch = AsyncDispatch.DEFAULT;
+			this._suggestionCacheSize = CmdLineParser.DEFAULT_SUGGESTION_CACHE_SIZE;
+			this._commandDefinitionMap.clear();
+			this._commandNames.clear();
+			this._converterMap.clear();
+			CmdLineParser.addBuiltInTypes(this._converterMap);
+			this._handlerList.clear();
+			this._patternMap.clear();
+			this._registry = null;
+			this._variableNameSet.clear();
+			return (this);
+		}
+
+		/*
+		 * Adds a definition that has been checked by createDefinition().
+		 */
+		private void addDefinition(final CommandDefinition command) {
+			command.setIndex(this._handlerList.size());
+			this._handlerList.add(null);
+			for (final String name : command.getNames()) {
+				this._commandDefinitionMap.put(name, command);
+				this._commandNames.add(name);
+			}
+			for (int slot = 0; slot < command.getSlotCount(); slot++) {
+				this._variableNameSet.add(command.getSlotName(slot));
+			}
+		}
+
+		/*
+		 * Copies the definitions of the registry into the maps of the Builder, so
+		 * more commands may be defined, and drops the registry.
+		 */
+		private void copyRegistry() {
+			if (this._registry != null) {
+				for (final CommandDefinition definition : this._registry.getDefinitions()) {
+					for (final String name : definition.getNames()) {
+						this._commandDefinitionMap.put(name, definition);
+						this._commandNames.add(name);
+					}
+					for (int slot = 0; slot < definition.getSlotCount(); slot++) {
+						this._variableNameSet.add(definition.getSlotName(slot));
+					}
+				}
+				this._registry = null;
+			}
+		}
+
+		/*
+		 * Creates a definition from its tokens and checks that its names and
+		 * variables are not defined by the Builder, or by the definitions that
+		 * are waiting to be added. The names and variables of the definition are
+		 * then added to the waiting sets. Everything is checked before the
+		 * definition is added so that a failed definition leaves the Builder
+		 * untouched.
+		 */
+		private CommandDefinition createDefinition(final String[] nameArgs, final Set<String> waitingNames,
+				final Set<String> waitingVariables) {
+			final Object event = CmdLineParser.PARSE_EVENTS.beginDefinition();
+			String commandName = null;
+			int tokenCount = 0;
+			try {
+				final List<Token> tokens = CmdLineParser.DEFINED_COMMAND_TOKENIZER.tokenize(nameArgs);
+				tokenCount = tokens.size();
+
+				final Set<String> variableNames = new HashSet<String>();
+				final CommandDefinition command = CmdLineParser.createCommandDefinition(tokens, variableNames,
+						this._patternMap, this._converterMap);
+
+				for (final String variableName : variableNames) {
+					if (this._variableNameSet.contains(variableName) || waitingVariables.contains(variableName)) {
+						throw (new DuplicateException("Error: The variable '" + variableName
+								+ "' has already been defined.  Define a new variable name."));
+					}
+				}
+
+				final Set<String> definedNames = new HashSet<String>();
+				for (final String name : command.getNames()) {
+					if (this._commandDefinitionMap.containsKey(name) || waitingNames.contains(name)
+							|| !definedNames.add(name)) {
+						throw (new DuplicateException("Error: The command '" + name
+								+ "' has already been defined.  Define a new command name."));
+					}
+				}
+
+				waitingNames.addAll(definedNames);
+				waitingVariables.addAll(variableNames);
+				commandName = command.getNames().get(0);
+				return (command);
+			} finally {
+				CmdLineParser.PARSE_EVENTS.endDefinition(event, commandName, tokenCount);
+			}
+		}
+
+		/**
+		 * This method defines the command definitions expected in the parser.
+		 *
+		 * @see CmdLine#defineCommand(String...)
+		 *
+		 * @param nameArgs
+		 *            An array of String containing values.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder defineCommand(final String... nameArgs) {
+			Validate.defineBoolean((nameArgs != null) && (nameArgs.length > 0)
+					&& (nameArgs.length <= this._limits.getMaxDefinitionLength())).testTrue()
+					.throwValidationExceptionOnFail().validate();
+
+			this.copyRegistry();
+
+			this.addDefinition(this.createDefinition(nameArgs, new HashSet<String>(), new HashSet<String>()));
+			return (this);
+		}
+
+		/**
+		 * This method defines the command definitions expected in the parser.
+		 *
+		 * @see CmdLine#defineCommand(String)
+		 *
+		 * @param nameArgs
+		 *            A comma delimited String containing values.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder defineCommand(final String nameArgs) {
+			Validate.defineString(nameArgs).testNotNullEmpty().testMaxLength(this._limits.getMaxDefinitionLength())
+					.throwValidationExceptionOnFail().validate();
+
+			final String[] nameArgTokens = nameArgs.split(CmdLineParser.DEFINED_COMMAND_REGEX_PARSE_PATTERN);
+			return (this.defineCommand(nameArgTokens));
+		}
+
+		/**
+		 * Defines the commands that were generated from the
+		 * <code>DefineCommand</code> annotations of a class. The definitions were
+		 * checked when they were compiled, so they cost nothing to define, and a
+		 * command name is found by a switch that was generated for the names.
+		 *
+		 * The generated commands must be defined before any other command. Other
+		 * commands may be defined after them, at the cost of copying the
+		 * generated definitions into the Builder.
+		 *
+		 * @see DefineCommand
+		 *
+		 * @param commands
+		 *            The generated commands, such as
+		 *            <code>new OptionsCommands()</code>. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder defineCommands(final GeneratedCommands commands) {
+			Validate.defineObject(commands).testNotNull().throwValidationExceptionOnFail().validate();
+
+			if ((this._registry != null) || !this._handlerList.isEmpty()) {
+				throw (new UnsupportedException("Error: The commands of '" + commands.getClass().getName()
+						+ "' can not be defined after commands have been defined.  Define them first."));
+			}
+
+			this.setRegistry(new GeneratedRegistry(commands));
+			return (this);
+		}
+
+		/**
+		 * Sets the handler of a command. The handler is called with the Commands
+		 * of the command's definition, in place of the listener of the parse. The
+		 * listener of the parse still handles the Commands that do not have a
+		 * handler.
+		 *
+		 * The handler is found by the index of the definition, so it costs the
+		 * same whatever the number of commands.
+		 *
+		 * @param commandName
+		 *            Any of the names of a command that has been defined. Must not
+		 *            be null or empty.
+		 * @param handler
+		 *            The handler. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder defineHandler(final String commandName, final CommandListener handler) {
+			Validate.defineString(commandName).testNotNullEmpty().throwValidationExceptionOnFail().validate();
+			Validate.defineObject(handler).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._handlerList.set(this.getHandlerIndex(commandName), handler);
+			return (this);
+		}
+
+		/**
+		 * Sets the methods of the handler object that are marked with
+		 * <code>OnCommand</code> as the handlers of their commands. The methods
+		 * are found and bound once, when this method is called, and are called
+		 * without reflection.
+		 *
+		 * @see OnCommand
+		 * @see #defineHandler(String, CommandListener)
+		 *
+		 * @param handler
+		 *            The object that has the marked methods. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder defineHandlers(final Object handler) {
+			Validate.defineObject(handler).testNotNull().throwValidationExceptionOnFail().validate();
+
+			final Map<String, CommandListener> listenerMap = AnnotatedHandlers.bind(handler);
+
+			// validate every name before a handler is set so that a failed call
+			// leaves the Builder untouched. the aliases of a definition may be
+			// given to the same method, but not to two methods.
+			final Map<Integer, CommandListener> indexMap = new LinkedHashMap<Integer, CommandListener>();
+			for (final Map.Entry<String, CommandListener> entry : listenerMap.entrySet()) {
+				final String commandName = entry.getKey();
+				final CommandListener listener = entry.getValue();
+				final CommandListener previous = indexMap.put(this.getHandlerIndex(commandName), listener);
+				if ((previous != null) && (previous != listener)) {
+					throw (new DuplicateException("Error: The command '" + commandName
+							+ "' already has a handler.  Define a single handler for each command."));
+				}
+			}
+
+			for (final Map.Entry<Integer, CommandListener> entry : indexMap.entrySet()) {
+				this._handlerList.set(entry.getKey(), entry.getValue());
+			}
+			return (this);
+		}
+
+		/*
+		 * Gets the index of the definition of the command, to set its handler.
+		 * The definition must exist and must not have a handler yet.
+		 */
+		private int getHandlerIndex(final String commandName) {
+			final int index;
+			if (this._registry != null) {
+				index = this._registry.getIndex(commandName);
+			} else {
+				final CommandDefinition definition = this._commandDefinitionMap.get(commandName);
+				index = (definition != null ? definition.getIndex() : -1);
+			}
+			if (index < 0) {
+				throw (new UnsupportedException("Error: The command name '" + commandName
+						+ "' is not defined.  Define the command before its handler.",
+						Collections.<String>emptyList()));
+			}
+
+			if (this._handlerList.get(index) != null) {
+				throw (new DuplicateException("Error: The command '" + commandName
+						+ "' already has a handler.  Define a single handler for each command."));
+			}
+			return (index);
+		}
+
+		/**
+		 * Defines a type that may be given to a variable in a command definition,
+		 * such as <code>!color&lt;color&gt;</code>. A type that is already
+		 * defined, including a built in type, is replaced.
+		 *
+		 * @see ValueConverters
+		 *
+		 * @param typeName
+		 *            The name of the type. Must not be null or empty.
+		 * @param converter
+		 *            The converter of the type. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder defineType(final String typeName, final ValueConverter<?> converter) {
+			Validate.defineString(typeName).testNotNullEmpty().throwValidationExceptionOnFail().validate();
+			Validate.defineObject(converter).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._converterMap.put(typeName, converter);
+			return (this);
+		}
+
+		/**
+		 * Defines the commands of a definitions file. The file is read with the
+		 * UTF-8 charset.
+		 *
+		 * @see #loadDefinitions(Reader)
+		 *
+		 * @param file
+		 *            The definitions file. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 * @throws DefinitionException
+		 *             If any definition is not valid. No command is defined.
+		 * @throws IOException
+		 *             If the file can not be read. No command is defined.
+		 */
+		public Builder loadDefinitions(final Path file) throws IOException {
+			Validate.defineObject(file).testNotNull().throwValidationExceptionOnFail().validate();
+
+			try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				return (this.loadDefinitions(reader));
+			}
+		}
+
+		/**
+		 * Defines the commands that are read from the reader, one definition on
+		 * each line, such as <code>-l, --load, !fileName, #Load a file</code>.
+		 * Blank lines are skipped. The lines are read as a stream, so the whole
+		 * text is never held in memory, and each line is checked by the same
+		 * rules as <code>defineCommand(String)</code>.
+		 *
+		 * The definitions are only defined if every line is valid. Otherwise a
+		 * <code>DefinitionException</code> is thrown with an error for each line
+		 * that is not valid, and the Builder is not changed. The reader is not
+		 * closed.
+		 *
+		 * @param reader
+		 *            The reader of the definitions. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 * @throws DefinitionException
+		 *             If any definition is not valid. No command is defined.
+		 * @throws IOException
+		 *             If the reader fails. No command is defined.
+		 */
+		public Builder loadDefinitions(final Reader reader) throws IOException {
+			Validate.defineObject(reader).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this.copyRegistry();
+
+			final BufferedReader lineReader = (reader instanceof BufferedReader ? (BufferedReader) reader
+					: new BufferedReader(reader, CmdLineParser.DEFINITION_BUFFER_SIZE));
+			final List<CommandDefinition> definitions = new ArrayList<CommandDefinition>();
+			final Set<String> waitingNames = new HashSet<String>();
+			final Set<String> waitingVariables = new HashSet<String>();
+			final List<String> errors = new ArrayList<String>();
+
+			int lineNumber = 0;
+			String line;
+			while ((line = lineReader.readLine()) != null) {
+				lineNumber++;
+				final String definition = line.trim();
+				if (definition.isEmpty()) {
+					continue;
+				}
+
+				if (definition.length() > this._limits.getMaxDefinitionLength()) {
+					errors.add("Line " + lineNumber + ": Error: The definition is longer than "
+							+ this._limits.getMaxDefinitionLength() + " characters.");
+					continue;
+				}
+
+				try {
+					definitions.add(this.createDefinition(
+							CmdLineParser.DEFINED_COMMAND_SPLIT_PATTERN.split(definition), waitingNames,
+							waitingVariables));
+				} catch (final RuntimeException e) {
+					errors.add("Line " + lineNumber + ": " + e.getMessage());
+				}
+			}
+
+			if (!errors.isEmpty()) {
+				throw (new DefinitionException("Error: " + errors.size() + " of the definitions are not valid.  "
+						+ errors.get(0) + (errors.size() > 1 ? "  See the error list for the others." : ""),
+						errors));
+			}
+
+			for (final CommandDefinition definition : definitions) {
+				this.addDefinition(definition);
+			}
+			return (this);
+		}
+
+		/**
+		 * Loads the command definitions from a snapshot that was written by
+		 * <code>CmdLineParser.writeSnapshot(Path)</code>. The file is mapped into
+		 * memory and a definition is only decoded when its command is first
+		 * parsed, so a large set of commands loads in the time it takes to check
+		 * the file. The application name and version of the snapshot are set, if
+		 * it has them.
+		 *
+		 * The snapshot must be loaded before any command is defined. Commands may
+		 * be defined after it is loaded, at the cost of decoding every definition
+		 * of the snapshot. The types that the definitions use must be defined
+		 * before the parser is built.
+		 *
+		 * @see CmdLineParser#writeSnapshot(Path)
+		 *
+		 * @param file
+		 *            The snapshot file. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 * @throws SnapshotException
+		 *             If the file is not a snapshot, was written by another
+		 *             version of the format, or does not match its checksum.
+		 * @throws IOException
+		 *             If the file can not be read.
+		 */
+		public Builder loadSnapshot(final Path file) throws IOException {
+			Validate.defineObject(file).testNotNull().throwValidationExceptionOnFail().validate();
+
+			if ((this._registry != null) || !this._handlerList.isEmpty()) {
+				throw (new UnsupportedException("Error: The snapshot '" + file
+						+ "' can not be loaded after commands have been defined.  Load the snapshot first."));
+			}
+
+			final RegistrySnapshot snapshot = RegistrySnapshot.load(file, this._converterMap);
+			if (snapshot.getApplicationName() != null) {
+				this._applicationName = snapshot.getApplicationName();
+			}
+			if (snapshot.getVersion() != null) {
+				this._version = snapshot.getVersion();
+			}
+			this.setRegistry(snapshot);
+			return (this);
+		}
+
+		/**
+		 * Sets the application name. To be used in the help menu - (future
+		 * release).
+		 *
+		 * @param name
+		 *            The name of the application.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setApplicationName(final String name) {
+			Validate.defineString(name).testNotNullEmpty().testMaxLength(ParseLimits.DEFAULT_MAX_LENGTH)
+					.throwValidationExceptionOnFail().validate();
+
+			this._applicationName = name;
+			return (this);
+		}
+
+		/*
+		 * Sets the registry of the compiled definitions. The Builder must not
+		 * have any definitions.
+		 */
+		private void setRegistry(final CommandRegistry registry) {
+			for (int i = 0; i < registry.getDefinitionCount(); i++) {
+				this._handlerList.add(null);
+			}
+			this._registry = registry;
+		}
+
+		/**
+		 * Sets the settings of an asynchronous parse. The settings are
+		 * <code>AsyncDispatch.DEFAULT</code> if they are not set.
+		 *
+		 * @see CmdLineParser#parseAsync(String[], CommandListener)
+		 *
+		 * @param asyncDispatch
+		 *            The settings. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setAsyncDispatch(final AsyncDispatch asyncDispatch) {
+			Validate.defineObject(asyncDispatch).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._asyncDispatch = asyncDispatch;
+			return (this);
+		}
+
+		/**
+		 * Sets the default listener that will handle the Commands that are created
+		 * by the parser.
+		 *
+		 * @param commandListener
+		 *            A listener that will handle the callbacks.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setCommandListener(final CommandListener commandListener) {
+			Validate.defineObject(commandListener).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._commandListener = commandListener;
+			return (this);
+		}
+
+		/**
+		 * Sets whether an argument that is an @path, such as
+		 * <code>@build.args</code>, is replaced by the arguments of the file at
+		 * the path. Arguments are not expanded if it is not set.
+		 *
+		 * The file is mapped into memory and split into arguments as it is
+		 * tokenized, so a large file is never read into a String. Its arguments
+		 * are split on white space, single or double quotes keep white space, and
+		 * a backslash in quotes escapes the next char. The file is read as UTF-8.
+		 * An argument of a file may be an @path too, a file that refers to itself
+		 * is an error. An argument that starts with @@ is not expanded, and is
+		 * given without its first @.
+		 *
+		 * The bytes of the files count towards the maximum input size of the
+		 * limits. A file that can not be read throws an
+		 * <code>UncheckedIOException</code> from the parse.
+		 *
+		 * @param expandArgumentFiles
+		 *            True to expand the @path arguments.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setExpandArgumentFiles(final boolean expandArgumentFiles) {
+			this._expandArgumentFiles = expandArgumentFiles;
+			return (this);
+		}
+
+		/**
+		 * Sets the limits that bound the cost of a parse and the length of a
+		 * definition. The limits are <code>ParseLimits.DEFAULT</code> if they are
+		 * not set.
+		 *
+		 * @param limits
+		 *            The limits. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setLimits(final ParseLimits limits) {
+			Validate.defineObject(limits).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._limits = limits;
+			return (this);
+		}
+
+		/**
+		 * Sets the metrics that count and time the parses. Many parsers may share
+		 * one <code>ParseMetrics</code>. If the metrics are not set, nothing is
+		 * counted or timed.
+		 *
+		 * @param metrics
+		 *            The metrics. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setMetrics(final ParseMetrics metrics) {
+			Validate.defineObject(metrics).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._metrics = metrics;
+			return (this);
+		}
+
+		/**
+		 * Sets the tracer that is called at each step of a parse. If a tracer is
+		 * not set, the steps are not traced and cost nothing.
+		 *
+		 * @param parseTracer
+		 *            The tracer. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setParseTracer(final ParseTracer parseTracer) {
+			Validate.defineObject(parseTracer).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._parseTracer = parseTracer;
+			return (this);
+		}
+
+		/**
+		 * Sets the number of tokens that are not defined whose suggested words
+		 * are cached. The least recently used token is dropped when the cache is
+		 * full. The size is 256 if it is not set.
+		 *
+		 * @param size
+		 *            The number of tokens. 0 turns the cache off. Must not be
+		 *            negative.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setSuggestionCacheSize(final int size) {
+			Validate.defineBoolean(size >= 0).testTrue().throwValidationExceptionOnFail().validate();
+
+			this._suggestionCacheSize = size;
+			return (this);
+		}
+
+		/**
+		 * The version number of the application. To be used in the help menu -
+		 * (future release).
+		 *
+		 * @param version
+		 *            A String value. Must not be null or empty.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setVersion(final String version) {
+			Validate.defineString(version).testNotNullEmpty().throwValidationExceptionOnFail().validate();
+
+			this._version = version;
+			return (this);
+		}
+	}
+
+	/*
+	 * The number of tokens that the suggestion cache holds if it is not set.
+	 */
+	private static final int DEFAULT_SUGGESTION_CACHE_SIZE = 256;
+
+	/*
+	 * The command line tokenizer
+	 */
+	private static final CommandLineTokenizer COMMAND_LINE_TOKENIZER = new CommandLineTokenizer();
+
+	/*
+	 * The deadline is checked each time this many list values have been found.
+	 */
+	private static final int DEADLINE_CHECK_MASK = 0x3FF;
+
+	/*
+	 * Regex to split the define command method
+	 */
+	private static final String DEFINED_COMMAND_REGEX_PARSE_PATTERN = "\\s*,\\s*";
+
+	/*
+	 * The compiled regex to split the lines of a definitions file.
+	 */
+	private static final Pattern DEFINED_COMMAND_SPLIT_PATTERN = Pattern
+			.compile(CmdLineParser.DEFINED_COMMAND_REGEX_PARSE_PATTERN);
+
+	/*
+	 * The tokenizer that handles the defineCommand(xxxx) method.
+	 */
+	private static final DefinedCommandTokenizer DEFINED_COMMAND_TOKENIZER = new DefinedCommandTokenizer();
+
+	/*
+	 * The size of the buffer that a definitions file is read through.
+	 */
+	private static final int DEFINITION_BUFFER_SIZE = 64 * 1024;
+
+	/*
+	 * The emitter of the Java Flight Recorder events.
+	 */
+	private static final ParseEvents PARSE_EVENTS = ParseEvents.create();
+
+	/*
+	 * Adds the built in types to the map.
+	 */
+	private static void addBuiltInTypes(final Map<String, ValueConverter<?>> converterMap) {
+		converterMap.put("boolean", ValueConverters.BOOLEAN);
+		converterMap.put("double", ValueConverters.DOUBLE);
+		converterMap.put("duration", ValueConverters.DURATION);
+		converterMap.put("int", ValueConverters.INT);
+		converterMap.put("long", ValueConverters.LONG);
+		converterMap.put("path", ValueConverters.PATH);
+	}
+
+	/**
+	 * Creates a new Builder that is used to define the commands of a parser.
+	 *
+	 * @return A new <code>CmdLineParser.Builder</code> instance.
+	 */
+	public static Builder builder() {
+		return (new Builder());
+	}
+
+	/*
+	 * Compiles the regex, or gets the Pattern that was already compiled for the
+	 * same regex. An invalid regex throws an UnsupportedException.
+	 */
+	private static Pattern compilePattern(final String regex, final Map<String, Pattern> patternMap) {
+		assert ((regex != null) && (regex.length() > 0)) : "The parameter 'regex' must not be null or empty";
+		assert (patternMap != null) : "The parameter 'patternMap' must not be null";
+
+		Pattern pattern = patternMap.get(regex);
+		if (pattern == null) {
+			try {
+				pattern = Pattern.compile(regex);
+			} catch (final PatternSyntaxException e) {
+				throw (new UnsupportedException("Error: The regex '" + regex + "' is not a valid pattern.", e));
+			}
+			patternMap.put(regex, pattern);
+		}
+		return (pattern);
+	}
+
+	/*
+	 * Creates a CommandDefinition. The variable names that are defined are added
+	 * to the variableNames set, a regex is compiled with the patternMap and the
+	 * type of a variable is found in the converterMap.
+	 */
+	private static CommandDefinition createCommandDefinition(final List<Token> tokens,
+			final Set<String> variableNames, final Map<String, Pattern> patternMap,
+			final Map<String, ValueConverter<?>> converterMap) {
+
+		assert ((tokens != null) && (tokens.size() > 0)) : "The parameter 'tokens' must not be null or empty";
+		assert (variableNames != null) : "The parameter 'variableNames' must not be null";
+		assert (patternMap != null) : "The parameter 'patternMap' must not be null";
+		assert (converterMap != null) : "The parameter 'converterMap' must not be null";
+
+		final CommandDefinition command = new CommandDefinition();
+
+		// a list flag. Only one list can exist.
+		boolean doesListExist = false;
+
+		// a flag to mark if an optional var was created. If this is true and an
+		// attempt to create a required var is made, then an exception will be
+		// thrown.
+		boolean isOptionalVarDefined = false;
+		for (final Token token : tokens) {
+
+			final Type type = token.getType();
+
+			// a variable may have a type - name<type>.
+			String name = token.getValue();
+			String typeName = null;
+			if ((type == Type.REQUIRED_VALUE) || (type == Type.REQUIRED_LIST_VALUE) || (type == Type.OPTIONAL_VALUE)
+					|| (type == Type.OPTIONAL_LIST_VALUE)) {
+				final int typeIndex = name.indexOf('<');
+				if ((typeIndex > 0) && name.endsWith(">")) {
+					typeName = name.substring(typeIndex + 1, name.length() - 1);
+					name = name.substring(0, typeIndex);
+				}
+			}
+
+			switch (type) {
+			case COMMAND: {
+				if (name.contains(" ")) {
+					throw (new UnsupportedException("Error: The command name '" + name
+							+ "' contains spaces which is not supported.  " + "The definition may need a comma."));
+				} else {
+					command.addName(name);
+				}
+				break;
+			}
+			case DESCRIPTION: {
+
+				final String description = command.getDescription();
+				if ((description != null) && (description.length() > 0)) {
+					throw (new DuplicateException("Error: The description '" + name + "' has already been defined."));
+				} else {
+					command.setDescription(name);
+				}
+
+				break;
+			}
+			case REGEX_VALUE: {
+				final String existingRegex = command.getRegexValue();
+				if ((existingRegex != null) && (existingRegex.length() > 0)) {
+					throw (new DuplicateException("Error: The regex '" + name + "' has already been defined."));
+				} else {
+					command.setRegexPattern(CmdLineParser.compilePattern(name, patternMap));
+				}
+				break;
+			}
+			case REQUIRED_VALUE: {
+				if (isOptionalVarDefined) {
+					throw (new UnsupportedException(
+							"Error: An optional variable has already been defined before this required variable.  "
+									+ "Required variables must be defined before optional variables.'"));
+				} else {
+					CmdLineParser.addVariableName(variableNames, name);
+					command.addRequiredVariable(name);
+				}
+				break;
+			}
+			case REQUIRED_LIST_VALUE: {
+				if (isOptionalVarDefined) {
+					throw (new UnsupportedException(
+							"Error: An optional variable has already been defined before this required variable.  "
+									+ "Required variables must be defined before optional variables.'"));
+				} else if (doesListExist) {
+					throw (new UnsupportedException("Error: A List has already been defined for '" + name
+							+ "'.  A command can only have one list defined. "));
+				} else {
+					doesListExist = true;
+					CmdLineParser.addVariableName(variableNames, name);
+					command.setRequiredVariableList(name);
+				}
+				break;
+			}
+			case OPTIONAL_VALUE: {
+				CmdLineParser.addVariableName(variableNames, name);
+				command.addOptionalVariable(name);
+				isOptionalVarDefined = true;
+				break;
+			}
+			case OPTIONAL_LIST_VALUE: {
+				if (doesListExist) {
+					throw (new UnsupportedException("Error: A List has already been defined for '" + name
+							+ "'.  A command can only have one list defined. "));
+				} else {
+					doesListExist = true;
+					CmdLineParser.addVariableName(variableNames, name);
+					command.setOptionalVariableList(name);
+					isOptionalVarDefined = true;
+				}
+				break;
+			}
+			default: {
+				throw (new UnsupportedException(
+						"Error:  Unknown token '" + name + "' is an unknown type ='" + type.name() + "')."));
+			}
+			}
+
+			if (typeName != null) {
+				final ValueConverter<?> converter = converterMap.get(typeName);
+				if (converter == null) {
+					throw (new UnsupportedException(
+							"Error: The type '" + typeName + "' of the variable '" + name + "' is not defined."));
+				}
+				command.setSlotType(name, typeName, converter);
+			}
+		}
+
+		if (command.getNames().isEmpty()) {
+			throw (new MissingException("Error:  The command name was not defined and is missing."));
+		}
+
+		return (command);
+	}
+
+	/*
+	 * Adds variable name to the set. If the name already exists, then the
+	 * DuplicateException is thrown.
+	 */
+	private static void addVariableName(final Set<String> variableNames, final String name) {
+		assert ((name != null) && (name.length() > 0)) : "The parameter 'name' must not be null or empty";
+
+		if (!variableNames.add(name)) {
+			throw (new DuplicateException(
+					"Error: The variable '" + name + "' has already been defined.  Define a new variable name."));
+		}
+	}
+
+	/*
+	 * The application name.
+	 */
+	private final String _applicationName;
+
+	/*
+	 * The settings of an asynchronous parse.
+	 */
+	private final AsyncDispatch _asyncDispatch;
+
+	/*
+	 * A map that holds the key of a command string and a value of a command
+	 * definition.
+	 */
+	private final Map<String, CommandDefinition> _commandDefinitionMap;
+
+	/*
+	 * The default listener that will handle commands as they are processed. May
+	 * be null.
+	 */
+	private final CommandListener _commandListener;
+
+	/*
+	 * Whether @path arguments are expanded into the arguments of the file.
+	 */
+	private final boolean _expandArgumentFiles;
+
+	/*
+	 * Routes the Commands to the handlers of their definitions. Null if no
+	 * handler was defined.
+	 */
+	private final HandlerTable _handlerTable;
+
+	/*
+	 * The limits of a parse.
+	 */
+	private final ParseLimits _limits;
+
+	/*
+	 * The metrics of the parses. Null if the parses are not counted.
+	 */
+	private final ParseMetrics _metrics;
+
+	/*
+	 * The tracer of the parse steps. Null if the steps are not traced.
+	 */
+	private final ParseTracer _parseTracer;
+
+	/*
+	 * The application version.
+	 */
+	private final String _version;
+
+	/*
+	 * The command names, in the order they were defined. They are indexed for
+	 * word suggestion when the first command that is not defined is found. Null
+	 * if the definitions are read from a registry.
+	 */
+	private final List<String> _commandNames;
+
+	/*
+	 * The compiled definitions that are looked up in place of a map. Null if the
+	 * definitions were defined on the Builder.
+	 */
+	private final CommandRegistry _registry;
+
+	/*
+	 * The suggested words of the tokens that were not defined. Null if the
+	 * suggestions are not cached.
+	 */
+	private final SuggestionCache _suggestionCache;
+
+	/*
+	 * The index of the command names that suggests words if a command is not
+	 * found. Null until it is first needed.
+	 */
+	private volatile SuggestionIndex _suggestionIndex;
+
+	/*
+	 * Constructor. Copies the state of the Builder.
+	 */
+	private CmdLineParser(final Builder builder) {
+		assert (builder != null) : "The parameter 'builder' must not be null";
+
+		this._applicationName = builder._applicationName;
+		this._asyncDispatch = builder._asyncDispatch;
+		this._version = builder._version;
+		this._commandListener = builder._commandListener;
+		this._expandArgumentFiles = builder._expandArgumentFiles;
+		this._limits = builder._limits;
+		this._parseTracer = builder._parseTracer;
+		this._metrics = builder._metrics;
+		if (builder._registry != null) {
+			// the registry converts its definitions with a copy of the converters,
+			// so types that are defined later are not seen by this parser.
+			for (final String typeName : builder._registry.getTypeNames()) {
+				if (!builder._converterMap.containsKey(typeName)) {
+					throw (new UnsupportedException("Error: The type '" + typeName
+							+ "' of the compiled commands is not defined.  Define the type before the parser is built."));
+				}
+			}
+			this._registry = builder._registry.bind(new HashMap<String, ValueConverter<?>>(builder._converterMap));
+			this._commandDefinitionMap = this._registry;
+			this._commandNames = null;
+		} else {
+			this._registry = null;
+			this._commandDefinitionMap = Collections
+					.unmodifiableMap(new HashMap<String, CommandDefinition>(builder._commandDefinitionMap));
+			this._commandNames = Collections.unmodifiableList(new ArrayList<String>(builder._commandNames));
+		}
+
+		final CommandListener[] handlers = builder._handlerList.toArray(new CommandListener[0]);
+		boolean hasHandlers = false;
+		for (final CommandListener handler : handlers) {
+			hasHandlers |= (handler != null);
+		}
+		this._handlerTable = (hasHandlers ? new HandlerTable(handlers, builder._commandListener) : null);
+
+		this._suggestionCache = (builder._suggestionCacheSize > 0 ? new SuggestionCache(builder._suggestionCacheSize)
+				: null);
+	}
+
+	/*
+	 * Binds the values that follow a command name to the variables of the
+	 * command. The tokens are read starting at the index and the index after the
+	 * last consumed token is returned.
+	 */
+	private int bindVariables(final ParseContext context, final Command command,
+			final CommandDefinition commandDefinition, final int index) {
+
+		assert (context != null) : "The parameter 'context' must not be null";
+		assert (command != null) : "The parameter 'command' must not be null";
+		assert (commandDefinition != null) : "The parameter 'commandDefinition' must not be null";
+
+		int cursor = index;
+		if (cursor < context._tokens.size()) {
+
+			// pattern can be null.
+			final Pattern pattern = commandDefinition.getRegexPattern();
+
+			if (commandDefinition.hasRequiredVariables()) {
+				final List<String> names = commandDefinition.getRequiredVariableNames();
+				cursor = this.processVariable(context, pattern, cursor, names, command, true);
+			}
+
+			if (commandDefinition.hasRequiredVariableLists()) {
+				final String name = commandDefinition.getRequiredVariableListName();
+				cursor = this.processVariableList(context, pattern, cursor, name, command, true);
+			}
+
+			if (commandDefinition.hasOptionalVariables()) {
+				final List<String> names = commandDefinition.getOptionalVariableNames();
+				cursor = this.processVariable(context, pattern, cursor, names, command, false);
+			}
+
+			if (commandDefinition.hasOptionalVariableLists()) {
+				final String name = commandDefinition.getOptionalVariableListName();
+				cursor = this.processVariableList(context, pattern, cursor, name, command, false);
+			}
+		}
+
+		return (cursor);
+	}
+
+	/**
+	 * Gets the application name that was defined.
+	 *
+	 * @return A String. May be null or empty if the application name was not
+	 *         defined.
+	 */
+	public String getApplicationName() {
+		return (this._applicationName);
+	}
+
+	/*
+	 * Gets all of the definitions, in the order of their index.
+	 */
+	List<CommandDefinition> getDefinitions() {
+		if (this._registry != null) {
+			return (this._registry.getDefinitions());
+		}
+
+		// the names are in the order they were defined, so the first name of each
+		// definition is found in the order of the indexes.
+		final List<CommandDefinition> definitions = new ArrayList<CommandDefinition>();
+		for (final String name : this._commandNames) {
+			final CommandDefinition definition = this._commandDefinitionMap.get(name);
+			if (definition.getIndex() == definitions.size()) {
+				definitions.add(definition);
+			}
+		}
+		return (definitions);
+	}
+
+	/**
+	 * Gets the statistics of the cache of suggested words. The cache belongs to
+	 * this parser, so a parser that is built after the commands change starts
+	 * with an empty cache.
+	 *
+	 * @return A <code>SuggestionCacheStats</code> instance.
+	 */
+	public SuggestionCacheStats getSuggestionCacheStats() {
+		return (this._suggestionCache != null ? this._suggestionCache.getStats()
+				: new SuggestionCacheStats(0, 0, 0, 0));
+	}
+
+	/**
+	 * Gets the version String that was defined.
+	 *
+	 * @return A String. May be null or empty if the version was not defined.
+	 */
+	public String getVersion() {
+		return (this._version);
+	}
+
+	/**
+	 * Parse the command line arguments. If a default listener was set on the
+	 * Builder, it will handle the callbacks.
+	 *
+	 * @param args
+	 *            The arguments from the command line.
+	 * @return A new List containing the Command instances that were parsed.
+	 */
+	public List<Command> parse(final String[] args) {
+		return (this.parseArgs(args, this._commandListener));
+	}
+
+	/**
+	 * Parse the command line arguments.
+	 *
+	 * @param args
+	 *            The arguments from the command line.
+	 * @param commandListener
+	 *            A listener that will handle the callbacks.
+	 * @return A new List containing the Command instances that were parsed.
+	 */
+	public List<Command> parse(final String[] args, final CommandListener commandListener) {
+		Validate.defineObject(commandListener).testNotNull().throwValidationExceptionOnFail().validate();
+
+		return (this.parseArgs(args, commandListener));
+	}
+
+	/**
+	 * Parse a whole command line, such as a line that was read from a socket,
+	 * a script or a config value. The line is split into its arguments by the
+	 * quoting rules of a POSIX shell, white space splits the arguments, quotes
+	 * keep white space and a backslash escapes the next char. Nothing is
+	 * expanded. The arguments are tokenized as they are found, a String[] is not
+	 * created. If a default listener was set on the Builder, it will handle the
+	 * callbacks.
+	 *
+	 * @param line
+	 *            The command line. Must not be null. Any CharSequence, such as a
+	 *            <code>StringBuilder</code> or a <code>CharBuffer</code>, may be
+	 *            used, it is not changed and is not read after this method
+	 *            returns.
+	 * @return A new List containing the Command instances that were parsed.
+	 */
+	public List<Command> parse(final CharSequence line) {
+		Validate.defineObject(line).testNotNull().throwValidationExceptionOnFail().validate();
+
+		return (this.parseLine(line, this._commandListener));
+	}
+
+	/**
+	 * Parse a whole command line. The line is split into its arguments by the
+	 * quoting rules of a POSIX shell.
+	 *
+	 * @see #parse(CharSequence)
+	 *
+	 * @param line
+	 *            The command line. Must not be null.
+	 * @param commandListener
+	 *            A listener that will handle the callbacks.
+	 * @return A new List containing the Command instances that were parsed.
+	 */
+	public List<Command> parse(final CharSequence line, final CommandListener commandListener) {
+		Validate.defineObject(line).testNotNull().throwValidationExceptionOnFail().validate();
+		Validate.defineObject(commandListener).testNotNull().throwValidationExceptionOnFail().validate();
+
+		return (this.parseLine(line, commandListener));
+	}
+
+	/**
+	 * Parse a batch of command lines, such as the arguments of queued jobs, in
+	 * the common <code>ForkJoinPool</code>. The command lines are split into
+	 * ranges that are parsed at the same time against the definitions of this
+	 * parser, each range reusing one token buffer.
+	 *
+	 * The Commands are not handed to a listener or a handler, and a
+	 * -D&lt;property&gt; is not set as a System property, so a batch has no
+	 * side effects. Its Command is still in the result. A command line that is
+	 * not valid does not stop the batch, its exception is held by its result.
+	 *
+	 * @param argsList
+	 *            The command lines. Must not be null.
+	 * @return A new List of the results, one for each command line, in the
+	 *         order of the command lines.
+	 */
+	public List<ParseResult> parseAll(final List<String[]> argsList) {
+		return (this.parseAll(argsList, ForkJoinPool.commonPool()));
+	}
+
+	/**
+	 * Parse a batch of command lines in the pool.
+	 *
+	 * @see #parseAll(List)
+	 *
+	 * @param argsList
+	 *            The command lines. Must not be null.
+	 * @param pool
+	 *            The pool that parses the command lines. Must not be null.
+	 * @return A new List of the results, one for each command line, in the
+	 *         order of the command lines.
+	 */
+	public List<ParseResult> parseAll(final List<String[]> argsList, final ForkJoinPool pool) {
+		Validate.defineObject(argsList).testNotNull().throwValidationExceptionOnFail().validate();
+		Validate.defineObject(pool).testNotNull().throwValidationExceptionOnFail().validate();
+
+		final String[][] argsArray = argsList.toArray(new String[argsList.size()][]);
+		final ParseResult[] results = new ParseResult[argsArray.length];
+		if (argsArray.length > 0) {
+			final int threshold = BatchParseTask.computeThreshold(argsArray.length, pool.getParallelism());
+			pool.invoke(new BatchParseTask(this, argsArray, results, 0, argsArray.length, threshold));
+		}
+		return (Arrays.asList(results));
+	}
+
+	/**
+	 * Parse a batch of command lines in the common <code>ForkJoinPool</code>.
+	 * The stream is read to its end before the command lines are parsed.
+	 *
+	 * @see #parseAll(List)
+	 *
+	 * @param argsStream
+	 *            The command lines. Must not be null.
+	 * @return A new List of the results, one for each command line, in the
+	 *         order of the stream.
+	 */
+	public List<ParseResult> parseAll(final Stream<String[]> argsStream) {
+		Validate.defineObject(argsStream).testNotNull().throwValidationExceptionOnFail().validate();
+
+		return (this.parseAll(argsStream.collect(Collectors.<String[]>toList())));
+	}
+
+	/**
+	 * Parse the command line arguments and hand each Command to the executor of
+	 * the <code>AsyncDispatch</code>, instead of calling the default listener
+	 * on this thread. The Commands are parsed before this method returns, their
+	 * handling may not have completed.
+	 *
+	 * @param args
+	 *            The arguments from the command line.
+	 * @return A <code>DispatchHandle</code> that is used to wait for the
+	 *         handling of the Commands.
+	 */
+	public DispatchHandle parseAsync(final String[] args) {
+		Validate.defineBoolean((this._commandListener != null) || (this._handlerTable != null)).testTrue()
+				.throwValidationExceptionOnFail().validate();
+
+		return (this.dispatchAsync(args, this.route(this._commandListener)));
+	}
+
+	/**
+	 * Parse the command line arguments and hand each Command to the executor of
+	 * the <code>AsyncDispatch</code>, instead of calling the listener on this
+	 * thread. The Commands are parsed before this method returns, their
+	 * handling may not have completed.
+	 *
+	 * If the command line is not valid, the handling of the Commands that were
+	 * already dispatched is cancelled and the exception is thrown.
+	 *
+	 * @param args
+	 *            The arguments from the command line.
+	 * @param commandListener
+	 *            A listener that will handle the callbacks.
+	 * @return A <code>DispatchHandle</code> that is used to wait for the
+	 *         handling of the Commands.
+	 */
+	public DispatchHandle parseAsync(final String[] args, final CommandListener commandListener) {
+		Validate.defineObject(commandListener).testNotNull().throwValidationExceptionOnFail().validate();
+
+		return (this.dispatchAsync(args, this.route(commandListener)));
+	}
+
+	/**
+	 * Writes the command definitions, the application name and version, and
+	 * the index of the command names that suggests words, to a snapshot file.
+	 * The snapshot is loaded by <code>Builder.loadSnapshot(Path)</code>, so an
+	 * application with many commands does not define them each time it starts.
+	 * The handlers, listeners and settings of the parser are not written.
+	 *
+	 * The file is written beside its final name and then moved to it, so a
+	 * snapshot is never seen half written.
+	 *
+	 * @see CmdLineParser.Builder#loadSnapshot(Path)
+	 *
+	 * @param file
+	 *            The snapshot file. Must not be null. It is replaced if it
+	 *            exists.
+	 * @throws IOException
+	 *             If the file can not be written.
+	 */
+	public void writeSnapshot(final Path file) throws IOException {
+		Validate.defineObject(file).testNotNull().throwValidationExceptionOnFail().validate();
+
+		final List<String> names = (this._registry != null ? this._registry.getNames() : this._commandNames);
+		RegistrySnapshot.write(file, this._applicationName, this._version, this.getDefinitions(), names,
+				this.getSuggestionIndex());
+	}
+
+	/*
+	 * Parse the command line arguments and hand each Command to the
+	 * dispatcher. The listener has already been routed.
+	 */
+	private DispatchHandle dispatchAsync(final String[] args, final CommandListener commandListener) {
+		final AsyncDispatcher dispatcher = new AsyncDispatcher(this._asyncDispatch, commandListener);
+		final List<Command> commands;
+		try {
+			commands = this.parseArgs(args, commandListener, dispatcher);
+		} catch (final RuntimeException e) {
+			dispatcher.cancel(this._asyncDispatch.getCancellationPolicy() != CancellationPolicy.ABANDON);
+			throw (e);
+		}
+		return (dispatcher.createHandle(commands));
+	}
+
+	/*
+	 * Parse the command line arguments. The listener may be null.
+	 */
+	List<Command> parseArgs(final String[] args, final CommandListener commandListener) {
+		return (this.parseArgs(args, this.route(commandListener), null));
+	}
+
+	/*
+	 * Creates a lexer of whole command lines.
+	 */
+	LineLexer createLexer() {
+		return (new LineLexer(CmdLineParser.COMMAND_LINE_TOKENIZER));
+	}
+
+	/*
+	 * Gets the default listener that was set on the Builder. May be null.
+	 */
+	CommandListener getCommandListener() {
+		return (this._commandListener);
+	}
+
+	/*
+	 * Gets the limits of a parse.
+	 */
+	ParseLimits getLimits() {
+		return (this._limits);
+	}
+
+	/*
+	 * Parse a whole command line. The listener may be null.
+	 */
+	List<Command> parseLine(final CharSequence line, final CommandListener commandListener) {
+		final List<Command> commands = new ArrayList<Command>();
+		this.parseLine(line, this.createLexer(), new TokenBuffer(), commands,
+				this.route(commandListener));
+		return (commands);
+	}
+
+	/*
+	 * Parse a whole command line. The line is split by the lexer and each
+	 * argument is tokenized into the buffer, and the Commands are added to the
+	 * List. The lexer, the buffer and the List are cleared first, so a shell
+	 * reuses them for each line. The listener has already been routed.
+	 */
+	void parseLine(final CharSequence line, final LineLexer lexer, final TokenBuffer tokens,
+			final List<Command> commands, final CommandListener commandListener) {
+		assert (line != null) : "The parameter 'line' must not be null";
+		assert (lexer != null) : "The parameter 'lexer' must not be null";
+		assert (tokens != null) : "The parameter 'tokens' must not be null";
+		assert (commands != null) : "The parameter 'commands' must not be null";
+
+		final Object parseEvent = CmdLineParser.PARSE_EVENTS.beginParse();
+		final long parseStart = (this._metrics != null ? System.nanoTime() : 0);
+		try {
+			final int length = line.length();
+			if (length > this._limits.getMaxInputSize()) {
+				throw (new LimitException("Error:  The input of " + length + " chars is larger than the limit of "
+						+ this._limits.getMaxInputSize() + "."));
+			}
+
+			final long deadline = this._limits.computeDeadline();
+
+			tokens.setLimits(this._limits.getMaxTokenCount(), this._limits.getMaxValueLength(), deadline);
+			final Object tokenizeEvent = CmdLineParser.PARSE_EVENTS.beginTokenize();
+			final long tokenizeStart = (this._metrics != null ? System.nanoTime() : 0);
+			lexer.tokenize(line, tokens, this._expandArgumentFiles ? new ArgumentFileExpander(
+					CmdLineParser.COMMAND_LINE_TOKENIZER, tokens, length, this._limits.getMaxInputSize()) : null);
+			if (this._metrics != null) {
+				this._metrics.recordTokenize(System.nanoTime() - tokenizeStart);
+			}
+			CmdLineParser.PARSE_EVENTS.endTokenize(tokenizeEvent, length, tokens.size());
+
+			commands.clear();
+			this.parseTokens(tokens, commands, commandListener, null, deadline, true);
+		} catch (final RuntimeException e) {
+			if (this._metrics != null) {
+				this._metrics.recordError(e);
+			}
+			throw (e);
+		} finally {
+			if (this._metrics != null) {
+				this._metrics.recordParse(System.nanoTime() - parseStart);
+			}
+			CmdLineParser.PARSE_EVENTS.endParse(parseEvent, tokens.size(), commands.size());
+		}
+	}
+
+	/*
+	 * Gets the listener that handles the Commands of a parse. If handlers were
+	 * defined, it is the handler table with the listener as its fallback.
+	 */
+	CommandListener route(final CommandListener commandListener) {
+		return (this._handlerTable != null ? this._handlerTable.withFallback(commandListener) : commandListener);
+	}
+
+	/*
+	 * Parse the command line arguments. The listener may be null. If the
+	 * dispatcher is not null, the Commands are handed to it instead of the
+	 * listener.
+	 */
+	private List<Command> parseArgs(final String[] args, final CommandListener commandListener,
+			final AsyncDispatcher dispatcher) {
+		return (this.parseArgs(args, commandListener, dispatcher, new TokenBuffer(), true));
+	}
+
+	/*
+	 * Parse the command line arguments with the buffer, which is cleared first
+	 * so it may be reused for each parse. The listener may be null. If the
+	 * dispatcher is not null, the Commands are handed to it instead of the
+	 * listener. A batch does not set the -D<property> System properties, it
+	 * only creates their Commands.
+	 */
+	List<Command> parseArgs(final String[] args, final CommandListener commandListener,
+			final AsyncDispatcher dispatcher, final TokenBuffer tokens, final boolean setsSystemProperties) {
+		final Object parseEvent = CmdLineParser.PARSE_EVENTS.beginParse();
+		final long parseStart = (this._metrics != null ? System.nanoTime() : 0);
+		final List<Command> commands = new ArrayList<Command>();
+		try {
+			Validate.defineBoolean((args != null) && (args.length > 0)).testTrue().throwValidationExceptionOnFail()
+					.validate();
+			if (args.length > this._limits.getMaxArgumentCount()) {
+				throw (new LimitException("Error:  The " + args.length + " arguments are more than the limit of "
+						+ this._limits.getMaxArgumentCount() + "."));
+			}
+
+			long inputSize = 0;
+			for (final String arg : args) {
+				inputSize += arg.length();
+			}
+			if (inputSize > this._limits.getMaxInputSize()) {
+				throw (new LimitException("Error:  The input of " + inputSize + " chars is larger than the limit of "
+						+ this._limits.getMaxInputSize() + "."));
+			}
+
+			final long deadline = this._limits.computeDeadline();
+
+			tokens.setLimits(this._limits.getMaxTokenCount(), this._limits.getMaxValueLength(), deadline);
+			final Object tokenizeEvent = CmdLineParser.PARSE_EVENTS.beginTokenize();
+			final long tokenizeStart = (this._metrics != null ? System.nanoTime() : 0);
+			if (this._expandArgumentFiles) {
+				new ArgumentFileExpander(CmdLineParser.COMMAND_LINE_TOKENIZER, tokens, inputSize,
+						this._limits.getMaxInputSize()).tokenize(args);
+			} else {
+				CmdLineParser.COMMAND_LINE_TOKENIZER.tokenize(args, tokens);
+			}
+			if (this._metrics != null) {
+				this._metrics.recordTokenize(System.nanoTime() - tokenizeStart);
+			}
+			CmdLineParser.PARSE_EVENTS.endTokenize(tokenizeEvent, inputSize, tokens.size());
+
+			this.parseTokens(tokens, commands, commandListener, dispatcher, deadline, setsSystemProperties);
+			return (commands);
+		} catch (final RuntimeException e) {
+			if (this._metrics != null) {
+				this._metrics.recordError(e);
+			}
+			throw (e);
+		} finally {
+			if (this._metrics != null) {
+				this._metrics.recordParse(System.nanoTime() - parseStart);
+			}
+			CmdLineParser.PARSE_EVENTS.endParse(parseEvent, tokens.size(), commands.size());
+		}
+	}
+
+	/*
+	 * Parse the tokens that were added to the buffer and add the Commands to the
+	 * List. The listener may be null. If the dispatcher is not null, the
+	 * Commands are handed to it instead of the listener.
+	 */
+	private void parseTokens(final TokenBuffer tokens, final List<Command> commands,
+			final CommandListener commandListener, final AsyncDispatcher dispatcher, final long deadline,
+			final boolean setsSystemProperties) {
+		if (this._parseTracer != null) {
+			tokens.trace(this._parseTracer);
+		}
+
+		final ParseContext context = new ParseContext(tokens, commands, commandListener, dispatcher, deadline,
+				setsSystemProperties);
+		this.processCmdLineTokens(context);
+	}
+
+	/*
+	 * Processes the String tokens and creates Command. A single loop moves a
+	 * cursor over the tokens, each step consumes a command name and the values
+	 * that are bound to it.
+	 */
+	private void processCmdLineTokens(final ParseContext context) {
+
+		assert (context != null) : "The parameter 'context' must not be null";
+
+		final TokenBuffer tokens = context._tokens;
+
+		int cursor = 0;
+		while (cursor < tokens.size()) {
+
+			ParseLimits.checkDeadline(context._deadline);
+
+			final String tokenValue = tokens.get(cursor++);
+
+			// check to see that a command definition exists for the current token.
+			final CommandDefinition commandDefinition = this._commandDefinitionMap.get(tokenValue);
+			if (commandDefinition != null) {
+				if (this._parseTracer != null) {
+					this._parseTracer.commandMatched(tokenValue, cursor - 1);
+				}
+				if (this._metrics != null) {
+					this._metrics.recordHit(commandDefinition);
+				}
+				CmdLineParser.PARSE_EVENTS.commandMatched(tokenValue, cursor - 1);
+
+				// if defined, then create a command.
+				final Command command = new Command(tokenValue, commandDefinition);
+				cursor = this.bindVariables(context, command, commandDefinition, cursor);
+
+				this.handleCommand(context, command);
+
+			} else if (CmdLineParser.isSystemProperty(tokenValue, tokens, cursor)) {
+				// Process -D<property>=<value> if it exists.
+				this.processSystemProperty(context, tokenValue, tokens.get(cursor++));
+			} else {
+				// if tokenvalue and not a system property then it is not
+				// defined.
+				final List<String> suggestedWords = this.getSuggestedWords(tokenValue);
+
+				throw (this.traceFailure(tokenValue, new UnsupportedException(
+						"Error: The command name '" + tokenValue + "' is not defined.", suggestedWords, false)));
+			}
+		}
+	}
+
+	/*
+	 * Gets the unmodifiable List of the words that are suggested for a token
+	 * that is not defined. The List is cached, if the cache is on.
+	 */
+	private List<String> getSuggestedWords(final String tokenValue) {
+		final Object event = CmdLineParser.PARSE_EVENTS.beginSuggestion();
+
+		List<String> suggestedWords = null;
+		boolean cached = false;
+		if (this._suggestionCache == null) {
+			suggestedWords = this.getSuggestionIndex().suggest(tokenValue);
+		} else {
+			suggestedWords = this._suggestionCache.get(tokenValue);
+			cached = (suggestedWords != null);
+			if (suggestedWords == null) {
+				suggestedWords = this.getSuggestionIndex().suggest(tokenValue);
+				this._suggestionCache.put(tokenValue, suggestedWords);
+			}
+		}
+
+		CmdLineParser.PARSE_EVENTS.endSuggestion(event, tokenValue, suggestedWords.size(), cached);
+		return (suggestedWords);
+	}
+
+	/*
+	 * Gets the index of the command names. It is built the first time a command
+	 * that is not defined is found, so a parser that never sees one does not pay
+	 * for it.
+	 */
+	private SuggestionIndex getSuggestionIndex() {
+		SuggestionIndex suggestionIndex = this._suggestionIndex;
+		if (suggestionIndex == null) {
+			synchronized (this) {
+				suggestionIndex = this._suggestionIndex;
+				if (suggestionIndex == null) {
+					suggestionIndex = (this._registry != null ? this._registry.createSuggestionIndex()
+							: new SuggestionIndex(this._commandNames));
+					this._suggestionIndex = suggestionIndex;
+				}
+			}
+		}
+		return (suggestionIndex);
+	}
+
+	/*
+	 * Adds the command to the parsed commands and notifies the listener of the
+	 * created command, if the listener was set. The listener is called on this
+	 * thread, unless the parse is asynchronous.
+	 */
+	private void handleCommand(final ParseContext context, final Command command) {
+
+		context._commands.add(command);
+
+		if (context._commandListener != null) {
+			if (this._parseTracer != null) {
+				this._parseTracer.listenerDispatched(command, context._commandListener);
+			}
+
+			if (context._dispatcher != null) {
+				context._dispatcher.dispatch(command);
+			} else {
+				final Object event = CmdLineParser.PARSE_EVENTS.beginDispatch();
+				final long dispatchStart = (this._metrics != null ? System.nanoTime() : 0);
+				try {
+					context._commandListener.handle(command);
+				} finally {
+					if (this._metrics != null) {
+						this._metrics.recordDispatch(System.nanoTime() - dispatchStart);
+					}
+					CmdLineParser.PARSE_EVENTS.endDispatch(event, command, context._commandListener);
+				}
+			}
+		}
+	}
+
+	/*
+	 * A test to see if the token is a -D<property> key and that the tokens hold
+	 * a value for it at the index.
+	 */
+	private static boolean isSystemProperty(final String valueString, final TokenBuffer tokens, final int index) {
+		return ((valueString != null) && (index < tokens.size()) && (valueString.indexOf("-D") > -1));
+	}
+
+	/*
+	 * Processes the -D<property>=<value> and adds it to the System property,
+	 * unless the parse is part of a batch.
+	 */
+	private void processSystemProperty(final ParseContext context, final String valueString,
+			final String systemPropertyValue) {
+
+		final int indexOfSystemProperty = valueString.indexOf("-D");
+		final String systemPropertyKey = valueString.substring(indexOfSystemProperty + 2);
+
+		if (context._setsSystemProperties) {
+			if (this._parseTracer != null) {
+				this._parseTracer.systemPropertySet(systemPropertyKey, systemPropertyValue);
+			}
+
+			System.setProperty(systemPropertyKey, systemPropertyValue);
+		}
+
+		// a system property is not defined, so it has a definition of its own.
+		final CommandDefinition commandDefinition = new CommandDefinition();
+		commandDefinition.addName(valueString);
+		commandDefinition.addRequiredVariable(systemPropertyKey);
+
+		final Command command = new Command(valueString, commandDefinition);
+		command.setValue(0, systemPropertyValue);
+
+		this.handleCommand(context, command);
+	}
+
+	/*
+	 * Process the required and optional variables that are associated with a
+	 * command. Returns the index after the last consumed token.
+	 */
+	private int processVariable(final ParseContext context, final Pattern pattern, final int index,
+			final List<String> definedVariableNames, final Command command, final boolean required) {
+
+		// pattern can be null.
+
+		assert (context != null) : "The parameter 'context' must not be null.";
+		assert (definedVariableNames != null) : "The parameter 'definedVariableNames' must not be null.";
+		assert (command != null) : "The parameter 'command' must not be null.";
+
+		final TokenBuffer tokens = context._tokens;
+
+		int cursor = index;
+		for (final String varName : definedVariableNames) {
+			// A varName must not start with a space, otherwise an exception is
+			// thrown.
+			if (varName.contains(" ")) {
+				throw (new UnsupportedException("Error: The variable name '" + varName
+						+ "' contains spaces which is not supported.  The definition may need a comma."));
+			} else if ((cursor == tokens.size()) && !required) {
+				// if there isnt any info from the command line and this
+				// variable is not required then break and exit.
+				break;
+			} else if (cursor == tokens.size()) {
+				// if there isnt any info from the command line but this
+				// variable is required then throw exception.
+				throw (this.traceFailure(command.getName(), new MissingException(
+						"Error:  The value for the required variable '" + varName + "' is missing.")));
+			} else {
+
+				final String argToken = tokens.get(cursor++);
+
+				this.matchValue(command, pattern, argToken);
+
+				try {
+					command.setValue(command._definition.getSlot(varName), argToken);
+				} catch (final MatchException e) {
+					throw (this.traceFailure(command.getName(), e));
+				}
+				this.traceBound(command, varName, argToken);
+			}
+		}
+		return (cursor);
+	}
+
+	/*
+	 * Process the required and optional variable lists that are associated with a
+	 * command. The range of tokens that belongs to the list is found first, it
+	 * ends at the next defined command name. Returns the index after the range.
+	 */
+	private int processVariableList(final ParseContext context, final Pattern pattern, final int index,
+			final String varName, final Command command, final boolean required) {
+		// pattern can be null.
+
+		assert (context != null) : "The parameter 'context' must not be null.";
+		assert ((varName != null) && (varName.length() > 0)) : "The parameter 'varName' must not be null or empty.";
+		assert (command != null) : "The parameter 'command' must not be null.";
+
+		final TokenBuffer tokens = context._tokens;
+
+		if (varName.contains(" ")) {
+			throw (new UnsupportedException("Error: The variable name '" + varName
+					+ "' contains spaces which is not supported.  The definition may need a comma."));
+		} else if ((index == tokens.size()) && required) {
+			// if there isnt any info from the command line but this
+			// variable is required then throw exception.
+			throw (this.traceFailure(command.getName(), new MissingException(
+					"Error:  The value for the required variable '" + varName + "' is missing.")));
+		}
+
+		// find the end of the range. A -D<property> inside of the list also
+		// consumes its value, even if the value is a command name.
+		final int maxListSize = this._limits.getMaxListSize();
+		int listSize = 0;
+		int end = index;
+		while ((end < tokens.size()) && !this._commandDefinitionMap.containsKey(tokens.get(end))) {
+			if (CmdLineParser.isSystemProperty(tokens.get(end), tokens, end + 1)) {
+				end += 2;
+			} else if (++listSize > maxListSize) {
+				throw (new LimitException("Error:  The list '" + varName + "' has more values than the limit of "
+						+ maxListSize + "."));
+			} else {
+				end++;
+			}
+
+			if ((listSize & CmdLineParser.DEADLINE_CHECK_MASK) == 0) {
+				ParseLimits.checkDeadline(context._deadline);
+			}
+		}
+
+		// the values are collected into an array that is sized by the range.
+		final String[] values = (listSize > 0 ? new String[listSize] : null);
+		int valueCount = 0;
+
+		int cursor = index;
+		while (cursor < end) {
+
+			final String argToken = tokens.get(cursor++);
+
+			// Process -Dsystem.properties=true if on command line.
+			if (CmdLineParser.isSystemProperty(argToken, tokens, cursor)) {
+				this.processSystemProperty(context, argToken, tokens.get(cursor++));
+			} else {
+				this.matchValue(command, pattern, argToken);
+				values[valueCount++] = argToken;
+				this.traceBound(command, varName, argToken);
+			}
+		}
+
+		if (values != null) {
+			try {
+				command.setValues(command._definition.getSlot(varName), values);
+			} catch (final MatchException e) {
+				throw (this.traceFailure(command.getName(), e));
+			}
+		}
+		return (end);
+	}
+
+	/*
+	 * Passes the value that was bound to the variable to the tracer, if it is
+	 * set.
+	 */
+	private void traceBound(final Command command, final String varName, final String value) {
+		if (this._parseTracer != null) {
+			this._parseTracer.variableBound(command.getName(), varName, value);
+		}
+	}
+
+	/*
+	 * Matches the value against the pattern, if the pattern was defined.
+	 */
+	private void matchValue(final Command command, final Pattern pattern, final String value) {
+		if ((pattern != null) && !pattern.matcher(value).matches()) {
+			throw (this.traceFailure(command.getName(), new MatchException("Error:  The value '" + value
+					+ "' does not match the expected pattern '" + pattern.toString() + "'.")));
+		}
+	}
+
+	/*
+	 * Passes the exception to the tracer, if it is set, and returns it so that
+	 * it can be thrown.
+	 */
+	private RuntimeException traceFailure(final String commandName, final RuntimeException exception) {
+		if (this._parseTracer != null) {
+			this._parseTracer.validationFailed(commandName, exception);
+		}
+		CmdLineParser.PARSE_EVENTS.validationFailed(commandName, exception);
+		return (exception);
+	}
+
+	/*
+	 * The state of a single parse. It is created for each parse and is only used
+	 * by the thread that parses.
+	 */
+	private static final class ParseContext {
+
+		/*
+		 * The commands that have been parsed.
+		 */
+		final List<Command> _commands;
+
+		/*
+		 * The listener that will handle commands as they are processed. May be
+		 * null.
+		 */
+		final CommandListener _commandListener;
+
+		/*
+		 * The System.nanoTime() value that the parse must end by. Zero if there is
+		 * no deadline.
+		 */
+		final long _deadline;
+
+		/*
+		 * A flag that is true if the -D<property> values are set as System
+		 * properties. False for a batch.
+		 */
+		final boolean _setsSystemProperties;
+
+		/*
+		 * The dispatcher of an asynchronous parse. Null if the listener is called
+		 * on the thread that parses.
+		 */
+		final AsyncDispatcher _dispatcher;
+
+		/*
+		 * The tokens of the command line.
+		 */
+		final TokenBuffer _tokens;
+
+		/*
+		 * Constructor.
+		 */
+		ParseContext(final TokenBuffer tokens, final List<Command> commands, final CommandListener commandListener,
+				final AsyncDispatcher dispatcher, final long deadline, final boolean setsSystemProperties) {
+			this._tokens = tokens;
+			this._commands = commands;
+			this._commandListener = commandListener;
+			this._dispatcher = dispatcher;
+			this._deadline = deadline;
+			this._setsSystemProperties = setsSystemProperties;
+		}
+	}
+}
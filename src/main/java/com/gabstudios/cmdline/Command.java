@@ -19,56 +19,81 @@
 
 package com.gabstudios.cmdline;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 
 /**
  * This class is the command that is created when the command line is parsed. It
  * is sent to the CommandListener.handle(Command command) method.
  *
- * It holds the name and variables of the command.
+ * It holds the name and variables of the command.  The variables are held in
+ * the slots that the <code>CommandDefinition</code> assigned to them, a single
+ * value is held as a String and many values are held as a String array.  If a
+ * variable has a type, its values are also held in their converted form.
  *
  * @author Gregory Brown (sysdevone)
  *
  */
 public class Command
 {
+    /*
+     * The converted values of the variables that have a type, indexed by slot.
+     * A slot holds the converted value, or an Object[] if it has many values.
+     * It is null until a value is converted.
+     */
+    protected Object[]                _converted;
+
+    /*
+     * The definition of the command. It holds the slot of each variable name.
+     */
+    protected final CommandDefinition _definition;
+
     /*
      * The name of the command
      */
-    protected String            _name;
+    protected String                  _name;
 
     /*
-     * The variables associated with the command. A variable has a name and
-     * value. The value is held in a <code>List</code> instance.
+     * The bits of the first value of the variables that have a primitive
+     * type, indexed by slot. It is null until a value is converted.
      */
-    protected Map<String, List> _variables;
+    protected long[]                  _primitives;
+
+    /*
+     * The values of the variables, indexed by slot. A slot is null if it does
+     * not have a value, a String if it has one value and a String[] if it has
+     * many values.
+     */
+    protected final Object[]          _values;
 
     /**
      * A Command POJO. Associates a name and creates the data structure that
-     * holds the variables.F
+     * holds the variables.
      *
      * @param name
      *            The name of the command.
+     * @param definition
+     *            The definition of the command.
      */
-    protected Command(final String name)
+    protected Command(final String name, final CommandDefinition definition)
     {
         assert ((name != null) && (name.length() > 0)) : "The parameter 'name' must not be null or empty";
+        assert (definition != null) : "The parameter 'definition' must not be null";
 
         this._name = name;
-        this._variables = new HashMap<String, List>();
+        this._definition = definition;
+        this._values = new Object[definition.getSlotCount()];
     }
 
     /**
-     * Adds a variable to the Command. The value is added to a <code>List</code>
-     * .
+     * Adds a variable to the Command. The value is added to the values that
+     * the variable already holds.
      *
      * @param name
-     *            The name of the Variable. Must be unique.
+     *            The name of the Variable. Must be defined for the command.
      * @param value
      *            The value associated with the name.
      */
@@ -77,19 +102,135 @@ public class Command
         assert ((name != null) && (name.length() > 0)) : "The parameter 'name' must not be null or empty";
         assert ((value != null) && (value.length() > 0)) : "The parameter 'value' must not be null or empty";
 
-        List<String> variables;
-        if (!this._variables.containsKey(name))
+        final int slot = this._definition.getSlot(name);
+        if (slot < 0)
         {
-            // create list
-            variables = new LinkedList<String>();
-            this._variables.put(name, variables);
+            throw (new UnsupportedException("Error: The variable '" + name
+                    + "' is not defined for the command '" + this._name
+                    + "'."));
+        }
 
+        final Object current = this._values[slot];
+        if (current == null)
+        {
+            this._values[slot] = value;
+        }
+        else if (current instanceof String)
+        {
+            this._values[slot] = new String[]
+                { (String) current, value };
         }
         else
         {
-            variables = this._variables.get(name);
+            final String[] values = (String[]) current;
+            final String[] newValues = Arrays.copyOf(values,
+                    values.length + 1);
+            newValues[values.length] = value;
+            this._values[slot] = newValues;
+        }
+
+        this.convertSlot(slot);
+    }
+
+    /*
+     * Converts the values of the slot with the converter of its variable, if
+     * its variable has a type. A value that can not be converted throws a
+     * MatchException.
+     */
+    private void convertSlot(final int slot)
+    {
+        final ValueConverter<?> converter = this._definition
+                .getSlotConverter(slot);
+        if (converter != null)
+        {
+            final Object value = this._values[slot];
+            if (this._converted == null)
+            {
+                this._converted = new Object[this._values.length];
+            }
+
+            if (converter instanceof PrimitiveConverter)
+            {
+                final PrimitiveConverter<?> primitiveConverter = (PrimitiveConverter<?>) converter;
+                if (this._primitives == null)
+                {
+                    this._primitives = new long[this._values.length];
+                }
+
+                if (value instanceof String)
+                {
+                    // the boxed value is created when it is read.
+                    this._primitives[slot] = this.toBits(slot,
+                            primitiveConverter, (String) value);
+                }
+                else
+                {
+                    final String[] values = (String[]) value;
+                    this._primitives[slot] = this.toBits(slot,
+                            primitiveConverter, values[0]);
+                    this._converted[slot] = this.convertValues(slot,
+                            converter, values);
+                }
+            }
+            else if (value instanceof String)
+            {
+                this._converted[slot] = this.convertValue(slot, converter,
+                        (String) value);
+            }
+            else
+            {
+                this._converted[slot] = this.convertValues(slot, converter,
+                        (String[]) value);
+            }
         }
-        variables.add(value);
+    }
+
+    /*
+     * Converts the value with the converter of the slot.
+     */
+    private Object convertValue(final int slot,
+            final ValueConverter<?> converter, final String value)
+    {
+        final Object converted;
+        try
+        {
+            converted = converter.convert(value);
+        }
+        catch (final RuntimeException e)
+        {
+            throw (this.createConvertException(slot, value, e));
+        }
+        if (converted == null)
+        {
+            throw (this.createConvertException(slot, value, null));
+        }
+        return (converted);
+    }
+
+    /*
+     * Converts the values with the converter of the slot.
+     */
+    private Object[] convertValues(final int slot,
+            final ValueConverter<?> converter, final String[] values)
+    {
+        final Object[] converted = new Object[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            converted[i] = this.convertValue(slot, converter, values[i]);
+        }
+        return (converted);
+    }
+
+    /*
+     * Creates the exception that is thrown when a value can not be converted.
+     */
+    private MatchException createConvertException(final int slot,
+            final String value, final RuntimeException cause)
+    {
+        return (new MatchException("Error:  The value '" + value
+                + "' is not a valid " + this._definition.getSlotType(slot)
+                + " for the variable '" + this._definition.getSlotName(slot)
+                + "'.", cause));
     }
 
     /*
@@ -112,6 +253,33 @@ public class Command
         return true;
     }
 
+    /**
+     * Calls the action with each value associated with the variable name. The
+     * action is not called if the variable does not have a value.
+     *
+     * @param name
+     *            The name of the variable to get the values for.
+     * @param action
+     *            The action that is called with each value. Must not be null.
+     */
+    public void forEachValue(final String name, final Consumer<String> action)
+    {
+        assert (action != null) : "The parameter 'action' must not be null";
+
+        final Object value = this.getSlotValue(name);
+        if (value instanceof String)
+        {
+            action.accept((String) value);
+        }
+        else if (value != null)
+        {
+            for (final String element : (String[]) value)
+            {
+                action.accept(element);
+            }
+        }
+    }
+
     /**
      * Gets the name
      *
@@ -122,20 +290,280 @@ public class Command
         return (this._name);
     }
 
+    /*
+     * Gets the bits of the first value of a variable that has a primitive
+     * type. The kind of the type must be the expected kind, a long may also be
+     * read from an int.
+     */
+    private long getBits(final String name, final int expectedKind,
+            final String expectedType)
+    {
+        final int slot = this._definition.getSlot(name);
+        final ValueConverter<?> converter = (slot > -1 ? this._definition
+                .getSlotConverter(slot) : null);
+
+        final int kind = (converter instanceof PrimitiveConverter ? ((PrimitiveConverter<?>) converter)
+                .getKind() : -1);
+        if ((kind != expectedKind)
+                && !((expectedKind == PrimitiveConverter.LONG) && (kind == PrimitiveConverter.INT)))
+        {
+            throw (new UnsupportedException("Error: The variable '" + name
+                    + "' is not defined as " + expectedType + "."));
+        }
+        else if (this._values[slot] == null)
+        {
+            throw (new MissingException("Error:  The variable '" + name
+                    + "' does not have a value."));
+        }
+        return (this._primitives[slot]);
+    }
+
     /**
-     * Gets the values associated with the variable name.
+     * Gets the first value of a variable that is defined as a boolean.
+     *
+     * @param name
+     *            The name of the variable.
+     * @return A boolean value.
+     * @throws UnsupportedException
+     *             If the variable is not defined as a boolean.
+     * @throws MissingException
+     *             If the variable does not have a value.
+     */
+    public boolean getBoolean(final String name)
+    {
+        return (this.getBits(name, PrimitiveConverter.BOOLEAN, "a boolean") != 0);
+    }
+
+    /**
+     * Gets the first value of a variable that is defined as a double.
+     *
+     * @param name
+     *            The name of the variable.
+     * @return A double value.
+     * @throws UnsupportedException
+     *             If the variable is not defined as a double.
+     * @throws MissingException
+     *             If the variable does not have a value.
+     */
+    public double getDouble(final String name)
+    {
+        return (Double.longBitsToDouble(this.getBits(name,
+                PrimitiveConverter.DOUBLE, "a double")));
+    }
+
+    /**
+     * Gets the first value of a variable that is defined as an int.
+     *
+     * @param name
+     *            The name of the variable.
+     * @return An int value.
+     * @throws UnsupportedException
+     *             If the variable is not defined as an int.
+     * @throws MissingException
+     *             If the variable does not have a value.
+     */
+    public int getInt(final String name)
+    {
+        return ((int) this.getBits(name, PrimitiveConverter.INT, "an int"));
+    }
+
+    /**
+     * Gets the first value of a variable that is defined as a long or an int.
+     *
+     * @param name
+     *            The name of the variable.
+     * @return A long value.
+     * @throws UnsupportedException
+     *             If the variable is not defined as a long or an int.
+     * @throws MissingException
+     *             If the variable does not have a value.
+     */
+    public long getLong(final String name)
+    {
+        return (this.getBits(name, PrimitiveConverter.LONG, "a long"));
+    }
+
+    /*
+     * Gets what the slot of the variable holds - null, a String or a String[].
+     */
+    private Object getSlotValue(final String name)
+    {
+        final int slot = this._definition.getSlot(name);
+        return (slot > -1 ? this._values[slot] : null);
+    }
+
+    /**
+     * Gets the first value associated with the variable name.
+     *
+     * @param name
+     *            The name of the variable to get the value for.
+     * @return A String. Null if the variable does not have a value.
+     */
+    public String getValue(final String name)
+    {
+        return (this.getValue(name, null));
+    }
+
+    /**
+     * Gets the first value associated with the variable name, or the default
+     * value if the variable does not have a value.
+     *
+     * @param name
+     *            The name of the variable to get the value for.
+     * @param defaultValue
+     *            The value that is returned if the variable does not have a
+     *            value. May be null.
+     * @return A String.
+     */
+    public String getValue(final String name, final String defaultValue)
+    {
+        final Object value = this.getSlotValue(name);
+
+        final String result;
+        if (value instanceof String)
+        {
+            result = (String) value;
+        }
+        else if (value != null)
+        {
+            result = ((String[]) value)[0];
+        }
+        else
+        {
+            result = defaultValue;
+        }
+        return (result);
+    }
+
+    /**
+     * Gets the first converted value of a variable that has a type.
+     *
+     * @param name
+     *            The name of the variable.
+     * @param type
+     *            The class of the converted value.
+     * @param <T>
+     *            The type of the converted value.
+     * @return The converted value. Null if the variable does not have a value.
+     * @throws UnsupportedException
+     *             If the variable does not have a type or the type is not
+     *             the class.
+     */
+    public <T> T getValueAs(final String name, final Class<T> type)
+    {
+        final int slot = this.getConvertedSlot(name);
+
+        Object converted = null;
+        if (this._values[slot] != null)
+        {
+            converted = this._converted[slot];
+            if (converted == null)
+            {
+                // a single primitive value is boxed when it is read.
+                converted = ((PrimitiveConverter<?>) this._definition
+                        .getSlotConverter(slot))
+                        .fromBits(this._primitives[slot]);
+            }
+            else if (converted instanceof Object[])
+            {
+                converted = ((Object[]) converted)[0];
+            }
+        }
+        return (this.cast(name, type, converted));
+    }
+
+    /**
+     * Gets the converted values of a variable that has a type. The List is a
+     * read only view of the values, it is not a copy.
+     *
+     * @param name
+     *            The name of the variable.
+     * @param type
+     *            The class of the converted values.
+     * @param <T>
+     *            The type of the converted values.
+     * @return An unmodifiable List holding zero to many values.
+     * @throws UnsupportedException
+     *             If the variable does not have a type or the type is not
+     *             the class.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getValuesAs(final String name, final Class<T> type)
+    {
+        final int slot = this.getConvertedSlot(name);
+
+        final List<T> values;
+        if ((this._converted != null)
+                && (this._converted[slot] instanceof Object[]))
+        {
+            final Object[] converted = (Object[]) this._converted[slot];
+            this.cast(name, type, converted[0]);
+            values = (List<T>) Collections.unmodifiableList(Arrays
+                    .asList(converted));
+        }
+        else
+        {
+            final T value = this.getValueAs(name, type);
+            values = (value != null ? Collections.singletonList(value)
+                    : Collections.<T> emptyList());
+        }
+        return (values);
+    }
+
+    /*
+     * Casts the converted value to the type.
+     */
+    private <T> T cast(final String name, final Class<T> type,
+            final Object converted)
+    {
+        if ((converted != null) && !type.isInstance(converted))
+        {
+            throw (new UnsupportedException("Error: The variable '" + name
+                    + "' is not defined as " + type.getName() + "."));
+        }
+        return (type.cast(converted));
+    }
+
+    /*
+     * Gets the slot of a variable that has a type.
+     */
+    private int getConvertedSlot(final String name)
+    {
+        final int slot = this._definition.getSlot(name);
+        if ((slot < 0) || (this._definition.getSlotConverter(slot) == null))
+        {
+            throw (new UnsupportedException("Error: The variable '" + name
+                    + "' does not have a type."));
+        }
+        return (slot);
+    }
+
+    /**
+     * Gets the values associated with the variable name. The List is a read
+     * only view of the values, it is not a copy.
      *
      * @param name
      *            The name of the variable to get the values for.
-     * @return A new List instance holding one to many Strings.
+     * @return An unmodifiable List holding zero to many Strings.
      */
     public List<String> getValues(final String name)
     {
-        final List<String> commandValues = this._variables.get(name);
+        final Object value = this.getSlotValue(name);
 
-        // wrap the values into another container so that it is immutable.
-        final List<String> values = (commandValues != null ? new ArrayList<String>(
-                commandValues) : new ArrayList<String>());
+        final List<String> values;
+        if (value instanceof String)
+        {
+            values = Collections.singletonList((String) value);
+        }
+        else if (value != null)
+        {
+            values = Collections.unmodifiableList(Arrays
+                    .asList((String[]) value));
+        }
+        else
+        {
+            values = Collections.emptyList();
+        }
         return (values);
     }
 
@@ -158,11 +586,56 @@ public class Command
      * A test to see if the Command has any variables associated with it.
      *
      * @return A boolean value. True if the Command has variables, otherwise it
-     *         is false.F
+     *         is false.
      */
     public boolean hasVariables()
     {
-        return (this._variables.size() > 0);
+        for (final Object value : this._values)
+        {
+            if (value != null) { return (true); }
+        }
+        return (false);
+    }
+
+    /*
+     * Sets the single value of the slot. Used by the parser, which knows the
+     * slot of each variable.
+     */
+    void setValue(final int slot, final String value)
+    {
+        assert (this._values[slot] == null) : "The slot already has a value";
+
+        this._values[slot] = value;
+        this.convertSlot(slot);
+    }
+
+    /*
+     * Sets the values of a list slot. The array is owned by the Command once
+     * it is set. Used by the parser, which knows the slot of each variable.
+     */
+    void setValues(final int slot, final String[] values)
+    {
+        assert (this._values[slot] == null) : "The slot already has a value";
+        assert ((values != null) && (values.length > 0)) : "The parameter 'values' must not be null or empty";
+
+        this._values[slot] = (values.length == 1 ? values[0] : values);
+        this.convertSlot(slot);
+    }
+
+    /*
+     * Converts the value with a primitive converter.
+     */
+    private long toBits(final int slot,
+            final PrimitiveConverter<?> converter, final String value)
+    {
+        try
+        {
+            return (converter.toBits(value));
+        }
+        catch (final RuntimeException e)
+        {
+            throw (this.createConvertException(slot, value, e));
+        }
     }
 
     /*
@@ -173,8 +646,25 @@ public class Command
     @Override
     public String toString()
     {
+        final StringBuilder variables = new StringBuilder("{");
+        for (int slot = 0; slot < this._values.length; slot++)
+        {
+            if (this._values[slot] != null)
+            {
+                if (variables.length() > 1)
+                {
+                    variables.append(", ");
+                }
+                variables.append(this._definition.getSlotName(slot))
+                        .append('=')
+                        .append(this.getValues(this._definition
+                                .getSlotName(slot)));
+            }
+        }
+        variables.append('}');
+
         return String.format("Command [_name=%s, _variables=%s]", this._name,
-                this._variables);
+                variables);
     }
 
 }
@@ -21,6 +21,7 @@ package com.gabstudios.cmdline;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import com.gabstudios.validate.Validate;
 
@@ -35,22 +36,51 @@ import com.gabstudios.validate.Validate;
 public class CommandDefinition
 {
     protected String       _description;
+    
+    /*
+     * The position of the definition in the order the definitions were made.
+     * It indexes the handler table of a parser. It is -1 for a definition
+     * that is not in a parser, such as the definition of a system property.
+     */
+    protected int          _index;
     protected List<String> _names;
     protected String       _optionalVariableListName;
     protected List<String> _optionalVariables;
-    protected String       _regexValue;
+    protected Pattern      _regexPattern;
     protected String       _requiredVariableListName;
     protected List<String> _requiredVariables;
     
+    /*
+     * The converter of each slot. A slot is null if its variable does not have
+     * a type.
+     */
+    protected List<ValueConverter<?>> _slotConverters;
+    
+    /*
+     * The variable names in the order they were defined. The index of a name
+     * is the slot that holds its values in a Command.
+     */
+    protected List<String> _slotNames;
+    
+    /*
+     * The type name of each slot. A slot is null if its variable does not have
+     * a type.
+     */
+    protected List<String> _slotTypes;
+    
     /*
      * Constructor
      *
      */
     protected CommandDefinition()
     {
+        this._index = -1;
         this._names = new ArrayList<String>();
         this._requiredVariables = new ArrayList<String>();
         this._optionalVariables = new ArrayList<String>();
+        this._slotNames = new ArrayList<String>(4);
+        this._slotConverters = new ArrayList<ValueConverter<?>>(4);
+        this._slotTypes = new ArrayList<String>(4);
     }
     
     protected String getDescription()
@@ -58,9 +88,28 @@ public class CommandDefinition
         return (this._description);
     }
     
+    /*
+     * Gets the position of the definition in the order the definitions were
+     * made.
+     */
+    protected int getIndex()
+    {
+        return (this._index);
+    }
+    
     protected String getRegexValue()
     {
-        return (this._regexValue);
+        return (this._regexPattern != null ? this._regexPattern.pattern()
+                : null);
+    }
+    
+    /*
+     * The compiled regex. It is compiled once when the command is defined and
+     * may be shared with other definitions that use the same regex.
+     */
+    protected Pattern getRegexPattern()
+    {
+        return (this._regexPattern);
     }
     
     protected void addName(final String name)
@@ -74,21 +123,93 @@ public class CommandDefinition
     protected void addOptionalVariable(final String name)
     {
         this._optionalVariables.add(name);
+        this.addSlot(name);
     }
     
     protected void setOptionalVariableList(final String name)
     {
         this._optionalVariableListName = name;
+        this.addSlot(name);
     }
     
     protected void addRequiredVariable(final String name)
     {
         this._requiredVariables.add(name);
+        this.addSlot(name);
     }
     
     protected void setRequiredVariableList(final String name)
     {
         this._requiredVariableListName = name;
+        this.addSlot(name);
+    }
+    
+    /*
+     * Assigns the next slot to the variable.
+     */
+    private void addSlot(final String name)
+    {
+        this._slotNames.add(name);
+        this._slotConverters.add(null);
+        this._slotTypes.add(null);
+    }
+    
+    /*
+     * Gets the converter of the slot, or null if its variable does not have a
+     * type.
+     */
+    protected ValueConverter<?> getSlotConverter(final int slot)
+    {
+        return (this._slotConverters.get(slot));
+    }
+    
+    /*
+     * Gets the slot of the variable, or -1 if the variable is not defined.
+     */
+    protected int getSlot(final String name)
+    {
+        return (this._slotNames.indexOf(name));
+    }
+    
+    /*
+     * Gets the number of variables that are defined.
+     */
+    protected int getSlotCount()
+    {
+        return (this._slotNames.size());
+    }
+    
+    /*
+     * Gets the name of the variable that is held in the slot.
+     */
+    protected String getSlotName(final int slot)
+    {
+        return (this._slotNames.get(slot));
+    }
+    
+    /*
+     * Gets the type name of the slot, or null if its variable does not have a
+     * type.
+     */
+    protected String getSlotType(final int slot)
+    {
+        return (this._slotTypes.get(slot));
+    }
+    
+    /*
+     * Sets the type of a variable that has been added. The value of the
+     * variable is converted with the converter when it is parsed.
+     */
+    protected void setSlotType(final String name, final String typeName,
+            final ValueConverter<?> converter)
+    {
+        final int slot = this.getSlot(name);
+        
+        assert (slot > -1) : "The variable '" + name + "' has not been added";
+        assert (converter != null) : "The parameter 'converter' must not be null";
+        
+        this._slotTypes.set(slot, typeName);
+        this._slotConverters.set(slot, converter);
     }
     
     protected List<String> getOptionalVariableNames()
@@ -180,12 +301,20 @@ public class CommandDefinition
         this._description = description;
     }
     
-    protected void setRegexValue(final String regexValue)
+    protected void setIndex(final int index)
+    {
+        Validate.defineBoolean(index >= 0).testTrue()
+                .throwValidationExceptionOnFail().validate();
+        
+        this._index = index;
+    }
+    
+    protected void setRegexPattern(final Pattern regexPattern)
     {
-        Validate.defineString(regexValue).testNotNullEmpty()
+        Validate.defineObject(regexPattern).testNotNull()
                 .throwValidationExceptionOnFail().validate();
         
-        this._regexValue = regexValue;
+        this._regexPattern = regexPattern;
     }
     
     /*
@@ -200,7 +329,7 @@ public class CommandDefinition
                 .format("CommandDefinition [_description=%s, _names=%s, _optionalVariableListName=%s, _optionalVariables=%s, _regexValue=%s, _requiredVariableListName=%s, _requiredVariables=%s]",
                         this._description, this._names,
                         this._optionalVariableListName,
-                        this._optionalVariables, this._regexValue,
+                        this._optionalVariables, this.getRegexValue(),
                         this._requiredVariableListName, this._requiredVariables);
     }
     
@@ -19,12 +19,8 @@
 
 package com.gabstudios.cmdline;
 
-import java.util.LinkedList;
 import java.util.List;
 
-import com.gabstudios.logging.LogProvider;
-import com.gabstudios.logging.LogService;
-
 
 /*
  * This class is used to tokenize the values from the command line.
@@ -33,7 +29,10 @@ import com.gabstudios.logging.LogService;
  * 
  * The order of priority is: equals, commas and value.
  * 
- * It will produce a List of String values.
+ * Each argument is scanned once. The tokens are added to a TokenBuffer as
+ * ranges of the argument, so a String is only created when a token is read.
+ * The tokens are the same as splitting on equals, then splitting on commas and
+ * trimming each value.
  *
  * @author Gregory Brown (sysdevone)
  *
@@ -60,98 +59,127 @@ public class CommandLineTokenizer
     {
         assert( args != null && args.length > 0 ) : "The parameter 'args' must not be null or empty";
         
-        //TODO - add assert for max length.
+        final TokenBuffer buffer = new TokenBuffer();
+        this.tokenize(args, buffer);
+        return (buffer.asList());
+    }
+    
+    /*
+     * Tokenize the command line arguments into the buffer. The buffer is
+     * cleared first.
+     * 
+     * @param args An array of String
+     * 
+     * @param buffer The TokenBuffer that will hold the tokens.
+     */
+    void tokenize(final String[] args, final TokenBuffer buffer)
+    {
+        assert( args != null ) : "The parameter 'args' must not be null";
+        assert( buffer != null ) : "The parameter 'buffer' must not be null";
         
-        final LogService logService = LogProvider.getProvider().getService();
+        buffer.clear();
         
         // process spaces - taken care of by command line.
-        final LinkedList<String> tokenList = new LinkedList<String>();
+        for( final String argString : args )
+        {
+            this.tokenize(argString, 0, argString.length(), buffer);
+        }
+    }
+    
+    /*
+     * Tokenize a single argument, that is the range of chars from start to end
+     * within the source, and add the tokens to the buffer.
+     * 
+     * An argument of only equals or a value of only commas is added as is,
+     * unless it is a single equals or comma.
+     */
+    void tokenize(final CharSequence source, final int start, final int end,
+            final TokenBuffer buffer)
+    {
+        assert( source != null ) : "The parameter 'source' must not be null";
+        assert( buffer != null ) : "The parameter 'buffer' must not be null";
+        
+        boolean hasValue = false;
+        
+        // the start of the value between equals.
+        int valueStart = start;
         
-        //
-        // Loop through all of the args.
-        // ---------------------------
-        for( String argString : args )
+        // a value that only has commas is not split.
+        boolean hasValueChars = false;
+        
+        // the start of the value between commas.
+        int itemStart = start;
+        
+        for( int i = start; i < end; i++ )
         {
-            
-            logService.logDebug(this.getClass(), "tokenize",
-                    "Before equals split: " + argString);
-            
-            //
-            // Tokenize the values using the EQUALS as a delimiter and process.
-            // ---------------------------
-            final String[] argsAfterEquals = argString.split("=");
-            
-            logService.logDebug(this.getClass(), "tokenize",
-                    "After equals split length: " + argsAfterEquals.length);
-            
-            //
-            // Process tokens after using EQUALS as a delimiter.
-            // ---------------------------
-            for( String argAfterEqual :argsAfterEquals)
+            final char c = source.charAt(i);
+            if (c == '=')
             {
+                CommandLineTokenizer.addItem(source, itemStart, i, buffer);
+                CommandLineTokenizer.addValue(source, valueStart, i, hasValueChars, buffer);
                 
-                logService.logDebug(this.getClass(), "tokenize",
-                        "Before comma split: " + argAfterEqual);
-                
-                //
-                // Tokenize the values using the COMMA as a delimiter and process.
-                // ---------------------------
-                final String[] argsAfterCommas = argAfterEqual.split(",");
-                
-                logService.logDebug(this.getClass(), "tokenize",
-                        "After comma split length: " + argsAfterCommas.length);
-                
-                //
-                // Process tokens after using COMMA as a delimiter.
-                // ---------------------------
-                for( String argAfterComma : argsAfterCommas)
-                {
-                    // Add tokens within the commas.
-                    // values
-                    if (argAfterComma.length() > 0)
-                    {
-                        tokenList.add(argAfterComma.trim());
-                    }
-                }
-                
-                //
-                // After processing args for commas, add the previous token if it is not a comma. 
-                // ---------------------------
-                if (argsAfterCommas.length == 0)
-                {
-                    if (argAfterEqual.equals(","))
-                    {
-                        // ignore.
-                    }
-                    else if (argAfterEqual.length() > 0)
-                    {
-                        tokenList.add(argAfterEqual.trim());
-                    }
-                }
+                valueStart = i + 1;
+                itemStart = i + 1;
+                hasValueChars = false;
+            }
+            else if (c == ',')
+            {
+                CommandLineTokenizer.addItem(source, itemStart, i, buffer);
                 
+                itemStart = i + 1;
+                hasValue = true;
             }
-            
-            //
-            // After processing args for equals, add the previous token if it is not a equal. 
-            // ---------------------------
-            if (argsAfterEquals.length == 0)
+            else
             {
-                if (argString.equals("="))
-                {
-                    // ignore.
-                }
-                else if (argString.length() > 0)
-                {
-                    // values if no equals found.
-                    // is the value a java system property key: -DsetSomthing?
-                    //
-                    tokenList.add(argString.trim());
-                    
-                }
+                hasValueChars = true;
+                hasValue = true;
             }
-            
         }
         
-        return (tokenList);
+        if (hasValue)
+        {
+            CommandLineTokenizer.addItem(source, itemStart, end, buffer);
+            CommandLineTokenizer.addValue(source, valueStart, end, hasValueChars, buffer);
+        }
+        else if (end - start > 1)
+        {
+            // the argument only has equals.
+            buffer.add(source, start, end);
+        }
+    }
+    
+    /*
+     * Adds a value between commas. It is trimmed and ignored if it is empty.
+     */
+    private static void addItem(final CharSequence source, final int start,
+            final int end, final TokenBuffer buffer)
+    {
+        if (end > start)
+        {
+            int trimStart = start;
+            int trimEnd = end;
+            while (trimStart < trimEnd && source.charAt(trimStart) <= ' ')
+            {
+                trimStart++;
+            }
+            while (trimStart < trimEnd && source.charAt(trimEnd - 1) <= ' ')
+            {
+                trimEnd--;
+            }
+            buffer.add(source, trimStart, trimEnd);
+        }
+    }
+    
+    /*
+     * Finishes a value between equals. A value that only has commas was not
+     * split into items, so it is added as is, unless it is a single comma.
+     */
+    private static void addValue(final CharSequence source, final int start,
+            final int end, final boolean hasValueChars, final TokenBuffer buffer)
+    {
+        if (!hasValueChars && end - start > 1)
+        {
+            buffer.add(source, start, end);
+        }
     }
 }
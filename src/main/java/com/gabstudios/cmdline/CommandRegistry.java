@@ -0,0 +1,84 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * This class is a set of command definitions that were compiled before the
+ * Builder was made, such as a snapshot file or the definitions generated from
+ * annotations. It is a read only Map from each name to its definition, which
+ * the parser looks up in place of its own map, and may be shared by many
+ * threads.
+ *
+ * The definitions are indexed from 0, in the order they were defined.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+abstract class CommandRegistry extends AbstractMap<String, CommandDefinition> {
+
+	/*
+	 * Gets a registry of the same definitions whose types are converted with
+	 * the converters. The converters are copied by the parser, so types that are
+	 * defined later are not seen.
+	 */
+	abstract CommandRegistry bind(Map<String, ValueConverter<?>> converterMap);
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return (this.get(key) != null);
+	}
+
+	/*
+	 * Creates the index of the names that suggests words if a command is not
+	 * found.
+	 */
+	abstract SuggestionIndex createSuggestionIndex();
+
+	/*
+	 * Gets the number of definitions.
+	 */
+	abstract int getDefinitionCount();
+
+	/*
+	 * Gets all of the definitions, in the order of their index.
+	 */
+	abstract List<CommandDefinition> getDefinitions();
+
+	/*
+	 * Gets the index of the definition of the command, without creating the
+	 * definition. -1 if the command is not defined.
+	 */
+	abstract int getIndex(String commandName);
+
+	/*
+	 * Gets all of the names, in the order they were defined.
+	 */
+	abstract List<String> getNames();
+
+	/*
+	 * Gets the names of the types that must be defined by the Builder for the
+	 * definitions to be converted.
+	 */
+	abstract List<String> getTypeNames();
+}
@@ -0,0 +1,523 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gabstudios.logging.LogProvider;
+import com.gabstudios.validate.Validate;
+
+/**
+ * This class reads command lines from a stream, one command line on each line,
+ * and parses each line with a <code>CmdLineParser</code>. It is the loop of an
+ * admin console or of a script that is piped to a long running process.
+ *
+ * CommandShell shell = CommandShell.builder().setParser(parser)
+ * .setCommandListener(listener).build();
+ *
+ * shell.run( System.in );
+ *
+ * A line is split into its arguments by the quoting rules of a POSIX shell, as
+ * <code>CmdLineParser.parse(CharSequence)</code> does, and its Commands are
+ * handed to the listener as it is parsed. A line that is not valid, or whose
+ * Commands throw, is passed to the <code>LineErrorListener</code> and the shell
+ * goes on with the next line. If a listener is not set, the error is written
+ * to the debug log. Lines that are empty or that start with # are skipped.
+ *
+ * The shell reuses one char buffer, one line buffer, one lexer, one token
+ * buffer and one List of Commands for every line, so a long script is parsed
+ * in flat memory. Only the Commands and their values are created for each
+ * line. A line that is longer than the maximum input size of the parser is not
+ * held, it is skipped and reported as a <code>LimitException</code>.
+ *
+ * When <code>stop()</code> is called, the chars that were read after the line
+ * are kept, and the next <code>run</code> with the same stream parses them
+ * first. A run with another stream drops them.
+ *
+ * A shell is not thread safe, it runs on the thread that calls
+ * <code>run</code>. Many shells may share one parser.
+ *
+ * @see CmdLineParser
+ * @see LineErrorListener
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class CommandShell {
+
+	/**
+	 * This class creates a <code>CommandShell</code> instance.
+	 *
+	 * @author Gregory Brown (sysdevone)
+	 *
+	 */
+	public static final class Builder {
+
+		/*
+		 * The charset of the bytes of a stream.
+		 */
+		private Charset _charset;
+
+		/*
+		 * The listener that handles the Commands. May be null.
+		 */
+		private CommandListener _commandListener;
+
+		/*
+		 * The listener that handles the lines that fail.
+		 */
+		private LineErrorListener _lineErrorListener;
+
+		/*
+		 * The parser of the lines.
+		 */
+		private CmdLineParser _parser;
+
+		/*
+		 * Constructor.
+		 */
+		private Builder() {
+			this._charset = StandardCharsets.UTF_8;
+			this._lineErrorListener = CommandShell.LOG_ERROR_LISTENER;
+		}
+
+		/**
+		 * Creates a new <code>CommandShell</code> instance.
+		 *
+		 * @return A new <code>CommandShell</code> instance.
+		 */
+		public CommandShell build() {
+			Validate.defineObject(this._parser).testNotNull().throwValidationExceptionOnFail().validate();
+
+			return (new CommandShell(this));
+		}
+
+		/**
+		 * Sets the charset of the bytes of a stream. The charset is UTF-8 if it
+		 * is not set.
+		 *
+		 * @param charset
+		 *            The charset. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setCharset(final Charset charset) {
+			Validate.defineObject(charset).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._charset = charset;
+			return (this);
+		}
+
+		/**
+		 * Sets the listener that handles the Commands. If it is not set, the
+		 * default listener of the parser handles them.
+		 *
+		 * @param commandListener
+		 *            The listener. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setCommandListener(final CommandListener commandListener) {
+			Validate.defineObject(commandListener).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._commandListener = commandListener;
+			return (this);
+		}
+
+		/**
+		 * Sets the listener that handles the lines that fail. If it is not set,
+		 * the error of a line is written to the debug log.
+		 *
+		 * @param lineErrorListener
+		 *            The listener. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setLineErrorListener(final LineErrorListener lineErrorListener) {
+			Validate.defineObject(lineErrorListener).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._lineErrorListener = lineErrorListener;
+			return (this);
+		}
+
+		/**
+		 * Sets the parser of the lines. It must be set.
+		 *
+		 * @param parser
+		 *            The parser. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setParser(final CmdLineParser parser) {
+			Validate.defineObject(parser).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._parser = parser;
+			return (this);
+		}
+	}
+
+	/*
+	 * The number of chars that are read from the stream at a time.
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/*
+	 * The listener of the lines that fail, if one is not set. It writes the
+	 * error to the debug log.
+	 */
+	private static final LineErrorListener LOG_ERROR_LISTENER = new LineErrorListener() {
+		@Override
+		public void handle(final long lineNumber, final String line, final RuntimeException exception) {
+			LogProvider.getProvider().getService().logDebug(CommandShell.class, "run",
+					"Line " + lineNumber + ": " + exception.getMessage());
+		}
+	};
+
+	/**
+	 * Creates a new Builder that is used to set the settings.
+	 *
+	 * @return A new <code>CommandShell.Builder</code> instance.
+	 */
+	public static Builder builder() {
+		return (new Builder());
+	}
+
+	/*
+	 * The chars that are read from the stream.
+	 */
+	private final char[] _buffer;
+
+	/*
+	 * The end of the chars in the buffer. The chars from the start to the end
+	 * were read but not parsed when the shell was stopped.
+	 */
+	private int _bufferEnd;
+
+	/*
+	 * The start of the chars in the buffer that have not been parsed.
+	 */
+	private int _bufferStart;
+
+	/*
+	 * The charset of the bytes of a stream.
+	 */
+	private final Charset _charset;
+
+	/*
+	 * The listener that handles the Commands, routed to the handlers of the
+	 * parser. May be null.
+	 */
+	private final CommandListener _commandListener;
+
+	/*
+	 * The Commands of the line. The List is cleared and reused for each line.
+	 */
+	private final List<Command> _commands;
+
+	/*
+	 * The number of lines that failed.
+	 */
+	private long _errorCount;
+
+	/*
+	 * The stream of the last run(InputStream).
+	 */
+	private InputStream _inputStream;
+
+	/*
+	 * The reader of the stream of the last run(InputStream). It is kept so the
+	 * chars that it decoded are not lost when the shell is stopped.
+	 */
+	private Reader _inputStreamReader;
+
+	/*
+	 * The lexer of the lines. It is reused for each line.
+	 */
+	private final LineLexer _lexer;
+
+	/*
+	 * The chars of the line that is being read.
+	 */
+	private final StringBuilder _line;
+
+	/*
+	 * The number of lines that were read.
+	 */
+	private long _lineCount;
+
+	/*
+	 * The listener that handles the lines that fail.
+	 */
+	private final LineErrorListener _lineErrorListener;
+
+	/*
+	 * The number of chars that a line may have.
+	 */
+	private final long _maxLineLength;
+
+	/*
+	 * True if the line that is being read is longer than the limit, so its
+	 * chars are dropped.
+	 */
+	private boolean _overflow;
+
+	/*
+	 * The parser of the lines.
+	 */
+	private final CmdLineParser _parser;
+
+	/*
+	 * The reader of the last run. The unread chars and the line belong to it.
+	 */
+	private Reader _reader;
+
+	/*
+	 * True if the shell should stop after the line that is being parsed.
+	 */
+	private volatile boolean _stopped;
+
+	/*
+	 * The tokens of the line. The buffer is cleared and reused for each line.
+	 */
+	private final TokenBuffer _tokens;
+
+	/*
+	 * Constructor. Copies the state of the Builder.
+	 */
+	private CommandShell(final Builder builder) {
+		assert (builder != null) : "The parameter 'builder' must not be null";
+
+		this._parser = builder._parser;
+		this._charset = builder._charset;
+		this._lineErrorListener = builder._lineErrorListener;
+		this._commandListener = this._parser.route(
+				builder._commandListener != null ? builder._commandListener : this._parser.getCommandListener());
+		this._maxLineLength = this._parser.getLimits().getMaxInputSize();
+		this._buffer = new char[CommandShell.BUFFER_SIZE];
+		this._line = new StringBuilder();
+		this._lexer = this._parser.createLexer();
+		this._tokens = new TokenBuffer();
+		this._commands = new ArrayList<Command>();
+	}
+
+	/**
+	 * Gets the number of lines that failed.
+	 *
+	 * @return The number of lines that were passed to the
+	 *         <code>LineErrorListener</code>.
+	 */
+	public long getErrorCount() {
+		return (this._errorCount);
+	}
+
+	/**
+	 * Gets the number of lines that were read, including the lines that were
+	 * skipped or failed.
+	 *
+	 * @return The number of lines.
+	 */
+	public long getLineCount() {
+		return (this._lineCount);
+	}
+
+	/**
+	 * Reads the lines of the stream and parses each of them, until the end of
+	 * the stream or until <code>stop()</code> is called. The stream is not
+	 * closed. The same stream may be run again after the shell is stopped.
+	 *
+	 * @param inputStream
+	 *            The stream. Must not be null.
+	 * @return The number of lines that were read by this run.
+	 * @throws IOException
+	 *             If the stream can not be read.
+	 */
+	public long run(final InputStream inputStream) throws IOException {
+		Validate.defineObject(inputStream).testNotNull().throwValidationExceptionOnFail().validate();
+
+		if (inputStream != this._inputStream) {
+			this._inputStream = inputStream;
+			this._inputStreamReader = new InputStreamReader(inputStream, this._charset);
+		}
+		return (this.run(this._inputStreamReader));
+	}
+
+	/**
+	 * Reads the lines of the reader and parses each of them, until the end of
+	 * the reader or until <code>stop()</code> is called. The reader is not
+	 * closed. The same reader may be run again after the shell is stopped.
+	 *
+	 * @param reader
+	 *            The reader. Must not be null.
+	 * @return The number of lines that were read by this run.
+	 * @throws IOException
+	 *             If the reader can not be read.
+	 */
+	public long run(final Reader reader) throws IOException {
+		Validate.defineObject(reader).testNotNull().throwValidationExceptionOnFail().validate();
+
+		final long firstLine = this._lineCount;
+		final char[] buffer = this._buffer;
+		final StringBuilder line = this._line;
+		if (reader != this._reader) {
+			// the chars that were kept belong to another reader.
+			this._reader = reader;
+			this.reset();
+		}
+		this._stopped = false;
+
+		// true if the line is longer than the limit and its chars are dropped.
+		boolean overflow = this._overflow;
+
+		// the chars that were kept by the last run are parsed first.
+		int start = this._bufferStart;
+		int count = this._bufferEnd;
+		while (!this._stopped) {
+			if (start == count) {
+				count = reader.read(buffer, 0, buffer.length);
+				if (count == -1) {
+					break;
+				}
+				start = 0;
+			}
+			for (int i = start; i < count; i++) {
+				if (buffer[i] == '\n') {
+					overflow = this.append(line, buffer, start, i, overflow);
+					this.endLine(overflow);
+					line.setLength(0);
+					overflow = false;
+					start = i + 1;
+					if (this._stopped) {
+						break;
+					}
+				}
+			}
+			if (!this._stopped) {
+				overflow = this.append(line, buffer, start, count, overflow);
+				start = count;
+			}
+		}
+
+		if (this._stopped) {
+			// keep the chars that were not parsed for the next run.
+			this._bufferStart = start;
+			this._bufferEnd = count;
+			this._overflow = overflow;
+		} else {
+			if ((line.length() > 0) || overflow) {
+				this.endLine(overflow);
+			}
+			this.reset();
+		}
+
+		return (this._lineCount - firstLine);
+	}
+
+	/**
+	 * Stops the shell after the line that is being parsed. It may be called by
+	 * a listener, or by another thread. The chars that were read but not
+	 * parsed are kept for the next run of the same stream.
+	 */
+	public void stop() {
+		this._stopped = true;
+	}
+
+	/*
+	 * Appends the chars of the buffer from start to end to the line, unless the
+	 * line would be longer than the limit. Returns true if the line is too long.
+	 */
+	private boolean append(final StringBuilder line, final char[] buffer, final int start, final int end,
+			final boolean overflow) {
+		if (overflow) {
+			return (true);
+		} else if ((line.length() + (end - start)) > this._maxLineLength) {
+			line.setLength(0);
+			return (true);
+		}
+
+		line.append(buffer, start, end - start);
+		return (false);
+	}
+
+	/*
+	 * Parses the line that was read. A parse error, or an error that is thrown by
+	 * a listener, is passed to the error listener.
+	 */
+	private void endLine(final boolean overflow) {
+		this._lineCount++;
+
+		final StringBuilder line = this._line;
+		if ((line.length() > 0) && (line.charAt(line.length() - 1) == '\r')) {
+			line.setLength(line.length() - 1);
+		}
+
+		try {
+			if (overflow) {
+				throw (new LimitException("Error:  The line is longer than the limit of " + this._maxLineLength
+						+ " chars."));
+			} else if (!CommandShell.isSkipped(line)) {
+				this._parser.parseLine(line, this._lexer, this._tokens, this._commands, this._commandListener);
+			}
+		} catch (final RuntimeException e) {
+			this._errorCount++;
+			this._lineErrorListener.handle(this._lineCount, line.toString(), e);
+		} finally {
+			// release the values of the line so they can be collected.
+			this._tokens.clear();
+			this._commands.clear();
+		}
+	}
+
+	/*
+	 * A test to see if the line is empty or is a comment.
+	 */
+	private static boolean isSkipped(final CharSequence line) {
+		for (int i = 0; i < line.length(); i++) {
+			final char c = line.charAt(i);
+			if (c > ' ') {
+				return (c == '#');
+			}
+		}
+		return (true);
+	}
+
+	/*
+	 * Drops the chars that were kept, and the line that was being read.
+	 */
+	private void reset() {
+		this._line.setLength(0);
+		this._bufferStart = 0;
+		this._bufferEnd = 0;
+		this._overflow = false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("CommandShell [_parser=%s, _lineCount=%s, _errorCount=%s]", this._parser,
+				this._lineCount, this._errorCount);
+	}
+}
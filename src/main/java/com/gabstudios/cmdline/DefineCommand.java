@@ -0,0 +1,111 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation defines a command on an options class. The
+ * <code>DefineCommandProcessor</code> reads the annotations of the class when
+ * it is compiled, checks them by the same rules as
+ * <code>CmdLineParser.Builder.defineCommand(String...)</code>, and generates a
+ * <code>GeneratedCommands</code> class named after the options class, such as
+ * <code>OptionsCommands</code>, in the same package. A definition that breaks
+ * a rule is a compile error.
+ *
+ * &#64;DefineCommand(names = { "-l", "--load" }, required = "fileName",
+ * description = "Load a file into the system")
+ *
+ * &#64;DefineCommand(names = "--port", required = "port&lt;int&gt;")
+ *
+ * public class Options { }
+ *
+ * CmdLineParser parser = CmdLineParser.builder().defineCommands(new
+ * OptionsCommands()).build();
+ *
+ * A variable may have a built in type, such as <code>port&lt;int&gt;</code>.
+ * Types that are defined with <code>CmdLineParser.Builder.defineType</code>
+ * are not known when the class is compiled, so they can not be used.
+ *
+ * @see CmdLineParser.Builder#defineCommands(GeneratedCommands)
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+@Documented
+@Repeatable(DefineCommands.class)
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface DefineCommand
+{
+    /**
+     * The description of the command.
+     *
+     * @return A String. Empty if the command does not have a description.
+     */
+    String description() default "";
+
+    /**
+     * The names of the command, such as <code>{ "-l", "--load" }</code>.
+     *
+     * @return One or more command names.
+     */
+    String[] names();
+
+    /**
+     * The names of the optional variables, in order.
+     *
+     * @return Zero or more variable names.
+     */
+    String[] optional() default {};
+
+    /**
+     * The name of the list of optional values.
+     *
+     * @return A variable name. Empty if the command does not have the list.
+     */
+    String optionalList() default "";
+
+    /**
+     * The regex that the values of the command must match.
+     *
+     * @return A regex. Empty if the values are not matched.
+     */
+    String regex() default "";
+
+    /**
+     * The names of the required variables, in order.
+     *
+     * @return Zero or more variable names.
+     */
+    String[] required() default {};
+
+    /**
+     * The name of the list of required values.
+     *
+     * @return A variable name. Empty if the command does not have the list.
+     */
+    String requiredList() default "";
+}
@@ -0,0 +1,426 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+
+/**
+ * This class is the annotation processor that generates a
+ * <code>GeneratedCommands</code> class for each class that has
+ * <code>DefineCommand</code> annotations. It is found by the compiler when the
+ * cmdline jar is on the class path, it does not need to be set.
+ *
+ * The annotations are defined with a <code>CmdLineParser.Builder</code> while
+ * the class is compiled, so they are checked by the same rules, and parse the
+ * same way, as the definitions of <code>defineCommand(String...)</code>. The
+ * message of a rule that is broken is reported as a compile error on the
+ * class.
+ *
+ * @see DefineCommand
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class DefineCommandProcessor extends AbstractProcessor {
+
+	/*
+	 * The number of definitions that are created by each generated method, so a
+	 * large set of definitions does not exceed the size of a method.
+	 */
+	private static final int DEFINITIONS_PER_METHOD = 200;
+
+	/*
+	 * The number of command names that are found by each generated switch, on
+	 * average. A switch on Strings takes about 30 bytes of code for each name,
+	 * so this keeps each method well below the size that the JIT compiles.
+	 */
+	private static final int NAMES_PER_METHOD = 128;
+
+	/*
+	 * The suffix of the name of a generated class.
+	 */
+	private static final String SUFFIX = "Commands";
+
+	/*
+	 * Appends a Java String literal of the value.
+	 */
+	private static void appendLiteral(final StringBuilder buffer, final String value) {
+		if (value == null) {
+			buffer.append("null");
+			return;
+		}
+
+		buffer.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				buffer.append("\\\"");
+				break;
+			case '\\':
+				buffer.append("\\\\");
+				break;
+			case '\n':
+				buffer.append("\\n");
+				break;
+			case '\r':
+				buffer.append("\\r");
+				break;
+			case '\t':
+				buffer.append("\\t");
+				break;
+			default:
+				if ((c < 0x20) || (c > 0x7E)) {
+					buffer.append(String.format("\\u%04x", (int) c));
+				} else {
+					buffer.append(c);
+				}
+				break;
+			}
+		}
+		buffer.append('"');
+	}
+
+	/*
+	 * Creates the definition tokens of an annotation, in the order that
+	 * defineCommand(String...) expects them.
+	 */
+	private static String[] createTokens(final DefineCommand annotation) {
+		final List<String> tokens = new ArrayList<String>();
+		tokens.addAll(Arrays.asList(annotation.names()));
+		for (final String name : annotation.required()) {
+			tokens.add("!" + name);
+		}
+		if (!annotation.requiredList().isEmpty()) {
+			tokens.add("!" + annotation.requiredList() + "...");
+		}
+		for (final String name : annotation.optional()) {
+			tokens.add("?" + name);
+		}
+		if (!annotation.optionalList().isEmpty()) {
+			tokens.add("?" + annotation.optionalList() + "...");
+		}
+		if (!annotation.regex().isEmpty()) {
+			tokens.add(":" + annotation.regex());
+		}
+		if (!annotation.description().isEmpty()) {
+			tokens.add("#" + annotation.description());
+		}
+		return (tokens.toArray(new String[0]));
+	}
+
+	/*
+	 * Gets the name of the ValueConverters constant that holds the converter.
+	 * The built in types are the only types that are defined, so every
+	 * converter is a constant.
+	 */
+	private static String getConverterName(final ValueConverter<?> converter) {
+		for (final Field field : ValueConverters.class.getFields()) {
+			try {
+				if (Modifier.isStatic(field.getModifiers()) && (field.get(null) == converter)) {
+					return (field.getName());
+				}
+			} catch (final IllegalAccessException e) {
+				throw (new IllegalStateException(e));
+			}
+		}
+		throw (new IllegalStateException("Error: The converter '" + converter + "' is not a built in type."));
+	}
+
+	/*
+	 * Gets the simple name of the generated class. The names of the enclosing
+	 * classes of a nested class are joined with '_'.
+	 */
+	private static String getGeneratedName(final TypeElement element) {
+		final StringBuilder buffer = new StringBuilder(element.getSimpleName());
+		Element enclosing = element.getEnclosingElement();
+		while ((enclosing.getKind() != ElementKind.PACKAGE)) {
+			buffer.insert(0, '_').insert(0, enclosing.getSimpleName());
+			enclosing = enclosing.getEnclosingElement();
+		}
+		return (buffer.append(DefineCommandProcessor.SUFFIX).toString());
+	}
+
+	/*
+	 * Creates the source of the generated class.
+	 */
+	static String generate(final String packageName, final String className, final String sourceName,
+			final List<CommandDefinition> definitions) {
+		final StringBuilder buffer = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			buffer.append("package ").append(packageName).append(";\n\n");
+		}
+		buffer.append("import java.util.regex.Pattern;\n\n");
+		buffer.append("import com.gabstudios.cmdline.GeneratedCommands;\n");
+		buffer.append("import com.gabstudios.cmdline.ValueConverters;\n\n");
+		buffer.append("/**\n * The commands of <code>").append(sourceName)
+				.append("</code>. Generated by DefineCommandProcessor, do not edit.\n */\n");
+		buffer.append("public final class ").append(className).append(" extends GeneratedCommands {\n");
+
+		// definitions that use the same regex share one Pattern.
+		final Map<String, Integer> patternMap = new LinkedHashMap<String, Integer>();
+		for (final CommandDefinition definition : definitions) {
+			if ((definition.getRegexValue() != null) && !patternMap.containsKey(definition.getRegexValue())) {
+				patternMap.put(definition.getRegexValue(), patternMap.size());
+			}
+		}
+		for (final Map.Entry<String, Integer> entry : patternMap.entrySet()) {
+			buffer.append("\n\tprivate static final Pattern PATTERN_").append(entry.getValue())
+					.append(" = Pattern.compile(");
+			DefineCommandProcessor.appendLiteral(buffer, entry.getKey());
+			buffer.append(");\n");
+		}
+
+		final int methodCount = (definitions.size() + DefineCommandProcessor.DEFINITIONS_PER_METHOD - 1)
+				/ DefineCommandProcessor.DEFINITIONS_PER_METHOD;
+		buffer.append("\n\t/**\n\t * Constructor.\n\t */\n\tpublic ").append(className).append("() {\n");
+		for (int method = 0; method < methodCount; method++) {
+			buffer.append("\t\tthis.define").append(method).append("();\n");
+		}
+		buffer.append("\t}\n");
+
+		for (int method = 0; method < methodCount; method++) {
+			buffer.append("\n\tprivate void define").append(method).append("() {\n");
+			final int end = Math.min(definitions.size(), (method + 1) * DefineCommandProcessor.DEFINITIONS_PER_METHOD);
+			for (int i = method * DefineCommandProcessor.DEFINITIONS_PER_METHOD; i < end; i++) {
+				DefineCommandProcessor.generateDefinition(buffer, definitions.get(i), patternMap);
+			}
+			buffer.append("\t}\n");
+		}
+
+		DefineCommandProcessor.generateIndexOf(buffer, definitions);
+		buffer.append("}\n");
+		return (buffer.toString());
+	}
+
+	/*
+	 * Appends the calls that create a definition.
+	 */
+	private static void generateDefinition(final StringBuilder buffer, final CommandDefinition definition,
+			final Map<String, Integer> patternMap) {
+		buffer.append("\t\tthis.addCommand(");
+		final List<String> names = definition.getNames();
+		for (int i = 0; i < names.size(); i++) {
+			if (i > 0) {
+				buffer.append(", ");
+			}
+			DefineCommandProcessor.appendLiteral(buffer, names.get(i));
+		}
+		buffer.append(");\n");
+
+		for (final String name : definition.getRequiredVariableNames()) {
+			DefineCommandProcessor.generateVariable(buffer, "addRequiredVariable", definition, name);
+		}
+		if (definition.hasRequiredVariableLists()) {
+			DefineCommandProcessor.generateVariable(buffer, "setRequiredVariableList", definition,
+					definition.getRequiredVariableListName());
+		}
+		for (final String name : definition.getOptionalVariableNames()) {
+			DefineCommandProcessor.generateVariable(buffer, "addOptionalVariable", definition, name);
+		}
+		if (definition.hasOptionalVariableLists()) {
+			DefineCommandProcessor.generateVariable(buffer, "setOptionalVariableList", definition,
+					definition.getOptionalVariableListName());
+		}
+		if (definition.getRegexValue() != null) {
+			buffer.append("\t\tthis.setRegexPattern(PATTERN_").append(patternMap.get(definition.getRegexValue()))
+					.append(");\n");
+		}
+		if (definition.getDescription() != null) {
+			buffer.append("\t\tthis.setDescription(");
+			DefineCommandProcessor.appendLiteral(buffer, definition.getDescription());
+			buffer.append(");\n");
+		}
+	}
+
+	/*
+	 * Appends the indexOf(String) method. A small set of names is found with a
+	 * single switch. A large set is split into buckets by the hash code of the
+	 * names, and each bucket has a switch of its own, so no method exceeds the
+	 * size of a method.
+	 */
+	private static void generateIndexOf(final StringBuilder buffer, final List<CommandDefinition> definitions) {
+		final Map<String, Integer> indexMap = new LinkedHashMap<String, Integer>();
+		for (final CommandDefinition definition : definitions) {
+			for (final String name : definition.getNames()) {
+				indexMap.put(name, definition.getIndex());
+			}
+		}
+
+		buffer.append("\n\t@Override\n\tprotected int indexOf(final String commandName) {\n");
+		final int bucketCount = (indexMap.size() + DefineCommandProcessor.NAMES_PER_METHOD - 1)
+				/ DefineCommandProcessor.NAMES_PER_METHOD;
+		if (bucketCount <= 1) {
+			DefineCommandProcessor.generateSwitch(buffer, new ArrayList<String>(indexMap.keySet()), indexMap);
+			buffer.append("\t}\n");
+			return;
+		}
+
+		// the bucket of a name is found the same way when the class runs, since
+		// the hash code of a String is specified.
+		final List<List<String>> bucketList = new ArrayList<List<String>>(bucketCount);
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			bucketList.add(new ArrayList<String>());
+		}
+		for (final String name : indexMap.keySet()) {
+			bucketList.get((name.hashCode() & Integer.MAX_VALUE) % bucketCount).add(name);
+		}
+
+		buffer.append("\t\tswitch ((commandName.hashCode() & Integer.MAX_VALUE) % ").append(bucketCount)
+				.append(") {\n");
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			if (!bucketList.get(bucket).isEmpty()) {
+				buffer.append("\t\tcase ").append(bucket).append(":\n\t\t\treturn (this.indexOf").append(bucket)
+						.append("(commandName));\n");
+			}
+		}
+		buffer.append("\t\tdefault:\n\t\t\treturn (-1);\n\t\t}\n\t}\n");
+
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			if (!bucketList.get(bucket).isEmpty()) {
+				buffer.append("\n\tprivate int indexOf").append(bucket).append("(final String commandName) {\n");
+				DefineCommandProcessor.generateSwitch(buffer, bucketList.get(bucket), indexMap);
+				buffer.append("\t}\n");
+			}
+		}
+	}
+
+	/*
+	 * Appends a switch that returns the index of each of the names. The names
+	 * of a definition are next to each other, so they share a return.
+	 */
+	private static void generateSwitch(final StringBuilder buffer, final List<String> names,
+			final Map<String, Integer> indexMap) {
+		buffer.append("\t\tswitch (commandName) {\n");
+		for (int i = 0; i < names.size(); i++) {
+			buffer.append("\t\tcase ");
+			DefineCommandProcessor.appendLiteral(buffer, names.get(i));
+			buffer.append(":\n");
+
+			final Integer index = indexMap.get(names.get(i));
+			if ((i + 1 == names.size()) || !index.equals(indexMap.get(names.get(i + 1)))) {
+				buffer.append("\t\t\treturn (").append(index).append(");\n");
+			}
+		}
+		buffer.append("\t\tdefault:\n\t\t\treturn (-1);\n\t\t}\n");
+	}
+
+	/*
+	 * Appends the call that adds a variable, with its type and converter.
+	 */
+	private static void generateVariable(final StringBuilder buffer, final String method,
+			final CommandDefinition definition, final String name) {
+		final int slot = definition.getSlot(name);
+		buffer.append("\t\tthis.").append(method).append('(');
+		DefineCommandProcessor.appendLiteral(buffer, name);
+		buffer.append(", ");
+		DefineCommandProcessor.appendLiteral(buffer, definition.getSlotType(slot));
+		buffer.append(", ");
+		if (definition.getSlotConverter(slot) != null) {
+			buffer.append("ValueConverters.")
+					.append(DefineCommandProcessor.getConverterName(definition.getSlotConverter(slot)));
+		} else {
+			buffer.append("null");
+		}
+		buffer.append(");\n");
+	}
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return (new HashSet<String>(
+				Arrays.asList(DefineCommand.class.getCanonicalName(), DefineCommands.class.getCanonicalName())));
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return (SourceVersion.latestSupported());
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		final Set<TypeElement> elements = new LinkedHashSet<TypeElement>();
+		for (final Element element : roundEnv.getElementsAnnotatedWith(DefineCommand.class)) {
+			elements.add((TypeElement) element);
+		}
+		for (final Element element : roundEnv.getElementsAnnotatedWith(DefineCommands.class)) {
+			elements.add((TypeElement) element);
+		}
+
+		for (final TypeElement element : elements) {
+			this.processType(element);
+		}
+		return (true);
+	}
+
+	/*
+	 * Checks the annotations of the class and generates its commands. Nothing
+	 * is generated if an annotation breaks a rule.
+	 */
+	private void processType(final TypeElement element) {
+		final CmdLineParser.Builder builder = CmdLineParser.builder().setSuggestionCacheSize(0);
+		boolean isValid = true;
+		for (final DefineCommand annotation : element.getAnnotationsByType(DefineCommand.class)) {
+			try {
+				builder.defineCommand(DefineCommandProcessor.createTokens(annotation));
+			} catch (final RuntimeException e) {
+				this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+						"The command " + Arrays.toString(annotation.names()) + " is not valid.  " + e.getMessage(),
+						element);
+				isValid = false;
+			}
+		}
+		if (!isValid) {
+			return;
+		}
+
+		final String packageName = this.processingEnv.getElementUtils().getPackageOf(element).getQualifiedName()
+				.toString();
+		final String className = DefineCommandProcessor.getGeneratedName(element);
+		final String source = DefineCommandProcessor.generate(packageName, className,
+				element.getQualifiedName().toString(), builder.build().getDefinitions());
+
+		final String qualifiedName = (packageName.isEmpty() ? className : packageName + "." + className);
+		try (Writer writer = this.processingEnv.getFiler().createSourceFile(qualifiedName, element).openWriter()) {
+			writer.write(source);
+		} catch (final IOException e) {
+			this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Error: The class '" + qualifiedName + "' could not be written.  " + e.getMessage(), element);
+		}
+	}
+}
@@ -22,9 +22,6 @@ package com.gabstudios.cmdline;
 import java.util.LinkedList;
 import java.util.List;
 
-import com.gabstudios.logging.LogProvider;
-import com.gabstudios.logging.LogService;
-
 
 /**
  * This class is used to tokenize the values from the command line.
@@ -166,26 +163,16 @@ public class DefinedCommandTokenizer
         
         if (args != null && args.length > 0)
         {
-            final LogService logService = LogProvider.getProvider()
-                    .getService();
-            
             //
             // Tokenize the values using the EQUALS as a delimiter and process.
             // ---------------------------
             for (String argString : args)
             {
-                // equals
-                logService.logDebug(this.getClass(), "tokenize",
-                        "Before equals split: " + argString);
-                
                 //
                 // Tokenize the values using the EQUALS as a delimiter and process.
                 // ---------------------------
                 final String[] argsAfterEquals = argString.split("=");
                 
-                logService.logDebug(this.getClass(), "tokenize",
-                        "After equals split length: " + argsAfterEquals.length);
-                
                 //
                 // Process tokens after using EQUALS as a delimiter.
                 // ---------------------------
@@ -194,17 +181,11 @@ public class DefinedCommandTokenizer
                     
                     // commas
                     
-                    logService.logDebug(this.getClass(), "tokenize",
-                            "Before comma split: " + argAfterEquals);
-                    
                     //
                     // Tokenize the values using the COMMA as a delimiter and process.
                     // ---------------------------
                     final String[] argsAfterCommas = argAfterEquals.split(",");
                     
-                    logService.logDebug(this.getClass(), "tokenize",
-                            "After comma split length: "
-                                    + argsAfterCommas.length);
                     //
                     // Process tokens after using COMMA as a delimiter.
                     // ---------------------------
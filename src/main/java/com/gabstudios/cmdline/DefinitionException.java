@@ -0,0 +1,75 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * An exception that is used if definitions that are loaded in bulk are not
+ * valid. It holds an error for each definition that was not valid, with its
+ * line number, and none of the definitions are defined.
+ *
+ * @see CmdLineParser.Builder#loadDefinitions(java.io.Reader)
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class DefinitionException extends RuntimeException
+{
+
+    /**
+     * Serialized version number.
+     */
+    private static final long serialVersionUID = 6804251393386621154L;
+
+    /**
+     * The errors, one for each definition that is not valid.
+     */
+    private final List<String> _errorList;
+
+    /**
+     * Constructor that takes a message and the errors.
+     *
+     * @param message
+     *            A <code>String</code> message.
+     * @param errorList
+     *            A <code>List</code> of the errors. It is not copied.
+     */
+    protected DefinitionException(final String message,
+            final List<String> errorList)
+    {
+        super(message);
+        this._errorList = Collections.unmodifiableList(errorList);
+    }
+
+    /**
+     * Gets the errors, in the order of their lines. Each error starts with its
+     * line number, such as "Line 12: Error: The command '-l' has already been
+     * defined."
+     *
+     * @return An unmodifiable <code>List</code> of one or more errors.
+     */
+    public List<String> getErrorList()
+    {
+        return (this._errorList);
+    }
+}
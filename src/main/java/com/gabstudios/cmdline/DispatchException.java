@@ -0,0 +1,71 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/**
+ * An exception that is used if the handling of a Command that was dispatched
+ * to an executor fails, times out or is cancelled. The cause is the exception
+ * that the listener threw, a <code>TimeoutException</code> or a
+ * <code>CancellationException</code>.
+ * 
+ * 
+ * @author Gregory Brown (sysdevone)
+ * 
+ */
+public class DispatchException extends RuntimeException
+{
+
+    /**
+     * Serialized version number.
+     */
+    private static final long serialVersionUID = 4518829374205826417L;
+
+    /*
+     * The Command that was being handled.
+     */
+    private final transient Command _command;
+
+    /**
+     * Constructor that takes a message, the Command and the cause.
+     * 
+     * @param message
+     *            A <code>String</code> message.
+     * @param command
+     *            The <code>Command</code> that was being handled.
+     * @param cause
+     *            The <code>Throwable</code> that caused this exception.
+     */
+    protected DispatchException(final String message, final Command command,
+            final Throwable cause)
+    {
+        super(message, cause);
+        this._command = command;
+    }
+
+    /**
+     * Gets the Command that was being handled.
+     * 
+     * @return A <code>Command</code> instance.
+     */
+    public Command getCommand()
+    {
+        return (this._command);
+    }
+}
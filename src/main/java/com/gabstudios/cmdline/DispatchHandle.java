@@ -0,0 +1,199 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class is the handle of an asynchronous parse. It is returned once the
+ * command line has been parsed and each Command has been dispatched, and is
+ * used to wait for the handling of the Commands to complete.
+ *
+ * DispatchHandle handle = parser.parseAsync( args, listener );
+ *
+ * handle.await();
+ *
+ * @see CmdLineParser#parseAsync(String[], CommandListener)
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class DispatchHandle {
+
+	/*
+	 * The Commands that were parsed.
+	 */
+	private final List<Command> _commands;
+
+	/*
+	 * The dispatcher of the parse.
+	 */
+	private final AsyncDispatcher _dispatcher;
+
+	/*
+	 * Completes when the handling of all of the Commands completes.
+	 */
+	private final CompletableFuture<Void> _future;
+
+	/*
+	 * The handling of each Command that was dispatched.
+	 */
+	private final List<AsyncDispatcher.DispatchTask> _tasks;
+
+	/*
+	 * Constructor.
+	 */
+	DispatchHandle(final AsyncDispatcher dispatcher, final List<Command> commands,
+			final List<AsyncDispatcher.DispatchTask> tasks) {
+		this._dispatcher = dispatcher;
+		this._commands = Collections.unmodifiableList(commands);
+		this._tasks = tasks;
+
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+		for (int i = 0; i < futures.length; i++) {
+			futures[i] = tasks.get(i).getFuture();
+		}
+		this._future = CompletableFuture.allOf(futures);
+	}
+
+	/**
+	 * Waits for the handling of all of the Commands to complete.
+	 *
+	 * @throws InterruptedException
+	 *             If the thread is interrupted while it waits.
+	 * @throws DispatchException
+	 *             The first failure, in the order of the Commands, if the
+	 *             handling of a Command failed, timed out or was cancelled.
+	 */
+	public void await() throws InterruptedException {
+		try {
+			this._future.get();
+		} catch (final ExecutionException e) {
+			// reported below in the order of the Commands.
+		}
+		this.throwFirstFailure();
+	}
+
+	/**
+	 * Waits for the handling of all of the Commands to complete, or for the
+	 * time to pass.
+	 *
+	 * @param time
+	 *            The time to wait.
+	 * @param unit
+	 *            The unit of the time.
+	 * @return True if the handling completed, false if the time passed first.
+	 * @throws InterruptedException
+	 *             If the thread is interrupted while it waits.
+	 * @throws DispatchException
+	 *             The first failure, in the order of the Commands, if the
+	 *             handling of a Command failed, timed out or was cancelled.
+	 */
+	public boolean await(final long time, final TimeUnit unit) throws InterruptedException {
+		try {
+			this._future.get(time, unit);
+		} catch (final ExecutionException e) {
+			// reported below in the order of the Commands.
+		} catch (final TimeoutException e) {
+			return (false);
+		}
+		this.throwFirstFailure();
+		return (true);
+	}
+
+	/**
+	 * Cancels the handling of the Commands that have not completed. The
+	 * threads that are handling them are interrupted.
+	 */
+	public void cancel() {
+		this._dispatcher.cancel(true);
+	}
+
+	/**
+	 * Gets the Commands that were parsed.
+	 *
+	 * @return An unmodifiable List of the Commands in the order they were
+	 *         parsed.
+	 */
+	public List<Command> getCommands() {
+		return (this._commands);
+	}
+
+	/**
+	 * Gets the failures of the handling that has completed.
+	 *
+	 * @return A new List of the failures in the order of the Commands. Empty
+	 *         if nothing has failed.
+	 */
+	public List<DispatchException> getFailures() {
+		final List<DispatchException> failures = new ArrayList<DispatchException>();
+		for (final AsyncDispatcher.DispatchTask task : this._tasks) {
+			final DispatchException failure = DispatchHandle.getFailure(task.getFuture());
+			if (failure != null) {
+				failures.add(failure);
+			}
+		}
+		return (failures);
+	}
+
+	/**
+	 * A test to see if the handling of all of the Commands has completed.
+	 *
+	 * @return True if the handling has completed, failed, timed out or was
+	 *         cancelled.
+	 */
+	public boolean isDone() {
+		return (this._future.isDone());
+	}
+
+	/*
+	 * Gets the failure of a future that has completed, or null.
+	 */
+	private static DispatchException getFailure(final CompletableFuture<Void> future) {
+		DispatchException failure = null;
+		if (future.isCompletedExceptionally()) {
+			try {
+				future.getNow(null);
+			} catch (final Exception e) {
+				// the future is only ever completed with a DispatchException.
+				failure = (DispatchException) e.getCause();
+			}
+		}
+		return (failure);
+	}
+
+	/*
+	 * Throws the first failure, if there is one.
+	 */
+	private void throwFirstFailure() {
+		for (final AsyncDispatcher.DispatchTask task : this._tasks) {
+			final DispatchException failure = DispatchHandle.getFailure(task.getFuture());
+			if (failure != null) {
+				throw (failure);
+			}
+		}
+	}
+}
@@ -0,0 +1,569 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.gabstudios.validate.Validate;
+
+/**
+ * This class is a bounded queue between the parser and a
+ * <code>CommandListener</code>. It is a listener itself, so it is given to a
+ * parse in place of the listener that it feeds. The Commands are handled in
+ * order, one at a time, by a thread that the queue owns.
+ *
+ * DispatchQueue queue = DispatchQueue.builder().setCommandListener(listener)
+ * .setCapacity(1024).setOverflowPolicy(OverflowPolicy.BLOCK).build();
+ *
+ * CmdLine.parse( args, queue );
+ *
+ * The slots of the queue are allocated when it is built and are reused, so a
+ * Command that is queued and handled does not allocate. When the queue is full,
+ * the <code>OverflowPolicy</code> decides what happens to the next Command.
+ *
+ * The queue keeps counts of the Commands that were handled, dropped, rejected
+ * or run on the caller, and of the time that the Commands waited in the queue.
+ *
+ * @see OverflowPolicy
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class DispatchQueue implements CommandListener, AutoCloseable {
+
+	/**
+	 * This class creates a <code>DispatchQueue</code> instance.
+	 *
+	 * @author Gregory Brown (sysdevone)
+	 *
+	 */
+	public static final class Builder {
+
+		/*
+		 * The number of Commands that the queue holds.
+		 */
+		private int _capacity;
+
+		/*
+		 * The listener that handles the Commands.
+		 */
+		private CommandListener _commandListener;
+
+		/*
+		 * What happens to a Command when the queue is full.
+		 */
+		private OverflowPolicy _overflowPolicy;
+
+		/*
+		 * Constructor.
+		 */
+		private Builder() {
+			this._capacity = DispatchQueue.DEFAULT_CAPACITY;
+			this._overflowPolicy = OverflowPolicy.BLOCK;
+		}
+
+		/**
+		 * Creates a new <code>DispatchQueue</code> instance and starts the
+		 * thread that handles its Commands.
+		 *
+		 * @return A new <code>DispatchQueue</code> instance.
+		 */
+		public DispatchQueue build() {
+			Validate.defineObject(this._commandListener).testNotNull().throwValidationExceptionOnFail().validate();
+
+			final DispatchQueue queue = new DispatchQueue(this);
+			queue._consumer.start();
+			return (queue);
+		}
+
+		/**
+		 * Sets the number of Commands that the queue holds. The capacity is 1024
+		 * if it is not set.
+		 *
+		 * @param capacity
+		 *            The capacity. Must be greater than 0.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setCapacity(final int capacity) {
+			Validate.defineBoolean(capacity > 0).testTrue().throwValidationExceptionOnFail().validate();
+
+			this._capacity = capacity;
+			return (this);
+		}
+
+		/**
+		 * Sets the listener that handles the Commands. It must be set.
+		 *
+		 * @param commandListener
+		 *            The listener. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setCommandListener(final CommandListener commandListener) {
+			Validate.defineObject(commandListener).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._commandListener = commandListener;
+			return (this);
+		}
+
+		/**
+		 * Sets what happens to a Command when the queue is full. The policy is
+		 * <code>OverflowPolicy.BLOCK</code> if it is not set.
+		 *
+		 * @param overflowPolicy
+		 *            The policy. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setOverflowPolicy(final OverflowPolicy overflowPolicy) {
+			Validate.defineObject(overflowPolicy).testNotNull().throwValidationExceptionOnFail().validate();
+
+			this._overflowPolicy = overflowPolicy;
+			return (this);
+		}
+	}
+
+	/*
+	 * The capacity if one is not set.
+	 */
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Creates a new Builder that is used to set the settings.
+	 *
+	 * @return A new <code>DispatchQueue.Builder</code> instance.
+	 */
+	public static Builder builder() {
+		return (new Builder());
+	}
+
+	/*
+	 * The number of Commands that were handled on the thread that gave them.
+	 * Guarded by _lock.
+	 */
+	private long _callerRunsCount;
+
+	/*
+	 * True once the queue has been closed. Guarded by _lock.
+	 */
+	private boolean _closed;
+
+	/*
+	 * The listener that handles the Commands.
+	 */
+	private final CommandListener _commandListener;
+
+	/*
+	 * The thread that handles the queued Commands.
+	 */
+	private final Thread _consumer;
+
+	/*
+	 * The number of Commands in the queue. Guarded by _lock.
+	 */
+	private int _count;
+
+	/*
+	 * The number of Commands that were dropped. Guarded by _lock.
+	 */
+	private long _droppedCount;
+
+	/*
+	 * The System.nanoTime() value when the Command in each slot was queued.
+	 * Guarded by _lock.
+	 */
+	private final long[] _enqueueTimes;
+
+	/*
+	 * The number of Commands whose listener threw. Only written by the
+	 * consumer.
+	 */
+	private volatile long _failedCount;
+
+	/*
+	 * The number of queued Commands that were handled. Only written by the
+	 * consumer.
+	 */
+	private volatile long _handledCount;
+
+	/*
+	 * The slot of the oldest Command. Guarded by _lock.
+	 */
+	private int _head;
+
+	/*
+	 * Guards the slots and the counts.
+	 */
+	private final ReentrantLock _lock;
+
+	/*
+	 * The longest time that a Command waited in the queue in nanoseconds.
+	 * Guarded by _lock.
+	 */
+	private long _maxWaitNanos;
+
+	/*
+	 * Signalled when a Command is queued or the queue is closed.
+	 */
+	private final Condition _notEmpty;
+
+	/*
+	 * Signalled when a Command leaves the queue or the queue is closed.
+	 */
+	private final Condition _notFull;
+
+	/*
+	 * What happens to a Command when the queue is full.
+	 */
+	private final OverflowPolicy _overflowPolicy;
+
+	/*
+	 * The number of Commands that were rejected. Guarded by _lock.
+	 */
+	private long _rejectedCount;
+
+	/*
+	 * The Commands that are queued. A ring of slots that starts at _head.
+	 * Guarded by _lock.
+	 */
+	private final Command[] _slots;
+
+	/*
+	 * The total time that the handled Commands waited in the queue in
+	 * nanoseconds. Guarded by _lock.
+	 */
+	private long _totalWaitNanos;
+
+	/*
+	 * Constructor.
+	 */
+	private DispatchQueue(final Builder builder) {
+		this._commandListener = builder._commandListener;
+		this._overflowPolicy = builder._overflowPolicy;
+		this._slots = new Command[builder._capacity];
+		this._enqueueTimes = new long[builder._capacity];
+		this._lock = new ReentrantLock();
+		this._notEmpty = this._lock.newCondition();
+		this._notFull = this._lock.newCondition();
+
+		this._consumer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				DispatchQueue.this.consume();
+			}
+		}, "gab-cmdline-queue");
+		this._consumer.setDaemon(true);
+	}
+
+	/**
+	 * Stops the queue from taking Commands and waits until the Commands in the
+	 * queue have been handled. A Command that is given after the queue is
+	 * closed is rejected.
+	 *
+	 * If the calling thread is interrupted while it waits, the interrupt is
+	 * kept and this method returns before the queue is empty.
+	 */
+	@Override
+	public void close() {
+		this._lock.lock();
+		try {
+			this._closed = true;
+			this._notEmpty.signalAll();
+			this._notFull.signalAll();
+		} finally {
+			this._lock.unlock();
+		}
+
+		if (Thread.currentThread() != this._consumer) {
+			try {
+				this._consumer.join();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/*
+	 * Takes the Commands from the queue and handles them, until the queue is
+	 * closed and empty.
+	 */
+	private void consume() {
+		while (true) {
+			final Command command;
+			this._lock.lock();
+			try {
+				while ((this._count == 0) && !this._closed) {
+					this._notEmpty.awaitUninterruptibly();
+				}
+				if (this._count == 0) {
+					return;
+				}
+
+				final int head = this._head;
+				command = this._slots[head];
+				final long waitNanos = System.nanoTime() - this._enqueueTimes[head];
+				this._slots[head] = null;
+				this._head = this.next(head);
+				this._count--;
+
+				this._totalWaitNanos += waitNanos;
+				if (waitNanos > this._maxWaitNanos) {
+					this._maxWaitNanos = waitNanos;
+				}
+				this._notFull.signal();
+			} finally {
+				this._lock.unlock();
+			}
+
+			this.handleQueued(command);
+		}
+	}
+
+	/**
+	 * Gets the number of Commands that were handled on the thread that gave
+	 * them, because the queue was full.
+	 *
+	 * @return The number of Commands.
+	 */
+	public long getCallerRunsCount() {
+		this._lock.lock();
+		try {
+			return (this._callerRunsCount);
+		} finally {
+			this._lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of Commands that the queue holds.
+	 *
+	 * @return The capacity.
+	 */
+	public int getCapacity() {
+		return (this._slots.length);
+	}
+
+	/**
+	 * Gets the number of Commands that are in the queue.
+	 *
+	 * @return The depth of the queue.
+	 */
+	public int getDepth() {
+		this._lock.lock();
+		try {
+			return (this._count);
+		} finally {
+			this._lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of Commands that were dropped to make room for newer
+	 * Commands.
+	 *
+	 * @return The number of Commands.
+	 */
+	public long getDroppedCount() {
+		this._lock.lock();
+		try {
+			return (this._droppedCount);
+		} finally {
+			this._lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of queued Commands whose listener threw an exception. The
+	 * exception is given to the uncaught exception handler of the queue's
+	 * thread.
+	 *
+	 * @return The number of Commands.
+	 */
+	public long getFailedCount() {
+		return (this._failedCount);
+	}
+
+	/**
+	 * Gets the number of queued Commands that have been handled, including the
+	 * ones that failed.
+	 *
+	 * @return The number of Commands.
+	 */
+	public long getHandledCount() {
+		return (this._handledCount);
+	}
+
+	/**
+	 * Gets the longest time that a Command waited in the queue.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getMaxWaitNanos() {
+		this._lock.lock();
+		try {
+			return (this._maxWaitNanos);
+		} finally {
+			this._lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets what happens to a Command when the queue is full.
+	 *
+	 * @return An <code>OverflowPolicy</code>.
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return (this._overflowPolicy);
+	}
+
+	/**
+	 * Gets the number of Commands that were rejected, because the queue was
+	 * full or closed.
+	 *
+	 * @return The number of Commands.
+	 */
+	public long getRejectedCount() {
+		this._lock.lock();
+		try {
+			return (this._rejectedCount);
+		} finally {
+			this._lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the total time that the Commands waited in the queue before they
+	 * were handled.
+	 *
+	 * @return The time in nanoseconds.
+	 */
+	public long getTotalWaitNanos() {
+		this._lock.lock();
+		try {
+			return (this._totalWaitNanos);
+		} finally {
+			this._lock.unlock();
+		}
+	}
+
+	/**
+	 * Adds the Command to the queue. If the queue is full, the
+	 * <code>OverflowPolicy</code> decides what happens to it.
+	 *
+	 * @param command
+	 *            The Command. Must not be null.
+	 * @throws DispatchException
+	 *             If the Command is rejected, or the thread is interrupted while
+	 *             it waits for room in the queue.
+	 */
+	@Override
+	public void handle(final Command command) {
+		Validate.defineObject(command).testNotNull().throwValidationExceptionOnFail().validate();
+
+		boolean callerRuns = false;
+		this._lock.lock();
+		try {
+			while (!this._closed && (this._count == this._slots.length)) {
+				if (this._overflowPolicy == OverflowPolicy.BLOCK) {
+					try {
+						this._notFull.await();
+					} catch (final InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw (new DispatchException("Error:  The command '" + command.getName()
+								+ "' was interrupted while it waited for the queue.", command, e));
+					}
+				} else if (this._overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+					this._slots[this._head] = null;
+					this._head = this.next(this._head);
+					this._count--;
+					this._droppedCount++;
+				} else if (this._overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+					this._callerRunsCount++;
+					callerRuns = true;
+					break;
+				} else {
+					this._rejectedCount++;
+					throw (new DispatchException("Error:  The command '" + command.getName()
+							+ "' was rejected because the queue is full.", command,
+							new RejectedExecutionException()));
+				}
+			}
+
+			if (this._closed) {
+				this._rejectedCount++;
+				throw (new DispatchException(
+						"Error:  The command '" + command.getName() + "' was rejected because the queue is closed.",
+						command, new RejectedExecutionException()));
+			}
+
+			if (!callerRuns) {
+				int tail = this._head + this._count;
+				if (tail >= this._slots.length) {
+					tail -= this._slots.length;
+				}
+				this._slots[tail] = command;
+				this._enqueueTimes[tail] = System.nanoTime();
+				this._count++;
+				this._notEmpty.signal();
+			}
+		} finally {
+			this._lock.unlock();
+		}
+
+		if (callerRuns) {
+			this._commandListener.handle(command);
+		}
+	}
+
+	/*
+	 * Calls the listener with a Command that was taken from the queue. A
+	 * listener that fails must not stop the queue.
+	 */
+	private void handleQueued(final Command command) {
+		try {
+			this._commandListener.handle(command);
+		} catch (final Throwable e) {
+			this._failedCount++;
+			final Thread thread = Thread.currentThread();
+			thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+		} finally {
+			this._handledCount++;
+		}
+	}
+
+	/*
+	 * Gets the slot after the slot.
+	 */
+	private int next(final int slot) {
+		return (slot + 1 == this._slots.length ? 0 : slot + 1);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("DispatchQueue [_capacity=%s, _overflowPolicy=%s, _depth=%s]", this._slots.length,
+				this._overflowPolicy, this.getDepth());
+	}
+}
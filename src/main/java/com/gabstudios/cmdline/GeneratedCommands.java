@@ -0,0 +1,219 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * This class is the base of the command definitions that are generated from
+ * <code>DefineCommand</code> annotations. It is not meant to be extended by
+ * hand.
+ *
+ * The generated constructor creates each definition directly, with its regex
+ * compiled once and the converters of its types already chosen, and the
+ * generated <code>indexOf(String)</code> finds a definition with a switch on
+ * the command names. The definitions were checked by the same rules as
+ * <code>CmdLineParser.Builder.defineCommand(String...)</code> when they were
+ * compiled, so nothing is tokenized or checked when they are created.
+ *
+ * CmdLineParser parser = CmdLineParser.builder() .defineCommands(new
+ * OptionsCommands()).build();
+ *
+ * @see DefineCommand
+ * @see CmdLineParser.Builder#defineCommands(GeneratedCommands)
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public abstract class GeneratedCommands {
+
+	/*
+	 * The definition that is being added.
+	 */
+	private CommandDefinition _definition;
+
+	/*
+	 * The definitions, by index.
+	 */
+	private final List<CommandDefinition> _definitions;
+
+	/*
+	 * The command names, in the order they were defined.
+	 */
+	private final List<String> _names;
+
+	/**
+	 * Constructor.
+	 */
+	protected GeneratedCommands() {
+		this._definitions = new ArrayList<CommandDefinition>();
+		this._names = new ArrayList<String>();
+	}
+
+	/**
+	 * Adds a definition with the command names. The variables, regex and
+	 * description that are set next belong to this definition.
+	 *
+	 * @param names
+	 *            The command names.
+	 */
+	protected final void addCommand(final String... names) {
+		this._definition = new CommandDefinition();
+		this._definition.setIndex(this._definitions.size());
+		for (final String name : names) {
+			this._definition.addName(name);
+			this._names.add(name);
+		}
+		this._definitions.add(this._definition);
+	}
+
+	/**
+	 * Adds an optional variable to the definition.
+	 *
+	 * @param name
+	 *            The name of the variable.
+	 * @param typeName
+	 *            The name of the type of the variable. Null if it does not have
+	 *            a type.
+	 * @param converter
+	 *            The converter of the type. Null if it does not have a type.
+	 */
+	protected final void addOptionalVariable(final String name, final String typeName,
+			final ValueConverter<?> converter) {
+		this._definition.addOptionalVariable(name);
+		this.setSlotType(name, typeName, converter);
+	}
+
+	/**
+	 * Adds a required variable to the definition.
+	 *
+	 * @param name
+	 *            The name of the variable.
+	 * @param typeName
+	 *            The name of the type of the variable. Null if it does not have
+	 *            a type.
+	 * @param converter
+	 *            The converter of the type. Null if it does not have a type.
+	 */
+	protected final void addRequiredVariable(final String name, final String typeName,
+			final ValueConverter<?> converter) {
+		this._definition.addRequiredVariable(name);
+		this.setSlotType(name, typeName, converter);
+	}
+
+	/*
+	 * Gets the definitions, by index.
+	 */
+	List<CommandDefinition> getDefinitions() {
+		return (Collections.unmodifiableList(this._definitions));
+	}
+
+	/*
+	 * Gets the command names, in the order they were defined.
+	 */
+	List<String> getNames() {
+		return (Collections.unmodifiableList(this._names));
+	}
+
+	/**
+	 * Gets the index of the definition of the command.
+	 *
+	 * @param commandName
+	 *            A command name. Not null.
+	 * @return The index. -1 if the command is not defined.
+	 */
+	protected abstract int indexOf(String commandName);
+
+	/**
+	 * Sets the description of the definition.
+	 *
+	 * @param description
+	 *            The description.
+	 */
+	protected final void setDescription(final String description) {
+		this._definition.setDescription(description);
+	}
+
+	/**
+	 * Sets the list of optional values of the definition.
+	 *
+	 * @param name
+	 *            The name of the variable.
+	 * @param typeName
+	 *            The name of the type of the values. Null if they do not have a
+	 *            type.
+	 * @param converter
+	 *            The converter of the type. Null if they do not have a type.
+	 */
+	protected final void setOptionalVariableList(final String name, final String typeName,
+			final ValueConverter<?> converter) {
+		this._definition.setOptionalVariableList(name);
+		this.setSlotType(name, typeName, converter);
+	}
+
+	/**
+	 * Sets the regex that the values of the definition must match.
+	 *
+	 * @param pattern
+	 *            The compiled regex.
+	 */
+	protected final void setRegexPattern(final Pattern pattern) {
+		this._definition.setRegexPattern(pattern);
+	}
+
+	/**
+	 * Sets the list of required values of the definition.
+	 *
+	 * @param name
+	 *            The name of the variable.
+	 * @param typeName
+	 *            The name of the type of the values. Null if they do not have a
+	 *            type.
+	 * @param converter
+	 *            The converter of the type. Null if they do not have a type.
+	 */
+	protected final void setRequiredVariableList(final String name, final String typeName,
+			final ValueConverter<?> converter) {
+		this._definition.setRequiredVariableList(name);
+		this.setSlotType(name, typeName, converter);
+	}
+
+	/*
+	 * Sets the type of the variable, if it has one.
+	 */
+	private void setSlotType(final String name, final String typeName, final ValueConverter<?> converter) {
+		if (typeName != null) {
+			this._definition.setSlotType(name, typeName, converter);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s [_definitions=%s]", this.getClass().getSimpleName(), this._definitions.size());
+	}
+}
@@ -0,0 +1,131 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * This class is the registry of the definitions that were generated from
+ * annotations. A name is found by the generated switch, so the parser does not
+ * hash the name into a map of its own.
+ *
+ * The converters of the types were chosen when the definitions were
+ * generated, so the registry does not need the converters of the Builder.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class GeneratedRegistry extends CommandRegistry {
+
+	/*
+	 * The generated definitions.
+	 */
+	private final GeneratedCommands _commands;
+
+	/*
+	 * The definitions, by index.
+	 */
+	private final List<CommandDefinition> _definitions;
+
+	/*
+	 * Constructor.
+	 */
+	GeneratedRegistry(final GeneratedCommands commands) {
+		assert (commands != null) : "The parameter 'commands' must not be null";
+
+		this._commands = commands;
+		this._definitions = commands.getDefinitions();
+	}
+
+	@Override
+	GeneratedRegistry bind(final Map<String, ValueConverter<?>> converterMap) {
+		return (this);
+	}
+
+	@Override
+	SuggestionIndex createSuggestionIndex() {
+		return (new SuggestionIndex(this._commands.getNames()));
+	}
+
+	@Override
+	public Set<Map.Entry<String, CommandDefinition>> entrySet() {
+		final Map<String, CommandDefinition> map = new LinkedHashMap<String, CommandDefinition>();
+		for (final CommandDefinition definition : this._definitions) {
+			for (final String name : definition.getNames()) {
+				map.put(name, definition);
+			}
+		}
+		return (Collections.unmodifiableMap(map).entrySet());
+	}
+
+	@Override
+	public CommandDefinition get(final Object key) {
+		if (!(key instanceof String)) {
+			return (null);
+		}
+
+		final int index = this._commands.indexOf((String) key);
+		return (index < 0 ? null : this._definitions.get(index));
+	}
+
+	@Override
+	int getDefinitionCount() {
+		return (this._definitions.size());
+	}
+
+	@Override
+	List<CommandDefinition> getDefinitions() {
+		return (this._definitions);
+	}
+
+	@Override
+	int getIndex(final String commandName) {
+		return (this._commands.indexOf(commandName));
+	}
+
+	@Override
+	List<String> getNames() {
+		return (this._commands.getNames());
+	}
+
+	@Override
+	List<String> getTypeNames() {
+		return (Collections.<String>emptyList());
+	}
+
+	@Override
+	public int size() {
+		return (this._commands.getNames().size());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("GeneratedRegistry [_commands=%s]", this._commands);
+	}
+}
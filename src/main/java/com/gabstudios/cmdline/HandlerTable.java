@@ -0,0 +1,83 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/*
+ * This class routes a Command to the handler of its definition. The handlers
+ * are held in an array that is indexed by the position of the definition, so a
+ * Command is routed without comparing its name. A Command whose definition
+ * does not have a handler, or that is not in the table such as a system
+ * property, is given to the fallback listener, if there is one.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class HandlerTable implements CommandListener {
+
+	/*
+	 * The listener of the Commands that do not have a handler. May be null.
+	 */
+	private final CommandListener _fallback;
+
+	/*
+	 * The handler of each definition, by index. An element is null if the
+	 * definition does not have a handler. It is not changed once it is built.
+	 */
+	private final CommandListener[] _handlers;
+
+	/*
+	 * Constructor.
+	 */
+	HandlerTable(final CommandListener[] handlers, final CommandListener fallback) {
+		assert (handlers != null) : "The parameter 'handlers' must not be null";
+
+		this._handlers = handlers;
+		this._fallback = fallback;
+	}
+
+	@Override
+	public void handle(final Command command) {
+		final int index = command._definition.getIndex();
+		final CommandListener handler = ((index >= 0) && (index < this._handlers.length) ? this._handlers[index]
+				: null);
+		if (handler != null) {
+			handler.handle(command);
+		} else if (this._fallback != null) {
+			this._fallback.handle(command);
+		}
+	}
+
+	/*
+	 * Creates a table with the same handlers and another fallback listener.
+	 */
+	HandlerTable withFallback(final CommandListener fallback) {
+		return (fallback == this._fallback ? this : new HandlerTable(this._handlers, fallback));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("HandlerTable [_handlers=%s, _fallback=%s]", this._handlers.length, this._fallback);
+	}
+}
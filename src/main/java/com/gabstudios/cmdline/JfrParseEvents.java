@@ -0,0 +1,330 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/*
+ * This class emits the parse events to the Java Flight Recorder. It is loaded
+ * by ParseEvents.create() only if the JVM has the jdk.jfr module.
+ *
+ * The events are enabled and disabled by the settings of a recording, such as
+ * a .jfc file, by their names, e.g. com.gabstudios.cmdline.Parse. A JFR event
+ * that is not enabled is not created. The EventType of each event is found
+ * once, and its flag is tested before the event is created.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class JfrParseEvents extends ParseEvents {
+
+	/*
+	 * The compile of a definition.
+	 */
+	@Name("com.gabstudios.cmdline.DefinitionCompile")
+	@Label("Definition Compile")
+	@Category("GAB CmdLine")
+	@Description("The tokenize and check of a command definition")
+	@StackTrace(false)
+	static final class DefinitionCompileEvent extends Event {
+
+		@Label("Command Name")
+		@Description("The first name of the command, null if the definition is not valid")
+		@Name("commandName")
+		String _commandName;
+
+		@Label("Token Count")
+		@Description("The number of tokens of the definition")
+		@Name("tokenCount")
+		int _tokenCount;
+	}
+
+	/*
+	 * The handling of a Command by a listener.
+	 */
+	@Name("com.gabstudios.cmdline.ListenerDispatch")
+	@Label("Listener Dispatch")
+	@Category("GAB CmdLine")
+	@Description("The handling of a Command by a listener on the thread that parses")
+	@StackTrace(false)
+	static final class ListenerDispatchEvent extends Event {
+
+		@Label("Command Name")
+		@Name("commandName")
+		String _commandName;
+
+		@Label("Listener Class")
+		@Name("listenerClass")
+		Class<?> _listenerClass;
+	}
+
+	/*
+	 * A parse of a command line.
+	 */
+	@Name("com.gabstudios.cmdline.Parse")
+	@Label("Parse")
+	@Category("GAB CmdLine")
+	@Description("A parse of a command line, from the arguments to the last Command")
+	@StackTrace(false)
+	static final class ParseEvent extends Event {
+
+		@Label("Command Count")
+		@Name("commandCount")
+		int _commandCount;
+
+		@Label("Token Count")
+		@Name("tokenCount")
+		int _tokenCount;
+	}
+
+	/*
+	 * A command name that was matched to a definition.
+	 */
+	@Name("com.gabstudios.cmdline.CommandMatched")
+	@Label("Command Matched")
+	@Category("GAB CmdLine")
+	@Description("A command name that was matched to a definition")
+	@StackTrace(false)
+	static final class CommandMatchedEvent extends Event {
+
+		@Label("Command Name")
+		@Name("commandName")
+		String _commandName;
+
+		@Label("Token Index")
+		@Name("tokenIndex")
+		int _tokenIndex;
+	}
+
+	/*
+	 * The lookup of the suggested words of a token that is not defined.
+	 */
+	@Name("com.gabstudios.cmdline.SuggestionLookup")
+	@Label("Suggestion Lookup")
+	@Category("GAB CmdLine")
+	@Description("The lookup of the suggested words of a token that is not defined")
+	@StackTrace(false)
+	static final class SuggestionLookupEvent extends Event {
+
+		@Label("Cached")
+		@Description("True if the words were found in the suggestion cache")
+		@Name("cached")
+		boolean _cached;
+
+		@Label("Suggestion Count")
+		@Name("suggestionCount")
+		int _suggestionCount;
+
+		@Label("Token")
+		@Name("token")
+		String _token;
+	}
+
+	/*
+	 * The tokenize of a command line.
+	 */
+	@Name("com.gabstudios.cmdline.Tokenize")
+	@Label("Tokenize")
+	@Category("GAB CmdLine")
+	@Description("The tokenize of the arguments of a command line")
+	@StackTrace(false)
+	static final class TokenizeEvent extends Event {
+
+		@Label("Input Size")
+		@Description("The number of chars of the arguments")
+		@Name("inputSize")
+		long _inputSize;
+
+		@Label("Token Count")
+		@Name("tokenCount")
+		int _tokenCount;
+	}
+
+	/*
+	 * A command line that is not valid.
+	 */
+	@Name("com.gabstudios.cmdline.ValidationFailed")
+	@Label("Validation Failed")
+	@Category("GAB CmdLine")
+	@Description("A command line that is not valid")
+	@StackTrace(false)
+	static final class ValidationFailedEvent extends Event {
+
+		@Label("Command Name")
+		@Description("The name of the command that failed or the token that is not defined")
+		@Name("commandName")
+		String _commandName;
+
+		@Label("Exception Class")
+		@Name("exceptionClass")
+		Class<?> _exceptionClass;
+
+		@Label("Message")
+		@Name("message")
+		String _message;
+	}
+
+	/*
+	 * The types of the events, to test whether they are enabled without
+	 * creating them.
+	 */
+	private static final EventType COMMAND_MATCHED_TYPE = EventType.getEventType(CommandMatchedEvent.class);
+	private static final EventType DEFINITION_TYPE = EventType.getEventType(DefinitionCompileEvent.class);
+	private static final EventType DISPATCH_TYPE = EventType.getEventType(ListenerDispatchEvent.class);
+	private static final EventType PARSE_TYPE = EventType.getEventType(ParseEvent.class);
+	private static final EventType SUGGESTION_TYPE = EventType.getEventType(SuggestionLookupEvent.class);
+	private static final EventType TOKENIZE_TYPE = EventType.getEventType(TokenizeEvent.class);
+	private static final EventType VALIDATION_FAILED_TYPE = EventType.getEventType(ValidationFailedEvent.class);
+
+	/*
+	 * Constructor. Called by ParseEvents.create().
+	 */
+	JfrParseEvents() {
+		// void - do nothing.
+	}
+
+	@Override
+	Object beginDefinition() {
+		return (JfrParseEvents.DEFINITION_TYPE.isEnabled() ? JfrParseEvents.begin(new DefinitionCompileEvent())
+				: null);
+	}
+
+	@Override
+	Object beginDispatch() {
+		return (JfrParseEvents.DISPATCH_TYPE.isEnabled() ? JfrParseEvents.begin(new ListenerDispatchEvent()) : null);
+	}
+
+	@Override
+	Object beginParse() {
+		return (JfrParseEvents.PARSE_TYPE.isEnabled() ? JfrParseEvents.begin(new ParseEvent()) : null);
+	}
+
+	@Override
+	Object beginSuggestion() {
+		return (JfrParseEvents.SUGGESTION_TYPE.isEnabled() ? JfrParseEvents.begin(new SuggestionLookupEvent())
+				: null);
+	}
+
+	@Override
+	Object beginTokenize() {
+		return (JfrParseEvents.TOKENIZE_TYPE.isEnabled() ? JfrParseEvents.begin(new TokenizeEvent()) : null);
+	}
+
+	/*
+	 * Begins the event. The type of the event is enabled.
+	 */
+	private static Event begin(final Event event) {
+		event.begin();
+		return (event);
+	}
+
+	@Override
+	void commandMatched(final String commandName, final int tokenIndex) {
+		if (JfrParseEvents.COMMAND_MATCHED_TYPE.isEnabled()) {
+			final CommandMatchedEvent event = new CommandMatchedEvent();
+			event._commandName = commandName;
+			event._tokenIndex = tokenIndex;
+			event.commit();
+		}
+	}
+
+	@Override
+	void endDefinition(final Object event, final String commandName, final int tokenCount) {
+		if (event != null) {
+			final DefinitionCompileEvent definitionEvent = (DefinitionCompileEvent) event;
+			definitionEvent.end();
+			if (definitionEvent.shouldCommit()) {
+				definitionEvent._commandName = commandName;
+				definitionEvent._tokenCount = tokenCount;
+				definitionEvent.commit();
+			}
+		}
+	}
+
+	@Override
+	void endDispatch(final Object event, final Command command, final CommandListener commandListener) {
+		if (event != null) {
+			final ListenerDispatchEvent dispatchEvent = (ListenerDispatchEvent) event;
+			dispatchEvent.end();
+			if (dispatchEvent.shouldCommit()) {
+				dispatchEvent._commandName = command.getName();
+				dispatchEvent._listenerClass = commandListener.getClass();
+				dispatchEvent.commit();
+			}
+		}
+	}
+
+	@Override
+	void endParse(final Object event, final int tokenCount, final int commandCount) {
+		if (event != null) {
+			final ParseEvent parseEvent = (ParseEvent) event;
+			parseEvent.end();
+			if (parseEvent.shouldCommit()) {
+				parseEvent._tokenCount = tokenCount;
+				parseEvent._commandCount = commandCount;
+				parseEvent.commit();
+			}
+		}
+	}
+
+	@Override
+	void endSuggestion(final Object event, final String token, final int suggestionCount, final boolean cached) {
+		if (event != null) {
+			final SuggestionLookupEvent suggestionEvent = (SuggestionLookupEvent) event;
+			suggestionEvent.end();
+			if (suggestionEvent.shouldCommit()) {
+				suggestionEvent._token = token;
+				suggestionEvent._suggestionCount = suggestionCount;
+				suggestionEvent._cached = cached;
+				suggestionEvent.commit();
+			}
+		}
+	}
+
+	@Override
+	void endTokenize(final Object event, final long inputSize, final int tokenCount) {
+		if (event != null) {
+			final TokenizeEvent tokenizeEvent = (TokenizeEvent) event;
+			tokenizeEvent.end();
+			if (tokenizeEvent.shouldCommit()) {
+				tokenizeEvent._inputSize = inputSize;
+				tokenizeEvent._tokenCount = tokenCount;
+				tokenizeEvent.commit();
+			}
+		}
+	}
+
+	@Override
+	void validationFailed(final String commandName, final RuntimeException exception) {
+		if (JfrParseEvents.VALIDATION_FAILED_TYPE.isEnabled()) {
+			final ValidationFailedEvent event = new ValidationFailedEvent();
+			event._commandName = commandName;
+			event._exceptionClass = exception.getClass();
+			event._message = exception.getMessage();
+			event.commit();
+		}
+	}
+}
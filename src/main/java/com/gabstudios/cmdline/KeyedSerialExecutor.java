@@ -0,0 +1,249 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.gabstudios.validate.Validate;
+
+/**
+ * This class runs tasks on a shared executor, one at a time for each key.
+ * Tasks with the same key run in the order they were given, tasks with
+ * different keys may run at the same time.
+ *
+ * Each key has a lane. A lane is a queue and a state that is changed with
+ * compare and set, so there is no lock for each lane. A task is queued before
+ * the state is tested, and when a lane goes from idle to running, a task that
+ * drains the lane is given to the executor. A lane that is empty is closed and
+ * removed, so the lanes do not grow with the number of keys that have been
+ * seen.
+ *
+ * @see AsyncDispatch.Builder#setOrderedByKey(java.util.function.Function)
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class KeyedSerialExecutor {
+
+	/*
+	 * The tasks of a single key.
+	 */
+	private final class Lane implements Runnable {
+
+		/*
+		 * The key of the lane.
+		 */
+		private final Object _key;
+
+		/*
+		 * The tasks that have not run.
+		 */
+		private final Queue<Runnable> _queue;
+
+		/*
+		 * IDLE, RUNNING or CLOSED.
+		 */
+		private final AtomicInteger _state;
+
+		/*
+		 * Constructor.
+		 */
+		Lane(final Object key) {
+			this._key = key;
+			this._queue = new ConcurrentLinkedQueue<Runnable>();
+			this._state = new AtomicInteger(KeyedSerialExecutor.IDLE);
+		}
+
+		/*
+		 * Adds the task to the lane. Returns false if the lane is closed.
+		 */
+		boolean offer(final Runnable task) {
+			// the task is queued first, so a lane that is running always sees it.
+			this._queue.add(task);
+
+			while (true) {
+				final int state = this._state.get();
+				if (state == KeyedSerialExecutor.RUNNING) {
+					return (true);
+				} else if (state == KeyedSerialExecutor.CLOSED) {
+					// a closed lane is not drained, unless the task was taken
+					// and run before the lane was closed.
+					return (!this._queue.remove(task));
+				} else if (this._state.compareAndSet(KeyedSerialExecutor.IDLE, KeyedSerialExecutor.RUNNING)) {
+					// the lane was idle, so start draining it.
+					this.start();
+					return (true);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			int ran = 0;
+			while (true) {
+				final Runnable task = this._queue.poll();
+				if (task == null) {
+					if (this.stop()) {
+						return;
+					}
+					continue;
+				}
+
+				try {
+					task.run();
+				} catch (final Throwable e) {
+					// a task that fails must not stop the lane.
+					final Thread thread = Thread.currentThread();
+					thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+				}
+
+				if (++ran == KeyedSerialExecutor.BATCH_SIZE) {
+					// let the other lanes use the thread.
+					try {
+						KeyedSerialExecutor.this._executor.execute(this);
+						return;
+					} catch (final RejectedExecutionException e) {
+						ran = 0;
+					}
+				}
+			}
+		}
+
+		/*
+		 * Gives the lane to the executor to drain.
+		 */
+		private void start() {
+			try {
+				KeyedSerialExecutor.this._executor.execute(this);
+			} catch (final RejectedExecutionException e) {
+				// the order must be kept, so the caller drains the lane.
+				this.run();
+			}
+		}
+
+		/*
+		 * Stops draining the empty lane, and closes it if no task was added.
+		 * Returns false if a task was added and this drain must go on.
+		 */
+		private boolean stop() {
+			this._state.set(KeyedSerialExecutor.IDLE);
+			if (this._queue.isEmpty()) {
+				if (this._state.compareAndSet(KeyedSerialExecutor.IDLE, KeyedSerialExecutor.CLOSED)) {
+					KeyedSerialExecutor.this._lanes.remove(this._key, this);
+				}
+				// otherwise a task was added and its drain was started.
+				return (true);
+			}
+			// a task was added, so go on unless its drain was started.
+			return (!this._state.compareAndSet(KeyedSerialExecutor.IDLE, KeyedSerialExecutor.RUNNING));
+		}
+	}
+
+	/*
+	 * The number of tasks that a lane runs before it gives up its thread.
+	 */
+	private static final int BATCH_SIZE = 64;
+
+	/*
+	 * The state of a lane that is closed and removed.
+	 */
+	private static final int CLOSED = -1;
+
+	/*
+	 * The state of a lane that is not being drained.
+	 */
+	private static final int IDLE = 0;
+
+	/*
+	 * The state of a lane that is being drained.
+	 */
+	private static final int RUNNING = 1;
+
+	/*
+	 * The executor that the lanes run on.
+	 */
+	private final Executor _executor;
+
+	/*
+	 * The lanes that have tasks, by key.
+	 */
+	private final ConcurrentMap<Object, Lane> _lanes;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param executor
+	 *            The executor that the tasks run on. Must not be null.
+	 */
+	public KeyedSerialExecutor(final Executor executor) {
+		Validate.defineObject(executor).testNotNull().throwValidationExceptionOnFail().validate();
+
+		this._executor = executor;
+		this._lanes = new ConcurrentHashMap<Object, Lane>();
+	}
+
+	/**
+	 * Runs the task after the tasks that were given with the same key.
+	 *
+	 * If the executor rejects the task that drains a lane, the lane is drained
+	 * on the calling thread so that the order is kept.
+	 *
+	 * @param key
+	 *            The key of the task. Must not be null.
+	 * @param task
+	 *            The task. Must not be null.
+	 */
+	public void execute(final Object key, final Runnable task) {
+		Validate.defineBoolean((key != null) && (task != null)).testTrue().throwValidationExceptionOnFail()
+				.validate();
+
+		while (true) {
+			Lane lane = this._lanes.get(key);
+			if (lane == null) {
+				final Lane newLane = new Lane(key);
+				lane = this._lanes.putIfAbsent(key, newLane);
+				if (lane == null) {
+					lane = newLane;
+				}
+			}
+
+			if (lane.offer(task)) {
+				return;
+			}
+			// the lane was closed after it was found, a new one is needed.
+			this._lanes.remove(key, lane);
+		}
+	}
+
+	/**
+	 * Gets the number of lanes that have tasks that have not completed.
+	 *
+	 * @return The number of lanes.
+	 */
+	public int getLaneCount() {
+		return (this._lanes.size());
+	}
+}
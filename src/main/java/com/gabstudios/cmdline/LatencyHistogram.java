@@ -0,0 +1,123 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * This class is a histogram of latencies in nanoseconds. Each bucket holds the
+ * latencies from a power of two up to the next, so 64 buckets cover every long
+ * value and a latency is counted without a search or a lock.
+ *
+ * The counts are striped LongAdders, so threads that record at the same time
+ * do not contend on one value. A snapshot is read while latencies are being
+ * recorded, so its counts may be a little apart from each other.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class LatencyHistogram {
+
+	/*
+	 * The number of buckets. Bucket 0 holds the latencies of 0, bucket i holds
+	 * the latencies from 2^(i-1) to 2^i - 1.
+	 */
+	static final int BUCKET_COUNT = 65;
+
+	/*
+	 * Gets the bucket of the latency.
+	 */
+	static int bucketOf(final long nanos) {
+		return (64 - Long.numberOfLeadingZeros(nanos));
+	}
+
+	/*
+	 * The count of each bucket.
+	 */
+	private final LongAdder[] _buckets;
+
+	/*
+	 * The longest latency.
+	 */
+	private final LongAccumulator _maxNanos;
+
+	/*
+	 * The sum of the latencies.
+	 */
+	private final LongAdder _totalNanos;
+
+	/*
+	 * Constructor.
+	 */
+	LatencyHistogram() {
+		this._buckets = new LongAdder[LatencyHistogram.BUCKET_COUNT];
+		for (int i = 0; i < this._buckets.length; i++) {
+			this._buckets[i] = new LongAdder();
+		}
+		this._maxNanos = new LongAccumulator(Math::max, 0);
+		this._totalNanos = new LongAdder();
+	}
+
+	/*
+	 * Gets a snapshot of the histogram.
+	 */
+	LatencyStats getStats() {
+		final long[] bucketCounts = new long[this._buckets.length];
+		long count = 0;
+		for (int i = 0; i < bucketCounts.length; i++) {
+			bucketCounts[i] = this._buckets[i].sum();
+			count += bucketCounts[i];
+		}
+		return (new LatencyStats(count, this._totalNanos.sum(), this._maxNanos.get(), bucketCounts));
+	}
+
+	/*
+	 * Records a latency. A negative latency, from a clock that went back, is
+	 * recorded as 0.
+	 */
+	void record(final long nanos) {
+		final long value = Math.max(0, nanos);
+		this._buckets[LatencyHistogram.bucketOf(value)].increment();
+		this._totalNanos.add(value);
+		this._maxNanos.accumulate(value);
+	}
+
+	/*
+	 * Resets the counts to 0.
+	 */
+	void reset() {
+		for (final LongAdder bucket : this._buckets) {
+			bucket.reset();
+		}
+		this._maxNanos.reset();
+		this._totalNanos.reset();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("LatencyHistogram [_stats=%s]", this.getStats());
+	}
+}
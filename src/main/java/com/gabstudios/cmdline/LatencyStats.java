@@ -0,0 +1,192 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/**
+ * This class holds the latencies of a step of a parse, at the time they were
+ * read. The latencies are counted in buckets that are powers of two of
+ * nanoseconds, so a percentile is the upper bound of the bucket that holds it
+ * and is at most twice the latency that was recorded.
+ *
+ * @see ParseMetrics
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class LatencyStats
+{
+    /*
+     * The count of each bucket. Bucket 0 holds the latencies of 0, bucket i
+     * holds the latencies from 2^(i-1) to 2^i - 1 nanoseconds.
+     */
+    private final long[] _bucketCounts;
+
+    /*
+     * The number of latencies.
+     */
+    private final long   _count;
+
+    /*
+     * The longest latency.
+     */
+    private final long   _maxNanos;
+
+    /*
+     * The sum of the latencies.
+     */
+    private final long   _totalNanos;
+
+    /*
+     * Constructor.
+     */
+    LatencyStats(final long count, final long totalNanos, final long maxNanos,
+            final long[] bucketCounts)
+    {
+        this._count = count;
+        this._totalNanos = totalNanos;
+        this._maxNanos = maxNanos;
+        this._bucketCounts = bucketCounts;
+    }
+
+    /**
+     * Gets the count of each bucket. Bucket 0 holds the latencies of 0, bucket
+     * i holds the latencies from 2^(i-1) to 2^i - 1 nanoseconds.
+     *
+     * @return A new array of 65 counts.
+     */
+    public long[] getBucketCounts()
+    {
+        return (this._bucketCounts.clone());
+    }
+
+    /**
+     * Gets the number of latencies that were recorded.
+     *
+     * @return The count.
+     */
+    public long getCount()
+    {
+        return (this._count);
+    }
+
+    /**
+     * Gets the longest latency.
+     *
+     * @return The latency in nanoseconds. 0 if none were recorded.
+     */
+    public long getMaxNanos()
+    {
+        return (this._maxNanos);
+    }
+
+    /**
+     * Gets the mean of the latencies.
+     *
+     * @return The mean in nanoseconds. 0 if none were recorded.
+     */
+    public double getMeanNanos()
+    {
+        return (this._count == 0 ? 0 : (double) this._totalNanos / this._count);
+    }
+
+    /**
+     * Gets the median of the latencies.
+     *
+     * @return The upper bound of the bucket that holds it, in nanoseconds.
+     */
+    public long getP50Nanos()
+    {
+        return (this.getPercentileNanos(50));
+    }
+
+    /**
+     * Gets the 90th percentile of the latencies.
+     *
+     * @return The upper bound of the bucket that holds it, in nanoseconds.
+     */
+    public long getP90Nanos()
+    {
+        return (this.getPercentileNanos(90));
+    }
+
+    /**
+     * Gets the 99th percentile of the latencies.
+     *
+     * @return The upper bound of the bucket that holds it, in nanoseconds.
+     */
+    public long getP99Nanos()
+    {
+        return (this.getPercentileNanos(99));
+    }
+
+    /**
+     * Gets a percentile of the latencies. It is the upper bound of the bucket
+     * that holds it, but not more than the longest latency.
+     *
+     * @param percentile
+     *            The percentile, from 0 to 100.
+     * @return The latency in nanoseconds. 0 if none were recorded.
+     */
+    public long getPercentileNanos(final double percentile)
+    {
+        if (this._count == 0)
+        {
+            return (0);
+        }
+
+        final double bounded = Math.min(100, Math.max(0, percentile));
+        final long rank = Math.max(1, (long) Math.ceil(bounded / 100 * this._count));
+        long count = 0;
+        for (int i = 0; i < this._bucketCounts.length; i++)
+        {
+            count += this._bucketCounts[i];
+            if (count >= rank)
+            {
+                final long upperBound = (i == 0 ? 0 : (i == 64 ? Long.MAX_VALUE : (1L << i) - 1));
+                return (Math.min(upperBound, this._maxNanos));
+            }
+        }
+        return (this._maxNanos);
+    }
+
+    /**
+     * Gets the sum of the latencies.
+     *
+     * @return The sum in nanoseconds.
+     */
+    public long getTotalNanos()
+    {
+        return (this._totalNanos);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return String.format(
+                "LatencyStats [_count=%s, _meanNanos=%.0f, _p50Nanos=%s, _p99Nanos=%s, _maxNanos=%s]",
+                this._count, this.getMeanNanos(), this.getP50Nanos(),
+                this.getP99Nanos(), this._maxNanos);
+    }
+}
@@ -0,0 +1,45 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/**
+ * This interface handles a line of a <code>CommandShell</code> that could not
+ * be parsed or handled. The shell goes on with the next line.
+ * 
+ * @see CommandShell
+ * 
+ * @author Gregory Brown (sysdevone)
+ * 
+ */
+public interface LineErrorListener
+{
+    /**
+     * Handles the error of a line.
+     * 
+     * @param lineNumber
+     *            The number of the line, starting at 1.
+     * @param line
+     *            The line.
+     * @param exception
+     *            The exception that was thrown while the line was parsed or its
+     *            Commands were handled.
+     */
+    public void handle(long lineNumber, String line, RuntimeException exception);
+}
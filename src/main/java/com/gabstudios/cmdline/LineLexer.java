@@ -0,0 +1,199 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/*
+ * This class splits a whole command line into its arguments, by the quoting
+ * rules of a POSIX shell, and tokenizes each argument as it is found.
+ *
+ * The line is scanned once. Arguments are split on white space. A backslash
+ * keeps the next char as is, and a backslash before a newline joins the lines.
+ * Single quotes keep every char up to the next single quote. Double quotes
+ * keep every char up to the next double quote, except that a backslash before
+ * $, `, ", \ or a newline escapes it. Nothing is expanded, a $ or a ` is a
+ * plain char.
+ *
+ * An argument that has no quotes or backslashes is passed to the tokenizer as
+ * a range of the line. An argument that does is written without its quotes
+ * and escapes to a scratch buffer, and the range of the scratch buffer is
+ * passed. The scratch buffer is only appended to while a line is tokenized,
+ * so the ranges of the earlier arguments stay valid. A String is only created
+ * when the parser reads a token.
+ *
+ * A lexer is reused for each line, it is not thread safe.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class LineLexer {
+
+	/*
+	 * A test to see if the char is a backslash, single quote or double quote.
+	 */
+	private static boolean isQuote(final char value) {
+		return ((value == '\\') || (value == '\'') || (value == '"'));
+	}
+
+	/*
+	 * A test to see if the char splits arguments.
+	 */
+	private static boolean isSpace(final char value) {
+		return ((value == ' ') || (value == '\t') || (value == '\n') || (value == '\r') || (value == '\f')
+				|| (value == '\u000B'));
+	}
+
+	/*
+	 * The arguments that had quotes or escapes, without them.
+	 */
+	private final StringBuilder _scratch;
+
+	/*
+	 * The tokenizer of each argument.
+	 */
+	private final CommandLineTokenizer _tokenizer;
+
+	/*
+	 * Constructor.
+	 */
+	LineLexer(final CommandLineTokenizer tokenizer) {
+		assert (tokenizer != null) : "The parameter 'tokenizer' must not be null";
+
+		this._tokenizer = tokenizer;
+		this._scratch = new StringBuilder();
+	}
+
+	/*
+	 * Removes the quotes and escapes of the argument that starts at the index
+	 * and writes it to the scratch buffer. Returns the index after the
+	 * argument.
+	 */
+	private int decodeArgument(final CharSequence line, final int start, final int end) {
+		final StringBuilder scratch = this._scratch;
+
+		int i = start;
+		while ((i < end) && !LineLexer.isSpace(line.charAt(i))) {
+			final char value = line.charAt(i++);
+			if (value == '\\') {
+				if (i == end) {
+					throw (new UnsupportedException("Error: The command line ends with an escape."));
+				}
+				final char escaped = line.charAt(i++);
+				if (escaped != '\n') {
+					scratch.append(escaped);
+				}
+			} else if (value == '\'') {
+				final int quoteStart = i;
+				while ((i < end) && (line.charAt(i) != '\'')) {
+					i++;
+				}
+				if (i == end) {
+					throw (new UnsupportedException("Error: The command line has a quote that is not closed."));
+				}
+				scratch.append(line, quoteStart, i++);
+			} else if (value == '"') {
+				i = this.decodeDoubleQuote(line, i, end);
+			} else {
+				scratch.append(value);
+			}
+		}
+		return (i);
+	}
+
+	/*
+	 * Writes the chars within double quotes, that start at the index, to the
+	 * scratch buffer. Returns the index after the closing quote.
+	 */
+	private int decodeDoubleQuote(final CharSequence line, final int start, final int end) {
+		final StringBuilder scratch = this._scratch;
+
+		int i = start;
+		while (i < end) {
+			final char value = line.charAt(i++);
+			if (value == '"') {
+				return (i);
+			} else if ((value == '\\') && (i < end)) {
+				final char escaped = line.charAt(i);
+				if ((escaped == '$') || (escaped == '`') || (escaped == '"') || (escaped == '\\')) {
+					scratch.append(escaped);
+					i++;
+				} else if (escaped == '\n') {
+					i++;
+				} else {
+					scratch.append(value);
+				}
+			} else {
+				scratch.append(value);
+			}
+		}
+		throw (new UnsupportedException("Error: The command line has a quote that is not closed."));
+	}
+
+	/*
+	 * Splits the line into its arguments and tokenizes them into the buffer. If
+	 * the expander is not null, an argument that is an @path is expanded. The
+	 * buffer is cleared first.
+	 */
+	void tokenize(final CharSequence line, final TokenBuffer buffer, final ArgumentFileExpander expander) {
+		assert (line != null) : "The parameter 'line' must not be null";
+		assert (buffer != null) : "The parameter 'buffer' must not be null";
+
+		buffer.clear();
+		this._scratch.setLength(0);
+
+		final int end = line.length();
+		int i = 0;
+		while (true) {
+			while ((i < end) && LineLexer.isSpace(line.charAt(i))) {
+				i++;
+			}
+			if (i == end) {
+				break;
+			}
+
+			final int start = i;
+			char value = line.charAt(i);
+			while (!LineLexer.isSpace(value) && !LineLexer.isQuote(value) && (++i < end)) {
+				value = line.charAt(i);
+			}
+
+			if ((i == end) || LineLexer.isSpace(value)) {
+				this.tokenizeArgument(line, start, i, buffer, expander);
+			} else {
+				final int scratchStart = this._scratch.length();
+				this._scratch.append(line, start, i);
+				i = this.decodeArgument(line, i, end);
+				this.tokenizeArgument(this._scratch, scratchStart, this._scratch.length(), buffer, expander);
+			}
+		}
+	}
+
+	/*
+	 * Tokenizes the argument that is the range of chars from start to end
+	 * within the source, or expands it if it is an @path.
+	 */
+	private void tokenizeArgument(final CharSequence source, final int start, final int end,
+			final TokenBuffer buffer, final ArgumentFileExpander expander) {
+		if (expander != null) {
+			expander.tokenizeArgument(source, start, end);
+		} else {
+			this._tokenizer.tokenize(source, start, end, buffer);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import com.gabstudios.logging.LogProvider;
+import com.gabstudios.logging.LogService;
+
+
+/**
+ * A <code>ParseTracer</code> that writes each step of a parse to the debug
+ * log. Set it on a parser to get the debug messages that the parser used to
+ * write.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class LoggingParseTracer implements ParseTracer
+{
+    /*
+     * The log service.
+     */
+    private final LogService _logService;
+
+    /**
+     * Constructor.
+     */
+    public LoggingParseTracer()
+    {
+        this._logService = LogProvider.getProvider().getService();
+    }
+
+    @Override
+    public void commandMatched(final String commandName, final int tokenIndex)
+    {
+        this._logService.logDebug(CmdLineParser.class, "parse",
+                "Matched command: " + commandName + " at token " + tokenIndex);
+    }
+
+    @Override
+    public void listenerDispatched(final Command command,
+            final CommandListener commandListener)
+    {
+        this._logService.logDebug(CmdLineParser.class, "parse",
+                "Dispatching command: " + command);
+    }
+
+    @Override
+    public void systemPropertySet(final String key, final String value)
+    {
+        this._logService.logDebug(CmdLineParser.class, "parseSystemProperty",
+                "Setting System Property: " + key + "=" + value);
+    }
+
+    @Override
+    public void tokenEmitted(final CharSequence source, final int start,
+            final int end)
+    {
+        this._logService.logDebug(CommandLineTokenizer.class, "tokenize",
+                "Token: " + source.subSequence(start, end));
+    }
+
+    @Override
+    public void validationFailed(final String commandName,
+            final RuntimeException exception)
+    {
+        this._logService.logDebug(CmdLineParser.class, "parse",
+                "Failed command: " + commandName + " - "
+                        + exception.getMessage());
+    }
+
+    @Override
+    public void variableBound(final String commandName,
+            final String variableName, final String value)
+    {
+        this._logService.logDebug(CmdLineParser.class, "parse",
+                "Bound variable: " + commandName + " " + variableName + "="
+                        + value);
+    }
+}
@@ -20,7 +20,8 @@
 package com.gabstudios.cmdline;
 
 /**
- * An exception that is used if a match fails when the regex value has been defined.
+ * An exception that is used if a match fails when the regex value has been defined,
+ * or if a value can not be converted to the type of its variable.
  * 
  * 
  * @author Gregory Brown (sysdevone)
@@ -44,4 +45,17 @@ public class MatchException extends RuntimeException
     {
         super(message);
     }
+
+    /**
+     * Constructor that takes a message and the cause.
+     *
+     * @param message
+     *            A <code>String</code> message.
+     * @param cause
+     *            The <code>Throwable</code> that caused this exception.
+     */
+    protected MatchException(final String message, final Throwable cause)
+    {
+        super(message, cause);
+    }
 }
@@ -0,0 +1,61 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation marks a method that handles the Commands of a command
+ * definition. The method takes a single <code>Command</code> parameter, any
+ * value it returns is ignored.
+ *
+ * public class Handlers {
+ *
+ * &#64;OnCommand("-load") public void load(final Command command) { ... }
+ *
+ * &#64;OnCommand({ "-s", "-save" }) public void save(final Command command) { ... }
+ *
+ * }
+ *
+ * A name may be any of the names of a definition, so "-l" and "--load" bind
+ * the same definition. The methods are found once, when the handler object is
+ * given to <code>CmdLineParser.Builder.defineHandlers(Object)</code>.
+ *
+ * @see CmdLineParser.Builder#defineHandlers(Object)
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OnCommand
+{
+    /**
+     * The names of the commands that the method handles.
+     *
+     * @return One or more command names.
+     */
+    String[] value();
+}
@@ -0,0 +1,56 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/**
+ * This enum is what happens to a Command that is given to a
+ * <code>DispatchQueue</code> when the queue is full.
+ *
+ * @see DispatchQueue
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public enum OverflowPolicy
+{
+    /**
+     * The thread that gives the Command waits until there is room in the
+     * queue.
+     */
+    BLOCK,
+
+    /**
+     * The oldest Command in the queue is dropped to make room for the new
+     * Command.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The Command is not queued and a <code>DispatchException</code> is
+     * thrown.
+     */
+    REJECT,
+
+    /**
+     * The Command is handled by the listener on the thread that gives it. The
+     * Command may be handled before the Commands that are in the queue.
+     */
+    CALLER_RUNS
+}
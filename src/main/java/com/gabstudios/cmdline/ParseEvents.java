@@ -0,0 +1,153 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/*
+ * This class emits the Java Flight Recorder events of the definitions, parses
+ * and dispatches. This class does nothing, it is used when the JVM does not
+ * have the jdk.jfr module. When it does, create() loads JfrParseEvents, which
+ * emits the events. The parser never refers to a jdk.jfr class, so it loads on
+ * any Java 8 JVM.
+ *
+ * A duration is measured by the event object that a begin method returns. It
+ * is null if the event is not enabled in a recording, and the end method then
+ * does nothing, so an event that is not enabled costs a test of a flag.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+class ParseEvents {
+
+	/*
+	 * The name of the class that emits the events.
+	 */
+	private static final String JFR_CLASS_NAME = "com.gabstudios.cmdline.JfrParseEvents";
+
+	/*
+	 * Creates the emitter of the events. It is a JfrParseEvents if the JVM has
+	 * the jdk.jfr module, otherwise a ParseEvents that does nothing.
+	 */
+	static ParseEvents create() {
+		ParseEvents events;
+		try {
+			Class.forName("jdk.jfr.Event");
+			events = (ParseEvents) Class.forName(ParseEvents.JFR_CLASS_NAME).getDeclaredConstructor().newInstance();
+		} catch (final ReflectiveOperationException | LinkageError e) {
+			// older than Java 8u262, or the jdk.jfr module is not present.
+			events = new ParseEvents();
+		}
+		return (events);
+	}
+
+	/*
+	 * Constructor.
+	 */
+	ParseEvents() {
+		// void - do nothing.
+	}
+
+	/*
+	 * Begins the event of the compile of a definition. Returns null if the
+	 * event is not enabled.
+	 */
+	Object beginDefinition() {
+		return (null);
+	}
+
+	/*
+	 * Begins the event of the handling of a Command by a listener. Returns null
+	 * if the event is not enabled.
+	 */
+	Object beginDispatch() {
+		return (null);
+	}
+
+	/*
+	 * Begins the event of a parse. Returns null if the event is not enabled.
+	 */
+	Object beginParse() {
+		return (null);
+	}
+
+	/*
+	 * Begins the event of the lookup of the suggested words of a token that is
+	 * not defined. Returns null if the event is not enabled.
+	 */
+	Object beginSuggestion() {
+		return (null);
+	}
+
+	/*
+	 * Begins the event of a tokenize. Returns null if the event is not enabled.
+	 */
+	Object beginTokenize() {
+		return (null);
+	}
+
+	/*
+	 * Emits the event of a command name that was matched to a definition.
+	 */
+	void commandMatched(final String commandName, final int tokenIndex) {
+		// void - do nothing.
+	}
+
+	/*
+	 * Ends and commits the event of the compile of a definition. The command
+	 * name is null if the definition is not valid.
+	 */
+	void endDefinition(final Object event, final String commandName, final int tokenCount) {
+		// void - do nothing.
+	}
+
+	/*
+	 * Ends and commits the event of the handling of a Command.
+	 */
+	void endDispatch(final Object event, final Command command, final CommandListener commandListener) {
+		// void - do nothing.
+	}
+
+	/*
+	 * Ends and commits the event of a parse.
+	 */
+	void endParse(final Object event, final int tokenCount, final int commandCount) {
+		// void - do nothing.
+	}
+
+	/*
+	 * Ends and commits the event of the lookup of suggested words.
+	 */
+	void endSuggestion(final Object event, final String token, final int suggestionCount, final boolean cached) {
+		// void - do nothing.
+	}
+
+	/*
+	 * Ends and commits the event of a tokenize.
+	 */
+	void endTokenize(final Object event, final long inputSize, final int tokenCount) {
+		// void - do nothing.
+	}
+
+	/*
+	 * Emits the event of a command line that is not valid.
+	 */
+	void validationFailed(final String commandName, final RuntimeException exception) {
+		// void - do nothing.
+	}
+}
@@ -0,0 +1,390 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.concurrent.TimeUnit;
+
+import com.gabstudios.validate.Validate;
+
+/**
+ * This class holds the limits that bound the cost of a parse. The limits are
+ * set on a <code>CmdLineParser.Builder</code> and are checked while the
+ * command line is parsed. A <code>LimitException</code> is thrown when a limit
+ * is exceeded.
+ *
+ * ParseLimits limits = ParseLimits.builder().setMaxArgumentCount(100000)
+ * .setMaxTokenCount(100000).setDeadline(2, TimeUnit.SECONDS).build();
+ *
+ * The default limits allow 256 arguments and definitions of 256 chars, as the
+ * parser always has. The tokens, the values in a list, the value length, the
+ * input size and the deadline are not limited.
+ *
+ * @see LimitException
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class ParseLimits {
+
+	/**
+	 * This class creates a <code>ParseLimits</code> instance.
+	 *
+	 * @author Gregory Brown (sysdevone)
+	 *
+	 */
+	public static final class Builder {
+
+		/*
+		 * The deadline of a parse in nanoseconds. Zero if there is no deadline.
+		 */
+		private long _deadlineNanos;
+
+		/*
+		 * The maximum number of arguments.
+		 */
+		private int _maxArgumentCount;
+
+		/*
+		 * The maximum number of chars in a command definition.
+		 */
+		private int _maxDefinitionLength;
+
+		/*
+		 * The maximum number of chars in all of the arguments, and of bytes in
+		 * the argument files.
+		 */
+		private long _maxInputSize;
+
+		/*
+		 * The maximum number of values in a list variable.
+		 */
+		private int _maxListSize;
+
+		/*
+		 * The maximum number of tokens.
+		 */
+		private int _maxTokenCount;
+
+		/*
+		 * The maximum number of chars in a token.
+		 */
+		private int _maxValueLength;
+
+		/*
+		 * Constructor.
+		 */
+		private Builder() {
+			this._maxArgumentCount = ParseLimits.DEFAULT_MAX_LENGTH;
+			this._maxTokenCount = Integer.MAX_VALUE;
+			this._maxValueLength = Integer.MAX_VALUE;
+			this._maxListSize = Integer.MAX_VALUE;
+			this._maxInputSize = Long.MAX_VALUE;
+			this._maxDefinitionLength = ParseLimits.DEFAULT_MAX_LENGTH;
+		}
+
+		/**
+		 * Creates a new <code>ParseLimits</code> instance.
+		 *
+		 * @return A new <code>ParseLimits</code> instance.
+		 */
+		public ParseLimits build() {
+			return (new ParseLimits(this));
+		}
+
+		/**
+		 * Sets the wall clock time that a parse may take. The time is checked
+		 * while the tokens are processed.
+		 *
+		 * @param time
+		 *            The time. Must be greater than 0.
+		 * @param unit
+		 *            The unit of the time. Must not be null.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setDeadline(final long time, final TimeUnit unit) {
+			Validate.defineBoolean((time > 0) && (unit != null)).testTrue().throwValidationExceptionOnFail()
+					.validate();
+
+			this._deadlineNanos = unit.toNanos(time);
+			return (this);
+		}
+
+		/**
+		 * Sets the maximum number of arguments that are passed to a parse, such
+		 * as the length of the args array of <code>main</code>. The arguments of
+		 * an argument file and the arguments of a whole command line are counted
+		 * as tokens.
+		 *
+		 * @param maxArgumentCount
+		 *            The maximum count. Must be greater than 0.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setMaxArgumentCount(final int maxArgumentCount) {
+			Validate.defineBoolean(maxArgumentCount > 0).testTrue().throwValidationExceptionOnFail().validate();
+
+			this._maxArgumentCount = maxArgumentCount;
+			return (this);
+		}
+
+		/**
+		 * Sets the maximum number of chars in a command definition.
+		 *
+		 * @param maxDefinitionLength
+		 *            The maximum length. Must be greater than 0.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setMaxDefinitionLength(final int maxDefinitionLength) {
+			Validate.defineBoolean(maxDefinitionLength > 0).testTrue().throwValidationExceptionOnFail().validate();
+
+			this._maxDefinitionLength = maxDefinitionLength;
+			return (this);
+		}
+
+		/**
+		 * Sets the maximum number of chars in all of the arguments of a parse.
+		 * When argument files are expanded, the size of each file in bytes is
+		 * added to the count, so the limit also bounds the files that are
+		 * mapped.
+		 *
+		 * @param maxInputSize
+		 *            The maximum size. Must be greater than 0.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setMaxInputSize(final long maxInputSize) {
+			Validate.defineBoolean(maxInputSize > 0).testTrue().throwValidationExceptionOnFail().validate();
+
+			this._maxInputSize = maxInputSize;
+			return (this);
+		}
+
+		/**
+		 * Sets the maximum number of values in a list variable.
+		 *
+		 * @param maxListSize
+		 *            The maximum size. Must be greater than 0.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setMaxListSize(final int maxListSize) {
+			Validate.defineBoolean(maxListSize > 0).testTrue().throwValidationExceptionOnFail().validate();
+
+			this._maxListSize = maxListSize;
+			return (this);
+		}
+
+		/**
+		 * Sets the maximum number of tokens in a parse.
+		 *
+		 * @param maxTokenCount
+		 *            The maximum count. Must be greater than 0.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setMaxTokenCount(final int maxTokenCount) {
+			Validate.defineBoolean(maxTokenCount > 0).testTrue().throwValidationExceptionOnFail().validate();
+
+			this._maxTokenCount = maxTokenCount;
+			return (this);
+		}
+
+		/**
+		 * Sets the maximum number of chars in a token.
+		 *
+		 * @param maxValueLength
+		 *            The maximum length. Must be greater than 0.
+		 * @return The Builder instance. Used for chaining calls.
+		 */
+		public Builder setMaxValueLength(final int maxValueLength) {
+			Validate.defineBoolean(maxValueLength > 0).testTrue().throwValidationExceptionOnFail().validate();
+
+			this._maxValueLength = maxValueLength;
+			return (this);
+		}
+	}
+
+	/*
+	 * The default maximum length for sizes - arguments and definitions.
+	 */
+	static final int DEFAULT_MAX_LENGTH = 256;
+
+	/**
+	 * The default limits.
+	 */
+	public static final ParseLimits DEFAULT = new Builder().build();
+
+	/**
+	 * Creates a new Builder that is used to set the limits.
+	 *
+	 * @return A new <code>ParseLimits.Builder</code> instance.
+	 */
+	public static Builder builder() {
+		return (new Builder());
+	}
+
+	/*
+	 * The deadline of a parse in nanoseconds. Zero if there is no deadline.
+	 */
+	private final long _deadlineNanos;
+
+	/*
+	 * The maximum number of arguments.
+	 */
+	private final int _maxArgumentCount;
+
+	/*
+	 * The maximum number of chars in a command definition.
+	 */
+	private final int _maxDefinitionLength;
+
+	/*
+	 * The maximum number of chars in all of the arguments, and of bytes in
+	 * the argument files.
+	 */
+	private final long _maxInputSize;
+
+	/*
+	 * The maximum number of values in a list variable.
+	 */
+	private final int _maxListSize;
+
+	/*
+	 * The maximum number of tokens.
+	 */
+	private final int _maxTokenCount;
+
+	/*
+	 * The maximum number of chars in a token.
+	 */
+	private final int _maxValueLength;
+
+	/*
+	 * Constructor.
+	 */
+	private ParseLimits(final Builder builder) {
+		this._deadlineNanos = builder._deadlineNanos;
+		this._maxArgumentCount = builder._maxArgumentCount;
+		this._maxDefinitionLength = builder._maxDefinitionLength;
+		this._maxInputSize = builder._maxInputSize;
+		this._maxListSize = builder._maxListSize;
+		this._maxTokenCount = builder._maxTokenCount;
+		this._maxValueLength = builder._maxValueLength;
+	}
+
+	/*
+	 * Throws a LimitException if the deadline has passed. The deadline is a
+	 * System.nanoTime() value.
+	 */
+	static void checkDeadline(final long deadline) {
+		if ((deadline != 0) && ((System.nanoTime() - deadline) > 0)) {
+			throw (new LimitException("Error:  The parse did not complete before its deadline."));
+		}
+	}
+
+	/*
+	 * Gets the System.nanoTime() value that a parse that starts now must end
+	 * by. Returns 0 if there is no deadline.
+	 */
+	long computeDeadline() {
+		long deadline = 0;
+		if (this._deadlineNanos > 0) {
+			deadline = System.nanoTime() + this._deadlineNanos;
+			if (deadline == 0) {
+				// zero is used for no deadline.
+				deadline = 1;
+			}
+		}
+		return (deadline);
+	}
+
+	/**
+	 * Gets the wall clock time that a parse may take.
+	 *
+	 * @return The time in nanoseconds. 0 if there is no deadline.
+	 */
+	public long getDeadlineNanos() {
+		return (this._deadlineNanos);
+	}
+
+	/**
+	 * Gets the maximum number of arguments that are passed to a parse.
+	 *
+	 * @return The maximum count.
+	 */
+	public int getMaxArgumentCount() {
+		return (this._maxArgumentCount);
+	}
+
+	/**
+	 * Gets the maximum number of chars in a command definition.
+	 *
+	 * @return The maximum length.
+	 */
+	public int getMaxDefinitionLength() {
+		return (this._maxDefinitionLength);
+	}
+
+	/**
+	 * Gets the maximum number of chars in all of the arguments of a parse,
+	 * with the bytes of the argument files.
+	 *
+	 * @return The maximum size.
+	 */
+	public long getMaxInputSize() {
+		return (this._maxInputSize);
+	}
+
+	/**
+	 * Gets the maximum number of values in a list variable.
+	 *
+	 * @return The maximum size.
+	 */
+	public int getMaxListSize() {
+		return (this._maxListSize);
+	}
+
+	/**
+	 * Gets the maximum number of tokens in a parse.
+	 *
+	 * @return The maximum count.
+	 */
+	public int getMaxTokenCount() {
+		return (this._maxTokenCount);
+	}
+
+	/**
+	 * Gets the maximum number of chars in a token.
+	 *
+	 * @return The maximum length.
+	 */
+	public int getMaxValueLength() {
+		return (this._maxValueLength);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format(
+				"ParseLimits [_deadlineNanos=%s, _maxArgumentCount=%s, _maxDefinitionLength=%s, _maxInputSize=%s, _maxListSize=%s, _maxTokenCount=%s, _maxValueLength=%s]",
+				this._deadlineNanos, this._maxArgumentCount, this._maxDefinitionLength, this._maxInputSize, this._maxListSize,
+				this._maxTokenCount, this._maxValueLength);
+	}
+}
@@ -0,0 +1,260 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.gabstudios.validate.Validate;
+
+/**
+ * This class counts what the parsers that it is set on do. It is opt-in, a
+ * parser that does not have metrics does not count or time anything.
+ *
+ * ParseMetrics metrics = new ParseMetrics();
+ *
+ * CmdLineParser parser = CmdLineParser.builder().setMetrics(metrics)
+ * .defineCommand("-l, --load, !fileName").build();
+ *
+ * metrics.registerMBean("myApp");
+ *
+ * The metrics count the times each definition is parsed, and the parses that
+ * threw by the class of the exception. They time the tokenize of the
+ * arguments, the whole parse, and each listener that handles a Command on the
+ * thread that parses. The counts are striped LongAdders and the latencies are
+ * counted in lock-free histograms, so parsers on many threads may share one
+ * <code>ParseMetrics</code>.
+ *
+ * The metrics are read as a <code>ParseMetricsSnapshot</code>, or through the
+ * platform MBeanServer once <code>registerMBean(String)</code> is called.
+ *
+ * @see CmdLineParser.Builder#setMetrics(ParseMetrics)
+ * @see ParseMetricsSnapshot
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class ParseMetrics implements ParseMetricsMXBean {
+
+	/*
+	 * The domain and type of the ObjectName of the MBean.
+	 */
+	private static final String OBJECT_NAME_PREFIX = "com.gabstudios.cmdline:type=ParseMetrics,name=";
+
+	/*
+	 * Sums the counters of the map into a new sorted map.
+	 */
+	private static Map<String, Long> sum(final Map<String, LongAdder> counters) {
+		final Map<String, Long> sums = new TreeMap<String, Long>();
+		for (final Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+			sums.put(entry.getKey(), entry.getValue().sum());
+		}
+		return (Collections.unmodifiableMap(sums));
+	}
+
+	/*
+	 * Adds one to the counter of the key, creating it if needed.
+	 */
+	private static void increment(final ConcurrentHashMap<String, LongAdder> counters, final String key) {
+		LongAdder counter = counters.get(key);
+		if (counter == null) {
+			counter = counters.computeIfAbsent(key, k -> new LongAdder());
+		}
+		counter.increment();
+	}
+
+	/*
+	 * The latencies of the listeners.
+	 */
+	private final LatencyHistogram _dispatchLatency;
+
+	/*
+	 * The number of parses that threw, by the simple name of the exception.
+	 */
+	private final ConcurrentHashMap<String, LongAdder> _errorCounts;
+
+	/*
+	 * The number of times each command was parsed, by the first name of its
+	 * definition.
+	 */
+	private final ConcurrentHashMap<String, LongAdder> _hitCounts;
+
+	/*
+	 * The name the MBean is registered with. Null if it is not registered.
+	 */
+	private ObjectName _objectName;
+
+	/*
+	 * The latencies of the parses.
+	 */
+	private final LatencyHistogram _parseLatency;
+
+	/*
+	 * The latencies of the tokenize.
+	 */
+	private final LatencyHistogram _tokenizeLatency;
+
+	/**
+	 * Constructor.
+	 */
+	public ParseMetrics() {
+		this._dispatchLatency = new LatencyHistogram();
+		this._parseLatency = new LatencyHistogram();
+		this._tokenizeLatency = new LatencyHistogram();
+		this._errorCounts = new ConcurrentHashMap<String, LongAdder>();
+		this._hitCounts = new ConcurrentHashMap<String, LongAdder>();
+	}
+
+	@Override
+	public LatencyStats getDispatchLatency() {
+		return (this._dispatchLatency.getStats());
+	}
+
+	@Override
+	public Map<String, Long> getErrorCounts() {
+		return (ParseMetrics.sum(this._errorCounts));
+	}
+
+	@Override
+	public Map<String, Long> getHitCounts() {
+		return (ParseMetrics.sum(this._hitCounts));
+	}
+
+	@Override
+	public LatencyStats getParseLatency() {
+		return (this._parseLatency.getStats());
+	}
+
+	/**
+	 * Gets the counts and latencies.
+	 *
+	 * @return A new <code>ParseMetricsSnapshot</code> instance.
+	 */
+	public ParseMetricsSnapshot getSnapshot() {
+		return (new ParseMetricsSnapshot(this.getHitCounts(), this.getErrorCounts(), this.getTokenizeLatency(),
+				this.getParseLatency(), this.getDispatchLatency()));
+	}
+
+	@Override
+	public LatencyStats getTokenizeLatency() {
+		return (this._tokenizeLatency.getStats());
+	}
+
+	/*
+	 * Records the latency of a listener.
+	 */
+	void recordDispatch(final long nanos) {
+		this._dispatchLatency.record(nanos);
+	}
+
+	/*
+	 * Records a parse that threw.
+	 */
+	void recordError(final RuntimeException exception) {
+		ParseMetrics.increment(this._errorCounts, exception.getClass().getSimpleName());
+	}
+
+	/*
+	 * Records a command that was parsed.
+	 */
+	void recordHit(final CommandDefinition definition) {
+		ParseMetrics.increment(this._hitCounts, definition.getNames().get(0));
+	}
+
+	/*
+	 * Records the latency of a parse.
+	 */
+	void recordParse(final long nanos) {
+		this._parseLatency.record(nanos);
+	}
+
+	/*
+	 * Records the latency of a tokenize.
+	 */
+	void recordTokenize(final long nanos) {
+		this._tokenizeLatency.record(nanos);
+	}
+
+	/**
+	 * Registers the metrics in the platform MBeanServer, as
+	 * <code>com.gabstudios.cmdline:type=ParseMetrics,name=&lt;name&gt;</code>.
+	 *
+	 * @param name
+	 *            The name of the metrics, such as the name of the application.
+	 *            Must not be null or empty.
+	 * @return The ObjectName the MBean was registered with.
+	 * @throws JMException
+	 *             If the name is not valid, or an MBean is already registered
+	 *             with it.
+	 */
+	public synchronized ObjectName registerMBean(final String name) throws JMException {
+		Validate.defineString(name).testNotNullEmpty().throwValidationExceptionOnFail().validate();
+		Validate.defineBoolean(this._objectName == null).testTrue().throwValidationExceptionOnFail().validate();
+
+		final ObjectName objectName = new ObjectName(ParseMetrics.OBJECT_NAME_PREFIX + name);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		this._objectName = objectName;
+		return (objectName);
+	}
+
+	/**
+	 * Resets all of the counts to 0. Parses that are running at the same time
+	 * may be counted in part.
+	 */
+	@Override
+	public void reset() {
+		this._dispatchLatency.reset();
+		this._parseLatency.reset();
+		this._tokenizeLatency.reset();
+		this._errorCounts.clear();
+		this._hitCounts.clear();
+	}
+
+	/**
+	 * Removes the MBean from the platform MBeanServer. It does nothing if the
+	 * MBean is not registered.
+	 *
+	 * @throws JMException
+	 *             If the MBean can not be removed.
+	 */
+	public synchronized void unregisterMBean() throws JMException {
+		if (this._objectName != null) {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(this._objectName);
+			this._objectName = null;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("ParseMetrics [_objectName=%s, _snapshot=%s]", this._objectName, this.getSnapshot());
+	}
+}
@@ -0,0 +1,79 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.Map;
+
+/**
+ * This interface is the management interface of a <code>ParseMetrics</code>.
+ * It is registered in the platform MBeanServer by
+ * <code>ParseMetrics.registerMBean(String)</code>, as
+ * <code>com.gabstudios.cmdline:type=ParseMetrics,name=&lt;name&gt;</code>.
+ *
+ * @see ParseMetrics
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public interface ParseMetricsMXBean
+{
+    /**
+     * Gets the latencies of the listeners that handled the Commands.
+     *
+     * @return A <code>LatencyStats</code> instance.
+     */
+    public LatencyStats getDispatchLatency();
+
+    /**
+     * Gets the number of parses that threw, by the simple name of the class of
+     * the exception.
+     *
+     * @return A new Map, sorted by the name.
+     */
+    public Map<String, Long> getErrorCounts();
+
+    /**
+     * Gets the number of times each command was parsed, by the first name of
+     * its definition.
+     *
+     * @return A new Map, sorted by the name.
+     */
+    public Map<String, Long> getHitCounts();
+
+    /**
+     * Gets the latencies of the parses, from the arguments to the last
+     * Command. They include the tokenize and the listeners.
+     *
+     * @return A <code>LatencyStats</code> instance.
+     */
+    public LatencyStats getParseLatency();
+
+    /**
+     * Gets the latencies of the tokenize of the arguments.
+     *
+     * @return A <code>LatencyStats</code> instance.
+     */
+    public LatencyStats getTokenizeLatency();
+
+    /**
+     * Resets all of the counts to 0.
+     */
+    public void reset();
+}
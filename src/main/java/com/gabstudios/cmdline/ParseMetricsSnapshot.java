@@ -0,0 +1,140 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.Map;
+
+/**
+ * This class holds the counts and latencies of a <code>ParseMetrics</code>, at
+ * the time they were read.
+ *
+ * @see ParseMetrics#getSnapshot()
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class ParseMetricsSnapshot
+{
+    /*
+     * The latencies of the listeners.
+     */
+    private final LatencyStats      _dispatchLatency;
+
+    /*
+     * The number of parses that threw, by the name of the exception.
+     */
+    private final Map<String, Long> _errorCounts;
+
+    /*
+     * The number of times each command was parsed.
+     */
+    private final Map<String, Long> _hitCounts;
+
+    /*
+     * The latencies of the parses.
+     */
+    private final LatencyStats      _parseLatency;
+
+    /*
+     * The latencies of the tokenize.
+     */
+    private final LatencyStats      _tokenizeLatency;
+
+    /*
+     * Constructor.
+     */
+    ParseMetricsSnapshot(final Map<String, Long> hitCounts,
+            final Map<String, Long> errorCounts,
+            final LatencyStats tokenizeLatency, final LatencyStats parseLatency,
+            final LatencyStats dispatchLatency)
+    {
+        this._hitCounts = hitCounts;
+        this._errorCounts = errorCounts;
+        this._tokenizeLatency = tokenizeLatency;
+        this._parseLatency = parseLatency;
+        this._dispatchLatency = dispatchLatency;
+    }
+
+    /**
+     * Gets the latencies of the listeners that handled the Commands.
+     *
+     * @return A <code>LatencyStats</code> instance.
+     */
+    public LatencyStats getDispatchLatency()
+    {
+        return (this._dispatchLatency);
+    }
+
+    /**
+     * Gets the number of parses that threw, by the simple name of the class of
+     * the exception.
+     *
+     * @return An unmodifiable Map, sorted by the name.
+     */
+    public Map<String, Long> getErrorCounts()
+    {
+        return (this._errorCounts);
+    }
+
+    /**
+     * Gets the number of times each command was parsed, by the first name of
+     * its definition.
+     *
+     * @return An unmodifiable Map, sorted by the name.
+     */
+    public Map<String, Long> getHitCounts()
+    {
+        return (this._hitCounts);
+    }
+
+    /**
+     * Gets the latencies of the parses.
+     *
+     * @return A <code>LatencyStats</code> instance.
+     */
+    public LatencyStats getParseLatency()
+    {
+        return (this._parseLatency);
+    }
+
+    /**
+     * Gets the latencies of the tokenize of the arguments.
+     *
+     * @return A <code>LatencyStats</code> instance.
+     */
+    public LatencyStats getTokenizeLatency()
+    {
+        return (this._tokenizeLatency);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return String.format(
+                "ParseMetricsSnapshot [_hitCounts=%s, _errorCounts=%s, _tokenizeLatency=%s, _parseLatency=%s, _dispatchLatency=%s]",
+                this._hitCounts, this._errorCounts, this._tokenizeLatency,
+                this._parseLatency, this._dispatchLatency);
+    }
+}
@@ -0,0 +1,114 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is the result of the parse of one command line of a batch. It
+ * holds the Commands of the command line, or the exception that the parse
+ * threw if the command line is not valid.
+ *
+ * List results = parser.parseAll( argsList );
+ *
+ * @see CmdLineParser#parseAll(List)
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class ParseResult {
+
+	/*
+	 * The Commands that were parsed. Empty if the parse failed.
+	 */
+	private final List<Command> _commands;
+
+	/*
+	 * The exception that the parse threw. Null if the parse succeeded.
+	 */
+	private final RuntimeException _exception;
+
+	/*
+	 * The index of the command line within the batch.
+	 */
+	private final int _index;
+
+	/*
+	 * Constructor.
+	 */
+	ParseResult(final int index, final List<Command> commands, final RuntimeException exception) {
+		assert (commands != null) : "The parameter 'commands' must not be null";
+
+		this._index = index;
+		this._commands = Collections.unmodifiableList(commands);
+		this._exception = exception;
+	}
+
+	/**
+	 * Gets the Commands that were parsed.
+	 *
+	 * @return An unmodifiable List of the Commands, in the order they were
+	 *         parsed. Empty if the command line is not valid.
+	 */
+	public List<Command> getCommands() {
+		return (this._commands);
+	}
+
+	/**
+	 * Gets the exception that the parse threw, such as an
+	 * <code>UnsupportedException</code>, a <code>MatchException</code> or a
+	 * <code>MissingException</code>.
+	 *
+	 * @return The exception. Null if the command line is valid.
+	 */
+	public RuntimeException getException() {
+		return (this._exception);
+	}
+
+	/**
+	 * Gets the index of the command line within the batch.
+	 *
+	 * @return The index, starting at 0.
+	 */
+	public int getIndex() {
+		return (this._index);
+	}
+
+	/**
+	 * A test to see if the command line is valid.
+	 *
+	 * @return True if the command line was parsed, false if the parse threw.
+	 */
+	public boolean isValid() {
+		return (this._exception == null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("ParseResult [_index=%s, _commands=%s, _exception=%s]", this._index, this._commands,
+				this._exception);
+	}
+}
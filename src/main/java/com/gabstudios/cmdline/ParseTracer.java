@@ -0,0 +1,129 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/**
+ * This interface traces the steps of a parse. A tracer is set on a
+ * <code>CmdLineParser.Builder</code>. If a tracer is not set, the parser does
+ * not call any of these methods and does not create any of their arguments.
+ *
+ * The methods are called on the thread that parses. Each method does nothing
+ * by default, so a tracer only needs to implement the steps it is interested
+ * in.
+ *
+ * @see LoggingParseTracer
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public interface ParseTracer
+{
+    /**
+     * Called when a command name has been matched to a command definition.
+     *
+     * @param commandName
+     *            The name of the command.
+     * @param tokenIndex
+     *            The index of the token that holds the name.
+     */
+    public default void commandMatched(final String commandName,
+            final int tokenIndex)
+    {
+        // void - do nothing.
+    }
+
+    /**
+     * Called before a Command is handled by the listener.
+     *
+     * @param command
+     *            The Command instance.
+     * @param commandListener
+     *            The listener that will handle the Command.
+     */
+    public default void listenerDispatched(final Command command,
+            final CommandListener commandListener)
+    {
+        // void - do nothing.
+    }
+
+    /**
+     * Called when a -D&lt;property&gt;=&lt;value&gt; is set in the System
+     * properties.
+     *
+     * @param key
+     *            The key of the property.
+     * @param value
+     *            The value of the property.
+     */
+    public default void systemPropertySet(final String key, final String value)
+    {
+        // void - do nothing.
+    }
+
+    /**
+     * Called when a token has been found in the command line. The token is the
+     * range of chars from start to end within the source. Call
+     * <code>source.subSequence(start, end)</code> to get the token.
+     *
+     * @param source
+     *            The source of the token.
+     * @param start
+     *            The start index of the token, inclusive.
+     * @param end
+     *            The end index of the token, exclusive.
+     */
+    public default void tokenEmitted(final CharSequence source,
+            final int start, final int end)
+    {
+        // void - do nothing.
+    }
+
+    /**
+     * Called before an exception is thrown because the command line is not
+     * valid.
+     *
+     * @param commandName
+     *            The name of the command that failed or the token that is not
+     *            defined.
+     * @param exception
+     *            The exception that will be thrown.
+     */
+    public default void validationFailed(final String commandName,
+            final RuntimeException exception)
+    {
+        // void - do nothing.
+    }
+
+    /**
+     * Called when a value has been bound to a variable of a command.
+     *
+     * @param commandName
+     *            The name of the command.
+     * @param variableName
+     *            The name of the variable.
+     * @param value
+     *            The value.
+     */
+    public default void variableBound(final String commandName,
+            final String variableName, final String value)
+    {
+        // void - do nothing.
+    }
+}
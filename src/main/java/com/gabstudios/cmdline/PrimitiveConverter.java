@@ -0,0 +1,72 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/*
+ * A converter to a primitive type. The value is converted to the bits of a
+ * long, so that a Command can hold it without boxing.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+abstract class PrimitiveConverter<T> implements ValueConverter<T> {
+
+	/*
+	 * The kinds of primitive types.
+	 */
+	static final int BOOLEAN = 0;
+	static final int DOUBLE = 1;
+	static final int INT = 2;
+	static final int LONG = 3;
+
+	/*
+	 * The kind of primitive type.
+	 */
+	private final int _kind;
+
+	/*
+	 * Constructor.
+	 */
+	PrimitiveConverter(final int kind) {
+		this._kind = kind;
+	}
+
+	@Override
+	public final T convert(final String value) {
+		return (this.fromBits(this.toBits(value)));
+	}
+
+	/*
+	 * Creates the boxed value from the bits.
+	 */
+	abstract T fromBits(long bits);
+
+	/*
+	 * Gets the kind of primitive type.
+	 */
+	int getKind() {
+		return (this._kind);
+	}
+
+	/*
+	 * Converts the value to the bits of a long.
+	 */
+	abstract long toBits(String value);
+}
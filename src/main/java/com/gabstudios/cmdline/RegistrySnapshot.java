@@ -0,0 +1,695 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/*
+ * This class is a compiled registry of command definitions that is read from a
+ * binary snapshot file. The file is mapped into memory, and a definition is
+ * decoded the first time its name is looked up, so loading a registry of many
+ * commands does not tokenize or validate any of them.
+ *
+ * The file is a header followed by a body. The header holds a magic number,
+ * the version of the format, the length of the body and the CRC32 of the body,
+ * so a file that is stale or damaged fails when it is loaded. The body holds:
+ *
+ * - the number of definitions and names, and the offsets of the sections.
+ *
+ * - the offset of each definition and of each name, and the definition of each
+ * name.
+ *
+ * - an open addressing table of the hash of each name, so a name is looked up
+ * without decoding the other names.
+ *
+ * - the type names that the definitions use, the names, the application name
+ * and version, and the definitions.
+ *
+ * - the arrays of the word suggestion index.
+ *
+ * Strings are a length and UTF-8 bytes, a length of -1 is null. Numbers are
+ * big endian.
+ *
+ * The position of a buffer is set through <code>java.nio.Buffer</code>, since
+ * the overrides of ByteBuffer that a newer JDK compiles against do not exist on
+ * Java 8.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class RegistrySnapshot extends CommandRegistry {
+
+	/*
+	 * The offsets of the fields at the start of the body.
+	 */
+	private static final int APPLICATION_NAME_FIELD = 12;
+
+	private static final int DEFINITION_COUNT_FIELD = 0;
+
+	private static final int NAME_COUNT_FIELD = 4;
+
+	private static final int SUGGESTIONS_FIELD = 24;
+
+	private static final int TABLE_SIZE_FIELD = 8;
+
+	private static final int TYPES_FIELD = 20;
+
+	private static final int VERSION_FIELD = 16;
+
+	/*
+	 * The size of the fields at the start of the body.
+	 */
+	private static final int FIELDS_SIZE = 32;
+
+	/*
+	 * The version of the format. It is changed whenever the format changes.
+	 */
+	static final int FORMAT_VERSION = 1;
+
+	/*
+	 * The size of the header.
+	 */
+	private static final int HEADER_SIZE = 24;
+
+	/*
+	 * The first int of a snapshot file - "GABC".
+	 */
+	static final int MAGIC = 0x47414243;
+
+	/*
+	 * The kinds of slot.
+	 */
+	private static final int OPTIONAL_LIST_SLOT = 3;
+
+	private static final int OPTIONAL_SLOT = 2;
+
+	private static final int REQUIRED_LIST_SLOT = 1;
+
+	private static final int REQUIRED_SLOT = 0;
+
+	/*
+	 * Computes the CRC32 of the remaining bytes of the buffer.
+	 */
+	private static long computeChecksum(final ByteBuffer buffer) {
+		final CRC32 crc = new CRC32();
+		final ByteBuffer source = buffer.duplicate();
+		final byte[] chunk = new byte[8192];
+		while (source.hasRemaining()) {
+			final int length = Math.min(chunk.length, source.remaining());
+			source.get(chunk, 0, length);
+			crc.update(chunk, 0, length);
+		}
+		return (crc.getValue());
+	}
+
+	/*
+	 * Gets the kind of the slot of a definition.
+	 */
+	private static int getSlotKind(final CommandDefinition definition, final String slotName) {
+		if (slotName.equals(definition.getRequiredVariableListName())) {
+			return (RegistrySnapshot.REQUIRED_LIST_SLOT);
+		} else if (slotName.equals(definition.getOptionalVariableListName())) {
+			return (RegistrySnapshot.OPTIONAL_LIST_SLOT);
+		} else if (definition.getRequiredVariableNames().contains(slotName)) {
+			return (RegistrySnapshot.REQUIRED_SLOT);
+		} else {
+			return (RegistrySnapshot.OPTIONAL_SLOT);
+		}
+	}
+
+	/*
+	 * Maps the snapshot file and checks its header and checksum. The
+	 * definitions are not decoded.
+	 */
+	static RegistrySnapshot load(final Path file, final Map<String, ValueConverter<?>> converterMap)
+			throws IOException {
+		final MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		if ((buffer.capacity() < RegistrySnapshot.HEADER_SIZE + RegistrySnapshot.FIELDS_SIZE)
+				|| (buffer.getInt(0) != RegistrySnapshot.MAGIC)) {
+			throw (new SnapshotException("Error: The file '" + file + "' is not a command snapshot."));
+		}
+		if (buffer.getInt(4) != RegistrySnapshot.FORMAT_VERSION) {
+			throw (new SnapshotException("Error: The snapshot '" + file + "' has the format version "
+					+ buffer.getInt(4) + ", not " + RegistrySnapshot.FORMAT_VERSION + ".  Write it again."));
+		}
+		if (buffer.getInt(8) != buffer.capacity() - RegistrySnapshot.HEADER_SIZE) {
+			throw (new SnapshotException("Error: The snapshot '" + file + "' is not complete."));
+		}
+
+		((Buffer) buffer).position(RegistrySnapshot.HEADER_SIZE);
+		final ByteBuffer body = buffer.slice();
+		if (RegistrySnapshot.computeChecksum(body) != buffer.getLong(16)) {
+			throw (new SnapshotException("Error: The snapshot '" + file + "' does not match its checksum."));
+		}
+		return (new RegistrySnapshot(body.asReadOnlyBuffer(), converterMap));
+	}
+
+	/*
+	 * Spreads the bits of a hash, so that the low bits pick the slot of the name
+	 * table.
+	 */
+	private static int mix(final int hash) {
+		final int h = hash * 0x9E3779B9;
+		return (h ^ (h >>> 16));
+	}
+
+	/*
+	 * Reads a String at the position of the buffer.
+	 */
+	private static String readString(final ByteBuffer buffer) {
+		final int length = buffer.getInt();
+		if (length < 0) {
+			return (null);
+		}
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return (new String(bytes, StandardCharsets.UTF_8));
+	}
+
+	/*
+	 * Writes the definitions, in the order of their index, to the snapshot
+	 * file. The file is written next to its final name and then moved, so a
+	 * snapshot that is being loaded is never half written.
+	 */
+	static void write(final Path file, final String applicationName, final String version,
+			final List<CommandDefinition> definitions, final List<String> names, final SuggestionIndex suggestionIndex)
+			throws IOException {
+		final Map<String, Integer> nameIndexMap = new HashMap<String, Integer>();
+		for (int i = 0; i < names.size(); i++) {
+			nameIndexMap.put(names.get(i), i);
+		}
+
+		final Set<String> typeNames = new LinkedHashSet<String>();
+		final int[] nameDefinitions = new int[names.size()];
+		for (int i = 0; i < definitions.size(); i++) {
+			final CommandDefinition definition = definitions.get(i);
+			assert (definition.getIndex() == i) : "The definitions must be in the order of their index";
+
+			for (final String name : definition.getNames()) {
+				nameDefinitions[nameIndexMap.get(name)] = i;
+			}
+			for (int slot = 0; slot < definition.getSlotCount(); slot++) {
+				if (definition.getSlotType(slot) != null) {
+					typeNames.add(definition.getSlotType(slot));
+				}
+			}
+		}
+
+		int tableSize = 2;
+		while (tableSize < names.size() * 2) {
+			tableSize *= 2;
+		}
+		final int[] table = new int[tableSize * 2];
+		for (int i = 0; i < names.size(); i++) {
+			final int hash = names.get(i).hashCode();
+			int slot = RegistrySnapshot.mix(hash) & (tableSize - 1);
+			while (table[(slot * 2) + 1] != 0) {
+				slot = (slot + 1) & (tableSize - 1);
+			}
+			table[slot * 2] = hash;
+			table[(slot * 2) + 1] = i + 1;
+		}
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream output = new DataOutputStream(bytes);
+
+		// the fields, and the offsets of the definitions and names, are set once
+		// they are known.
+		output.write(new byte[RegistrySnapshot.FIELDS_SIZE + (4 * definitions.size()) + (4 * names.size())]);
+		for (final int nameDefinition : nameDefinitions) {
+			output.writeInt(nameDefinition);
+		}
+		for (final int value : table) {
+			output.writeInt(value);
+		}
+
+		final int typesOffset = output.size();
+		output.writeInt(typeNames.size());
+		for (final String typeName : typeNames) {
+			RegistrySnapshot.writeString(output, typeName);
+		}
+
+		final int[] nameOffsets = new int[names.size()];
+		for (int i = 0; i < names.size(); i++) {
+			nameOffsets[i] = output.size();
+			RegistrySnapshot.writeString(output, names.get(i));
+		}
+
+		final int applicationNameOffset = output.size();
+		RegistrySnapshot.writeString(output, applicationName);
+		final int versionOffset = output.size();
+		RegistrySnapshot.writeString(output, version);
+
+		final int[] definitionOffsets = new int[definitions.size()];
+		for (int i = 0; i < definitions.size(); i++) {
+			final CommandDefinition definition = definitions.get(i);
+			definitionOffsets[i] = output.size();
+
+			output.writeInt(definition.getNames().size());
+			for (final String name : definition.getNames()) {
+				output.writeInt(nameIndexMap.get(name));
+			}
+			RegistrySnapshot.writeString(output, definition.getDescription());
+			RegistrySnapshot.writeString(output, definition.getRegexValue());
+			output.writeInt(definition.getSlotCount());
+			for (int slot = 0; slot < definition.getSlotCount(); slot++) {
+				final String slotName = definition.getSlotName(slot);
+				output.writeInt(RegistrySnapshot.getSlotKind(definition, slotName));
+				RegistrySnapshot.writeString(output, slotName);
+				RegistrySnapshot.writeString(output, definition.getSlotType(slot));
+			}
+		}
+
+		while ((output.size() & 3) != 0) {
+			output.write(0);
+		}
+		final int suggestionsOffset = output.size();
+		suggestionIndex.write(output);
+		output.flush();
+
+		final byte[] body = bytes.toByteArray();
+		final ByteBuffer fields = ByteBuffer.wrap(body);
+		fields.putInt(RegistrySnapshot.DEFINITION_COUNT_FIELD, definitions.size());
+		fields.putInt(RegistrySnapshot.NAME_COUNT_FIELD, names.size());
+		fields.putInt(RegistrySnapshot.TABLE_SIZE_FIELD, tableSize);
+		fields.putInt(RegistrySnapshot.APPLICATION_NAME_FIELD, applicationNameOffset);
+		fields.putInt(RegistrySnapshot.VERSION_FIELD, versionOffset);
+		fields.putInt(RegistrySnapshot.TYPES_FIELD, typesOffset);
+		fields.putInt(RegistrySnapshot.SUGGESTIONS_FIELD, suggestionsOffset);
+		int position = RegistrySnapshot.FIELDS_SIZE;
+		for (final int definitionOffset : definitionOffsets) {
+			fields.putInt(position, definitionOffset);
+			position += 4;
+		}
+		for (final int nameOffset : nameOffsets) {
+			fields.putInt(position, nameOffset);
+			position += 4;
+		}
+
+		final ByteBuffer header = ByteBuffer.allocate(RegistrySnapshot.HEADER_SIZE);
+		header.putInt(RegistrySnapshot.MAGIC);
+		header.putInt(RegistrySnapshot.FORMAT_VERSION);
+		header.putInt(body.length);
+		header.putInt(0);
+		header.putLong(RegistrySnapshot.computeChecksum(ByteBuffer.wrap(body)));
+
+		final Path directory = file.toAbsolutePath().getParent();
+		final Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				((Buffer) header).flip();
+				final ByteBuffer content = ByteBuffer.wrap(body);
+				while (header.hasRemaining() || content.hasRemaining()) {
+					channel.write(new ByteBuffer[] { header, content });
+				}
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/*
+	 * Writes a String.
+	 */
+	private static void writeString(final DataOutputStream output, final String value) throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+		} else {
+			final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			output.writeInt(bytes.length);
+			output.write(bytes);
+		}
+	}
+
+	/*
+	 * The body of the file. Only its absolute methods are used, and it is
+	 * duplicated to be read in order, so it may be shared by many threads.
+	 */
+	private final ByteBuffer _body;
+
+	/*
+	 * The converters of the types that the definitions use.
+	 */
+	private final Map<String, ValueConverter<?>> _converterMap;
+
+	/*
+	 * The number of definitions.
+	 */
+	private final int _definitionCount;
+
+	/*
+	 * The definitions that have been decoded, by index.
+	 */
+	private final AtomicReferenceArray<CommandDefinition> _definitions;
+
+	/*
+	 * The number of names.
+	 */
+	private final int _nameCount;
+
+	/*
+	 * The names that have been decoded, by index.
+	 */
+	private final AtomicReferenceArray<String> _names;
+
+	/*
+	 * The compiled regex patterns, so definitions with the same regex share a
+	 * Pattern.
+	 */
+	private final ConcurrentMap<String, Pattern> _patternMap;
+
+	/*
+	 * The number of slots of the name table.
+	 */
+	private final int _tableSize;
+
+	/*
+	 * Constructor.
+	 */
+	private RegistrySnapshot(final ByteBuffer body, final Map<String, ValueConverter<?>> converterMap) {
+		this._body = body;
+		this._converterMap = converterMap;
+		this._definitionCount = body.getInt(RegistrySnapshot.DEFINITION_COUNT_FIELD);
+		this._nameCount = body.getInt(RegistrySnapshot.NAME_COUNT_FIELD);
+		this._tableSize = body.getInt(RegistrySnapshot.TABLE_SIZE_FIELD);
+		this._definitions = new AtomicReferenceArray<CommandDefinition>(this._definitionCount);
+		this._names = new AtomicReferenceArray<String>(this._nameCount);
+		this._patternMap = new ConcurrentHashMap<String, Pattern>();
+	}
+
+	/*
+	 * The definitions that this registry has decoded are not shared with the
+	 * registry that is bound.
+	 */
+	@Override
+	RegistrySnapshot bind(final Map<String, ValueConverter<?>> converterMap) {
+		return (new RegistrySnapshot(this._body, converterMap));
+	}
+
+	/*
+	 * Reads the word suggestion index. The names are all decoded.
+	 */
+	@Override
+	SuggestionIndex createSuggestionIndex() {
+		final ByteBuffer cursor = this._body.duplicate();
+		((Buffer) cursor).position(this._body.getInt(RegistrySnapshot.SUGGESTIONS_FIELD));
+		return (new SuggestionIndex(this.getNames().toArray(new String[0]), cursor.slice().asIntBuffer()));
+	}
+
+	/*
+	 * Decodes the definition at the index.
+	 */
+	private CommandDefinition decodeDefinition(final int index) {
+		final ByteBuffer cursor = this._body.duplicate();
+		((Buffer) cursor).position(this._body.getInt(RegistrySnapshot.FIELDS_SIZE + (4 * index)));
+
+		final CommandDefinition definition = new CommandDefinition();
+		final int nameCount = cursor.getInt();
+		for (int i = 0; i < nameCount; i++) {
+			definition.addName(this.getName(cursor.getInt()));
+		}
+
+		final String description = RegistrySnapshot.readString(cursor);
+		if (description != null) {
+			definition.setDescription(description);
+		}
+
+		final String regex = RegistrySnapshot.readString(cursor);
+		if (regex != null) {
+			Pattern pattern = this._patternMap.get(regex);
+			if (pattern == null) {
+				pattern = Pattern.compile(regex);
+				final Pattern existing = this._patternMap.putIfAbsent(regex, pattern);
+				if (existing != null) {
+					pattern = existing;
+				}
+			}
+			definition.setRegexPattern(pattern);
+		}
+
+		final int slotCount = cursor.getInt();
+		for (int slot = 0; slot < slotCount; slot++) {
+			final int kind = cursor.getInt();
+			final String name = RegistrySnapshot.readString(cursor);
+			final String typeName = RegistrySnapshot.readString(cursor);
+
+			switch (kind) {
+			case REQUIRED_SLOT:
+				definition.addRequiredVariable(name);
+				break;
+			case REQUIRED_LIST_SLOT:
+				definition.setRequiredVariableList(name);
+				break;
+			case OPTIONAL_SLOT:
+				definition.addOptionalVariable(name);
+				break;
+			default:
+				definition.setOptionalVariableList(name);
+				break;
+			}
+
+			if (typeName != null) {
+				final ValueConverter<?> converter = this._converterMap.get(typeName);
+				if (converter == null) {
+					throw (new UnsupportedException(
+							"Error: The type '" + typeName + "' of the variable '" + name + "' is not defined."));
+				}
+				definition.setSlotType(name, typeName, converter);
+			}
+		}
+
+		definition.setIndex(index);
+		return (definition);
+	}
+
+	@Override
+	public Set<Map.Entry<String, CommandDefinition>> entrySet() {
+		final Map<String, CommandDefinition> map = new LinkedHashMap<String, CommandDefinition>();
+		for (int i = 0; i < this._nameCount; i++) {
+			map.put(this.getName(i), this.getDefinition(this.getNameDefinition(i)));
+		}
+		return (Collections.unmodifiableMap(map).entrySet());
+	}
+
+	/*
+	 * Finds the index of the name in the name table. -1 if the name is not in
+	 * the snapshot.
+	 */
+	private int findName(final String name) {
+		final int hash = name.hashCode();
+		final int tableOffset = this.getTableOffset();
+		int slot = RegistrySnapshot.mix(hash) & (this._tableSize - 1);
+		while (true) {
+			final int entry = tableOffset + (slot * 8);
+			final int index = this._body.getInt(entry + 4);
+			if (index == 0) {
+				return (-1);
+			}
+			if ((this._body.getInt(entry) == hash) && name.equals(this.getName(index - 1))) {
+				return (index - 1);
+			}
+			slot = (slot + 1) & (this._tableSize - 1);
+		}
+	}
+
+	@Override
+	public CommandDefinition get(final Object key) {
+		if (!(key instanceof String)) {
+			return (null);
+		}
+
+		final int index = this.findName((String) key);
+		return (index < 0 ? null : this.getDefinition(this.getNameDefinition(index)));
+	}
+
+	/*
+	 * Gets the application name of the snapshot. May be null.
+	 */
+	String getApplicationName() {
+		return (this.getString(this._body.getInt(RegistrySnapshot.APPLICATION_NAME_FIELD)));
+	}
+
+	/*
+	 * Gets the definition at the index. It is decoded the first time.
+	 */
+	private CommandDefinition getDefinition(final int index) {
+		CommandDefinition definition = this._definitions.get(index);
+		if (definition == null) {
+			definition = this.decodeDefinition(index);
+			if (!this._definitions.compareAndSet(index, null, definition)) {
+				definition = this._definitions.get(index);
+			}
+		}
+		return (definition);
+	}
+
+	/*
+	 * Gets the number of definitions.
+	 */
+	@Override
+	int getDefinitionCount() {
+		return (this._definitionCount);
+	}
+
+	/*
+	 * Gets all of the definitions, in the order of their index. They are all
+	 * decoded.
+	 */
+	@Override
+	List<CommandDefinition> getDefinitions() {
+		final List<CommandDefinition> definitions = new ArrayList<CommandDefinition>(this._definitionCount);
+		for (int i = 0; i < this._definitionCount; i++) {
+			definitions.add(this.getDefinition(i));
+		}
+		return (definitions);
+	}
+
+	/*
+	 * Gets the index of the definition of the command, without decoding the
+	 * definition. -1 if the command is not in the snapshot.
+	 */
+	@Override
+	int getIndex(final String commandName) {
+		final int index = this.findName(commandName);
+		return (index < 0 ? -1 : this.getNameDefinition(index));
+	}
+
+	/*
+	 * Gets the name at the index. It is decoded the first time.
+	 */
+	private String getName(final int index) {
+		String name = this._names.get(index);
+		if (name == null) {
+			name = this.getString(this._body.getInt(this.getNameOffsetsOffset() + (4 * index)));
+			this._names.lazySet(index, name);
+		}
+		return (name);
+	}
+
+	/*
+	 * Gets the index of the definition of the name at the index.
+	 */
+	private int getNameDefinition(final int index) {
+		return (this._body.getInt(this.getNameOffsetsOffset() + (4 * this._nameCount) + (4 * index)));
+	}
+
+	/*
+	 * Gets the offset of the offsets of the names.
+	 */
+	private int getNameOffsetsOffset() {
+		return (RegistrySnapshot.FIELDS_SIZE + (4 * this._definitionCount));
+	}
+
+	/*
+	 * Gets all of the names, in the order they were defined.
+	 */
+	@Override
+	List<String> getNames() {
+		final List<String> names = new ArrayList<String>(this._nameCount);
+		for (int i = 0; i < this._nameCount; i++) {
+			names.add(this.getName(i));
+		}
+		return (names);
+	}
+
+	/*
+	 * Reads the String at the offset. Null if the offset holds a null String.
+	 */
+	private String getString(final int offset) {
+		final ByteBuffer cursor = this._body.duplicate();
+		((Buffer) cursor).position(offset);
+		return (RegistrySnapshot.readString(cursor));
+	}
+
+	/*
+	 * Gets the offset of the name table.
+	 */
+	private int getTableOffset() {
+		return (this.getNameOffsetsOffset() + (8 * this._nameCount));
+	}
+
+	/*
+	 * Gets the names of the types that the definitions use.
+	 */
+	@Override
+	List<String> getTypeNames() {
+		final ByteBuffer cursor = this._body.duplicate();
+		((Buffer) cursor).position(this._body.getInt(RegistrySnapshot.TYPES_FIELD));
+
+		final int count = cursor.getInt();
+		final List<String> typeNames = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			typeNames.add(RegistrySnapshot.readString(cursor));
+		}
+		return (typeNames);
+	}
+
+	/*
+	 * Gets the version of the application of the snapshot. May be null.
+	 */
+	String getVersion() {
+		return (this.getString(this._body.getInt(RegistrySnapshot.VERSION_FIELD)));
+	}
+
+	@Override
+	public int size() {
+		return (this._nameCount);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.util.AbstractMap#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("RegistrySnapshot [_definitionCount=%s, _nameCount=%s]", this._definitionCount,
+				this._nameCount);
+	}
+}
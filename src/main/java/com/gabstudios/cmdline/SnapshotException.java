@@ -0,0 +1,51 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+
+/**
+ * An exception that is used if a snapshot file of the command definitions can
+ * not be loaded, because it is not a snapshot, was written by another version
+ * of the format, or does not match its checksum.
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class SnapshotException extends IOException
+{
+
+    /**
+     * Serialized version number.
+     */
+    private static final long serialVersionUID = -3121764358047208655L;
+
+    /**
+     * Constructor that takes a message.
+     *
+     * @param message
+     *            A <code>String</code> message.
+     */
+    protected SnapshotException(final String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,173 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * This class is a bounded cache from a token that is not defined to its
+ * suggested words. It is owned by a parser, so it is dropped with the parser
+ * when the command names change.
+ *
+ * The cache is split into segments by the hash of the token. Each segment is a
+ * LinkedHashMap in access order that is guarded by its own lock and drops its
+ * least recently used token when it is full, so threads that look up different
+ * tokens seldom wait for each other. The suggestions are unmodifiable Lists and
+ * are shared by every caller.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class SuggestionCache {
+
+	/*
+	 * A segment of the cache.
+	 */
+	private static final class Segment extends LinkedHashMap<String, List<String>> {
+
+		/*
+		 * Serialized version number.
+		 */
+		private static final long serialVersionUID = 2209861530871475147L;
+
+		/*
+		 * The number of tokens that the segment holds.
+		 */
+		private final int _capacity;
+
+		/*
+		 * Constructor.
+		 */
+		Segment(final int capacity) {
+			super(16, 0.75f, true);
+			this._capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, List<String>> eldest) {
+			return (this.size() > this._capacity);
+		}
+	}
+
+	/*
+	 * The largest number of segments.
+	 */
+	private static final int MAX_SEGMENT_COUNT = 16;
+
+	/*
+	 * The number of lookups that found the token.
+	 */
+	private final LongAdder _hitCount;
+
+	/*
+	 * The number of lookups that did not find the token.
+	 */
+	private final LongAdder _missCount;
+
+	/*
+	 * The segments. Their number is a power of two.
+	 */
+	private final Segment[] _segments;
+
+	/*
+	 * Constructor. The capacity is shared out between the segments, so the cache
+	 * never holds more than capacity tokens.
+	 */
+	SuggestionCache(final int capacity) {
+		assert (capacity > 0) : "The parameter 'capacity' must be greater than 0";
+
+		int segmentCount = 1;
+		while ((segmentCount * 2 <= SuggestionCache.MAX_SEGMENT_COUNT) && (segmentCount * 2 * 16 <= capacity)) {
+			segmentCount *= 2;
+		}
+
+		this._segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			// the first segments take the remainder.
+			this._segments[i] = new Segment((capacity / segmentCount) + (i < capacity % segmentCount ? 1 : 0));
+		}
+		this._hitCount = new LongAdder();
+		this._missCount = new LongAdder();
+	}
+
+	/*
+	 * Gets the suggestions of the token. Null if the token is not cached.
+	 */
+	List<String> get(final String token) {
+		final Segment segment = this.getSegment(token);
+		final List<String> suggestions;
+		synchronized (segment) {
+			suggestions = segment.get(token);
+		}
+
+		if (suggestions != null) {
+			this._hitCount.increment();
+		} else {
+			this._missCount.increment();
+		}
+		return (suggestions);
+	}
+
+	/*
+	 * Gets the segment of the token.
+	 */
+	private Segment getSegment(final String token) {
+		final int hash = token.hashCode();
+		return (this._segments[(hash ^ (hash >>> 16)) & (this._segments.length - 1)]);
+	}
+
+	/*
+	 * Gets the statistics of the cache.
+	 */
+	SuggestionCacheStats getStats() {
+		int size = 0;
+		int capacity = 0;
+		for (final Segment segment : this._segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+			capacity += segment._capacity;
+		}
+		return (new SuggestionCacheStats(this._hitCount.sum(), this._missCount.sum(), size, capacity));
+	}
+
+	/*
+	 * Caches the suggestions of the token. The List must be unmodifiable.
+	 */
+	void put(final String token, final List<String> suggestions) {
+		final Segment segment = this.getSegment(token);
+		synchronized (segment) {
+			segment.put(token, suggestions);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("SuggestionCache [_segments=%s, _stats=%s]", this._segments.length, this.getStats());
+	}
+}
@@ -0,0 +1,130 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/**
+ * This class holds the statistics of the cache of word suggestions of a
+ * <code>CmdLineParser</code>, at the time they were read. The cache is looked
+ * up each time a command that is not defined is found.
+ *
+ * @see CmdLineParser#getSuggestionCacheStats()
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class SuggestionCacheStats
+{
+    /*
+     * The number of tokens that the cache holds at most.
+     */
+    private final int  _capacity;
+
+    /*
+     * The number of lookups that found the token.
+     */
+    private final long _hitCount;
+
+    /*
+     * The number of lookups that did not find the token.
+     */
+    private final long _missCount;
+
+    /*
+     * The number of tokens in the cache.
+     */
+    private final int  _size;
+
+    /*
+     * Constructor.
+     */
+    SuggestionCacheStats(final long hitCount, final long missCount,
+            final int size, final int capacity)
+    {
+        this._hitCount = hitCount;
+        this._missCount = missCount;
+        this._size = size;
+        this._capacity = capacity;
+    }
+
+    /**
+     * Gets the number of tokens that the cache holds at most.
+     *
+     * @return The capacity. 0 if the cache is off.
+     */
+    public int getCapacity()
+    {
+        return (this._capacity);
+    }
+
+    /**
+     * Gets the number of lookups that found the token in the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount()
+    {
+        return (this._hitCount);
+    }
+
+    /**
+     * Gets the share of the lookups that found the token in the cache.
+     *
+     * @return A value from 0 to 1. 0 if there were no lookups.
+     */
+    public double getHitRate()
+    {
+        final long lookupCount = this._hitCount + this._missCount;
+        return (lookupCount == 0 ? 0 : (double) this._hitCount / lookupCount);
+    }
+
+    /**
+     * Gets the number of lookups that did not find the token in the cache.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount()
+    {
+        return (this._missCount);
+    }
+
+    /**
+     * Gets the number of tokens in the cache.
+     *
+     * @return The size.
+     */
+    public int getSize()
+    {
+        return (this._size);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return String
+                .format("SuggestionCacheStats [_hitCount=%s, _missCount=%s, _size=%s, _capacity=%s]",
+                        this._hitCount, this._missCount, this._size,
+                        this._capacity);
+    }
+}
@@ -0,0 +1,480 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * This class finds the command names that are close to a token that is not
+ * defined, such as --verbsoe for --verbose. Closeness is the Damerau-Levenshtein
+ * distance (the optimal string alignment form), where a swap of two neighbour
+ * chars is a single edit.
+ *
+ * The index is a symmetric delete index. Each name is indexed under the strings
+ * that are left when up to MAX_DISTANCE chars are deleted from it, and a token
+ * is looked up under its own deletes. Two strings within MAX_DISTANCE edits
+ * share a delete, so only the names that share one are compared with the token.
+ *
+ * Command names often share a prefix, such as --, or a suffix, so the deletes
+ * are taken from a short key at each end of a name rather than from the whole
+ * name. A token is looked up at the end that has the fewest names. A key is
+ * stored as the hash of its chars, so a hash that collides only adds a name to
+ * compare. The index is immutable once it is built and may be shared by many
+ * threads.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class SuggestionIndex {
+
+	/*
+	 * The deletes of one end of the names. The hashes of the deletes are held
+	 * in an open addressing table, and the names of each hash are a run of the
+	 * postings.
+	 */
+	private static final class Side {
+
+		/*
+		 * The number of names of the hash in each slot. Zero if the slot is
+		 * empty.
+		 */
+		private int[] _counts;
+
+		/*
+		 * The hash of the delete in each slot.
+		 */
+		private int[] _hashes;
+
+		/*
+		 * The indexes of the names, in runs for each hash.
+		 */
+		private final int[] _postings;
+
+		/*
+		 * The start of the run of each slot in the postings.
+		 */
+		private final int[] _starts;
+
+		/*
+		 * The number of slots that are used.
+		 */
+		private int _used;
+
+		/*
+		 * Constructor. Indexes the deletes of each name. The names are read
+		 * twice, once to count the names of each hash and once to write them,
+		 * so the postings are allocated once.
+		 */
+		Side(final String[] names, final boolean prefix) {
+			this._hashes = new int[1024];
+			this._counts = new int[1024];
+
+			final int[] keyHashes = new int[SuggestionIndex.MAX_DELETES];
+			int total = 0;
+			for (final String name : names) {
+				final int count = SuggestionIndex.computeDeletes(name, prefix, SuggestionIndex.MAX_DISTANCE,
+						keyHashes);
+				for (int j = 0; j < count; j++) {
+					this.add(keyHashes[j]);
+				}
+				total += count;
+			}
+
+			this._starts = new int[this._hashes.length];
+			int start = 0;
+			for (int slot = 0; slot < this._hashes.length; slot++) {
+				this._starts[slot] = start;
+				start += this._counts[slot];
+			}
+
+			this._postings = new int[total];
+			final int[] ends = this._starts.clone();
+			for (int i = 0; i < names.length; i++) {
+				final int count = SuggestionIndex.computeDeletes(names[i], prefix, SuggestionIndex.MAX_DISTANCE,
+						keyHashes);
+				for (int j = 0; j < count; j++) {
+					this._postings[ends[this.find(keyHashes[j])]++] = i;
+				}
+			}
+		}
+
+		/*
+		 * Constructor. Reads the arrays of a side that was written by write().
+		 */
+		Side(final IntBuffer buffer) {
+			final int tableLength = buffer.get();
+			this._hashes = new int[tableLength];
+			this._counts = new int[tableLength];
+			this._starts = new int[tableLength];
+			buffer.get(this._hashes);
+			buffer.get(this._counts);
+			buffer.get(this._starts);
+			this._postings = new int[buffer.get()];
+			buffer.get(this._postings);
+		}
+
+		/*
+		 * Counts a name of the hash. The table is doubled when it is half full.
+		 */
+		private void add(final int hash) {
+			int slot = Side.mix(hash) & (this._hashes.length - 1);
+			while ((this._counts[slot] != 0) && (this._hashes[slot] != hash)) {
+				slot = (slot + 1) & (this._hashes.length - 1);
+			}
+			if (this._counts[slot]++ == 0) {
+				this._hashes[slot] = hash;
+				if (++this._used * 2 > this._hashes.length) {
+					this.grow();
+				}
+			}
+		}
+
+		/*
+		 * Gets the slot of the hash, or -1 if it is not indexed.
+		 */
+		int find(final int hash) {
+			int slot = Side.mix(hash) & (this._hashes.length - 1);
+			while (this._counts[slot] != 0) {
+				if (this._hashes[slot] == hash) {
+					return (slot);
+				}
+				slot = (slot + 1) & (this._hashes.length - 1);
+			}
+			return (-1);
+		}
+
+		/*
+		 * Doubles the table.
+		 */
+		private void grow() {
+			final int[] hashes = this._hashes;
+			final int[] counts = this._counts;
+			this._hashes = new int[hashes.length * 2];
+			this._counts = new int[hashes.length * 2];
+			for (int i = 0; i < hashes.length; i++) {
+				if (counts[i] != 0) {
+					int slot = Side.mix(hashes[i]) & (this._hashes.length - 1);
+					while (this._counts[slot] != 0) {
+						slot = (slot + 1) & (this._hashes.length - 1);
+					}
+					this._hashes[slot] = hashes[i];
+					this._counts[slot] = counts[i];
+				}
+			}
+		}
+
+		/*
+		 * Spreads the bits of a hash, so that the low bits pick the slot.
+		 */
+		private static int mix(final int hash) {
+			final int h = hash * 0x9E3779B9;
+			return (h ^ (h >>> 16));
+		}
+
+		/*
+		 * Writes the arrays of the side.
+		 */
+		void write(final DataOutput output) throws IOException {
+			output.writeInt(this._hashes.length);
+			SuggestionIndex.writeInts(output, this._hashes);
+			SuggestionIndex.writeInts(output, this._counts);
+			SuggestionIndex.writeInts(output, this._starts);
+			output.writeInt(this._postings.length);
+			SuggestionIndex.writeInts(output, this._postings);
+		}
+	}
+
+	/*
+	 * The length of the key at each end of a name.
+	 */
+	private static final int KEY_LENGTH = 6;
+
+	/*
+	 * The largest distance of a name that is suggested.
+	 */
+	static final int MAX_DISTANCE = 2;
+
+	/*
+	 * The largest number of deletes of a key.
+	 */
+	private static final int MAX_DELETES = 1 << SuggestionIndex.KEY_LENGTH;
+
+	/*
+	 * The largest number of names that are suggested.
+	 */
+	static final int MAX_SUGGESTIONS = 10;
+
+	/*
+	 * Computes the hashes of the strings that are left when up to maxDistance
+	 * chars are deleted from the key at one end of the value. The hashes are
+	 * written to the array without duplicates, and their number is returned.
+	 */
+	private static int computeDeletes(final String value, final boolean prefix, final int maxDistance,
+			final int[] hashes) {
+		final int keyLength = Math.min(value.length(), SuggestionIndex.KEY_LENGTH);
+		final int start = (prefix ? 0 : value.length() - keyLength);
+
+		int count = 0;
+		final int maskCount = 1 << keyLength;
+		for (int mask = 0; mask < maskCount; mask++) {
+			if (Integer.bitCount(mask) > maxDistance) {
+				continue;
+			}
+
+			// the bits of the mask are the chars that are deleted.
+			int hash = keyLength - Integer.bitCount(mask);
+			for (int i = 0; i < keyLength; i++) {
+				if ((mask & (1 << i)) == 0) {
+					hash = (31 * hash) + value.charAt(start + i);
+				}
+			}
+
+			boolean found = false;
+			for (int i = 0; (i < count) && !found; i++) {
+				found = (hashes[i] == hash);
+			}
+			if (!found) {
+				hashes[count++] = hash;
+			}
+		}
+		return (count);
+	}
+
+	/*
+	 * Writes the values.
+	 */
+	private static void writeInts(final DataOutput output, final int[] values) throws IOException {
+		for (final int value : values) {
+			output.writeInt(value);
+		}
+	}
+
+	/*
+	 * Computes the optimal string alignment distance of the two values. Returns
+	 * maxDistance + 1 as soon as the distance is known to be larger than
+	 * maxDistance. Only the cells within maxDistance of the diagonal are
+	 * computed. The rows are scratch space of at least target.length() + 1
+	 * elements each.
+	 */
+	static int computeDistance(final CharSequence source, final CharSequence target, final int maxDistance,
+			final int[][] rows) {
+		final int sourceLength = source.length();
+		final int targetLength = target.length();
+		if (Math.abs(sourceLength - targetLength) > maxDistance) {
+			return (maxDistance + 1);
+		}
+
+		final int outside = maxDistance + 1;
+		int[] previous2 = rows[0];
+		int[] previous = rows[1];
+		int[] current = rows[2];
+		for (int j = 0; j <= targetLength; j++) {
+			previous[j] = Math.min(j, outside);
+		}
+
+		for (int i = 1; i <= sourceLength; i++) {
+			final int low = Math.max(1, i - maxDistance);
+			final int high = Math.min(targetLength, i + maxDistance);
+			current[low - 1] = (low == 1 ? Math.min(i, outside) : outside);
+			if (high < targetLength) {
+				current[high + 1] = outside;
+			}
+
+			int rowMin = current[low - 1];
+			final char sourceChar = source.charAt(i - 1);
+			for (int j = low; j <= high; j++) {
+				final char targetChar = target.charAt(j - 1);
+				final int cost = (sourceChar == targetChar ? 0 : 1);
+				int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+				if ((i > 1) && (j > 1) && (sourceChar == target.charAt(j - 2))
+						&& (source.charAt(i - 2) == targetChar)) {
+					distance = Math.min(distance, previous2[j - 2] + 1);
+				}
+				current[j] = Math.min(distance, outside);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (rowMin > maxDistance) {
+				return (outside);
+			}
+
+			final int[] rotate = previous2;
+			previous2 = previous;
+			previous = current;
+			current = rotate;
+		}
+		return (previous[targetLength]);
+	}
+
+	/*
+	 * The names, by index.
+	 */
+	private final String[] _names;
+
+	/*
+	 * The deletes of the key at the start of each name.
+	 */
+	private final Side _prefixSide;
+
+	/*
+	 * The deletes of the key at the end of each name.
+	 */
+	private final Side _suffixSide;
+
+	/*
+	 * Constructor. Indexes the names. The order of the names is the order that
+	 * names with the same distance are suggested in.
+	 */
+	SuggestionIndex(final List<String> names) {
+		assert (names != null) : "The parameter 'names' must not be null";
+
+		this._names = names.toArray(new String[0]);
+		this._prefixSide = new Side(this._names, true);
+		this._suffixSide = new Side(this._names, false);
+	}
+
+	/*
+	 * Constructor. Reads an index that was written by write(), from the
+	 * position of the buffer. The names must be in the order they were in when
+	 * the index was built.
+	 */
+	SuggestionIndex(final String[] names, final IntBuffer buffer) {
+		assert (names != null) : "The parameter 'names' must not be null";
+		assert (buffer != null) : "The parameter 'buffer' must not be null";
+
+		this._names = names;
+		this._prefixSide = new Side(buffer);
+		this._suffixSide = new Side(buffer);
+	}
+
+	/*
+	 * Gets the names that are closest to the token, nearest first. A name is
+	 * suggested if its distance is at most MAX_DISTANCE, and at most a third of
+	 * the length of the token, so a short token does not match every short
+	 * name. Returns an unmodifiable List, that is empty if no name is close.
+	 */
+	List<String> suggest(final String token) {
+		assert (token != null) : "The parameter 'token' must not be null";
+
+		final int maxDistance = Math.min(SuggestionIndex.MAX_DISTANCE, Math.max(1, token.length() / 3));
+
+		final int[] prefixHashes = new int[SuggestionIndex.MAX_DELETES];
+		final int prefixCount = SuggestionIndex.computeDeletes(token, true, maxDistance, prefixHashes);
+		final int[] suffixHashes = new int[SuggestionIndex.MAX_DELETES];
+		final int suffixCount = SuggestionIndex.computeDeletes(token, false, maxDistance, suffixHashes);
+
+		final long prefixSize = this.countCandidates(this._prefixSide, prefixHashes, prefixCount);
+		final long suffixSize = this.countCandidates(this._suffixSide, suffixHashes, suffixCount);
+
+		final int[] candidates = (prefixSize <= suffixSize
+				? this.collectCandidates(this._prefixSide, prefixHashes, prefixCount, (int) prefixSize)
+				: this.collectCandidates(this._suffixSide, suffixHashes, suffixCount, (int) suffixSize));
+		Arrays.sort(candidates);
+
+		final int rowLength = token.length() + maxDistance + 1;
+		final int[][] rows = new int[3][rowLength];
+
+		// each match is its distance and the index of its name, so that sorting
+		// ranks them by distance and then by the order of the names.
+		long[] matches = new long[8];
+		int matchCount = 0;
+		for (int i = 0; i < candidates.length; i++) {
+			final int index = candidates[i];
+			if ((i > 0) && (index == candidates[i - 1])) {
+				continue;
+			}
+
+			final int distance = SuggestionIndex.computeDistance(token, this._names[index], maxDistance, rows);
+			if ((distance <= maxDistance) && (distance > 0)) {
+				if (matchCount == matches.length) {
+					matches = Arrays.copyOf(matches, matchCount * 2);
+				}
+				matches[matchCount++] = ((long) distance << 32) | index;
+			}
+		}
+		if (matchCount == 0) {
+			return (Collections.emptyList());
+		}
+		Arrays.sort(matches, 0, matchCount);
+
+		final int size = Math.min(matchCount, SuggestionIndex.MAX_SUGGESTIONS);
+		final List<String> suggestions = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			suggestions.add(this._names[(int) matches[i]]);
+		}
+		return (Collections.unmodifiableList(suggestions));
+	}
+
+	/*
+	 * Collects the names that share a delete with the token at one end.
+	 */
+	private int[] collectCandidates(final Side side, final int[] hashes, final int count, final int size) {
+		final int[] candidates = new int[size];
+		int n = 0;
+		for (int i = 0; i < count; i++) {
+			final int slot = side.find(hashes[i]);
+			if (slot >= 0) {
+				final int length = side._counts[slot];
+				System.arraycopy(side._postings, side._starts[slot], candidates, n, length);
+				n += length;
+			}
+		}
+		return (candidates);
+	}
+
+	/*
+	 * Counts the names that share a delete with the token at one end, with
+	 * duplicates.
+	 */
+	private long countCandidates(final Side side, final int[] hashes, final int count) {
+		long size = 0;
+		for (int i = 0; i < count; i++) {
+			final int slot = side.find(hashes[i]);
+			if (slot >= 0) {
+				size += side._counts[slot];
+			}
+		}
+		return (size);
+	}
+
+	/*
+	 * Writes the index, without its names, so that it can be read without being
+	 * built again.
+	 */
+	void write(final DataOutput output) throws IOException {
+		this._prefixSide.write(output);
+		this._suffixSide.write(output);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("SuggestionIndex [_names=%s]", this._names.length);
+	}
+}
@@ -0,0 +1,230 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/*
+ * This class holds the tokens that the CommandLineTokenizer has found.
+ *
+ * A token is held as a range of chars within its source, a String is only
+ * created when the token is read. A TokenBuffer may be cleared and reused
+ * for the next parse, it is not thread safe.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class TokenBuffer {
+
+	/*
+	 * The deadline is checked each time this many tokens have been added.
+	 */
+	private static final int DEADLINE_CHECK_MASK = 0x3FF;
+
+	/*
+	 * The initial number of tokens the buffer can hold before it grows.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/*
+	 * The System.nanoTime() value that the tokens must be added by. Zero if
+	 * there is no deadline.
+	 */
+	private long _deadline;
+
+	/*
+	 * The end index, exclusive, of each token within its source.
+	 */
+	private int[] _ends;
+
+	/*
+	 * The maximum number of tokens.
+	 */
+	private int _maxSize;
+
+	/*
+	 * The maximum number of chars in a token.
+	 */
+	private int _maxValueLength;
+
+	/*
+	 * The number of tokens in the buffer.
+	 */
+	private int _size;
+
+	/*
+	 * The source of each token.
+	 */
+	private CharSequence[] _sources;
+
+	/*
+	 * The start index of each token within its source.
+	 */
+	private int[] _starts;
+
+	/*
+	 * The String value of each token, once it has been read.
+	 */
+	private String[] _values;
+
+	/*
+	 * Constructor.
+	 */
+	TokenBuffer() {
+		this._sources = new CharSequence[TokenBuffer.INITIAL_CAPACITY];
+		this._starts = new int[TokenBuffer.INITIAL_CAPACITY];
+		this._ends = new int[TokenBuffer.INITIAL_CAPACITY];
+		this._values = new String[TokenBuffer.INITIAL_CAPACITY];
+		this._maxSize = Integer.MAX_VALUE;
+		this._maxValueLength = Integer.MAX_VALUE;
+	}
+
+	/*
+	 * Adds a token that is the range of chars from start to end within the
+	 * source.
+	 */
+	void add(final CharSequence source, final int start, final int end) {
+		assert (source != null) : "The parameter 'source' must not be null";
+		assert ((start >= 0) && (start <= end) && (end <= source.length())) : "The range is out of bounds";
+
+		if (this._size == this._maxSize) {
+			throw (new LimitException("Error:  The number of tokens is more than the limit of " + this._maxSize + "."));
+		} else if ((end - start) > this._maxValueLength) {
+			throw (new LimitException("Error:  A value of " + (end - start)
+					+ " chars is longer than the limit of " + this._maxValueLength + "."));
+		} else if ((this._deadline != 0) && ((this._size & TokenBuffer.DEADLINE_CHECK_MASK) == 0)) {
+			ParseLimits.checkDeadline(this._deadline);
+		}
+
+		if (this._size == this._sources.length) {
+			final int capacity = this._size << 1;
+			this._sources = Arrays.copyOf(this._sources, capacity);
+			this._starts = Arrays.copyOf(this._starts, capacity);
+			this._ends = Arrays.copyOf(this._ends, capacity);
+			this._values = Arrays.copyOf(this._values, capacity);
+		}
+
+		this._sources[this._size] = source;
+		this._starts[this._size] = start;
+		this._ends[this._size] = end;
+		this._size++;
+	}
+
+	/*
+	 * Creates a List view of the tokens. The view reads through to the buffer.
+	 */
+	List<String> asList() {
+		return (new TokenList());
+	}
+
+	/*
+	 * Removes all of the tokens. The capacity of the buffer is kept.
+	 */
+	void clear() {
+		// release the sources and values so they can be collected.
+		Arrays.fill(this._sources, 0, this._size, null);
+		Arrays.fill(this._values, 0, this._size, null);
+		this._size = 0;
+	}
+
+	/*
+	 * Gets the String value of the token at the index. The String is created
+	 * the first time the token is read.
+	 */
+	String get(final int index) {
+		assert ((index >= 0) && (index < this._size)) : "The parameter 'index' is out of range";
+
+		String value = this._values[index];
+		if (value == null) {
+			final CharSequence source = this._sources[index];
+			final int start = this._starts[index];
+			final int end = this._ends[index];
+			if ((start == 0) && (end == source.length()) && (source instanceof String)) {
+				value = (String) source;
+			} else {
+				value = source.subSequence(start, end).toString();
+			}
+			this._values[index] = value;
+		}
+		return (value);
+	}
+
+	/*
+	 * Gets the length of the token at the index without creating its String.
+	 */
+	int length(final int index) {
+		assert ((index >= 0) && (index < this._size)) : "The parameter 'index' is out of range";
+
+		return (this._ends[index] - this._starts[index]);
+	}
+
+	/*
+	 * Sets the limits that are checked as tokens are added. The deadline is a
+	 * System.nanoTime() value, zero if there is no deadline.
+	 */
+	void setLimits(final int maxSize, final int maxValueLength, final long deadline) {
+		assert (maxSize > 0) : "The parameter 'maxSize' must be greater than 0";
+		assert (maxValueLength > 0) : "The parameter 'maxValueLength' must be greater than 0";
+
+		this._maxSize = maxSize;
+		this._maxValueLength = maxValueLength;
+		this._deadline = deadline;
+	}
+
+	/*
+	 * Gets the number of tokens.
+	 */
+	int size() {
+		return (this._size);
+	}
+
+	/*
+	 * Passes each token to the tracer as a range of its source.
+	 */
+	void trace(final ParseTracer parseTracer) {
+		assert (parseTracer != null) : "The parameter 'parseTracer' must not be null";
+
+		for (int i = 0; i < this._size; i++) {
+			parseTracer.tokenEmitted(this._sources[i], this._starts[i], this._ends[i]);
+		}
+	}
+
+	/*
+	 * A read only List view of the tokens.
+	 */
+	private final class TokenList extends AbstractList<String> implements RandomAccess {
+
+		@Override
+		public String get(final int index) {
+			if ((index < 0) || (index >= TokenBuffer.this._size)) {
+				throw (new IndexOutOfBoundsException("Index: " + index + ", Size: " + TokenBuffer.this._size));
+			}
+			return (TokenBuffer.this.get(index));
+		}
+
+		@Override
+		public int size() {
+			return (TokenBuffer.this._size);
+		}
+	}
+}
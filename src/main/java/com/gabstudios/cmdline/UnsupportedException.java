@@ -43,6 +43,12 @@ public class UnsupportedException extends RuntimeException
      */
     private List<String>      _suggestionList;
 
+    /*
+     * A flag that is true if the List of suggestions is shared with the
+     * parser's cache, so it is copied before it is returned.
+     */
+    private boolean           _isShared;
+
     /**
      * Constructor that takes a message.
      *
@@ -54,6 +60,19 @@ public class UnsupportedException extends RuntimeException
         super(message);
     }
 
+    /**
+     * Constructor that takes a message and the cause.
+     *
+     * @param message
+     *            A <code>String</code> message.
+     * @param cause
+     *            The <code>Throwable</code> that caused this exception.
+     */
+    protected UnsupportedException(final String message, final Throwable cause)
+    {
+        super(message, cause);
+    }
+
     /**
      * Constructor that takes a message.
      *
@@ -70,14 +89,34 @@ public class UnsupportedException extends RuntimeException
         this._suggestionList = new ArrayList<String>(suggestionList);
     }
 
+    /*
+     * Constructor that takes a message and a List of suggestions that is
+     * shared if copy is false. The parser gives its cached, unmodifiable Lists
+     * this way, so they are only copied if the suggestions are read.
+     */
+    UnsupportedException(final String message,
+            final List<String> suggestionList, final boolean copy)
+    {
+        super(message);
+        this._suggestionList = (copy ? new ArrayList<String>(suggestionList)
+                : suggestionList);
+        this._isShared = !copy;
+    }
+
     /**
      * Gets a <code>List</code> of suggestion alternatives.
      *
      * @return A <code>List</code> instance containing zero to many
-     *         <code>String</code>instances.
+     *         <code>String</code>instances. The List belongs to the
+     *         exception and may be changed.
      */
     public List<String> getSuggestionList()
     {
+        if (this._isShared)
+        {
+            this._suggestionList = new ArrayList<String>(this._suggestionList);
+            this._isShared = false;
+        }
         return (this._suggestionList);
     }
 }
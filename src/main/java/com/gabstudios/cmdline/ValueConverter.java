@@ -0,0 +1,50 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+/**
+ * This interface converts the String value of a variable to the type of the
+ * variable. A type is given to a variable in the command definition with the
+ * name of a converter, such as <code>!port&lt;int&gt;</code>. The value is
+ * converted once, when the command line is parsed.
+ *
+ * If the value can not be converted, the converter throws a
+ * <code>RuntimeException</code> and the parser throws a
+ * <code>MatchException</code>.
+ *
+ * @see ValueConverters
+ *
+ * @param <T>
+ *            The type that the value is converted to.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public interface ValueConverter<T>
+{
+    /**
+     * Converts the value.
+     *
+     * @param value
+     *            The String value from the command line.
+     * @return The converted value. Must not be null.
+     */
+    public T convert(String value);
+}
@@ -0,0 +1,189 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.gabstudios.validate.Validate;
+
+/**
+ * This class holds the built in <code>ValueConverter</code> instances. Each one
+ * may be used in a command definition by the name it is listed with.
+ *
+ * int = ValueConverters.INT - An Integer, read with getInt(...).
+ *
+ * long = ValueConverters.LONG - A Long, read with getLong(...).
+ *
+ * double = ValueConverters.DOUBLE - A Double, read with getDouble(...).
+ *
+ * boolean = ValueConverters.BOOLEAN - true or false, read with getBoolean(...).
+ *
+ * path = ValueConverters.PATH - A <code>java.nio.file.Path</code>.
+ *
+ * duration = ValueConverters.DURATION - A <code>java.time.Duration</code> in
+ * the ISO-8601 form, such as PT30S.
+ *
+ * An enum is defined with <code>CmdLineParser.Builder.defineType(...)</code>
+ * and <code>ValueConverters.forEnum(...)</code>.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public final class ValueConverters {
+
+	/**
+	 * Converts the value to a Boolean. The value must be true or false, in any
+	 * case.
+	 */
+	public static final ValueConverter<Boolean> BOOLEAN = new PrimitiveConverter<Boolean>(
+			PrimitiveConverter.BOOLEAN) {
+
+		@Override
+		Boolean fromBits(final long bits) {
+			return (Boolean.valueOf(bits != 0));
+		}
+
+		@Override
+		long toBits(final String value) {
+			final long bits;
+			if ("true".equalsIgnoreCase(value)) {
+				bits = 1;
+			} else if ("false".equalsIgnoreCase(value)) {
+				bits = 0;
+			} else {
+				throw (new IllegalArgumentException("The value must be true or false."));
+			}
+			return (bits);
+		}
+	};
+
+	/**
+	 * Converts the value to a Double.
+	 */
+	public static final ValueConverter<Double> DOUBLE = new PrimitiveConverter<Double>(PrimitiveConverter.DOUBLE) {
+
+		@Override
+		Double fromBits(final long bits) {
+			return (Double.valueOf(Double.longBitsToDouble(bits)));
+		}
+
+		@Override
+		long toBits(final String value) {
+			return (Double.doubleToRawLongBits(Double.parseDouble(value)));
+		}
+	};
+
+	/**
+	 * Converts the value to a Duration in the ISO-8601 form, such as PT30S.
+	 */
+	public static final ValueConverter<Duration> DURATION = new ValueConverter<Duration>() {
+
+		@Override
+		public Duration convert(final String value) {
+			return (Duration.parse(value));
+		}
+	};
+
+	/**
+	 * Converts the value to an Integer.
+	 */
+	public static final ValueConverter<Integer> INT = new PrimitiveConverter<Integer>(PrimitiveConverter.INT) {
+
+		@Override
+		Integer fromBits(final long bits) {
+			return (Integer.valueOf((int) bits));
+		}
+
+		@Override
+		long toBits(final String value) {
+			return (Integer.parseInt(value));
+		}
+	};
+
+	/**
+	 * Converts the value to a Long.
+	 */
+	public static final ValueConverter<Long> LONG = new PrimitiveConverter<Long>(PrimitiveConverter.LONG) {
+
+		@Override
+		Long fromBits(final long bits) {
+			return (Long.valueOf(bits));
+		}
+
+		@Override
+		long toBits(final String value) {
+			return (Long.parseLong(value));
+		}
+	};
+
+	/**
+	 * Converts the value to a Path.
+	 */
+	public static final ValueConverter<Path> PATH = new ValueConverter<Path>() {
+
+		@Override
+		public Path convert(final String value) {
+			return (Paths.get(value));
+		}
+	};
+
+	/**
+	 * Creates a converter to the constants of an enum. The value is matched to
+	 * the name of a constant without regard to case.
+	 *
+	 * @param enumClass
+	 *            The class of the enum. Must not be null.
+	 * @param <E>
+	 *            The type of the enum.
+	 * @return A new <code>ValueConverter</code> instance.
+	 */
+	public static <E extends Enum<E>> ValueConverter<E> forEnum(final Class<E> enumClass) {
+		Validate.defineObject(enumClass).testNotNull().throwValidationExceptionOnFail().validate();
+
+		final Map<String, E> constantMap = new HashMap<String, E>();
+		for (final E constant : enumClass.getEnumConstants()) {
+			constantMap.put(constant.name().toLowerCase(Locale.ROOT), constant);
+		}
+
+		return (new ValueConverter<E>() {
+
+			@Override
+			public E convert(final String value) {
+				final E constant = constantMap.get(value.toLowerCase(Locale.ROOT));
+				if (constant == null) {
+					throw (new IllegalArgumentException("The value must be one of " + constantMap.values() + "."));
+				}
+				return (constant);
+			}
+		});
+	}
+
+	/*
+	 * Constructor.
+	 */
+	private ValueConverters() {
+		// void - do nothing.
+	}
+}
@@ -0,0 +1,236 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class ArgumentFileTest
+{
+
+    CmdLineParser.Builder _builder;
+
+    Path                  _directory;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this._builder = CmdLineParser.builder().setExpandArgumentFiles(true).defineCommand("-f, --file, !file...")
+                .defineCommand("--name, !name").defineCommand("-v, --verbose").defineCommand("--count, !count<int>");
+        this._directory = Files.createTempDirectory("argfile");
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        for (final Path path : Files.newDirectoryStream(this._directory))
+        {
+            Files.delete(path);
+        }
+        Files.delete(this._directory);
+        this._builder = null;
+        CmdLine.clear();
+    }
+
+    /*
+     * Writes the text to a file in the temporary directory, returns the @path
+     * argument of the file.
+     */
+    private String write(final String name, final String text) throws IOException
+    {
+        final Path file = this._directory.resolve(name);
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return ("@" + file);
+    }
+
+    @Test
+    public void testExpand() throws IOException
+    {
+        final String argfile = this.write("args", "--name Bob\r\n  --count=3\n\t-f a.txt,b.txt\n");
+        final List<Command> commands = this._builder.build().parse(new String[]
+            { "-v", argfile });
+
+        final CmdLineParser plain = CmdLineParser.builder().defineCommand("-f, --file, !file...")
+                .defineCommand("--name, !name").defineCommand("-v, --verbose").defineCommand("--count, !count<int>")
+                .build();
+        Assert.assertEquals(plain.parse(new String[]
+            { "-v", "--name", "Bob", "--count=3", "-f", "a.txt,b.txt" }).toString(), commands.toString());
+        Assert.assertEquals(Arrays.asList("a.txt", "b.txt"), commands.get(3).getValues("file"));
+    }
+
+    @Test
+    public void testQuotes() throws IOException
+    {
+        final String argfile = this.write("args",
+                "--name \"Bob Smith\" -f 'my file.txt' \"tab\\there\" caf\u00e9 \"say \\\"hi\\\"\" ''\n");
+        final List<Command> commands = this._builder.build().parse(new String[]
+            { argfile });
+
+        Assert.assertEquals("Bob Smith", commands.get(0).getValue("name"));
+        Assert.assertEquals(Arrays.asList("my file.txt", "tab\there", "caf\u00e9", "say \"hi\""),
+                commands.get(1).getValues("file"));
+    }
+
+    @Test
+    public void testNested() throws IOException
+    {
+        final String inner = this.write("inner", "--name Bob\n");
+        final String outer = this.write("outer", "-v " + inner + " --count 2\n");
+        final List<Command> commands = this._builder.build().parse(new String[]
+            { outer });
+
+        Assert.assertEquals(3, commands.size());
+        Assert.assertEquals("Bob", commands.get(1).getValue("name"));
+        Assert.assertEquals(2, commands.get(2).getInt("count"));
+    }
+
+    @Test
+    public void testCycle() throws IOException
+    {
+        final Path first = this._directory.resolve("first");
+        final Path second = this._directory.resolve("second");
+        Files.write(first, ("-v @" + second).getBytes(StandardCharsets.UTF_8));
+        Files.write(second, ("--name Bob @" + first).getBytes(StandardCharsets.UTF_8));
+
+        try
+        {
+            this._builder.build().parse(new String[]
+                { "@" + first });
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("refers to itself"));
+        }
+    }
+
+    @Test
+    public void testSameFileTwice() throws IOException
+    {
+        final String argfile = this.write("args", "-f a.txt\n");
+        final List<Command> commands = this._builder.build().parse(new String[]
+            { argfile, argfile });
+
+        Assert.assertEquals(2, commands.size());
+    }
+
+    @Test
+    public void testEscape() throws IOException
+    {
+        final List<Command> commands = this._builder.build().parse(new String[]
+            { "--name", "@@bob" });
+
+        Assert.assertEquals("@bob", commands.get(0).getValue("name"));
+    }
+
+    @Test
+    public void testOffByDefault()
+    {
+        final List<Command> commands = CmdLineParser.builder().defineCommand("--name, !name").build()
+                .parse(new String[]
+                    { "--name", "@bob" });
+
+        Assert.assertEquals("@bob", commands.get(0).getValue("name"));
+    }
+
+    @Test
+    public void testMissingFile()
+    {
+        try
+        {
+            this._builder.build().parse(new String[]
+                { "@" + this._directory.resolve("missing") });
+            Assert.fail();
+        }
+        catch (final UncheckedIOException e)
+        {
+            Assert.assertTrue(e.getMessage().startsWith("Error: The argument file"));
+        }
+    }
+
+    @Test
+    public void testUnclosedQuote() throws IOException
+    {
+        final String argfile = this.write("args", "--name \"Bob\n");
+        try
+        {
+            this._builder.build().parse(new String[]
+                { argfile });
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("quote that is not closed"));
+        }
+    }
+
+    @Test
+    public void testInputSizeLimit() throws IOException
+    {
+        final String argfile = this.write("args", "--name Bob\n");
+        try
+        {
+            this._builder.setLimits(ParseLimits.builder().setMaxInputSize(8).build()).build().parse(new String[]
+                { argfile });
+            Assert.fail();
+        }
+        catch (final LimitException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("larger than the limit of 8"));
+        }
+    }
+
+    @Test
+    public void testLargeFile() throws IOException
+    {
+        final StringBuilder buffer = new StringBuilder("-f");
+        for (int i = 0; i < 100000; i++)
+        {
+            buffer.append(" file").append(i).append(".txt");
+        }
+        final String argfile = this.write("args", buffer.toString());
+
+        final List<Command> commands = this._builder
+                .setLimits(ParseLimits.builder().setMaxTokenCount(200000).setMaxListSize(200000).build()).build()
+                .parse(new String[]
+                    { argfile });
+
+        final List<String> files = commands.get(0).getValues("file");
+        Assert.assertEquals(100000, files.size());
+        Assert.assertEquals("file99999.txt", files.get(99999));
+    }
+}
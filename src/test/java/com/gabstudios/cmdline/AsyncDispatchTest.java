@@ -0,0 +1,354 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class AsyncDispatchTest
+{
+
+    CmdLineParser.Builder _builder;
+
+    @Before
+    public void setUp()
+    {
+        this._builder = CmdLineParser.builder().defineCommand("-a, #First")
+                .defineCommand("-b, #Second").defineCommand("-c, #Third");
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._builder = null;
+    }
+
+    @Test
+    public void testParseAsync() throws Exception
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        // each handler waits for the others, so they must run at the same time.
+        final CyclicBarrier barrier = new CyclicBarrier(3);
+        final DispatchHandle handle = parser.parseAsync(new String[]
+            { "-a", "-b", "-c" }, new CommandListener()
+            {
+                @Override
+                public void handle(final Command command)
+                {
+                    try
+                    {
+                        barrier.await(5, TimeUnit.SECONDS);
+                    }
+                    catch (final Exception e)
+                    {
+                        throw (new IllegalStateException(e));
+                    }
+                }
+            });
+
+        Assert.assertEquals(3, handle.getCommands().size());
+        Assert.assertTrue(handle.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(handle.isDone());
+        Assert.assertTrue(handle.getFailures().isEmpty());
+    }
+
+    @Test
+    public void testHandlerFailure() throws Exception
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        final DispatchHandle handle = parser.parseAsync(new String[]
+            { "-a", "-b" }, new CommandListener()
+            {
+                @Override
+                public void handle(final Command command)
+                {
+                    if (command.getName().equals("-b"))
+                    {
+                        throw (new IllegalStateException("failed"));
+                    }
+                }
+            });
+
+        try
+        {
+            handle.await();
+            Assert.fail();
+        }
+        catch (final DispatchException e)
+        {
+            Assert.assertEquals("-b", e.getCommand().getName());
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(1, handle.getFailures().size());
+    }
+
+    @Test
+    public void testTimeout() throws Exception
+    {
+        final CmdLineParser parser = this._builder.setAsyncDispatch(AsyncDispatch.builder()
+                .setTimeout(50, TimeUnit.MILLISECONDS).build()).build();
+
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final DispatchHandle handle = parser.parseAsync(new String[]
+            { "-a" }, new CommandListener()
+            {
+                @Override
+                public void handle(final Command command)
+                {
+                    try
+                    {
+                        Thread.sleep(10000);
+                    }
+                    catch (final InterruptedException e)
+                    {
+                        interrupted.countDown();
+                    }
+                }
+            });
+
+        try
+        {
+            handle.await();
+            Assert.fail();
+        }
+        catch (final DispatchException e)
+        {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testInterruptIsKept() throws Exception
+    {
+        // the executor runs each task on a new thread and records whether the
+        // thread is still interrupted after the task.
+        final List<Boolean> interruptedList = Collections.synchronizedList(new ArrayList<Boolean>());
+        final CountDownLatch done = new CountDownLatch(2);
+        final Executor executor = new Executor()
+        {
+            @Override
+            public void execute(final Runnable task)
+            {
+                new Thread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        task.run();
+                        interruptedList.add(Thread.currentThread().isInterrupted());
+                        done.countDown();
+                    }
+                }).start();
+            }
+        };
+        final CmdLineParser parser = this._builder.setAsyncDispatch(AsyncDispatch.builder().setExecutor(executor)
+                .setTimeout(50, TimeUnit.MILLISECONDS).build()).build();
+
+        final DispatchHandle handle = parser.parseAsync(new String[]
+            { "-a", "-b" }, new CommandListener()
+            {
+                @Override
+                public void handle(final Command command)
+                {
+                    if (command.getName().equals("-a"))
+                    {
+                        // an interrupt that the dispatch did not make, such
+                        // as a shutdown of the executor.
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    try
+                    {
+                        Thread.sleep(10000);
+                    }
+                    catch (final InterruptedException e)
+                    {
+                        // interrupted by the timeout, the flag is cleared.
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+        try
+        {
+            handle.await();
+            Assert.fail();
+        }
+        catch (final DispatchException e)
+        {
+            Assert.assertEquals("-b", e.getCommand().getName());
+        }
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(interruptedList.contains(Boolean.TRUE));
+        Assert.assertTrue(interruptedList.contains(Boolean.FALSE));
+    }
+
+    @Test
+    public void testCancelBeforeStart() throws Exception
+    {
+        // the executor holds the tasks, so the parse is cancelled after they are
+        // submitted and before they start.
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        final Executor executor = new Executor()
+        {
+            @Override
+            public void execute(final Runnable task)
+            {
+                tasks.add(task);
+            }
+        };
+        final CmdLineParser parser = this._builder.setAsyncDispatch(AsyncDispatch.builder().setExecutor(executor)
+                .build()).build();
+
+        final List<Command> handled = new ArrayList<Command>();
+        final DispatchHandle handle = parser.parseAsync(new String[]
+            { "-a", "-b" }, new CommandListener()
+            {
+                @Override
+                public void handle(final Command command)
+                {
+                    handled.add(command);
+                }
+            });
+
+        handle.cancel();
+        Assert.assertEquals(2, tasks.size());
+        for (final Runnable task : tasks)
+        {
+            task.run();
+            Assert.assertFalse(Thread.interrupted());
+        }
+
+        Assert.assertTrue(handled.isEmpty());
+        Assert.assertTrue(handle.isDone());
+        Assert.assertEquals(2, handle.getFailures().size());
+    }
+
+    @Test
+    public void testCancelAll() throws Exception
+    {
+        final CmdLineParser parser = this._builder.setAsyncDispatch(AsyncDispatch.builder()
+                .setCancellationPolicy(CancellationPolicy.CANCEL_ALL).build()).build();
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final DispatchHandle handle = parser.parseAsync(new String[]
+            { "-a", "-b" }, new CommandListener()
+            {
+                @Override
+                public void handle(final Command command)
+                {
+                    if (command.getName().equals("-a"))
+                    {
+                        try
+                        {
+                            started.countDown();
+                            Thread.sleep(10000);
+                        }
+                        catch (final InterruptedException e)
+                        {
+                            interrupted.countDown();
+                        }
+                    }
+                    else
+                    {
+                        try
+                        {
+                            started.await(5, TimeUnit.SECONDS);
+                        }
+                        catch (final InterruptedException e)
+                        {
+                            // fail anyway.
+                        }
+                        throw (new IllegalStateException("failed"));
+                    }
+                }
+            });
+
+        try
+        {
+            handle.await();
+            Assert.fail();
+        }
+        catch (final DispatchException e)
+        {
+            // the first failure is the command that was cancelled.
+            Assert.assertEquals("-a", e.getCommand().getName());
+            Assert.assertTrue(e.getCause() instanceof CancellationException);
+        }
+        Assert.assertEquals(2, handle.getFailures().size());
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testOrderedByName() throws Exception
+    {
+        final CmdLineParser parser = CmdLineParser.builder().defineCommand("-l, --load, !fileName")
+                .defineCommand("-q, --quit").setAsyncDispatch(AsyncDispatch.builder().setOrderedByName().build())
+                .build();
+
+        final List<String> loaded = Collections.synchronizedList(new ArrayList<String>());
+        final String[] args = new String[200];
+        for (int i = 0; i < args.length; i += 2)
+        {
+            args[i] = (i % 4 == 0 ? "-l" : "--load");
+            args[i + 1] = "file" + i;
+        }
+
+        final DispatchHandle handle = parser.parseAsync(args, new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                Thread.yield();
+                loaded.add(command.getValue("fileName"));
+            }
+        });
+        handle.await();
+
+        Assert.assertEquals(100, loaded.size());
+        for (int i = 0; i < loaded.size(); i++)
+        {
+            Assert.assertEquals("file" + (i * 2), loaded.get(i));
+        }
+    }
+}
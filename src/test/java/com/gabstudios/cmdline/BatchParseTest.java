@@ -0,0 +1,220 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class BatchParseTest
+{
+
+    CmdLineParser _parser;
+
+    @Before
+    public void setUp()
+    {
+        this._parser = CmdLineParser.builder().defineCommand("-f, --file, !file...").defineCommand("--name, !name")
+                .defineCommand("-v, --verbose").defineCommand("--count, !count<int>").build();
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._parser = null;
+        CmdLine.clear();
+    }
+
+    /*
+     * Creates a batch where every 7th command line is not defined and every
+     * 11th has a value that is not an int.
+     */
+    private static List<String[]> createBatch(final int size)
+    {
+        final List<String[]> batch = new ArrayList<String[]>(size);
+        for (int i = 0; i < size; i++)
+        {
+            if (i % 7 == 0)
+            {
+                batch.add(new String[]
+                    { "--nmae", "job" + i });
+            }
+            else if (i % 11 == 0)
+            {
+                batch.add(new String[]
+                    { "--count", "x" + i });
+            }
+            else
+            {
+                batch.add(new String[]
+                    { "--name", "job" + i, "--count=" + i, "-f", "a" + i + ".txt,b.txt" });
+            }
+        }
+        return (batch);
+    }
+
+    private static void assertResults(final List<ParseResult> results, final int size)
+    {
+        Assert.assertEquals(size, results.size());
+        for (int i = 0; i < size; i++)
+        {
+            final ParseResult result = results.get(i);
+            Assert.assertEquals(i, result.getIndex());
+            if (i % 7 == 0)
+            {
+                Assert.assertFalse(result.isValid());
+                Assert.assertTrue(result.getException() instanceof UnsupportedException);
+                Assert.assertTrue(result.getCommands().isEmpty());
+            }
+            else if (i % 11 == 0)
+            {
+                Assert.assertTrue(result.getException() instanceof MatchException);
+            }
+            else
+            {
+                Assert.assertTrue(result.isValid());
+                Assert.assertNull(result.getException());
+                final List<Command> commands = result.getCommands();
+                Assert.assertEquals(3, commands.size());
+                Assert.assertEquals("job" + i, commands.get(0).getValue("name"));
+                Assert.assertEquals(i, commands.get(1).getInt("count"));
+                Assert.assertEquals(Arrays.asList("a" + i + ".txt", "b.txt"), commands.get(2).getValues("file"));
+            }
+        }
+    }
+
+    @Test
+    public void testList()
+    {
+        final List<String[]> batch = BatchParseTest.createBatch(20000);
+        BatchParseTest.assertResults(this._parser.parseAll(batch), 20000);
+    }
+
+    @Test
+    public void testPool()
+    {
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        try
+        {
+            final List<String[]> batch = new LinkedList<String[]>(BatchParseTest.createBatch(1001));
+            BatchParseTest.assertResults(this._parser.parseAll(batch, pool), 1001);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testStream()
+    {
+        final List<String[]> batch = BatchParseTest.createBatch(5000);
+        BatchParseTest.assertResults(this._parser.parseAll(IntStream.range(0, 5000).parallel().mapToObj(batch::get)),
+                5000);
+    }
+
+    @Test
+    public void testSmall()
+    {
+        Assert.assertTrue(this._parser.parseAll(new ArrayList<String[]>()).isEmpty());
+        BatchParseTest.assertResults(this._parser.parseAll(BatchParseTest.createBatch(2)), 2);
+    }
+
+    @Test
+    public void testNotValid()
+    {
+        final List<String[]> batch = new ArrayList<String[]>();
+        batch.add(new String[0]);
+        batch.add(null);
+        batch.add(new String[]
+            { "-v" });
+
+        final List<ParseResult> results = this._parser.parseAll(batch);
+        Assert.assertFalse(results.get(0).isValid());
+        Assert.assertFalse(results.get(1).isValid());
+        Assert.assertEquals("-v", results.get(2).getCommands().get(0).getName());
+    }
+
+    @Test
+    public void testNoListener()
+    {
+        final List<Command> handled = new ArrayList<Command>();
+        final CmdLineParser parser = CmdLineParser.builder().defineCommand("-v").setCommandListener(
+                new CommandListener()
+                {
+                    @Override
+                    public void handle(final Command command)
+                    {
+                        handled.add(command);
+                    }
+                }).build();
+
+        Assert.assertTrue(parser.parseAll(Arrays.asList(new String[][]
+            {
+                { "-v" } })).get(0).isValid());
+        Assert.assertTrue(handled.isEmpty());
+    }
+
+    @Test
+    public void testSystemProperty()
+    {
+        final List<ParseResult> results = this._parser.parseAll(Arrays.asList(new String[][]
+            {
+                { "-Dcmdline.batch.test", "a", "-v" },
+                { "-Dcmdline.batch.test", "b" } }));
+
+        Assert.assertNull(System.getProperty("cmdline.batch.test"));
+        final List<Command> commands = results.get(0).getCommands();
+        Assert.assertEquals(2, commands.size());
+        Assert.assertEquals("-Dcmdline.batch.test", commands.get(0).getName());
+        Assert.assertEquals("a", commands.get(0).getValue("cmdline.batch.test"));
+        Assert.assertEquals("b", results.get(1).getCommands().get(0).getValue("cmdline.batch.test"));
+    }
+
+    @Test
+    public void testCmdLine()
+    {
+        CmdLine.defineCommand("-v");
+        final List<ParseResult> results = CmdLine.parseAll(Arrays.asList(new String[][]
+            {
+                { "-v" },
+                { "-x" } }));
+
+        Assert.assertTrue(results.get(0).isValid());
+        Assert.assertFalse(results.get(1).isValid());
+        Assert.assertEquals(1, CmdLine.parse(new String[]
+            { "-v" }).size());
+    }
+}
@@ -321,4 +321,21 @@ public class CmdLineNegativeTest
         }
     }
     
+    @Test
+    public void testDefineCommand15()
+    {
+        
+        try
+        {
+            
+            CmdLine.defineCommand("file, !fileName, :file[\\d.txt");
+            
+            Assert.fail();
+        }
+        catch (UnsupportedException e)
+        {
+            Assert.assertTrue(true);
+        }
+    }
+    
 }
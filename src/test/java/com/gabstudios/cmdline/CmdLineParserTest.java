@@ -0,0 +1,426 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class CmdLineParserTest
+{
+
+    CmdLineParser.Builder _builder;
+
+    @Before
+    public void setUp()
+    {
+        this._builder = CmdLineParser.builder()
+                .defineCommand("-f, --file, !fileName, ?fileNames..., :file\\d.txt, #Load files into the system")
+                .defineCommand("-q, --quit, #Quit the application");
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._builder = null;
+    }
+
+    @Test
+    public void testParse()
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        final List<Command> commands = parser.parse(new String[]
+            { "-f", "file1.txt", "file2.txt", "-q" });
+
+        Assert.assertEquals(2, commands.size());
+        Assert.assertEquals("-f", commands.get(0).getName());
+        Assert.assertEquals("file1.txt", commands.get(0).getValues("fileName").get(0));
+        Assert.assertEquals("file2.txt", commands.get(0).getValues("fileNames").get(0));
+        Assert.assertEquals("-q", commands.get(1).getName());
+
+        // each parse returns only its own commands.
+        Assert.assertEquals(1, parser.parse(new String[]
+            { "--quit" }).size());
+    }
+
+    @Test
+    public void testParseManyCommands()
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        final String[] args = new String[200];
+        for (int i = 0; i < args.length; i += 2)
+        {
+            args[i] = "-f";
+            args[i + 1] = "file" + (i % 10) + ".txt";
+        }
+
+        final List<Command> commands = parser.parse(args);
+
+        Assert.assertEquals(100, commands.size());
+        Assert.assertEquals("file8.txt", commands.get(99).getValues("fileName").get(0));
+    }
+
+    @Test
+    public void testParseSystemPropertyInList()
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        final List<Command> commands = parser.parse(new String[]
+            { "-f", "file1.txt", "file2.txt", "-Dcmdline.parser.test=true", "file3.txt", "-q" });
+
+        Assert.assertEquals(3, commands.size());
+        Assert.assertEquals("-Dcmdline.parser.test", commands.get(0).getName());
+        Assert.assertEquals("true", System.getProperty("cmdline.parser.test"));
+        Assert.assertEquals(2, commands.get(1).getValues("fileNames").size());
+        Assert.assertEquals("-q", commands.get(2).getName());
+    }
+
+    @Test
+    public void testRaisedLimits()
+    {
+        final CmdLineParser parser = this._builder.setLimits(ParseLimits.builder().setMaxArgumentCount(200000)
+                .setMaxTokenCount(200000).setMaxListSize(200000).build()).build();
+
+        final String[] args = new String[100002];
+        args[0] = "-f";
+        for (int i = 1; i < args.length - 1; i++)
+        {
+            args[i] = "file" + (i % 10) + ".txt";
+        }
+        args[args.length - 1] = "-q";
+
+        final List<Command> commands = parser.parse(args);
+
+        Assert.assertEquals(2, commands.size());
+        Assert.assertEquals(99999, commands.get(0).getValues("fileNames").size());
+    }
+
+    @Test
+    public void testLimits()
+    {
+        this.assertLimitException(ParseLimits.builder().setMaxTokenCount(3).build(), "-f", "file1.txt", "file2.txt",
+                "-q");
+        this.assertLimitException(ParseLimits.builder().setMaxListSize(1).build(), "-f", "file1.txt", "file2.txt",
+                "file3.txt");
+        this.assertLimitException(ParseLimits.builder().setMaxValueLength(5).build(), "-f", "file1.txt");
+        this.assertLimitException(ParseLimits.builder().setMaxInputSize(10).build(), "-f", "file1.txt", "-q");
+        this.assertLimitException(ParseLimits.builder().setMaxArgumentCount(2).build(), "-f", "file1.txt", "-q");
+    }
+
+    @Test
+    public void testDefaultLimits()
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        // a list of more than 256 values in a single argument parses, as it
+        // did before the limits could be set.
+        final StringBuilder buffer = new StringBuilder("file0.txt");
+        for (int i = 1; i < 1000; i++)
+        {
+            buffer.append(",").append("file").append(i % 10).append(".txt");
+        }
+        final List<Command> commands = parser.parse(new String[]
+            { "-f", buffer.toString(), "-q" });
+        Assert.assertEquals(999, commands.get(0).getValues("fileNames").size());
+
+        // more than 256 arguments do not.
+        final String[] args = new String[257];
+        args[0] = "-f";
+        for (int i = 1; i < args.length; i++)
+        {
+            args[i] = "file" + (i % 10) + ".txt";
+        }
+        this.assertLimitException(ParseLimits.DEFAULT, args);
+    }
+
+    private void assertLimitException(final ParseLimits limits, final String... args)
+    {
+        try
+        {
+            this._builder.setLimits(limits).build().parse(args);
+
+            Assert.fail();
+        }
+        catch (final LimitException e)
+        {
+            Assert.assertTrue(true);
+        }
+    }
+
+    @Test
+    public void testBuilderChangesAreNotSeen()
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        this._builder.defineCommand("-s, --save, #Save the application");
+
+        try
+        {
+            parser.parse(new String[]
+                { "-s" });
+
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            Assert.assertTrue(true);
+        }
+
+        Assert.assertEquals(1, this._builder.build().parse(new String[]
+            { "-s" }).size());
+    }
+
+    @Test
+    public void testFailedDefinitionLeavesBuilderUntouched()
+    {
+        try
+        {
+            this._builder.defineCommand("-s, --save, !fileName");
+
+            Assert.fail();
+        }
+        catch (final DuplicateException e)
+        {
+            Assert.assertTrue(true);
+        }
+
+        // the names of the failed definition were not added.
+        this._builder.defineCommand("-s, --save, !saveName");
+    }
+
+    @Test
+    public void testConcurrentParse() throws Exception
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            final List<Future<List<Command>>> futures = new ArrayList<Future<List<Command>>>();
+            for (int i = 0; i < 200; i++)
+            {
+                final String fileName = "file" + (i % 10) + ".txt";
+                futures.add(executor.submit(new Callable<List<Command>>()
+                {
+                    @Override
+                    public List<Command> call()
+                    {
+                        return (parser.parse(new String[]
+                            { "--file=" + fileName, "-q" }));
+                    }
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++)
+            {
+                final List<Command> commands = futures.get(i).get();
+                Assert.assertEquals(2, commands.size());
+                Assert.assertEquals("file" + (i % 10) + ".txt", commands.get(0).getValues("fileName").get(0));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParseTracer()
+    {
+        final List<String> steps = new ArrayList<String>();
+        final CmdLineParser parser = this._builder.setParseTracer(new ParseTracer()
+        {
+            @Override
+            public void commandMatched(final String commandName, final int tokenIndex)
+            {
+                steps.add("command " + commandName + " " + tokenIndex);
+            }
+
+            @Override
+            public void tokenEmitted(final CharSequence source, final int start, final int end)
+            {
+                steps.add("token " + source.subSequence(start, end));
+            }
+
+            @Override
+            public void validationFailed(final String commandName, final RuntimeException exception)
+            {
+                steps.add("failed " + commandName);
+            }
+
+            @Override
+            public void variableBound(final String commandName, final String variableName, final String value)
+            {
+                steps.add("bound " + variableName + "=" + value);
+            }
+        }).build();
+
+        parser.parse(new String[]
+            { "--file=file1.txt", "-q" });
+
+        Assert.assertEquals("[token --file, token file1.txt, token -q, command --file 0, bound fileName=file1.txt, "
+                + "command -q 2]", steps.toString());
+
+        steps.clear();
+        try
+        {
+            parser.parse(new String[]
+                { "-f", "bad.txt" });
+            Assert.fail();
+        }
+        catch (final MatchException e)
+        {
+            Assert.assertEquals("[token -f, token bad.txt, command -f 0, failed -f]", steps.toString());
+        }
+    }
+
+    @Test
+    public void testCommandValues()
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        final List<Command> commands = parser.parse(new String[]
+            { "-f", "file1.txt", "file2.txt", "file3.txt", "-q" });
+
+        final Command command = commands.get(0);
+        Assert.assertTrue(command.hasVariables());
+        Assert.assertEquals(1, command.getValues("fileName").size());
+        Assert.assertEquals(2, command.getValues("fileNames").size());
+        Assert.assertEquals("file3.txt", command.getValues("fileNames").get(1));
+        Assert.assertTrue(command.getValues("notDefined").isEmpty());
+        Assert.assertEquals("Command [_name=-f, _variables={fileName=[file1.txt], fileNames=[file2.txt, file3.txt]}]",
+                command.toString());
+
+        command.addVariable("fileNames", "file4.txt");
+        Assert.assertEquals(3, command.getValues("fileNames").size());
+
+        Assert.assertFalse(commands.get(1).hasVariables());
+    }
+
+    @Test
+    public void testCommandValueViews()
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        final Command command = parser.parse(new String[]
+            { "-f", "file1.txt", "file2.txt", "file3.txt" }).get(0);
+
+        Assert.assertEquals("file1.txt", command.getValue("fileName"));
+        Assert.assertEquals("file2.txt", command.getValue("fileNames"));
+        Assert.assertNull(command.getValue("notDefined"));
+        Assert.assertEquals("none", command.getValue("notDefined", "none"));
+
+        final List<String> values = new ArrayList<String>();
+        command.forEachValue("fileNames", values::add);
+        Assert.assertEquals(command.getValues("fileNames"), values);
+
+        try
+        {
+            command.getValues("fileNames").add("file4.txt");
+            Assert.fail();
+        }
+        catch (final UnsupportedOperationException e)
+        {
+            Assert.assertEquals(2, command.getValues("fileNames").size());
+        }
+    }
+
+    private enum Level
+    {
+        LOW, HIGH
+    }
+
+    @Test
+    public void testTypedValues()
+    {
+        final CmdLineParser parser = CmdLineParser.builder()
+                .defineType("level", ValueConverters.forEnum(Level.class))
+                .defineCommand("-r, !port<int>, !size<long>, !ratio<double>, !debug<boolean>, ?level<level>, ?paths<path>...")
+                .defineCommand("-w, ?timeout<duration>")
+                .build();
+
+        final List<Command> commands = parser.parse(new String[]
+            { "-r", "8080", "12345678901", "0.5", "TRUE", "high", "a.txt", "b.txt", "-w", "PT30S" });
+
+        final Command command = commands.get(0);
+        Assert.assertEquals(8080, command.getInt("port"));
+        Assert.assertEquals(8080L, command.getLong("port"));
+        Assert.assertEquals(12345678901L, command.getLong("size"));
+        Assert.assertEquals(0.5, command.getDouble("ratio"), 0.0);
+        Assert.assertTrue(command.getBoolean("debug"));
+        Assert.assertEquals(Integer.valueOf(8080), command.getValueAs("port", Integer.class));
+        Assert.assertEquals(Level.HIGH, command.getValueAs("level", Level.class));
+        Assert.assertEquals(2, command.getValuesAs("paths", Path.class).size());
+        Assert.assertEquals(Paths.get("b.txt"), command.getValuesAs("paths", Path.class).get(1));
+        Assert.assertEquals("8080", command.getValue("port"));
+        Assert.assertEquals(Duration.ofSeconds(30), commands.get(1).getValueAs("timeout", Duration.class));
+
+        try
+        {
+            command.getInt("size");
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            // expected - size is a long.
+        }
+
+        try
+        {
+            parser.parse(new String[]
+                { "-r", "80a", "1", "1.0", "false" });
+            Assert.fail();
+        }
+        catch (final MatchException e)
+        {
+            Assert.assertTrue(e.getCause() instanceof NumberFormatException);
+        }
+
+        try
+        {
+            CmdLineParser.builder().defineCommand("-x, !value<unknown>");
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            // expected - the type is not defined.
+        }
+    }
+}
@@ -0,0 +1,342 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class CommandHandlerTest
+{
+
+    /*
+     * A public handler. Its methods are bound with LambdaMetafactory.
+     */
+    public static class PublicHandlers
+    {
+        final List<String> _names = new ArrayList<String>();
+
+        @OnCommand("--load")
+        public void load(final Command command)
+        {
+            this._names.add("load:" + command.getName());
+        }
+
+        @OnCommand({ "-s", "-v" })
+        public String saveOrVerify(final Command command)
+        {
+            this._names.add("save:" + command.getName());
+            return ("ignored");
+        }
+    }
+
+    /*
+     * A private handler. Its methods are bound with a MethodHandle.
+     */
+    private static class PrivateHandlers
+    {
+        final List<String> _names = new ArrayList<String>();
+
+        @OnCommand("-l")
+        private void load(final Command command)
+        {
+            this._names.add("load:" + command.getValue("fileName"));
+        }
+
+        @OnCommand("-s")
+        void save(final Command command) throws IOException
+        {
+            throw (new IOException("expected by the test"));
+        }
+    }
+
+    /*
+     * A handler that binds two names of one definition to one method.
+     */
+    public static class AliasHandlers
+    {
+        final List<String> _names = new ArrayList<String>();
+
+        @OnCommand({ "-s", "--save" })
+        public void save(final Command command)
+        {
+            this._names.add("save:" + command.getName());
+        }
+    }
+
+    /*
+     * A handler that binds two names of one definition to two methods.
+     */
+    public static class ConflictHandlers
+    {
+        @OnCommand("-s")
+        public void save(final Command command)
+        {
+            // not called.
+        }
+
+        @OnCommand("--save")
+        public void saveAgain(final Command command)
+        {
+            // not called.
+        }
+    }
+
+    /*
+     * A subclass that overrides a marked method of its parent and marks it the
+     * same way.
+     */
+    public static class OverrideHandlers extends AliasHandlers
+    {
+        @Override
+        @OnCommand({ "-s", "--save" })
+        public void save(final Command command)
+        {
+            this._names.add("override:" + command.getName());
+        }
+    }
+
+    CmdLineParser.Builder _builder;
+
+    List<String> _fallbackNames;
+
+    CommandListener _fallback;
+
+    @Before
+    public void setUp()
+    {
+        this._builder = CmdLineParser.builder().defineCommand("-l, --load, !fileName")
+                .defineCommand("-s, --save").defineCommand("-v, --verify").defineCommand("-q, --quit");
+        this._fallbackNames = new ArrayList<String>();
+        this._fallback = new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                CommandHandlerTest.this._fallbackNames.add(command.getName());
+            }
+        };
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._builder = null;
+        this._fallbackNames = null;
+        this._fallback = null;
+        CmdLine.clear();
+    }
+
+    @Test
+    public void testDefineHandler()
+    {
+        final List<String> names = new ArrayList<String>();
+        final CmdLineParser parser = this._builder.defineHandler("--save", new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                names.add(command.getName());
+            }
+        }).build();
+
+        final List<Command> commands = parser.parse(new String[]
+            { "-s", "-q", "--save" }, this._fallback);
+
+        Assert.assertEquals(3, commands.size());
+        Assert.assertEquals(Arrays.asList("-s", "--save"), names);
+        Assert.assertEquals(Arrays.asList("-q"), this._fallbackNames);
+    }
+
+    @Test
+    public void testPublicHandlers()
+    {
+        final PublicHandlers handlers = new PublicHandlers();
+        final CmdLineParser parser = this._builder.defineHandlers(handlers).build();
+
+        parser.parse(new String[]
+            { "-l", "file1.txt", "-v", "-q", "--save" }, this._fallback);
+
+        Assert.assertEquals(Arrays.asList("load:-l", "save:-v", "save:--save"), handlers._names);
+        Assert.assertEquals(Arrays.asList("-q"), this._fallbackNames);
+    }
+
+    @Test
+    public void testPrivateHandlers()
+    {
+        final PrivateHandlers handlers = new PrivateHandlers();
+        final CmdLineParser parser = this._builder.defineHandlers(handlers).build();
+
+        parser.parse(new String[]
+            { "--load", "file1.txt" });
+        Assert.assertEquals(Arrays.asList("load:file1.txt"), handlers._names);
+
+        try
+        {
+            parser.parse(new String[]
+                { "-s" });
+            Assert.fail();
+        }
+        catch (final DispatchException e)
+        {
+            Assert.assertEquals("-s", e.getCommand().getName());
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testNoFallback()
+    {
+        final PublicHandlers handlers = new PublicHandlers();
+        final CmdLineParser parser = this._builder.defineHandlers(handlers).build();
+
+        final List<Command> commands = parser.parse(new String[]
+            { "-q", "-s" });
+
+        Assert.assertEquals(2, commands.size());
+        Assert.assertEquals(Arrays.asList("save:-s"), handlers._names);
+    }
+
+    @Test
+    public void testAliases()
+    {
+        final AliasHandlers handlers = new AliasHandlers();
+        final CmdLineParser parser = this._builder.defineHandlers(handlers).build();
+
+        parser.parse(new String[]
+            { "-s", "--save", "-q" }, this._fallback);
+
+        Assert.assertEquals(Arrays.asList("save:-s", "save:--save"), handlers._names);
+        Assert.assertEquals(Arrays.asList("-q"), this._fallbackNames);
+    }
+
+    @Test
+    public void testAliasesOfTwoMethods()
+    {
+        try
+        {
+            this._builder.defineHandlers(new ConflictHandlers());
+            Assert.fail();
+        }
+        catch (final DuplicateException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("-s"));
+        }
+    }
+
+    @Test
+    public void testOverride()
+    {
+        final OverrideHandlers handlers = new OverrideHandlers();
+        final CmdLineParser parser = this._builder.defineHandlers(handlers).build();
+
+        parser.parse(new String[]
+            { "--save", "-s" });
+
+        Assert.assertEquals(Arrays.asList("override:--save", "override:-s"), handlers._names);
+    }
+
+    @Test
+    public void testSystemProperty()
+    {
+        final List<String> names = new ArrayList<String>();
+        final CmdLineParser parser = this._builder.defineHandler("--load", new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                names.add(command.getName());
+            }
+        }).build();
+
+        try
+        {
+            final List<Command> commands = parser.parse(new String[]
+                { "-Dcmdline.handler.test", "bar", "-q" }, this._fallback);
+
+            Assert.assertEquals(2, commands.size());
+            Assert.assertTrue(names.isEmpty());
+            Assert.assertEquals(Arrays.asList("-Dcmdline.handler.test", "-q"), this._fallbackNames);
+        }
+        finally
+        {
+            System.clearProperty("cmdline.handler.test");
+        }
+    }
+
+    @Test
+    public void testUndefinedCommand()
+    {
+        try
+        {
+            this._builder.defineHandler("-x", this._fallback);
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("-x"));
+        }
+    }
+
+    @Test
+    public void testDuplicateHandler()
+    {
+        this._builder.defineHandler("-v", this._fallback);
+        try
+        {
+            this._builder.defineHandlers(new PublicHandlers());
+            Assert.fail();
+        }
+        catch (final DuplicateException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("-v"));
+        }
+
+        // the failed call did not set the handler of --load.
+        this._builder.defineHandler("--load", this._fallback);
+    }
+
+    @Test
+    public void testCmdLine()
+    {
+        final PublicHandlers handlers = new PublicHandlers();
+        CmdLine.defineCommand("-l, --load, !fileName").defineCommand("-q, --quit").defineCommand("-s, --save")
+                .defineCommand("-v, --verify").defineHandlers(handlers);
+
+        CmdLine.parse(new String[]
+            { "--load", "file1.txt", "-q" }, this._fallback);
+
+        Assert.assertEquals(Arrays.asList("load:--load"), handlers._names);
+        Assert.assertEquals(Arrays.asList("-q"), this._fallbackNames);
+    }
+}
@@ -98,4 +98,51 @@ public class CommandLineTokenizerTest
         Assert.assertTrue(tokens.get(3).equals("-Dorg.gabsocial.cmdline.debug"));
         Assert.assertTrue(tokens.get(4).equals("true"));
     }
+
+    @Test
+    public void testTokenizerOnlyDelimiters()
+    {
+        final String[] inputTokens =
+            { "=", "==", ",", ",,", "=,,", "" };
+
+        final List<String> tokens = this._tokenizer.tokenize(inputTokens);
+
+        Assert.assertTrue(tokens.size() == 3);
+        Assert.assertTrue(tokens.get(0).equals("=="));
+        Assert.assertTrue(tokens.get(1).equals(",,"));
+        Assert.assertTrue(tokens.get(2).equals(",,"));
+    }
+
+    @Test
+    public void testTokenizerTrimsValues()
+    {
+        final String[] inputTokens =
+            { " -file = file1.txt , , file2.txt " };
+
+        final List<String> tokens = this._tokenizer.tokenize(inputTokens);
+
+        Assert.assertTrue(tokens.size() == 4);
+        Assert.assertTrue(tokens.get(0).equals("-file"));
+        Assert.assertTrue(tokens.get(1).equals("file1.txt"));
+        Assert.assertTrue(tokens.get(2).equals(""));
+        Assert.assertTrue(tokens.get(3).equals("file2.txt"));
+    }
+
+    @Test
+    public void testTokenizerLongList()
+    {
+        final StringBuilder builder = new StringBuilder("-file=");
+        for (int i = 0; i < 100000; i++)
+        {
+            builder.append("file").append(i).append(".txt,");
+        }
+        final String[] inputTokens =
+            { builder.toString() };
+
+        final List<String> tokens = this._tokenizer.tokenize(inputTokens);
+
+        Assert.assertTrue(tokens.size() == 100001);
+        Assert.assertTrue(tokens.get(0).equals("-file"));
+        Assert.assertTrue(tokens.get(100000).equals("file99999.txt"));
+    }
 }
@@ -0,0 +1,300 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class CommandShellTest
+{
+
+    CmdLineParser       _parser;
+
+    List<Command>       _commands;
+
+    List<String>        _errors;
+
+    CommandListener     _listener;
+
+    LineErrorListener   _errorListener;
+
+    @Before
+    public void setUp()
+    {
+        this._parser = CmdLineParser.builder().defineCommand("-f, --file, !file...").defineCommand("--name, !name")
+                .defineCommand("-v, --verbose").defineCommand("--count, !count<int>").build();
+        this._commands = new ArrayList<Command>();
+        this._errors = new ArrayList<String>();
+        this._listener = new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                CommandShellTest.this._commands.add(command);
+            }
+        };
+        this._errorListener = new LineErrorListener()
+        {
+            @Override
+            public void handle(final long lineNumber, final String line, final RuntimeException exception)
+            {
+                CommandShellTest.this._errors.add(lineNumber + ":" + line + ":" + exception.getClass().getSimpleName());
+            }
+        };
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._parser = null;
+        CmdLine.clear();
+    }
+
+    private CommandShell createShell()
+    {
+        return (CommandShell.builder().setParser(this._parser).setCommandListener(this._listener)
+                .setLineErrorListener(this._errorListener).build());
+    }
+
+    @Test
+    public void testLines() throws IOException
+    {
+        final CommandShell shell = this.createShell();
+        final long lines = shell.run(new ByteArrayInputStream(
+                "--name Bob\n  -v   --count=3\r\n-f a.txt,b.txt c.txt".getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(3, lines);
+        Assert.assertEquals(4, this._commands.size());
+        Assert.assertEquals("Bob", this._commands.get(0).getValue("name"));
+        Assert.assertEquals("-v", this._commands.get(1).getName());
+        Assert.assertEquals(3, this._commands.get(2).getInt("count"));
+        Assert.assertEquals(Arrays.asList("a.txt", "b.txt", "c.txt"), this._commands.get(3).getValues("file"));
+        Assert.assertTrue(this._errors.isEmpty());
+        Assert.assertEquals(0, shell.getErrorCount());
+    }
+
+    @Test
+    public void testErrorContinues() throws IOException
+    {
+        final CommandShell shell = this.createShell();
+        shell.run(new StringReader("--name Bob\n--nmae Bob\n--count x\n-v\n"));
+
+        Assert.assertEquals(2, this._commands.size());
+        Assert.assertEquals("-v", this._commands.get(1).getName());
+        Assert.assertEquals(Arrays.asList("2:--nmae Bob:UnsupportedException", "3:--count x:MatchException"),
+                this._errors);
+        Assert.assertEquals(4, shell.getLineCount());
+        Assert.assertEquals(2, shell.getErrorCount());
+    }
+
+    @Test
+    public void testListenerError() throws IOException
+    {
+        final CommandShell shell = CommandShell.builder().setParser(this._parser)
+                .setCommandListener(new CommandListener()
+                {
+                    @Override
+                    public void handle(final Command command)
+                    {
+                        if (command.getName().equals("-v"))
+                        {
+                            throw (new IllegalStateException("Error: verbose"));
+                        }
+                        CommandShellTest.this._commands.add(command);
+                    }
+                }).setLineErrorListener(this._errorListener).build();
+        shell.run(new StringReader("-v\n--name Bob\n"));
+
+        Assert.assertEquals(1, this._commands.size());
+        Assert.assertEquals(Arrays.asList("1:-v:IllegalStateException"), this._errors);
+    }
+
+    @Test
+    public void testSkipped() throws IOException
+    {
+        final CommandShell shell = this.createShell();
+        final long lines = shell.run(new StringReader("\n   \n# a comment\n  # another\n-v\n\n"));
+
+        Assert.assertEquals(6, lines);
+        Assert.assertEquals(1, this._commands.size());
+        Assert.assertTrue(this._errors.isEmpty());
+    }
+
+    @Test
+    public void testLineLimit() throws IOException
+    {
+        this._parser = CmdLineParser.builder().defineCommand("--name, !name")
+                .setLimits(ParseLimits.builder().setMaxInputSize(32).build()).build();
+        final StringBuilder script = new StringBuilder("--name Bob\n--name ");
+        for (int i = 0; i < 20000; i++)
+        {
+            script.append('x');
+        }
+        script.append("\n--name Amy\n");
+
+        final CommandShell shell = this.createShell();
+        shell.run(new StringReader(script.toString()));
+
+        Assert.assertEquals(2, this._commands.size());
+        Assert.assertEquals("Amy", this._commands.get(1).getValue("name"));
+        Assert.assertEquals(Arrays.asList("2::LimitException"), this._errors);
+    }
+
+    @Test
+    public void testStop() throws IOException
+    {
+        final CommandShell[] shell = new CommandShell[1];
+        shell[0] = CommandShell.builder().setParser(this._parser).setCommandListener(new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                CommandShellTest.this._commands.add(command);
+                if (command.getName().equals("-v"))
+                {
+                    shell[0].stop();
+                }
+            }
+        }).build();
+
+        final long lines = shell[0].run(new StringReader("--name Bob\n-v\n--name Amy\n"));
+
+        Assert.assertEquals(2, lines);
+        Assert.assertEquals(2, this._commands.size());
+    }
+
+    @Test
+    public void testStopKeepsInput() throws IOException
+    {
+        final CommandShell[] shell = new CommandShell[1];
+        shell[0] = CommandShell.builder().setParser(this._parser).setCommandListener(new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                CommandShellTest.this._commands.add(command);
+                if (command.getName().equals("-v"))
+                {
+                    shell[0].stop();
+                }
+            }
+        }).build();
+
+        // the lines after the stop are read into the buffer with the first
+        // line, and are parsed by the next run.
+        final ByteArrayInputStream stream = new ByteArrayInputStream(
+                "--name Bob\n-v\n--name Amy\n-v\n--name Eve".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals(2, shell[0].run(stream));
+        Assert.assertEquals(2, shell[0].run(stream));
+        Assert.assertEquals(1, shell[0].run(stream));
+        Assert.assertEquals(0, shell[0].run(stream));
+
+        Assert.assertEquals(5, this._commands.size());
+        Assert.assertEquals("Amy", this._commands.get(2).getValue("name"));
+        Assert.assertEquals("Eve", this._commands.get(4).getValue("name"));
+        Assert.assertEquals(5, shell[0].getLineCount());
+
+        // another stream does not see the chars of the last one.
+        this._commands.clear();
+        final StringReader reader = new StringReader("-v\n--name Bob\n");
+        shell[0].run(reader);
+        Assert.assertEquals(1, shell[0].run(new StringReader("--name Amy\n")));
+        Assert.assertEquals("Amy", this._commands.get(1).getValue("name"));
+    }
+
+    @Test
+    public void testHandlers() throws IOException
+    {
+        final List<Command> handled = new ArrayList<Command>();
+        this._parser = CmdLineParser.builder().defineCommand("--name, !name").defineCommand("-v")
+                .defineHandler("-v", new CommandListener()
+                {
+                    @Override
+                    public void handle(final Command command)
+                    {
+                        handled.add(command);
+                    }
+                }).build();
+
+        this.createShell().run(new StringReader("-v --name Bob\n"));
+
+        Assert.assertEquals(1, handled.size());
+        Assert.assertEquals(1, this._commands.size());
+        Assert.assertEquals("Bob", this._commands.get(0).getValue("name"));
+    }
+
+    @Test
+    public void testManyLines() throws IOException
+    {
+        final StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 50000; i++)
+        {
+            script.append("--count ").append(i).append(" -f a").append(i).append(".txt\n");
+        }
+
+        final CommandShell shell = this.createShell();
+        Assert.assertEquals(50000, shell.run(new StringReader(script.toString())));
+
+        Assert.assertEquals(100000, this._commands.size());
+        Assert.assertEquals(49999, this._commands.get(99998).getInt("count"));
+        Assert.assertEquals("a49999.txt", this._commands.get(99999).getValue("file"));
+        Assert.assertTrue(this._errors.isEmpty());
+    }
+
+    @Test
+    public void testCmdLine() throws IOException
+    {
+        CmdLine.defineCommand("--name, !name").defineCommand("-v");
+        final long lines = CmdLine.runShell(new ByteArrayInputStream(
+                "--name Bob\n-v\n".getBytes(StandardCharsets.UTF_8)), this._listener);
+
+        Assert.assertEquals(2, lines);
+        Assert.assertEquals(2, this._commands.size());
+        Assert.assertEquals(1, CmdLine.parse(new String[]
+            { "-v" }).size());
+
+        // a line that fails goes to the error listener, or to the log if there
+        // is no error listener.
+        Assert.assertEquals(2, CmdLine.runShell(new ByteArrayInputStream(
+                "--nmae Bob\n-v\n".getBytes(StandardCharsets.UTF_8)), this._listener, this._errorListener));
+        Assert.assertEquals(Arrays.asList("1:--nmae Bob:UnsupportedException"), this._errors);
+        Assert.assertEquals(1, CmdLine.runShell(new ByteArrayInputStream(
+                "--nmae Bob\n".getBytes(StandardCharsets.UTF_8)), this._listener));
+        Assert.assertEquals(1, this._errors.size());
+    }
+}
@@ -0,0 +1,284 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class DefineCommandProcessorTest
+{
+
+    @DefineCommand(names = { "-f", "--file" }, requiredList = "file")
+    @DefineCommand(names = "--count", required = "count<int>")
+    @DefineCommand(names = { "-v", "--verbose" }, description = "Be extra verbose")
+    @DefineCommand(names = "--range", required = { "low<long>", "high<long>" })
+    @DefineCommand(names = "--name", required = "name", regex = "^[A-Z][a-z]+$")
+    @DefineCommand(names = "--title", optional = "title", optionalList = "subtitles", regex = "^[A-Z][a-z]+$")
+    static class Options
+    {
+        // the commands are generated.
+    }
+
+    private static final String[] ARGS = ParseFixtures.args("--title", "Big", "Red", "Dog");
+
+    CmdLineParser.Builder _builder;
+
+    @Before
+    public void setUp()
+    {
+        this._builder = ParseFixtures.defineCommands(CmdLineParser.builder())
+                .defineCommand("--title, ?title, ?subtitles..., :^[A-Z][a-z]+$");
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._builder = null;
+        CmdLine.clear();
+    }
+
+    /*
+     * Compiles the source with the processor and returns the errors.
+     */
+    private List<Diagnostic<? extends JavaFileObject>> compile(final String source) throws IOException
+    {
+        final Path directory = Files.createTempDirectory("processor");
+        final Path file = directory.resolve("BadOptions.java");
+        Files.write(file, source.getBytes("UTF-8"));
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null))
+        {
+            final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-proc:only", "-classpath", System.getProperty("java.class.path"), "-s",
+                            directory.toString()),
+                    null, fileManager.getJavaFileObjects(file.toFile()));
+            task.setProcessors(Arrays.asList(new DefineCommandProcessor()));
+            task.call();
+        }
+        finally
+        {
+            for (final Path path : Files.newDirectoryStream(directory))
+            {
+                Files.delete(path);
+            }
+            Files.delete(directory);
+        }
+        return (diagnostics.getDiagnostics());
+    }
+
+    @Test
+    public void testMatchesDefineCommand()
+    {
+        final CmdLineParser defined = this._builder.build();
+        final CmdLineParser generated = CmdLineParser.builder()
+                .defineCommands(new DefineCommandProcessorTest_OptionsCommands()).build();
+
+        Assert.assertEquals(defined.parse(ARGS).toString(), generated.parse(ARGS).toString());
+        Assert.assertEquals(ParseFixtures.suggest(defined, "--verbsoe"), ParseFixtures.suggest(generated, "--verbsoe"));
+
+        final List<Command> commands = generated.parse(ARGS);
+        Assert.assertEquals(3, commands.get(1).getInt("count"));
+        Assert.assertEquals(2L, commands.get(3).getValueAs("high", Long.class).longValue());
+        Assert.assertEquals(Arrays.asList("Red", "Dog"), commands.get(5).getValues("subtitles"));
+    }
+
+    @Test
+    public void testRegexIsKept()
+    {
+        final CmdLineParser generated = CmdLineParser.builder()
+                .defineCommands(new DefineCommandProcessorTest_OptionsCommands()).build();
+        try
+        {
+            generated.parse(new String[]
+                { "--name", "bob" });
+            Assert.fail();
+        }
+        catch (final MatchException e)
+        {
+            Assert.assertTrue(e.getMessage().startsWith("Error: "));
+        }
+    }
+
+    @Test
+    public void testDefineAfterGenerated()
+    {
+        final CmdLineParser.Builder builder = CmdLineParser.builder()
+                .defineCommands(new DefineCommandProcessorTest_OptionsCommands());
+        builder.defineCommand("-q, --quiet");
+
+        final List<Command> commands = builder.build().parse(new String[]
+            { "-q", "--count", "7" });
+        Assert.assertEquals("-q", commands.get(0).getName());
+        Assert.assertEquals(7, commands.get(1).getInt("count"));
+
+        try
+        {
+            builder.defineCommand("--other, !count");
+            Assert.fail();
+        }
+        catch (final DuplicateException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("count"));
+        }
+    }
+
+    @Test
+    public void testGeneratedAfterDefine()
+    {
+        try
+        {
+            this._builder.defineCommands(new DefineCommandProcessorTest_OptionsCommands());
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            Assert.assertTrue(e.getMessage().startsWith("Error: "));
+        }
+    }
+
+    @Test
+    public void testGeneratedSource()
+    {
+        final List<CommandDefinition> definitions = this._builder.build().getDefinitions();
+        final String source = DefineCommandProcessor.generate("com.example", "OptionsCommands", "Options",
+                definitions);
+
+        Assert.assertTrue(source.contains("package com.example;"));
+        Assert.assertTrue(source.contains("case \"--file\":"));
+        Assert.assertTrue(source.contains("ValueConverters.INT"));
+        Assert.assertEquals(source.indexOf("Pattern.compile("), source.lastIndexOf("Pattern.compile("));
+    }
+
+    @Test
+    public void testLargeGeneratedSource() throws Exception
+    {
+        // enough names that a single switch would exceed the size of a method.
+        final int count = 3000;
+        final CmdLineParser.Builder builder = CmdLineParser.builder();
+        for (int i = 0; i < count; i++)
+        {
+            builder.defineCommand("-c" + i + ", --command" + i + ", ?value" + i);
+        }
+        final String source = DefineCommandProcessor.generate("com.example", "LargeCommands", "Large",
+                builder.build().getDefinitions());
+
+        final Path directory = Files.createTempDirectory("generated");
+        final Path file = directory.resolve("LargeCommands.java");
+        Files.write(file, source.getBytes("UTF-8"));
+        try
+        {
+            final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+            try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null))
+            {
+                final boolean isCompiled = compiler.getTask(null, fileManager, diagnostics,
+                        Arrays.asList("-proc:none", "-classpath", System.getProperty("java.class.path"), "-d",
+                                directory.toString()),
+                        null, fileManager.getJavaFileObjects(file.toFile())).call();
+                Assert.assertTrue(diagnostics.getDiagnostics().toString(), isCompiled);
+            }
+
+            try (URLClassLoader loader = new URLClassLoader(new URL[]
+                { directory.toUri().toURL() }, this.getClass().getClassLoader()))
+            {
+                final GeneratedCommands commands = (GeneratedCommands) loader.loadClass("com.example.LargeCommands")
+                        .getDeclaredConstructor().newInstance();
+                for (int i = 0; i < count; i++)
+                {
+                    Assert.assertEquals(i, commands.indexOf("-c" + i));
+                    Assert.assertEquals(i, commands.indexOf("--command" + i));
+                }
+                Assert.assertEquals(-1, commands.indexOf("--command" + count));
+
+                final CmdLineParser parser = CmdLineParser.builder().defineCommands(commands).build();
+                final List<Command> parsed = parser.parse(new String[]
+                    { "--command2999", "x", "-c0" });
+                Assert.assertEquals("--command2999", parsed.get(0).getName());
+                Assert.assertEquals("x", parsed.get(0).getValue("value2999"));
+                Assert.assertEquals("-c0", parsed.get(1).getName());
+            }
+        }
+        finally
+        {
+            final List<Path> paths = Files.walk(directory).collect(Collectors.toList());
+            Collections.reverse(paths);
+            for (final Path path : paths)
+            {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidDefinition() throws IOException
+    {
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics = this
+                .compile("@com.gabstudios.cmdline.DefineCommand(names = \"-a\", required = \"value\")\n"
+                        + "@com.gabstudios.cmdline.DefineCommand(names = \"-b\", required = \"value\")\n"
+                        + "public class BadOptions { }\n");
+
+        boolean isReported = false;
+        for (final Diagnostic<? extends JavaFileObject> diagnostic : diagnostics)
+        {
+            isReported |= (diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                    && diagnostic.getMessage(null).contains("The variable 'value' has already been defined");
+        }
+        Assert.assertTrue(isReported);
+    }
+
+    @Test
+    public void testUnknownType() throws IOException
+    {
+        final List<Diagnostic<? extends JavaFileObject>> diagnostics = this
+                .compile("@com.gabstudios.cmdline.DefineCommand(names = \"-a\", required = \"value<color>\")\n"
+                        + "public class BadOptions { }\n");
+
+        Assert.assertEquals(1, diagnostics.size());
+        Assert.assertTrue(diagnostics.get(0).getMessage(null).contains("The type 'color'"));
+    }
+}
@@ -0,0 +1,164 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class DefinitionLoaderTest
+{
+
+    private static final String DEFINITIONS = "-f, --file, !file...\n" + "\n" + "--count, !count<int>\n"
+            + "  -v, --verbose, #Be extra verbose  \n" + "--name, !name, :^[A-Z][a-z]+$\n";
+
+    CmdLineParser.Builder _builder;
+
+    @Before
+    public void setUp()
+    {
+        this._builder = CmdLineParser.builder();
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._builder = null;
+        CmdLine.clear();
+    }
+
+    @Test
+    public void testLoad() throws IOException
+    {
+        final CmdLineParser parser = this._builder.loadDefinitions(new StringReader(DEFINITIONS)).build();
+        final CmdLineParser defined = CmdLineParser.builder().defineCommand("-f, --file, !file...")
+                .defineCommand("--count, !count<int>").defineCommand("-v, --verbose, #Be extra verbose")
+                .defineCommand("--name, !name, :^[A-Z][a-z]+$").build();
+
+        final String[] args =
+            { "-f", "a", "b", "--count", "3", "--verbose", "--name", "Bob" };
+        Assert.assertEquals(defined.parse(args).toString(), parser.parse(args).toString());
+        Assert.assertEquals(3, parser.parse(args).get(1).getInt("count"));
+    }
+
+    @Test
+    public void testEveryErrorIsReported() throws IOException
+    {
+        this._builder.defineCommand("-q, --quiet");
+
+        final String definitions = "-a, !first\n" + "-q\n" + "-b, !first\n" + "-c, !second<color>\n" + "-d\n"
+                + "-a\n";
+        try
+        {
+            this._builder.loadDefinitions(new StringReader(definitions));
+            Assert.fail();
+        }
+        catch (final DefinitionException e)
+        {
+            final List<String> errors = e.getErrorList();
+            Assert.assertEquals(4, errors.size());
+            Assert.assertTrue(errors.get(0).startsWith("Line 2: Error: The command '-q'"));
+            Assert.assertTrue(errors.get(1).startsWith("Line 3: Error: The variable 'first'"));
+            Assert.assertTrue(errors.get(2).startsWith("Line 4: Error: The type 'color'"));
+            Assert.assertTrue(errors.get(3).startsWith("Line 6: Error: The command '-a'"));
+            Assert.assertTrue(e.getMessage().startsWith("Error: 4 of the definitions are not valid."));
+        }
+
+        // nothing was defined, so the lines may be loaded once they are fixed.
+        final CmdLineParser parser = this._builder
+                .loadDefinitions(new StringReader("-a, !first\n-b, !second\n-d\n")).build();
+        Assert.assertEquals(Arrays.asList("-q", "-a", "-d"), this.getNames(parser.parse(new String[]
+            { "-q", "-a", "1", "-d" })));
+    }
+
+    @Test
+    public void testTooLong() throws IOException
+    {
+        final StringBuilder buffer = new StringBuilder("-a, #");
+        while (buffer.length() <= ParseLimits.DEFAULT.getMaxDefinitionLength())
+        {
+            buffer.append('x');
+        }
+
+        try
+        {
+            this._builder.loadDefinitions(new StringReader("-b\n" + buffer + "\n"));
+            Assert.fail();
+        }
+        catch (final DefinitionException e)
+        {
+            Assert.assertEquals(1, e.getErrorList().size());
+            Assert.assertTrue(e.getErrorList().get(0).startsWith("Line 2: Error: The definition is longer"));
+        }
+    }
+
+    @Test
+    public void testLoadPath() throws IOException
+    {
+        final Path file = Files.createTempFile("definitions", ".txt");
+        try
+        {
+            final StringBuilder buffer = new StringBuilder();
+            for (int i = 0; i < 5000; i++)
+            {
+                buffer.append("--command").append(i).append(", !value").append(i).append("<int>\n");
+            }
+            Files.write(file, buffer.toString().getBytes(StandardCharsets.UTF_8));
+
+            CmdLine.loadDefinitions(file);
+            final List<Command> commands = CmdLine.parse(new String[]
+                { "--command4999", "12" });
+            Assert.assertEquals(12, commands.get(0).getInt("value4999"));
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    /*
+     * Gets the names of the Commands.
+     */
+    private List<String> getNames(final List<Command> commands)
+    {
+        final String[] names = new String[commands.size()];
+        for (int i = 0; i < names.length; i++)
+        {
+            names[i] = commands.get(i).getName();
+        }
+        return (Arrays.asList(names));
+    }
+}
@@ -0,0 +1,255 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class DispatchQueueTest
+{
+
+    /*
+     * Records the names of the Commands it handles. The handling of -a waits
+     * until the gate is opened, so the queue fills up behind it.
+     */
+    private class GatedListener implements CommandListener
+    {
+        final CountDownLatch _gate = new CountDownLatch(1);
+
+        final List<String> _names = Collections.synchronizedList(new ArrayList<String>());
+
+        final CountDownLatch _started = new CountDownLatch(1);
+
+        final List<Thread> _threads = Collections.synchronizedList(new ArrayList<Thread>());
+
+        @Override
+        public void handle(final Command command)
+        {
+            if (command.getName().equals("-a"))
+            {
+                this._started.countDown();
+                try
+                {
+                    this._gate.await(5, TimeUnit.SECONDS);
+                }
+                catch (final InterruptedException e)
+                {
+                    throw (new IllegalStateException(e));
+                }
+            }
+            this._names.add(command.getName());
+            this._threads.add(Thread.currentThread());
+        }
+    }
+
+    GatedListener _listener;
+
+    CmdLineParser _parser;
+
+    @Before
+    public void setUp()
+    {
+        this._parser = CmdLineParser.builder().defineCommand("-a, #First").defineCommand("-b, #Second")
+                .defineCommand("-c, #Third").defineCommand("-d, #Fourth").build();
+        this._listener = new GatedListener();
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._listener._gate.countDown();
+        this._listener = null;
+        this._parser = null;
+    }
+
+    /*
+     * Builds a queue of two slots and fills it while -a is being handled.
+     */
+    private DispatchQueue fill(final OverflowPolicy policy) throws Exception
+    {
+        final DispatchQueue queue = DispatchQueue.builder().setCommandListener(this._listener).setCapacity(2)
+                .setOverflowPolicy(policy).build();
+
+        this._parser.parse(new String[]
+            { "-a" }, queue);
+        Assert.assertTrue(this._listener._started.await(5, TimeUnit.SECONDS));
+
+        this._parser.parse(new String[]
+            { "-b", "-c" }, queue);
+        Assert.assertEquals(2, queue.getDepth());
+        return (queue);
+    }
+
+    @Test
+    public void testOrder() throws Exception
+    {
+        final DispatchQueue queue = DispatchQueue.builder().setCommandListener(this._listener).build();
+        this._listener._gate.countDown();
+
+        this._parser.parse(new String[]
+            { "-a", "-b", "-c", "-d" }, queue);
+        queue.close();
+
+        Assert.assertEquals(Arrays.asList("-a", "-b", "-c", "-d"), this._listener._names);
+        Assert.assertEquals(4, queue.getHandledCount());
+        Assert.assertEquals(0, queue.getDepth());
+        Assert.assertTrue(queue.getMaxWaitNanos() <= queue.getTotalWaitNanos());
+    }
+
+    @Test
+    public void testBlock() throws Exception
+    {
+        final DispatchQueue queue = this.fill(OverflowPolicy.BLOCK);
+
+        final Thread producer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                DispatchQueueTest.this._parser.parse(new String[]
+                    { "-d" }, queue);
+            }
+        });
+        producer.start();
+
+        producer.join(200);
+        Assert.assertTrue(producer.isAlive());
+
+        this._listener._gate.countDown();
+        producer.join(5000);
+        Assert.assertFalse(producer.isAlive());
+
+        queue.close();
+        Assert.assertEquals(Arrays.asList("-a", "-b", "-c", "-d"), this._listener._names);
+        Assert.assertEquals(0, queue.getDroppedCount());
+        Assert.assertTrue(queue.getTotalWaitNanos() > 0);
+    }
+
+    @Test
+    public void testDropOldest() throws Exception
+    {
+        final DispatchQueue queue = this.fill(OverflowPolicy.DROP_OLDEST);
+
+        this._parser.parse(new String[]
+            { "-d" }, queue);
+        Assert.assertEquals(2, queue.getDepth());
+        Assert.assertEquals(1, queue.getDroppedCount());
+
+        this._listener._gate.countDown();
+        queue.close();
+        Assert.assertEquals(Arrays.asList("-a", "-c", "-d"), this._listener._names);
+    }
+
+    @Test
+    public void testReject() throws Exception
+    {
+        final DispatchQueue queue = this.fill(OverflowPolicy.REJECT);
+
+        try
+        {
+            this._parser.parse(new String[]
+                { "-d" }, queue);
+            Assert.fail();
+        }
+        catch (final DispatchException e)
+        {
+            Assert.assertEquals("-d", e.getCommand().getName());
+        }
+        Assert.assertEquals(1, queue.getRejectedCount());
+
+        this._listener._gate.countDown();
+        queue.close();
+        Assert.assertEquals(Arrays.asList("-a", "-b", "-c"), this._listener._names);
+    }
+
+    @Test
+    public void testCallerRuns() throws Exception
+    {
+        final DispatchQueue queue = this.fill(OverflowPolicy.CALLER_RUNS);
+
+        this._parser.parse(new String[]
+            { "-d" }, queue);
+        Assert.assertEquals(1, queue.getCallerRunsCount());
+        Assert.assertEquals(Arrays.asList("-d"), this._listener._names);
+        Assert.assertSame(Thread.currentThread(), this._listener._threads.get(0));
+
+        this._listener._gate.countDown();
+        queue.close();
+        Assert.assertEquals(Arrays.asList("-d", "-a", "-b", "-c"), this._listener._names);
+    }
+
+    @Test
+    public void testClosed() throws Exception
+    {
+        final DispatchQueue queue = DispatchQueue.builder().setCommandListener(this._listener).build();
+        queue.close();
+
+        try
+        {
+            this._parser.parse(new String[]
+                { "-b" }, queue);
+            Assert.fail();
+        }
+        catch (final DispatchException e)
+        {
+            Assert.assertEquals("-b", e.getCommand().getName());
+        }
+        Assert.assertEquals(1, queue.getRejectedCount());
+    }
+
+    @Test
+    public void testListenerFailure() throws Exception
+    {
+        final DispatchQueue queue = DispatchQueue.builder().setCommandListener(new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                if (command.getName().equals("-b"))
+                {
+                    throw (new IllegalStateException("expected by the test"));
+                }
+            }
+        }).build();
+
+        this._parser.parse(new String[]
+            { "-a", "-b", "-c" }, queue);
+        queue.close();
+
+        Assert.assertEquals(3, queue.getHandledCount());
+        Assert.assertEquals(1, queue.getFailedCount());
+    }
+}
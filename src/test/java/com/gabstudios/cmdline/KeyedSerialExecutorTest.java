@@ -0,0 +1,168 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class KeyedSerialExecutorTest
+{
+
+    ExecutorService _executor;
+
+    @Before
+    public void setUp()
+    {
+        this._executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._executor.shutdownNow();
+        this._executor = null;
+    }
+
+    @Test
+    public void testOrderPerKey() throws Exception
+    {
+        final KeyedSerialExecutor serialExecutor = new KeyedSerialExecutor(this._executor);
+
+        final int keyCount = 16;
+        final int taskCount = 2000;
+        final ConcurrentMap<Integer, List<Integer>> results = new ConcurrentHashMap<Integer, List<Integer>>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(keyCount * taskCount);
+
+        for (int key = 0; key < keyCount; key++)
+        {
+            results.put(key, new ArrayList<Integer>());
+        }
+
+        // four threads give tasks at the same time, each task has a
+        // sequence within its key.
+        final ExecutorService producers = Executors.newFixedThreadPool(4);
+        final AtomicInteger[] sequences = new AtomicInteger[keyCount];
+        for (int key = 0; key < keyCount; key++)
+        {
+            sequences[key] = new AtomicInteger();
+        }
+        for (int producer = 0; producer < 4; producer++)
+        {
+            producers.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (int i = 0; i < (keyCount * taskCount) / 4; i++)
+                    {
+                        final int key = i % keyCount;
+                        synchronized (sequences[key])
+                        {
+                            final int sequence = sequences[key].getAndIncrement();
+                            serialExecutor.execute(Integer.valueOf(key), new Runnable()
+                            {
+                                @Override
+                                public void run()
+                                {
+                                    if (running.incrementAndGet() > keyCount)
+                                    {
+                                        overlaps.incrementAndGet();
+                                    }
+                                    results.get(key).add(sequence);
+                                    running.decrementAndGet();
+                                    done.countDown();
+                                }
+                            });
+                        }
+                    }
+                }
+            });
+        }
+
+        Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        producers.shutdown();
+
+        Assert.assertEquals(0, overlaps.get());
+        for (int key = 0; key < keyCount; key++)
+        {
+            final List<Integer> sequence = results.get(key);
+            Assert.assertEquals(taskCount, sequence.size());
+            for (int i = 0; i < sequence.size(); i++)
+            {
+                Assert.assertEquals(i, sequence.get(i).intValue());
+            }
+        }
+
+        // the lanes are removed once they are empty.
+        final long end = System.currentTimeMillis() + 5000;
+        while ((serialExecutor.getLaneCount() > 0) && (System.currentTimeMillis() < end))
+        {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, serialExecutor.getLaneCount());
+    }
+
+    @Test
+    public void testFailedTaskDoesNotStopLane() throws Exception
+    {
+        final KeyedSerialExecutor serialExecutor = new KeyedSerialExecutor(this._executor);
+        final CountDownLatch done = new CountDownLatch(1);
+
+        serialExecutor.execute("key", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                throw (new IllegalStateException("expected by the test"));
+            }
+        });
+        serialExecutor.execute("key", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                done.countDown();
+            }
+        });
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,205 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class LineParseTest
+{
+
+    CmdLineParser _parser;
+
+    @Before
+    public void setUp()
+    {
+        this._parser = CmdLineParser.builder().defineCommand("-f, --file, !file...").defineCommand("--name, !name")
+                .defineCommand("-v, --verbose").defineCommand("--count, !count<int>").build();
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._parser = null;
+        CmdLine.clear();
+    }
+
+    @Test
+    public void testSameAsArgs()
+    {
+        final List<Command> commands = this._parser.parse("  -v\t--name Bob  --count=3 -f a.txt,b.txt c.txt ");
+
+        Assert.assertEquals(this._parser.parse(new String[]
+            { "-v", "--name", "Bob", "--count=3", "-f", "a.txt,b.txt", "c.txt" }).toString(), commands.toString());
+    }
+
+    @Test
+    public void testSingleQuotes()
+    {
+        final List<Command> commands = this._parser.parse("--name 'Bob \"the\" \\Smith' -f 'a'b'' c'd e'");
+
+        Assert.assertEquals("Bob \"the\" \\Smith", commands.get(0).getValue("name"));
+        Assert.assertEquals(Arrays.asList("ab", "cd e"), commands.get(1).getValues("file"));
+    }
+
+    @Test
+    public void testDoubleQuotes()
+    {
+        final List<Command> commands = this._parser.parse("--name \"Bob 'the' \\\"Smith\\\" \\$x \\n\" -f \"a b\"c");
+
+        Assert.assertEquals("Bob 'the' \"Smith\" $x \\n", commands.get(0).getValue("name"));
+        Assert.assertEquals(Arrays.asList("a bc"), commands.get(1).getValues("file"));
+    }
+
+    @Test
+    public void testEscapes()
+    {
+        final List<Command> commands = this._parser.parse("--name Bob\\ Smith -f a\\\\b \\'c\\' d\\\ne");
+
+        Assert.assertEquals("Bob Smith", commands.get(0).getValue("name"));
+        Assert.assertEquals(Arrays.asList("a\\b", "'c'", "de"), commands.get(1).getValues("file"));
+    }
+
+    @Test
+    public void testCharSequences()
+    {
+        final StringBuilder builder = new StringBuilder("--name 'Bob Smith' -v");
+        Assert.assertEquals("Bob Smith", this._parser.parse(builder).get(0).getValue("name"));
+
+        final CharBuffer buffer = CharBuffer.wrap("xx--name \"Amy Smith\" -vxx".toCharArray(), 2, 21);
+        final List<Command> commands = this._parser.parse(buffer);
+        Assert.assertEquals(2, commands.size());
+        Assert.assertEquals("Amy Smith", commands.get(0).getValue("name"));
+        Assert.assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        Assert.assertTrue(this._parser.parse(" \t ").isEmpty());
+    }
+
+    @Test
+    public void testListener()
+    {
+        final List<Command> handled = new ArrayList<Command>();
+        this._parser.parse("-v --name Bob", new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                handled.add(command);
+            }
+        });
+
+        Assert.assertEquals(2, handled.size());
+    }
+
+    @Test
+    public void testNotClosed()
+    {
+        for (final String line : new String[]
+            { "--name 'Bob", "--name \"Bob", "--name \"Bob\\\"", "--name Bob\\" })
+        {
+            try
+            {
+                this._parser.parse(line);
+                Assert.fail(line);
+            }
+            catch (final UnsupportedException e)
+            {
+                Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Error: The command line"));
+            }
+        }
+    }
+
+    @Test
+    public void testNotDefined()
+    {
+        try
+        {
+            this._parser.parse("--nmae Bob");
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            Assert.assertTrue(e.getSuggestionList().contains("--name"));
+        }
+    }
+
+    @Test
+    public void testLimit()
+    {
+        final CmdLineParser parser = CmdLineParser.builder().defineCommand("--name, !name")
+                .setLimits(ParseLimits.builder().setMaxInputSize(16).build()).build();
+        try
+        {
+            parser.parse("--name 'Bob Smith Jones'");
+            Assert.fail();
+        }
+        catch (final LimitException e)
+        {
+            // expected.
+        }
+    }
+
+    @Test
+    public void testShellQuotes() throws IOException
+    {
+        final List<Command> commands = new ArrayList<Command>();
+        CommandShell.builder().setParser(this._parser).setCommandListener(new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                commands.add(command);
+            }
+        }).build().run(new StringReader("--name 'Bob Smith'\n-f \"a b\" c\n"));
+
+        Assert.assertEquals("Bob Smith", commands.get(0).getValue("name"));
+        Assert.assertEquals(Arrays.asList("a b", "c"), commands.get(1).getValues("file"));
+    }
+
+    @Test
+    public void testCmdLine()
+    {
+        CmdLine.defineCommand("--name, !name").defineCommand("-v");
+        final List<Command> commands = CmdLine.parse("--name 'Bob Smith' -v");
+
+        Assert.assertEquals(2, commands.size());
+        Assert.assertEquals("Bob Smith", commands.get(0).getValue("name"));
+    }
+}
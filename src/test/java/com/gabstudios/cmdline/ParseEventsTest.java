@@ -0,0 +1,204 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class ParseEventsTest
+{
+
+    Path _file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this._file = Files.createTempFile("parse-events", ".jfr");
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(this._file);
+        CmdLine.clear();
+    }
+
+    /*
+     * Runs the parses in a recording that has the events enabled, returns the
+     * events of the parser.
+     */
+    private List<RecordedEvent> record(final Runnable parses) throws IOException
+    {
+        try (Recording recording = new Recording())
+        {
+            for (final String name : new String[]
+                { "DefinitionCompile", "Tokenize", "Parse", "CommandMatched", "ValidationFailed",
+                        "SuggestionLookup", "ListenerDispatch" })
+            {
+                recording.enable("com.gabstudios.cmdline." + name).withoutThreshold();
+            }
+            recording.start();
+            parses.run();
+            recording.stop();
+            recording.dump(this._file);
+        }
+
+        final List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+        for (final RecordedEvent event : RecordingFile.readAllEvents(this._file))
+        {
+            if (event.getEventType().getName().startsWith("com.gabstudios.cmdline."))
+            {
+                events.add(event);
+            }
+        }
+        return (events);
+    }
+
+    private static List<RecordedEvent> filter(final List<RecordedEvent> events, final String name)
+    {
+        final List<RecordedEvent> filtered = new ArrayList<RecordedEvent>();
+        for (final RecordedEvent event : events)
+        {
+            if (event.getEventType().getName().equals("com.gabstudios.cmdline." + name))
+            {
+                filtered.add(event);
+            }
+        }
+        return (filtered);
+    }
+
+    @Test
+    public void testCreate()
+    {
+        Assert.assertEquals("JfrParseEvents", ParseEvents.create().getClass().getSimpleName());
+    }
+
+    @Test
+    public void testEvents() throws IOException
+    {
+        final List<RecordedEvent> events = this.record(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                final CmdLineParser parser = CmdLineParser.builder().defineCommand("--name, !name")
+                        .defineCommand("-v, --verbose").build();
+                parser.parse(new String[]
+                    { "--name=Bob", "-v" }, new CommandListener()
+                    {
+                        @Override
+                        public void handle(final Command command)
+                        {
+                            // void - do nothing.
+                        }
+                    });
+                try
+                {
+                    parser.parse("--nmae Bob");
+                    Assert.fail();
+                }
+                catch (final UnsupportedException e)
+                {
+                    // expected.
+                }
+            }
+        });
+
+        final List<RecordedEvent> definitions = ParseEventsTest.filter(events, "DefinitionCompile");
+        Assert.assertEquals(2, definitions.size());
+        Assert.assertEquals("--name", definitions.get(0).getString("commandName"));
+        Assert.assertEquals(2, definitions.get(0).getInt("tokenCount"));
+
+        final List<RecordedEvent> tokenizes = ParseEventsTest.filter(events, "Tokenize");
+        Assert.assertEquals(2, tokenizes.size());
+        Assert.assertEquals(3, tokenizes.get(0).getInt("tokenCount"));
+        Assert.assertEquals(12, tokenizes.get(0).getLong("inputSize"));
+
+        final List<RecordedEvent> parses = ParseEventsTest.filter(events, "Parse");
+        Assert.assertEquals(2, parses.size());
+        Assert.assertEquals(2, parses.get(0).getInt("commandCount"));
+        Assert.assertEquals(0, parses.get(1).getInt("commandCount"));
+
+        final List<RecordedEvent> matched = ParseEventsTest.filter(events, "CommandMatched");
+        Assert.assertEquals(2, matched.size());
+        Assert.assertEquals("-v", matched.get(1).getString("commandName"));
+        Assert.assertEquals(2, matched.get(1).getInt("tokenIndex"));
+
+        final List<RecordedEvent> dispatches = ParseEventsTest.filter(events, "ListenerDispatch");
+        Assert.assertEquals(2, dispatches.size());
+        Assert.assertEquals("--name", dispatches.get(0).getString("commandName"));
+
+        final List<RecordedEvent> suggestions = ParseEventsTest.filter(events, "SuggestionLookup");
+        Assert.assertEquals(1, suggestions.size());
+        Assert.assertEquals("--nmae", suggestions.get(0).getString("token"));
+        Assert.assertTrue(suggestions.get(0).getInt("suggestionCount") > 0);
+        Assert.assertFalse(suggestions.get(0).getBoolean("cached"));
+
+        final List<RecordedEvent> failures = ParseEventsTest.filter(events, "ValidationFailed");
+        Assert.assertEquals(1, failures.size());
+        Assert.assertEquals("--nmae", failures.get(0).getString("commandName"));
+        Assert.assertTrue(failures.get(0).getString("message").startsWith("Error:"));
+    }
+
+    @Test
+    public void testDisabled() throws IOException
+    {
+        final List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+        try (Recording recording = new Recording())
+        {
+            recording.disable("com.gabstudios.cmdline.Parse");
+            recording.start();
+            CmdLineParser.builder().defineCommand("-v").build().parse(new String[]
+                { "-v" });
+            recording.stop();
+            recording.dump(this._file);
+        }
+        for (final RecordedEvent event : RecordingFile.readAllEvents(this._file))
+        {
+            if (event.getEventType().getName().startsWith("com.gabstudios.cmdline."))
+            {
+                events.add(event);
+            }
+        }
+
+        // the events are enabled by default, unless the settings disable them.
+        Assert.assertTrue(ParseEventsTest.filter(events, "Parse").isEmpty());
+        Assert.assertEquals(1, ParseEventsTest.filter(events, "CommandMatched").size());
+    }
+}
@@ -0,0 +1,92 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+
+
+/*
+ * The definitions, arguments and helpers that the tests of the other forms of
+ * a registry share, so a snapshot or a generated registry is compared with the
+ * same defined commands.
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+final class ParseFixtures
+{
+
+    /*
+     * The arguments of the commands of defineCommands().
+     */
+    static final String[] ARGS =
+        { "-f", "a.txt", "b.txt", "--count", "3", "-v", "--range", "1", "2", "--name", "Bob" };
+
+    /*
+     * Gets the arguments of the commands of defineCommands(), followed by the
+     * more arguments.
+     */
+    static String[] args(final String... moreArgs)
+    {
+        final String[] args = Arrays.copyOf(ParseFixtures.ARGS, ParseFixtures.ARGS.length + moreArgs.length);
+        System.arraycopy(moreArgs, 0, args, ParseFixtures.ARGS.length, moreArgs.length);
+        return (args);
+    }
+
+    /*
+     * Defines a command of each kind - a list, a type, a description, two
+     * typed values and a regex.
+     */
+    static CmdLineParser.Builder defineCommands(final CmdLineParser.Builder builder)
+    {
+        return (builder.defineCommand("-f, --file, !file...").defineCommand("--count, !count<int>")
+                .defineCommand("-v, --verbose, #Be extra verbose").defineCommand("--range, !low<long>, !high<long>")
+                .defineCommand("--name, !name, :^[A-Z][a-z]+$"));
+    }
+
+    /*
+     * Parses the unknown token and returns its suggestions.
+     */
+    static List<String> suggest(final CmdLineParser parser, final String token)
+    {
+        try
+        {
+            parser.parse(new String[]
+                { token });
+            Assert.fail();
+            return (null);
+        }
+        catch (final UnsupportedException e)
+        {
+            return (e.getSuggestionList());
+        }
+    }
+
+    /*
+     * Constructor.
+     */
+    private ParseFixtures()
+    {
+        // block direct instance
+    }
+}
@@ -0,0 +1,246 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class ParseMetricsTest
+{
+
+    ParseMetrics  _metrics;
+
+    CmdLineParser _parser;
+
+    @Before
+    public void setUp()
+    {
+        this._metrics = new ParseMetrics();
+        this._parser = CmdLineParser.builder().setMetrics(this._metrics).defineCommand("-f, --file, !file...")
+                .defineCommand("--name, !name").defineCommand("-v, --verbose")
+                .defineCommand("--count, !count<int>").build();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        this._metrics.unregisterMBean();
+        this._metrics = null;
+        this._parser = null;
+        CmdLine.clear();
+    }
+
+    private static final CommandListener NOOP = new CommandListener()
+    {
+        @Override
+        public void handle(final Command command)
+        {
+            // void - do nothing.
+        }
+    };
+
+    @Test
+    public void testCounts()
+    {
+        this._parser.parse(new String[]
+            { "--verbose", "--name", "Bob", "-v" }, ParseMetricsTest.NOOP);
+        this._parser.parse("--count 3 -f a.txt", ParseMetricsTest.NOOP);
+        try
+        {
+            this._parser.parse(new String[]
+                { "--nmae", "Bob" });
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            // expected.
+        }
+        try
+        {
+            this._parser.parse("--count x");
+            Assert.fail();
+        }
+        catch (final MatchException e)
+        {
+            // expected.
+        }
+
+        final ParseMetricsSnapshot snapshot = this._metrics.getSnapshot();
+        final Map<String, Long> hits = snapshot.getHitCounts();
+        Assert.assertEquals(Long.valueOf(2), hits.get("-v"));
+        Assert.assertEquals(Long.valueOf(1), hits.get("--name"));
+        Assert.assertEquals(Long.valueOf(2), hits.get("--count"));
+        Assert.assertEquals(Long.valueOf(1), hits.get("-f"));
+        Assert.assertEquals(Long.valueOf(1), snapshot.getErrorCounts().get("UnsupportedException"));
+        Assert.assertEquals(Long.valueOf(1), snapshot.getErrorCounts().get("MatchException"));
+
+        Assert.assertEquals(4, snapshot.getParseLatency().getCount());
+        Assert.assertEquals(4, snapshot.getTokenizeLatency().getCount());
+        Assert.assertEquals(5, snapshot.getDispatchLatency().getCount());
+        Assert.assertTrue(snapshot.getParseLatency().getTotalNanos() >= snapshot.getTokenizeLatency()
+                .getTotalNanos());
+
+        this._metrics.reset();
+        Assert.assertTrue(this._metrics.getHitCounts().isEmpty());
+        Assert.assertEquals(0, this._metrics.getParseLatency().getCount());
+    }
+
+    @Test
+    public void testPercentiles()
+    {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++)
+        {
+            histogram.record(i * 1000L);
+        }
+        histogram.record(-5);
+
+        final LatencyStats stats = histogram.getStats();
+        Assert.assertEquals(101, stats.getCount());
+        Assert.assertEquals(100000, stats.getMaxNanos());
+        Assert.assertEquals(5050000, stats.getTotalNanos());
+        Assert.assertEquals(1, stats.getBucketCounts()[0]);
+
+        // 50000 is in the bucket of 32768 to 65535.
+        Assert.assertEquals(65535, stats.getP50Nanos());
+        Assert.assertEquals(100000, stats.getP99Nanos());
+        Assert.assertEquals(0, stats.getPercentileNanos(0));
+        Assert.assertEquals(0, new LatencyHistogram().getStats().getP99Nanos());
+    }
+
+    @Test
+    public void testConcurrent() throws Exception
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < 4; t++)
+            {
+                futures.add(executor.submit(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        for (int i = 0; i < 5000; i++)
+                        {
+                            ParseMetricsTest.this._parser.parse(new String[]
+                                { "-v", "--count", "1" }, ParseMetricsTest.NOOP);
+                        }
+                    }
+                }));
+            }
+            for (final Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(Long.valueOf(20000), this._metrics.getHitCounts().get("-v"));
+        Assert.assertEquals(20000, this._metrics.getParseLatency().getCount());
+        Assert.assertEquals(40000, this._metrics.getDispatchLatency().getCount());
+    }
+
+    @Test
+    public void testMBean() throws Exception
+    {
+        this._parser.parse(new String[]
+            { "-v" });
+        final ObjectName name = this._metrics.registerMBean("ParseMetricsTest");
+        Assert.assertEquals("com.gabstudios.cmdline:type=ParseMetrics,name=ParseMetricsTest", name.toString());
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final CompositeData latency = (CompositeData) server.getAttribute(name, "ParseLatency");
+        Assert.assertEquals(Long.valueOf(1), latency.get("count"));
+        final TabularData hits = (TabularData) server.getAttribute(name, "HitCounts");
+        Assert.assertEquals(1, hits.size());
+
+        server.invoke(name, "reset", null, null);
+        Assert.assertEquals(0, this._metrics.getParseLatency().getCount());
+
+        this._metrics.unregisterMBean();
+        Assert.assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testShellAndBatch() throws Exception
+    {
+        final CommandShell shell = CommandShell.builder().setParser(this._parser)
+                .setCommandListener(ParseMetricsTest.NOOP).setLineErrorListener(new LineErrorListener()
+                {
+                    @Override
+                    public void handle(final long lineNumber, final String line, final RuntimeException exception)
+                    {
+                        // void - do nothing.
+                    }
+                }).build();
+        shell.run(new StringReader("-v\n-x\n"));
+
+        final List<String[]> batch = new ArrayList<String[]>();
+        batch.add(new String[]
+            { "-v" });
+        batch.add(new String[]
+            { "-x" });
+        this._parser.parseAll(batch);
+
+        Assert.assertEquals(Long.valueOf(2), this._metrics.getHitCounts().get("-v"));
+        Assert.assertEquals(Long.valueOf(2), this._metrics.getErrorCounts().get("UnsupportedException"));
+    }
+
+    @Test
+    public void testCmdLine()
+    {
+        CmdLine.setMetrics(this._metrics).defineCommand("-v");
+        CmdLine.parse(new String[]
+            { "-v" });
+        CmdLine.defineCommand("-q");
+        CmdLine.parse(new String[]
+            { "-q" });
+
+        Assert.assertEquals(2, this._metrics.getParseLatency().getCount());
+    }
+}
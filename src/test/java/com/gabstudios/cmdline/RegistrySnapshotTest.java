@@ -0,0 +1,259 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class RegistrySnapshotTest
+{
+
+    CmdLineParser.Builder _builder;
+
+    Path                  _directory;
+
+    Path                  _file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this._builder = ParseFixtures
+                .defineCommands(CmdLineParser.builder().setApplicationName("snapshot").setVersion("1.0"));
+        this._directory = Files.createTempDirectory("snapshot");
+        this._file = this._directory.resolve("commands.snapshot");
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        Files.deleteIfExists(this._file);
+        Files.deleteIfExists(this._directory);
+        this._builder = null;
+        CmdLine.clear();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        final CmdLineParser parser = this._builder.build();
+        parser.writeSnapshot(this._file);
+
+        final CmdLineParser loaded = CmdLineParser.builder().loadSnapshot(this._file).build();
+
+        Assert.assertEquals("snapshot", loaded.getApplicationName());
+        Assert.assertEquals("1.0", loaded.getVersion());
+        Assert.assertEquals(parser.parse(ParseFixtures.ARGS).toString(), loaded.parse(ParseFixtures.ARGS).toString());
+
+        final List<Command> commands = loaded.parse(ParseFixtures.ARGS);
+        Assert.assertEquals(3, commands.get(1).getInt("count"));
+        Assert.assertEquals(2L, commands.get(3).getValueAs("high", Long.class).longValue());
+        Assert.assertEquals(ParseFixtures.suggest(parser, "--verbsoe"), ParseFixtures.suggest(loaded, "--verbsoe"));
+    }
+
+    @Test
+    public void testRegexIsKept() throws IOException
+    {
+        this._builder.build().writeSnapshot(this._file);
+        final CmdLineParser loaded = CmdLineParser.builder().loadSnapshot(this._file).build();
+
+        try
+        {
+            loaded.parse(new String[]
+                { "--name", "bob" });
+            Assert.fail();
+        }
+        catch (final RuntimeException e)
+        {
+            Assert.assertTrue(e.getMessage().startsWith("Error: "));
+        }
+    }
+
+    @Test
+    public void testRewriteLoaded() throws IOException
+    {
+        this._builder.build().writeSnapshot(this._file);
+        final CmdLineParser loaded = CmdLineParser.builder().loadSnapshot(this._file).build();
+
+        final Path copy = this._directory.resolve("copy.snapshot");
+        try
+        {
+            loaded.writeSnapshot(copy);
+            Assert.assertArrayEquals(Files.readAllBytes(this._file), Files.readAllBytes(copy));
+        }
+        finally
+        {
+            Files.deleteIfExists(copy);
+        }
+    }
+
+    @Test
+    public void testDefineAfterLoad() throws IOException
+    {
+        this._builder.build().writeSnapshot(this._file);
+
+        final CmdLineParser.Builder builder = CmdLineParser.builder().loadSnapshot(this._file);
+        builder.defineHandler("--verbose", new CommandListener()
+        {
+            @Override
+            public void handle(final Command command)
+            {
+                // nothing to do.
+            }
+        });
+        builder.defineCommand("-q, --quiet");
+
+        final List<Command> commands = builder.build().parse(new String[]
+            { "-q", "--count", "7" });
+        Assert.assertEquals("-q", commands.get(0).getName());
+        Assert.assertEquals(7, commands.get(1).getInt("count"));
+
+        try
+        {
+            builder.defineCommand("--name2, !count");
+            Assert.fail();
+        }
+        catch (final DuplicateException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("count"));
+        }
+    }
+
+    @Test
+    public void testLoadAfterDefine() throws IOException
+    {
+        this._builder.build().writeSnapshot(this._file);
+        try
+        {
+            this._builder.loadSnapshot(this._file);
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            Assert.assertTrue(e.getMessage().startsWith("Error: "));
+        }
+    }
+
+    @Test
+    public void testCorruptSnapshot() throws IOException
+    {
+        this._builder.build().writeSnapshot(this._file);
+
+        final byte[] bytes = Files.readAllBytes(this._file);
+        bytes[bytes.length / 2] ^= 0x55;
+        Files.write(this._file, bytes);
+
+        try
+        {
+            CmdLineParser.builder().loadSnapshot(this._file);
+            Assert.fail();
+        }
+        catch (final SnapshotException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("checksum"));
+        }
+    }
+
+    @Test
+    public void testWrongVersion() throws IOException
+    {
+        this._builder.build().writeSnapshot(this._file);
+
+        final byte[] bytes = Files.readAllBytes(this._file);
+        bytes[7] = (byte) (RegistrySnapshot.FORMAT_VERSION + 1);
+        Files.write(this._file, bytes);
+
+        try
+        {
+            CmdLineParser.builder().loadSnapshot(this._file);
+            Assert.fail();
+        }
+        catch (final SnapshotException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("format version"));
+        }
+    }
+
+    @Test
+    public void testNotSnapshot() throws IOException
+    {
+        Files.write(this._file, "-v --verbose".getBytes("UTF-8"));
+
+        try
+        {
+            CmdLineParser.builder().loadSnapshot(this._file);
+            Assert.fail();
+        }
+        catch (final SnapshotException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("not a command snapshot"));
+        }
+    }
+
+    @Test
+    public void testMissingType() throws IOException
+    {
+        CmdLineParser.builder().defineType("color", ValueConverters.forEnum(Thread.State.class))
+                .defineCommand("--state, !state<color>").build().writeSnapshot(this._file);
+
+        final CmdLineParser.Builder builder = CmdLineParser.builder().loadSnapshot(this._file);
+        try
+        {
+            builder.build();
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            Assert.assertTrue(e.getMessage().contains("color"));
+        }
+
+        builder.defineType("color", ValueConverters.forEnum(Thread.State.class));
+        final List<Command> commands = builder.build().parse(new String[]
+            { "--state", "NEW" });
+        Assert.assertEquals(Thread.State.NEW, commands.get(0).getValueAs("state", Thread.State.class));
+    }
+
+    @Test
+    public void testCmdLine() throws IOException
+    {
+        CmdLine.defineCommand("-v, --verbose").defineCommand("--count, !count<int>");
+        CmdLine.writeSnapshot(this._file);
+        CmdLine.clear();
+
+        CmdLine.loadSnapshot(this._file);
+        final List<Command> commands = CmdLine.parse(new String[]
+            { "--count", "5", "-v" });
+        Assert.assertEquals(5, commands.get(0).getInt("count"));
+        Assert.assertEquals("-v", commands.get(1).getName());
+    }
+}
@@ -0,0 +1,139 @@
+/*****************************************************************************************
+ *
+ * Copyright 2016 Gregory Brown. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *****************************************************************************************
+ */
+
+package com.gabstudios.cmdline;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ *
+ *
+ * @author Gregory Brown (sysdevone)
+ *
+ */
+public class SuggestionCacheTest
+{
+
+    CmdLineParser.Builder _builder;
+
+    @Before
+    public void setUp()
+    {
+        this._builder = CmdLineParser.builder().defineCommand("--verbose").defineCommand("--quiet")
+                .defineCommand("--install");
+    }
+
+    @After
+    public void tearDown()
+    {
+        this._builder = null;
+        CmdLine.clear();
+    }
+
+    @Test
+    public void testHitAndMiss()
+    {
+        final CmdLineParser parser = this._builder.build();
+
+        final List<String> first = ParseFixtures.suggest(parser, "--verbsoe");
+        final List<String> second = ParseFixtures.suggest(parser, "--verbsoe");
+        ParseFixtures.suggest(parser, "--quite");
+
+        Assert.assertEquals("--verbose", first.get(0));
+        Assert.assertEquals(first, second);
+
+        final SuggestionCacheStats stats = parser.getSuggestionCacheStats();
+        Assert.assertEquals(1, stats.getHitCount());
+        Assert.assertEquals(2, stats.getMissCount());
+        Assert.assertEquals(2, stats.getSize());
+        Assert.assertEquals(256, stats.getCapacity());
+
+        // each exception returns a List of its own, so the cached List is not
+        // changed.
+        first.add("--other");
+        Collections.sort(second);
+        Assert.assertEquals(second.size(), ParseFixtures.suggest(parser, "--verbsoe").size());
+        Assert.assertEquals("--verbose", ParseFixtures.suggest(parser, "--verbsoe").get(0));
+    }
+
+    @Test
+    public void testLeastRecentlyUsed()
+    {
+        final CmdLineParser parser = this._builder.setSuggestionCacheSize(2).build();
+
+        ParseFixtures.suggest(parser, "--verbsoe");
+        ParseFixtures.suggest(parser, "--quite");
+        ParseFixtures.suggest(parser, "--verbsoe");
+        ParseFixtures.suggest(parser, "--instal");
+
+        // --quite was the least recently used, so it was dropped.
+        Assert.assertEquals(2, parser.getSuggestionCacheStats().getSize());
+        ParseFixtures.suggest(parser, "--verbsoe");
+        Assert.assertEquals(2, parser.getSuggestionCacheStats().getHitCount());
+        ParseFixtures.suggest(parser, "--quite");
+        Assert.assertEquals(4, parser.getSuggestionCacheStats().getMissCount());
+    }
+
+    @Test
+    public void testCacheOff()
+    {
+        final CmdLineParser parser = this._builder.setSuggestionCacheSize(0).build();
+
+        Assert.assertEquals("--verbose", ParseFixtures.suggest(parser, "--verbsoe").get(0));
+        Assert.assertEquals(0, parser.getSuggestionCacheStats().getMissCount());
+        Assert.assertEquals(0, parser.getSuggestionCacheStats().getCapacity());
+    }
+
+    @Test
+    public void testDefineCommandInvalidates()
+    {
+        CmdLine.defineCommand("--verbose");
+        try
+        {
+            CmdLine.parse(new String[]
+                { "--quite" });
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            Assert.assertTrue(e.getSuggestionList().isEmpty());
+        }
+        Assert.assertEquals(1, CmdLine.getSuggestionCacheStats().getSize());
+
+        CmdLine.defineCommand("--quiet");
+        Assert.assertEquals(0, CmdLine.getSuggestionCacheStats().getSize());
+        try
+        {
+            CmdLine.parse(new String[]
+                { "--quite" });
+            Assert.fail();
+        }
+        catch (final UnsupportedException e)
+        {
+            Assert.assertEquals("--quiet", e.getSuggestionList().get(0));
+        }
+    }
+}